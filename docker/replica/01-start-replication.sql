@@ -0,0 +1,9 @@
+-- the replica keeps reconnecting until the primary is up
+CHANGE MASTER TO
+    MASTER_HOST = 'primary',
+    MASTER_PORT = 3306,
+    MASTER_USER = 'repl',
+    MASTER_PASSWORD = 'repl',
+    MASTER_AUTO_POSITION = 1,
+    MASTER_CONNECT_RETRY = 5;
+START SLAVE;
@@ -37,6 +37,8 @@ CREATE TABLE forums(
   name       VARCHAR(256) NOT NULL,
   readonly   BOOLEAN      NOT NULL,
   created_at TIMESTAMP    DEFAULT NOW(),
+  change_seq BIGINT       NOT NULL DEFAULT 0,
+  deleted    BOOLEAN      NOT NULL DEFAULT FALSE,
 
   UNIQUE  KEY name(name),
   FOREIGN KEY (owner_id) REFERENCES users(id) ON DELETE CASCADE
@@ -48,9 +50,12 @@ CREATE TABLE messages_tree(
   subject      VARCHAR(256) NOT NULL,
   priority     ENUM('LOW', 'NORMAL', 'HIGH'),
   created_at   TIMESTAMP DEFAULT NOW(),
+  deleted      BOOLEAN   NOT NULL DEFAULT FALSE,
 
   KEY priority(priority),
   KEY subject(subject),
+  KEY forum_listing(forum_id, priority, created_at, id),
+  KEY forum_listing_asc(forum_id, priority DESC, created_at, id),
   FOREIGN KEY (forum_id) REFERENCES forums(id) ON DELETE CASCADE
 ) ENGINE = INNODB DEFAULT CHARSET = utf8;
 
@@ -61,18 +66,26 @@ CREATE TABLE messages(
   parent_message INT       NULL,
   created_at     TIMESTAMP DEFAULT NOW(),
   updated_at     TIMESTAMP DEFAULT NOW(),
+  rating_sum     INT       NOT NULL DEFAULT 0,
+  rating_count   INT       NOT NULL DEFAULT 0,
   
+  KEY parent_created(parent_message, created_at),
   FOREIGN KEY (owner_id)       REFERENCES users(id)         ON DELETE CASCADE,
   FOREIGN KEY (tree_id)        REFERENCES messages_tree(id) ON DELETE CASCADE,
   FOREIGN KEY (parent_message) REFERENCES messages(id)      ON DELETE CASCADE
 ) ENGINE = INNODB DEFAULT CHARSET = utf8;
 
+-- a version with prefix_length is a delta against the previous version of the message:
+-- the first prefix_length and the last suffix_length characters of the previous body with body between them,
+-- a version without it is a full snapshot, as the first version of every message is
 CREATE TABLE message_history(
-  id         INT           PRIMARY KEY AUTO_INCREMENT,
-  message_id INT           NOT NULL,
-  body       VARCHAR(4096) NOT NULL,
-  state      ENUM('UNPUBLISHED', 'PUBLISHED'),
-  created_at TIMESTAMP     DEFAULT NOW(),
+  id            INT           PRIMARY KEY AUTO_INCREMENT,
+  message_id    INT           NOT NULL,
+  body          VARCHAR(4096) NOT NULL,
+  prefix_length INT           NULL,
+  suffix_length INT           NULL,
+  state         ENUM('UNPUBLISHED', 'PUBLISHED'),
+  created_at    TIMESTAMP     DEFAULT NOW(),
   
   FOREIGN KEY (message_id) REFERENCES messages(id) ON DELETE CASCADE
 ) ENGINE = INNODB DEFAULT CHARSET = utf8;
@@ -98,10 +111,61 @@ CREATE TABLE message_tags(
   tag_id  INT NOT NULL,
   tree_id INT NOT NULL,
 
+  PRIMARY KEY (tree_id, tag_id),
+  KEY tag_trees (tag_id, tree_id),
   FOREIGN KEY (tag_id)  REFERENCES available_tags(id) ON DELETE CASCADE,
   FOREIGN KEY (tree_id) REFERENCES messages_tree(id)  ON DELETE CASCADE
 ) ENGINE = INNODB DEFAULT CHARSET = utf8;
 
+CREATE TABLE forum_changes(
+  forum_id       INT       NOT NULL,
+  seq            BIGINT    NOT NULL,
+  message_id     INT       NOT NULL,
+  parent_message INT       NULL,
+  change_type    ENUM('CREATED', 'EDITED', 'PUBLISHED', 'DELETED', 'RATED', 'PRIORITY_CHANGED', 'BRANCHED'),
+  created_at     TIMESTAMP DEFAULT NOW(),
+
+  PRIMARY KEY (forum_id, seq),
+  FOREIGN KEY (forum_id) REFERENCES forums(id) ON DELETE CASCADE
+) ENGINE = INNODB DEFAULT CHARSET = utf8;
+
+CREATE TABLE forum_stats(
+  forum_id           INT NOT NULL PRIMARY KEY,
+  published_messages INT NOT NULL DEFAULT 0,
+  published_comments INT NOT NULL DEFAULT 0,
+  pending_messages   INT NOT NULL DEFAULT 0,
+
+  FOREIGN KEY (forum_id) REFERENCES forums(id) ON DELETE CASCADE
+) ENGINE = INNODB DEFAULT CHARSET = utf8;
+
+-- forum_id 0 holds server-wide activity such as registrations,
+-- buckets of deleted forums are kept as history
+CREATE TABLE activity_buckets(
+  forum_id     INT      NOT NULL,
+  granularity  ENUM('HOUR', 'DAY', 'MONTH') NOT NULL,
+  bucket_start DATETIME NOT NULL,
+  messages     INT      NOT NULL DEFAULT 0,
+  comments     INT      NOT NULL DEFAULT 0,
+  ratings      INT      NOT NULL DEFAULT 0,
+  new_users    INT      NOT NULL DEFAULT 0,
+
+  PRIMARY KEY (forum_id, granularity, bucket_start),
+  KEY granularity_start (granularity, bucket_start)
+) ENGINE = INNODB DEFAULT CHARSET = utf8;
+
+-- deleted forums and trees waiting to be removed in batches by the purge job
+CREATE TABLE purges(
+  id           INT       PRIMARY KEY AUTO_INCREMENT,
+  target_type  ENUM('FORUM', 'TREE') NOT NULL,
+  target_id    INT       NOT NULL,
+  requested_at TIMESTAMP DEFAULT NOW(),
+  rows_purged  BIGINT    NOT NULL DEFAULT 0,
+  finished_at  DATETIME  NULL,
+
+  KEY target(target_type, target_id),
+  KEY finished_at(finished_at)
+) ENGINE = INNODB DEFAULT CHARSET = utf8;
+
 INSERT INTO users 
  (role, username, email, password, deleted, banned_until, ban_count) 
 VALUES('SUPERUSER', 'admin', 'admin@example.com', 'admin_strong_pass', FALSE, NULL, 0);
@@ -0,0 +1,101 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.view.UserBanView;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ends of temporary bans ordered by time, so every ban can be lifted at the second it ends
+ * instead of by a periodic sweep over users table.
+ * <p>
+ * Loaded from database at startup and then fed by DAOs after a ban is committed.
+ * Entries are not removed when a user is unbanned or banned again before the entry is due:
+ * unbanning clears only bans that have really ended, so a stale entry changes nothing.
+ */
+@Component
+public class BanExpiryQueue {
+    private final DelayQueue<Expiry> queue = new DelayQueue<>();
+    private final Clock clock;
+
+    public BanExpiryQueue() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public BanExpiryQueue(final Clock clock) {
+        this.clock = clock;
+    }
+
+    private final class Expiry implements Delayed {
+        private final UserBanView ban;
+        private final long dueAtMillis;
+
+        Expiry(final UserBanView ban) {
+            this.ban = ban;
+            this.dueAtMillis = ban.getBannedUntil().atZone(clock.getZone()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(dueAtMillis - clock.millis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            return Long.compare(dueAtMillis, ((Expiry) other).dueAtMillis);
+        }
+    }
+
+    public void schedule(final int userId, final LocalDateTime bannedUntil) {
+        queue.add(new Expiry(new UserBanView(userId, bannedUntil)));
+    }
+
+    public void scheduleAll(final List<UserBanView> bans) {
+        for (final UserBanView ban : bans) {
+            queue.add(new Expiry(ban));
+        }
+    }
+
+    /**
+     * Waits until at least one ban ends.
+     *
+     * @return ended bans, no more than {@code maxCount} of them
+     */
+    public List<UserBanView> takeEnded(final int maxCount) throws InterruptedException {
+        final List<UserBanView> ended = new ArrayList<>();
+        ended.add(queue.take().ban);
+        drainEnded(ended, maxCount);
+        return ended;
+    }
+
+    /**
+     * @return bans that already ended, no more than {@code maxCount} of them
+     */
+    public List<UserBanView> pollEnded(final int maxCount) {
+        final List<UserBanView> ended = new ArrayList<>();
+        drainEnded(ended, maxCount);
+        return ended;
+    }
+
+    private void drainEnded(final List<UserBanView> ended, final int maxCount) {
+        Expiry expiry;
+        while (ended.size() < maxCount && (expiry = queue.poll()) != null) {
+            ended.add(expiry.ban);
+        }
+    }
+
+    public void clear() {
+        queue.clear();
+    }
+
+    public int size() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,52 @@
+package net.thumbtack.forums.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CacheCounters {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public void hit() {
+        hits.incrementAndGet();
+    }
+
+    public void miss() {
+        misses.incrementAndGet();
+    }
+
+    public void evicted() {
+        evictions.incrementAndGet();
+    }
+
+    public void invalidated() {
+        invalidations.incrementAndGet();
+    }
+
+    public void invalidated(long count) {
+        invalidations.addAndGet(count);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public double getHitRatio() {
+        final long hitCount = hits.get();
+        final long total = hitCount + misses.get();
+        return total == 0 ? 0. : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,269 @@
+package net.thumbtack.forums.cache;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Second-level cache of a mapper namespace, enabled with {@code @CacheNamespace(implementation = MapperCache.class)}.
+ * Results are kept serialized, so every hit is a fresh copy callers are free to modify, and the serialized
+ * length is what the {@code maxBytes} budget of the namespace is spent on. Entries live no longer than
+ * {@code ttlSeconds} and are evicted least recently used first.
+ * <p>
+ * MyBatis clears the cache when a statement of its namespace writes. Results that embed rows written
+ * by other namespaces list them in {@code flushedBy}, and clearing one of those clears this cache too.
+ * A namespace with {@code maxBytes = 0} caches nothing, it is declared only to have its writes reach
+ * the caches flushed by it. Cached results must be serializable and must not hold lazy loading proxies.
+ * <p>
+ * MyBatis looks up a key when the query runs and puts the result at commit, both in the thread of the session.
+ * A result is not stored if the cache was cleared in between, as it may have been read before the write.
+ */
+public class MapperCache implements Cache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MapperCache.class);
+
+    private static final Map<String, Set<MapperCache>> INSTANCES = new ConcurrentHashMap<>();
+    private static final Map<String, CacheCounters> COUNTERS = new ConcurrentHashMap<>();
+
+    private final String id;
+    private final Clock clock;
+    private final CacheCounters counters;
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ThreadLocal<Map<Object, Long>> missGenerations = ThreadLocal.withInitial(HashMap::new);
+    private long generation;
+    private long totalBytes;
+
+    private volatile long maxBytes;
+    private volatile long ttlMillis;
+    private volatile Set<String> flushedBy = Collections.emptySet();
+
+    public MapperCache(final String id) {
+        this(id, Clock.systemDefaultZone());
+    }
+
+    public MapperCache(final String id, final Clock clock) {
+        this.id = id;
+        this.clock = clock;
+        counters = COUNTERS.computeIfAbsent(id, namespace -> new CacheCounters());
+        INSTANCES.computeIfAbsent(id, namespace -> Collections.synchronizedSet(
+                Collections.newSetFromMap(new WeakHashMap<>())
+        )).add(this);
+    }
+
+    private static class Entry {
+        private final byte[] value;
+        private final long expiresAt;
+
+        Entry(byte[] value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public void setMaxBytes(final long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public void setTtlSeconds(final long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * @param flushedBy comma separated namespaces whose writes may change results of this namespace
+     */
+    public void setFlushedBy(final String flushedBy) {
+        final Set<String> namespaces = new HashSet<>();
+        for (final String namespace : flushedBy.split(",")) {
+            if (!namespace.trim().isEmpty()) {
+                namespaces.add(namespace.trim());
+            }
+        }
+        this.flushedBy = Collections.unmodifiableSet(namespaces);
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0 && ttlMillis > 0;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public Object getObject(final Object key) {
+        if (!isEnabled()) {
+            return null;
+        }
+        final byte[] value;
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt <= clock.millis()) {
+                removeEntry(key);
+                counters.evicted();
+            } else if (entry != null) {
+                counters.hit();
+                return deserialize(entry.value);
+            }
+            counters.miss();
+            missGenerations.get().putIfAbsent(key, generation);
+            return null;
+        }
+    }
+
+    @Override
+    public void putObject(final Object key, final Object value) {
+        final Long missGeneration = missGenerations.get().remove(key);
+        // MyBatis puts null to release keys that were missed and not loaded
+        if (!isEnabled() || missGeneration == null || value == null) {
+            return;
+        }
+        final byte[] serialized = serialize(value);
+        if (serialized == null || serialized.length > maxBytes) {
+            return;
+        }
+        synchronized (this) {
+            if (missGeneration != generation) {
+                return;
+            }
+            removeEntry(key);
+            while (totalBytes + serialized.length > maxBytes && !entries.isEmpty()) {
+                removeEntry(entries.keySet().iterator().next());
+                counters.evicted();
+            }
+            entries.put(key, new Entry(serialized, clock.millis() + ttlMillis));
+            totalBytes += serialized.length;
+        }
+    }
+
+    /**
+     * MyBatis calls it on rollback for keys that were missed, the entry itself is left alone.
+     */
+    @Override
+    public Object removeObject(final Object key) {
+        missGenerations.get().remove(key);
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        clearNamespace(id, new HashSet<>());
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+        return null;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void removeEntry(final Object key) {
+        final Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.value.length;
+        }
+    }
+
+    private synchronized void clearEntries() {
+        generation++;
+        counters.invalidated(entries.size());
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    /**
+     * Clears caches of the namespace in every configuration, the read replica has one of its own,
+     * and then the caches flushed by the namespace.
+     */
+    private static void clearNamespace(final String namespace, final Set<String> cleared) {
+        if (!cleared.add(namespace)) {
+            return;
+        }
+        for (final MapperCache cache : instancesOf(namespace)) {
+            cache.clearEntries();
+        }
+        for (final String dependent : INSTANCES.keySet()) {
+            for (final MapperCache cache : instancesOf(dependent)) {
+                if (cache.flushedBy.contains(namespace)) {
+                    LOGGER.debug("Cache {} is cleared with {}", dependent, namespace);
+                    clearNamespace(dependent, cleared);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static List<MapperCache> instancesOf(final String namespace) {
+        final Set<MapperCache> instances = INSTANCES.get(namespace);
+        if (instances == null) {
+            return Collections.emptyList();
+        }
+        synchronized (instances) {
+            return new ArrayList<>(instances);
+        }
+    }
+
+    /**
+     * @return namespaces that cache results, in alphabetical order
+     */
+    public static List<String> getNamespaces() {
+        final List<String> namespaces = new ArrayList<>();
+        for (final String namespace : INSTANCES.keySet()) {
+            if (instancesOf(namespace).stream().anyMatch(MapperCache::isEnabled)) {
+                namespaces.add(namespace);
+            }
+        }
+        Collections.sort(namespaces);
+        return namespaces;
+    }
+
+    /**
+     * @return number of entries of the namespace in all configurations
+     */
+    public static int size(final String namespace) {
+        return instancesOf(namespace).stream().mapToInt(MapperCache::getSize).sum();
+    }
+
+    public static CacheCounters getCounters(final String namespace) {
+        return COUNTERS.computeIfAbsent(namespace, key -> new CacheCounters());
+    }
+
+    private byte[] serialize(final Object value) {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            LOGGER.warn("Result of {} can't be serialized and is not cached", id, ex);
+            return null;
+        }
+    }
+
+    private Object deserialize(final byte[] value) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(value)) {
+            @Override
+            protected Class<?> resolveClass(final ObjectStreamClass desc) throws ClassNotFoundException {
+                return Resources.classForName(desc.getName());
+            }
+        }) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException ex) {
+            throw new CacheException("Error deserializing cached result of " + id, ex);
+        }
+    }
+}
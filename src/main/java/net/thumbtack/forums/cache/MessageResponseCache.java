@@ -0,0 +1,201 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.model.enums.MessageOrder;
+import net.thumbtack.forums.configuration.CacheProperties;
+import net.thumbtack.forums.dto.responses.message.CommentInfoDtoResponse;
+import net.thumbtack.forums.dto.responses.message.MessageInfoDtoResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.*;
+
+/**
+ * Rendered responses of {@code GET /api/messages/{id}}, at most {@code maxSize} trees in LRU order.
+ * Every entry remembers IDs of all messages it shows, so write paths invalidate exactly the trees
+ * where they touched a message, its parent or the root itself.
+ * <p>
+ * Cached responses never depend on requester: unpublished view is shared by everyone who may see it
+ * and published view is rendered for nobody's own drafts. Users that own unpublished versions in the tree
+ * are remembered per entry and bypass the cache, because they must see their drafts.
+ */
+@Component
+public class MessageResponseCache {
+    private final int maxSize;
+
+    private final LinkedHashMap<Integer, Map<Key, Entry>> rootToViews = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, Set<Integer>> messageToRoots = new HashMap<>();
+    private final CacheCounters counters = new CacheCounters();
+    private long epoch;
+
+    @Autowired
+    public MessageResponseCache(final CacheProperties properties) {
+        this(properties.getMessageResponsesMaxSize());
+    }
+
+    public MessageResponseCache(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public static class Key {
+        private final int rootMessageId;
+        private final boolean allVersions;
+        private final boolean noComments;
+        private final MessageOrder order;
+        private final boolean unpublished;
+        private final int commentsLimit;
+        private final int maxDepth;
+
+        public Key(final int rootMessageId, final boolean allVersions, final boolean noComments,
+                   final MessageOrder order, final boolean unpublished,
+                   final int commentsLimit, final int maxDepth) {
+            this.rootMessageId = rootMessageId;
+            this.allVersions = allVersions;
+            this.noComments = noComments;
+            this.order = order;
+            this.unpublished = unpublished;
+            this.commentsLimit = commentsLimit;
+            this.maxDepth = maxDepth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return rootMessageId == key.rootMessageId &&
+                    allVersions == key.allVersions &&
+                    noComments == key.noComments &&
+                    unpublished == key.unpublished &&
+                    commentsLimit == key.commentsLimit &&
+                    maxDepth == key.maxDepth &&
+                    order == key.order;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rootMessageId, allVersions, noComments, order, unpublished, commentsLimit, maxDepth);
+        }
+    }
+
+    private static class Entry {
+        private final MessageInfoDtoResponse response;
+        private final Set<Integer> unpublishedOwners;
+        private final Set<Integer> messageIds;
+
+        Entry(MessageInfoDtoResponse response, Set<Integer> unpublishedOwners, Set<Integer> messageIds) {
+            this.response = response;
+            this.unpublishedOwners = unpublishedOwners;
+            this.messageIds = messageIds;
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * @return cached response or null if it is not cached or requester must see own unpublished messages
+     */
+    public synchronized MessageInfoDtoResponse get(final Key key, final int requesterId) {
+        if (!isEnabled()) {
+            return null;
+        }
+        final Map<Key, Entry> views = rootToViews.get(key.rootMessageId);
+        final Entry entry = views == null ? null : views.get(key);
+        if (entry == null || !key.unpublished && entry.unpublishedOwners.contains(requesterId)) {
+            counters.miss();
+            return null;
+        }
+        counters.hit();
+        return entry.response;
+    }
+
+    /**
+     * Loader must take epoch before reading tree from database, so a response
+     * rendered from data that was changed during the read would not be cached.
+     */
+    public synchronized long currentEpoch() {
+        return epoch;
+    }
+
+    public synchronized void put(final Key key, final MessageInfoDtoResponse response,
+                                 final Collection<Integer> unpublishedOwners, final long loadEpoch) {
+        if (!isEnabled() || loadEpoch != epoch) {
+            return;
+        }
+        final Set<Integer> messageIds = new HashSet<>();
+        messageIds.add(response.getId());
+        final Deque<CommentInfoDtoResponse> comments = new ArrayDeque<>(response.getComments());
+        while (!comments.isEmpty()) {
+            final CommentInfoDtoResponse comment = comments.pop();
+            messageIds.add(comment.getId());
+            comments.addAll(comment.getComments());
+        }
+
+        rootToViews.computeIfAbsent(key.rootMessageId, id -> new HashMap<>())
+                .put(key, new Entry(response, new HashSet<>(unpublishedOwners), messageIds));
+        for (final Integer messageId : messageIds) {
+            messageToRoots.computeIfAbsent(messageId, id -> new HashSet<>()).add(key.rootMessageId);
+        }
+
+        while (rootToViews.size() > maxSize) {
+            final Iterator<Map.Entry<Integer, Map<Key, Entry>>> eldest = rootToViews.entrySet().iterator();
+            final Map.Entry<Integer, Map<Key, Entry>> evicted = eldest.next();
+            eldest.remove();
+            unlink(evicted.getKey(), evicted.getValue());
+            counters.evicted();
+        }
+    }
+
+    /**
+     * Drops every cached tree that shows at least one of given messages or is rooted at one of them.
+     */
+    public synchronized void invalidateMessages(final Integer... messageIds) {
+        epoch++;
+        for (final Integer messageId : messageIds) {
+            if (messageId == null) {
+                continue;
+            }
+            final Set<Integer> roots = messageToRoots.get(messageId);
+            final List<Integer> rootIds = roots == null ? new ArrayList<>() : new ArrayList<>(roots);
+            rootIds.add(messageId);
+            for (final Integer rootId : rootIds) {
+                final Map<Key, Entry> views = rootToViews.remove(rootId);
+                if (views != null) {
+                    unlink(rootId, views);
+                    counters.invalidated();
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        epoch++;
+        counters.invalidated(rootToViews.size());
+        rootToViews.clear();
+        messageToRoots.clear();
+    }
+
+    private void unlink(final int rootId, final Map<Key, Entry> views) {
+        for (final Entry entry : views.values()) {
+            for (final Integer messageId : entry.messageIds) {
+                final Set<Integer> roots = messageToRoots.get(messageId);
+                if (roots != null) {
+                    roots.remove(rootId);
+                    if (roots.isEmpty()) {
+                        messageToRoots.remove(messageId);
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return rootToViews.size();
+    }
+
+    public CacheCounters getCounters() {
+        return counters;
+    }
+}
@@ -0,0 +1,299 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.view.RatedMessageView;
+import net.thumbtack.forums.view.MessageRatingView;
+import net.thumbtack.forums.view.UserNameView;
+import net.thumbtack.forums.view.UserRatingView;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Rankings of messages and users by average rating for the whole server and for every forum,
+ * in the order of statistics requests: average rating descending, then ID ascending.
+ * <p>
+ * Loaded from database at startup or on first use after {@link #invalidate()}, and then kept up to date
+ * by DAOs after commits: rating deltas, new, branched and deleted messages, new users.
+ * A page is read by walking a sorted set, so it costs O(offset + limit) instead of grouping
+ * and sorting all messages in database. Loading is published only if no change happened
+ * since {@link #currentEpoch()} was read and no rating transaction is in flight, because rating deltas
+ * are not idempotent and must not be applied on top of a snapshot that already contains them.
+ */
+@Component
+public class RatingLeaderboard {
+    private static final Comparator<Score> ORDER = Comparator
+            .comparingDouble(Score::getAverage).reversed()
+            .thenComparingInt(Score::getId);
+
+    private final Map<Integer, MessageInfo> messages = new HashMap<>();
+    private final Map<Integer, String> usernames = new HashMap<>();
+    private final Ranking global = new Ranking();
+    private final Map<Integer, Ranking> forums = new HashMap<>();
+    private boolean loaded;
+    private long epoch;
+    private int pendingRatingUpdates;
+
+    private static final class Score {
+        private final int id;
+        private final long sum;
+        private final long count;
+        private final double average;
+
+        Score(final int id, final long sum, final long count) {
+            this.id = id;
+            this.sum = sum;
+            this.count = count;
+            // same rounding as division of integers in MySQL, so the order matches database
+            this.average = count == 0 ? 0 : Math.round(sum * 10000.0 / count) / 10000.0;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        double getAverage() {
+            return average;
+        }
+    }
+
+    private static final class MessageInfo {
+        private final int forumId;
+        private final int ownerId;
+        private boolean root;
+        private Score score;
+
+        MessageInfo(final int forumId, final int ownerId, final boolean root, final Score score) {
+            this.forumId = forumId;
+            this.ownerId = ownerId;
+            this.root = root;
+            this.score = score;
+        }
+    }
+
+    private static final class Ranking {
+        private final TreeSet<Score> messageRanking = new TreeSet<>(ORDER);
+        private final Map<Integer, Score> users = new HashMap<>();
+        private final TreeSet<Score> userRanking = new TreeSet<>(ORDER);
+        // number of messages of every user, a user leaves forum ranking with the last one
+        private final Map<Integer, Integer> userMessages = new HashMap<>();
+
+        void addToUser(final int userId, final long sumDelta, final long countDelta) {
+            final Score old = users.get(userId);
+            final Score updated = old == null
+                    ? new Score(userId, sumDelta, countDelta)
+                    : new Score(userId, old.sum + sumDelta, old.count + countDelta);
+            if (old != null) {
+                userRanking.remove(old);
+            }
+            users.put(userId, updated);
+            userRanking.add(updated);
+        }
+
+        void removeUser(final int userId) {
+            final Score old = users.remove(userId);
+            if (old != null) {
+                userRanking.remove(old);
+            }
+            userMessages.remove(userId);
+        }
+    }
+
+    public synchronized long currentEpoch() {
+        return epoch;
+    }
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized void load(final List<RatedMessageView> ratedMessages, final List<UserNameView> users,
+                                  final long loadEpoch) {
+        if (loadEpoch != epoch || pendingRatingUpdates > 0) {
+            return;
+        }
+        reset();
+        for (final UserNameView user : users) {
+            addUserEntry(user.getUserId(), user.getUsername());
+        }
+        for (final RatedMessageView message : ratedMessages) {
+            addMessageEntry(
+                    message.getMessageId(), message.getForumId(), message.getOwnerId(), message.isMessage(),
+                    message.getRatingSum(), message.getRatingCount()
+            );
+        }
+        loaded = true;
+    }
+
+    public synchronized void invalidate() {
+        epoch++;
+        reset();
+        loaded = false;
+    }
+
+    public synchronized void addUser(final int userId, final String username) {
+        epoch++;
+        if (loaded) {
+            addUserEntry(userId, username);
+        }
+    }
+
+    public synchronized void addMessage(final int messageId, final int forumId,
+                                        final int ownerId, final boolean isMessage) {
+        epoch++;
+        if (loaded && !messages.containsKey(messageId)) {
+            addMessageEntry(messageId, forumId, ownerId, isMessage, 0, 0);
+        }
+    }
+
+    public synchronized void makeRoot(final int messageId) {
+        epoch++;
+        final MessageInfo info = messages.get(messageId);
+        if (info != null) {
+            info.root = true;
+        }
+    }
+
+    /**
+     * Must be called before a transaction that changes ratings and paired with {@link #endRatingUpdate()}
+     * after its delta was applied or the transaction failed.
+     */
+    public synchronized void beginRatingUpdate() {
+        epoch++;
+        pendingRatingUpdates++;
+    }
+
+    public synchronized void endRatingUpdate() {
+        pendingRatingUpdates--;
+    }
+
+    public synchronized void addRating(final int messageId, final int sumDelta, final int countDelta) {
+        epoch++;
+        final MessageInfo info = messages.get(messageId);
+        if (info == null) {
+            return;
+        }
+        final Ranking forum = forums.get(info.forumId);
+        global.messageRanking.remove(info.score);
+        forum.messageRanking.remove(info.score);
+        info.score = new Score(messageId, info.score.sum + sumDelta, info.score.count + countDelta);
+        global.messageRanking.add(info.score);
+        forum.messageRanking.add(info.score);
+
+        global.addToUser(info.ownerId, sumDelta, countDelta);
+        forum.addToUser(info.ownerId, sumDelta, countDelta);
+    }
+
+    public synchronized void removeMessages(final Collection<Integer> messageIds) {
+        epoch++;
+        for (final Integer messageId : messageIds) {
+            final MessageInfo info = messages.remove(messageId);
+            if (info == null) {
+                continue;
+            }
+            final Ranking forum = forums.get(info.forumId);
+            global.messageRanking.remove(info.score);
+            forum.messageRanking.remove(info.score);
+
+            global.addToUser(info.ownerId, -info.score.sum, -info.score.count);
+            final int left = forum.userMessages.merge(info.ownerId, -1, Integer::sum);
+            if (left <= 0) {
+                forum.removeUser(info.ownerId);
+            } else {
+                forum.addToUser(info.ownerId, -info.score.sum, -info.score.count);
+            }
+        }
+    }
+
+    public synchronized void removeForum(final int forumId) {
+        epoch++;
+        final Ranking forum = forums.remove(forumId);
+        if (forum == null) {
+            return;
+        }
+        for (final Score score : forum.messageRanking) {
+            final MessageInfo info = messages.remove(score.id);
+            global.messageRanking.remove(score);
+            global.addToUser(info.ownerId, -score.sum, -score.count);
+        }
+    }
+
+    /**
+     * @param forumId forum of the ranking or null for the whole server
+     */
+    public synchronized List<MessageRatingView> getMessagesRatings(
+            final Integer forumId, final int offset, final int limit) {
+        final List<MessageRatingView> page = new ArrayList<>();
+        for (final Score score : page(ranking(forumId).messageRanking, offset, limit)) {
+            page.add(new MessageRatingView(
+                    score.id, messages.get(score.id).root, score.average, (int) score.count
+            ));
+        }
+        return page;
+    }
+
+    /**
+     * @param forumId forum of the ranking or null for the whole server
+     */
+    public synchronized List<UserRatingView> getUsersRatings(
+            final Integer forumId, final int offset, final int limit) {
+        final List<UserRatingView> page = new ArrayList<>();
+        for (final Score score : page(ranking(forumId).userRanking, offset, limit)) {
+            page.add(new UserRatingView(score.id, usernames.get(score.id), score.average, (int) score.count));
+        }
+        return page;
+    }
+
+    public synchronized int size() {
+        return messages.size();
+    }
+
+    private Ranking ranking(final Integer forumId) {
+        if (forumId == null) {
+            return global;
+        }
+        return forums.getOrDefault(forumId, new Ranking());
+    }
+
+    private static List<Score> page(final TreeSet<Score> ranking, final int offset, final int limit) {
+        final List<Score> page = new ArrayList<>();
+        final Iterator<Score> iterator = ranking.iterator();
+        for (int skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    private void addUserEntry(final int userId, final String username) {
+        usernames.put(userId, username);
+        if (!global.users.containsKey(userId)) {
+            global.addToUser(userId, 0, 0);
+        }
+    }
+
+    private void addMessageEntry(final int messageId, final int forumId, final int ownerId,
+                                 final boolean isMessage, final int ratingSum, final int ratingCount) {
+        final Score score = new Score(messageId, ratingSum, ratingCount);
+        messages.put(messageId, new MessageInfo(forumId, ownerId, isMessage, score));
+        final Ranking forum = forums.computeIfAbsent(forumId, id -> new Ranking());
+        global.messageRanking.add(score);
+        forum.messageRanking.add(score);
+
+        global.addToUser(ownerId, ratingSum, ratingCount);
+        forum.addToUser(ownerId, ratingSum, ratingCount);
+        forum.userMessages.merge(ownerId, 1, Integer::sum);
+    }
+
+    private void reset() {
+        messages.clear();
+        usernames.clear();
+        forums.clear();
+        global.messageRanking.clear();
+        global.users.clear();
+        global.userRanking.clear();
+        global.userMessages.clear();
+    }
+}
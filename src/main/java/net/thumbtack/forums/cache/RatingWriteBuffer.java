@@ -0,0 +1,210 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.view.RatingVoteView;
+import net.thumbtack.forums.configuration.RatingsProperties;
+
+import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Clock;
+import java.util.*;
+
+/**
+ * Rating votes waiting to be written to database when ratings are written behind.
+ * <p>
+ * Votes are coalesced per message and user, the last vote wins, a {@code null} rating is a deleted rating.
+ * A batch is taken when ratings.flushBatchSize votes are waiting or when the oldest of them
+ * waited ratings.maxStalenessMs. No more than ratings.bufferCapacity votes wait at once: a vote
+ * which finds the buffer full waits for room up to the staleness limit and is refused after that,
+ * to be written by the caller. Votes for a message and user already waiting or being written
+ * are never refused, so a refused vote can not be overwritten later by an older one.
+ * <p>
+ * Votes are taken and written by a single flusher. After {@link #close()} new votes are refused
+ * and the flusher takes what is left until the buffer is empty.
+ */
+@Component
+public class RatingWriteBuffer {
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long maxStalenessMillis;
+    private final Clock clock;
+    private final LinkedHashMap<Long, Vote> waiting = new LinkedHashMap<>();
+    private final Set<Long> inFlight = new HashSet<>();
+    private boolean closed;
+    private boolean drained;
+
+    @Autowired
+    public RatingWriteBuffer(final RatingsProperties properties) {
+        this(properties.isWriteBehind(), properties.getBufferCapacity(), properties.getFlushBatchSize(),
+                properties.getMaxStalenessMs(), Clock.systemDefaultZone()
+        );
+    }
+
+    public RatingWriteBuffer(final boolean enabled, final int capacity, final int batchSize,
+                             final long maxStalenessMillis, final Clock clock) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.clock = clock;
+    }
+
+    private static class Vote {
+        private final int messageId;
+        private final int userId;
+        private final Integer rating;
+        private final int votes;
+        private final long queuedAtMillis;
+
+        Vote(final int messageId, final int userId, final Integer rating, final int votes,
+             final long queuedAtMillis) {
+            this.messageId = messageId;
+            this.userId = userId;
+            this.rating = rating;
+            this.votes = votes;
+            this.queuedAtMillis = queuedAtMillis;
+        }
+
+        RatingVoteView toView() {
+            return new RatingVoteView(messageId, userId, rating, votes);
+        }
+    }
+
+    private static long key(final int messageId, final int userId) {
+        return ((long) messageId << 32) | (userId & 0xFFFFFFFFL);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the vote, replacing a waiting vote of the user for the message.
+     *
+     * @param rating new rating, {@code null} to delete the rating
+     * @return {@code false} if the vote was refused and must be written by the caller
+     */
+    public synchronized boolean offer(final int messageId, final int userId, final Integer rating)
+            throws InterruptedException {
+        final long key = key(messageId, userId);
+        final long deadline = clock.millis() + maxStalenessMillis;
+        while (!drained && !waiting.containsKey(key) && !inFlight.contains(key)
+                && (closed || waiting.size() >= capacity)) {
+            final long timeout = deadline - clock.millis();
+            if (closed || timeout <= 0) {
+                return false;
+            }
+            wait(timeout);
+        }
+        if (drained) {
+            return false;
+        }
+
+        final Vote previous = waiting.get(key);
+        final int votes = rating == null ? 0 : 1;
+        if (previous == null) {
+            waiting.put(key, new Vote(messageId, userId, rating, votes, clock.millis()));
+            if (waiting.size() == 1 || waiting.size() == batchSize) {
+                notifyAll();
+            }
+        } else {
+            // the vote keeps its place and the time it was queued, so coalescing does not delay the write
+            waiting.put(key, new Vote(messageId, userId, rating, previous.votes + votes, previous.queuedAtMillis));
+        }
+        return true;
+    }
+
+    /**
+     * Waits until a batch is due and takes it. The taken votes stay in flight
+     * until {@link #flushed(List)} or {@link #restore(List)} is called for them.
+     *
+     * @return the oldest votes, no more than ratings.flushBatchSize of them,
+     * or an empty list if the buffer is closed and nothing is left in it
+     */
+    public synchronized List<RatingVoteView> takeBatch() throws InterruptedException {
+        while (!closed && waiting.size() < batchSize) {
+            if (waiting.isEmpty()) {
+                wait();
+                continue;
+            }
+            final long dueAtMillis = waiting.values().iterator().next().queuedAtMillis + maxStalenessMillis;
+            final long timeout = dueAtMillis - clock.millis();
+            if (timeout <= 0) {
+                break;
+            }
+            wait(timeout);
+        }
+        if (closed && waiting.isEmpty() && inFlight.isEmpty()) {
+            drained = true;
+            notifyAll();
+        }
+
+        final List<RatingVoteView> batch = new ArrayList<>();
+        final Iterator<Map.Entry<Long, Vote>> iterator = waiting.entrySet().iterator();
+        while (batch.size() < batchSize && iterator.hasNext()) {
+            final Map.Entry<Long, Vote> entry = iterator.next();
+            batch.add(entry.getValue().toView());
+            inFlight.add(entry.getKey());
+            iterator.remove();
+        }
+        if (!batch.isEmpty()) {
+            notifyAll();
+        }
+        return batch;
+    }
+
+    /**
+     * Releases votes which were written.
+     */
+    public synchronized void flushed(final List<RatingVoteView> batch) {
+        for (final RatingVoteView vote : batch) {
+            inFlight.remove(key(vote.getMessageId(), vote.getUserId()));
+        }
+        notifyAll();
+    }
+
+    /**
+     * Queues again votes which were not written. A vote queued while they were in flight is newer and wins,
+     * the returned votes are retried after the staleness limit.
+     */
+    public synchronized void restore(final List<RatingVoteView> batch) {
+        final long now = clock.millis();
+        for (final RatingVoteView vote : batch) {
+            final long key = key(vote.getMessageId(), vote.getUserId());
+            inFlight.remove(key);
+            final Vote newer = waiting.remove(key);
+            if (newer == null) {
+                waiting.put(key, new Vote(vote.getMessageId(), vote.getUserId(), vote.getRating(),
+                        vote.getVotes(), now
+                ));
+            } else {
+                waiting.put(key, new Vote(newer.messageId, newer.userId, newer.rating,
+                        newer.votes + vote.getVotes(), now
+                ));
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Refuses new votes and wakes the flusher to take the rest.
+     */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    public synchronized void clear() {
+        waiting.clear();
+        notifyAll();
+    }
+
+    public synchronized int size() {
+        return waiting.size();
+    }
+}
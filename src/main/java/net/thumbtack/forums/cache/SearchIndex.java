@@ -0,0 +1,577 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.model.enums.TagFilterMode;
+import net.thumbtack.forums.view.SearchHitView;
+import net.thumbtack.forums.view.SearchPageView;
+import net.thumbtack.forums.configuration.SearchProperties;
+
+import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index of published messages for full-text search, term to postings of message IDs
+ * with term frequencies, ranked by BM25.
+ * <p>
+ * A document is the latest published version of a message. The subject of a tree is a part of the document
+ * of its root message, with its terms counted search.subjectWeight times. Scores are computed
+ * at query time, because IDF and average document length change with every document. Trees carry
+ * their forum and tag names, so results are filtered without database.
+ * <p>
+ * The index is kept up to date by services after commits. Loading, from database or from the file
+ * saved at shutdown, builds new contents aside; changes made meanwhile are applied to the current contents
+ * and replayed on the loaded ones before they replace them. Every change puts or removes the whole state
+ * of a message or tree, so a change already seen by the load does no harm when replayed.
+ */
+@Component
+public class SearchIndex {
+    private static final int FILE_MAGIC = 0x46534958;
+    private static final int FILE_FORMAT = 1;
+    private static final int MAX_TERM_LENGTH = 64;
+    // best score first, equal scores newer message first
+    private static final Comparator<Map.Entry<Integer, Double>> BY_RANK =
+            Map.Entry.<Integer, Double>comparingByValue()
+                    .thenComparing(Map.Entry.comparingByKey())
+                    .reversed();
+
+    private final int subjectWeight;
+    private final double k1;
+    private final double b;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Contents contents = new Contents();
+    private Contents loading;
+    private List<Consumer<Contents>> changedWhileLoading;
+    private boolean loaded;
+
+    @Autowired
+    public SearchIndex(final SearchProperties properties) {
+        this(properties.getSubjectWeight(), properties.getK1(), properties.getB());
+    }
+
+    public SearchIndex(final int subjectWeight, final double k1, final double b) {
+        this.subjectWeight = subjectWeight;
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    private static class Tree {
+        private final int forumId;
+        private final int rootMessageId;
+        private final String subject;
+        private final Set<String> tags;
+        private final Map<String, Integer> subjectTerms;
+        private final int subjectLength;
+        private final Set<Integer> messageIds;
+
+        Tree(final int forumId, final int rootMessageId, final String subject, final Collection<String> tags,
+             final Set<Integer> messageIds) {
+            this.forumId = forumId;
+            this.rootMessageId = rootMessageId;
+            this.subject = subject;
+            this.tags = new HashSet<>();
+            tags.forEach(tag -> this.tags.add(tag.toLowerCase(Locale.ROOT)));
+            final List<String> terms = tokenize(subject);
+            this.subjectTerms = countTerms(terms);
+            this.subjectLength = terms.size();
+            this.messageIds = messageIds;
+        }
+    }
+
+    private static class Document {
+        private int treeId;
+        private final Map<String, Integer> bodyTerms;
+        private final int bodyLength;
+        // subject terms of the tree while the message is its root, kept to remove exactly what was posted
+        private Map<String, Integer> subjectTerms;
+        private int length;
+        private boolean posted;
+
+        Document(final int treeId, final Map<String, Integer> bodyTerms, final int bodyLength) {
+            this.treeId = treeId;
+            this.bodyTerms = bodyTerms;
+            this.bodyLength = bodyLength;
+        }
+    }
+
+    private class Contents {
+        private final Map<Integer, Tree> trees = new HashMap<>();
+        private final Map<Integer, Document> documents = new HashMap<>();
+        private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+        private long totalLength;
+
+        void putTree(final int treeId, final int forumId, final int rootMessageId, final String subject,
+                     final Collection<String> tags) {
+            final Tree previous = trees.get(treeId);
+            if (previous != null) {
+                unpost(previous.rootMessageId);
+            }
+            trees.put(treeId, new Tree(
+                    forumId, rootMessageId, subject, tags, previous == null ? new HashSet<>() : previous.messageIds
+            ));
+            if (previous != null && previous.rootMessageId != rootMessageId) {
+                post(previous.rootMessageId);
+            }
+            unpost(rootMessageId);
+            post(rootMessageId);
+        }
+
+        void putMessage(final int messageId, final int treeId, final String body) {
+            final List<String> terms = tokenize(body);
+            putDocument(messageId, new Document(treeId, countTerms(terms), terms.size()));
+        }
+
+        void putDocument(final int messageId, final Document document) {
+            removeMessage(messageId);
+            final Tree tree = trees.get(document.treeId);
+            // the tree was deleted, the message can not be found anymore
+            if (tree == null) {
+                return;
+            }
+            documents.put(messageId, document);
+            tree.messageIds.add(messageId);
+            post(messageId);
+        }
+
+        void moveMessage(final int messageId, final int treeId) {
+            final Document document = documents.get(messageId);
+            if (document == null) {
+                return;
+            }
+            removeMessage(messageId);
+            document.treeId = treeId;
+            putDocument(messageId, document);
+        }
+
+        void removeMessage(final int messageId) {
+            unpost(messageId);
+            final Document document = documents.remove(messageId);
+            if (document == null) {
+                return;
+            }
+            final Tree tree = trees.get(document.treeId);
+            if (tree != null) {
+                tree.messageIds.remove(messageId);
+            }
+        }
+
+        void removeTree(final int treeId) {
+            final Tree tree = trees.get(treeId);
+            if (tree == null) {
+                return;
+            }
+            for (final Integer messageId : new ArrayList<>(tree.messageIds)) {
+                removeMessage(messageId);
+            }
+            trees.remove(treeId);
+        }
+
+        void removeForum(final int forumId) {
+            final List<Integer> treeIds = new ArrayList<>();
+            trees.forEach((treeId, tree) -> {
+                if (tree.forumId == forumId) {
+                    treeIds.add(treeId);
+                }
+            });
+            treeIds.forEach(this::removeTree);
+        }
+
+        void clear() {
+            trees.clear();
+            documents.clear();
+            postings.clear();
+            totalLength = 0;
+        }
+
+        private void post(final int messageId) {
+            final Document document = documents.get(messageId);
+            if (document == null || document.posted) {
+                return;
+            }
+            final Tree tree = trees.get(document.treeId);
+            document.subjectTerms = tree.rootMessageId == messageId ? tree.subjectTerms : null;
+            document.length = document.bodyLength;
+            document.bodyTerms.forEach((term, frequency) -> addPosting(term, messageId, frequency));
+            if (document.subjectTerms != null) {
+                document.subjectTerms.forEach((term, frequency) ->
+                        addPosting(term, messageId, frequency * subjectWeight)
+                );
+                document.length += tree.subjectLength * subjectWeight;
+            }
+            totalLength += document.length;
+            document.posted = true;
+        }
+
+        private void unpost(final int messageId) {
+            final Document document = documents.get(messageId);
+            if (document == null || !document.posted) {
+                return;
+            }
+            document.bodyTerms.keySet().forEach(term -> removePosting(term, messageId));
+            if (document.subjectTerms != null) {
+                document.subjectTerms.keySet().forEach(term -> removePosting(term, messageId));
+            }
+            totalLength -= document.length;
+            document.subjectTerms = null;
+            document.length = 0;
+            document.posted = false;
+        }
+
+        private void addPosting(final String term, final int messageId, final int frequency) {
+            postings.computeIfAbsent(term, t -> new HashMap<>()).merge(messageId, frequency, Integer::sum);
+        }
+
+        private void removePosting(final String term, final int messageId) {
+            final Map<Integer, Integer> termPostings = postings.get(term);
+            if (termPostings == null) {
+                return;
+            }
+            termPostings.remove(messageId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Lower case runs of letters and digits, terms longer than {@value #MAX_TERM_LENGTH} characters are cut.
+     */
+    static List<String> tokenize(final String text) {
+        final List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        final StringBuilder term = new StringBuilder();
+        int i = 0;
+        while (i <= text.length()) {
+            final int codePoint = i < text.length() ? text.codePointAt(i) : ' ';
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (term.length() < MAX_TERM_LENGTH) {
+                    term.appendCodePoint(Character.toLowerCase(codePoint));
+                }
+            } else if (term.length() > 0) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return terms;
+    }
+
+    private static Map<String, Integer> countTerms(final List<String> terms) {
+        final Map<String, Integer> frequencies = new HashMap<>();
+        for (final String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    private void change(final Consumer<Contents> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(contents);
+            if (changedWhileLoading != null) {
+                changedWhileLoading.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Puts the tree or replaces it keeping its messages. The subject becomes a part of the document
+     * of the root message.
+     */
+    public void putTree(final int treeId, final int forumId, final int rootMessageId, final String subject,
+                        final Collection<String> tags) {
+        change(c -> c.putTree(treeId, forumId, rootMessageId, subject, tags));
+    }
+
+    /**
+     * Puts the latest published version of the message, replacing the previous one.
+     * Messages of trees which are not in the index are ignored.
+     */
+    public void putMessage(final int messageId, final int treeId, final String body) {
+        change(c -> c.putMessage(messageId, treeId, body));
+    }
+
+    public void moveMessage(final int messageId, final int treeId) {
+        change(c -> c.moveMessage(messageId, treeId));
+    }
+
+    public void removeMessages(final Collection<Integer> messageIds) {
+        change(c -> messageIds.forEach(c::removeMessage));
+    }
+
+    public void removeTree(final int treeId) {
+        change(c -> c.removeTree(treeId));
+    }
+
+    public void removeForum(final int forumId) {
+        change(c -> c.removeForum(forumId));
+    }
+
+    public void clear() {
+        change(Contents::clear);
+    }
+
+    /**
+     * Starts a load, the loaded contents replace the current ones on {@link #finishLoad()}.
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            loading = new Contents();
+            changedWhileLoading = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void loadTree(final int treeId, final int forumId, final int rootMessageId, final String subject,
+                         final Collection<String> tags) {
+        lock.writeLock().lock();
+        try {
+            loading.putTree(treeId, forumId, rootMessageId, subject, tags);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Trees must be loaded before their messages.
+     */
+    public void loadMessage(final int messageId, final int treeId, final String body) {
+        lock.writeLock().lock();
+        try {
+            loading.putMessage(messageId, treeId, body);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishLoad() {
+        lock.writeLock().lock();
+        try {
+            changedWhileLoading.forEach(change -> change.accept(loading));
+            contents = loading;
+            loaded = true;
+        } finally {
+            loading = null;
+            changedWhileLoading = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void abortLoad() {
+        lock.writeLock().lock();
+        try {
+            loading = null;
+            changedWhileLoading = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return contents.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds messages containing any of the query terms, best matches first, equal scores newer messages first.
+     *
+     * @param forumId forum to search in or null for the whole server
+     * @param tags    tag names, in any case, the tree of a message must have or null for any tree
+     */
+    public SearchPageView search(final String query, final Integer forumId, final List<String> tags,
+                                 final TagFilterMode tagMode, final int offset, final int limit) {
+        final Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        final List<String> tagNames = tags == null ? null : new ArrayList<>();
+        if (tags != null) {
+            tags.forEach(tag -> tagNames.add(tag.toLowerCase(Locale.ROOT)));
+        }
+        lock.readLock().lock();
+        try {
+            final Contents searched = contents;
+            final int documentCount = searched.documents.size();
+            if (documentCount == 0 || terms.isEmpty()) {
+                return new SearchPageView(0, new ArrayList<>());
+            }
+            final double averageLength = (double) searched.totalLength / documentCount;
+            final Map<Integer, Double> scores = new HashMap<>();
+            for (final String term : terms) {
+                final Map<Integer, Integer> termPostings = searched.postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                final double idf = Math.log(
+                        1 + (documentCount - termPostings.size() + 0.5) / (termPostings.size() + 0.5)
+                );
+                termPostings.forEach((messageId, frequency) -> {
+                    final Document document = searched.documents.get(messageId);
+                    if (!matches(searched.trees.get(document.treeId), forumId, tagNames, tagMode)) {
+                        return;
+                    }
+                    final double norm = k1 * (1 - b + b * document.length / averageLength);
+                    scores.merge(messageId, idf * frequency * (k1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+            return new SearchPageView(scores.size(), toHits(searched, selectTop(scores, offset, limit)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean matches(final Tree tree, final Integer forumId, final List<String> tags,
+                                   final TagFilterMode tagMode) {
+        if (forumId != null && tree.forumId != forumId) {
+            return false;
+        }
+        if (tags == null) {
+            return true;
+        }
+        for (final String tag : tags) {
+            final boolean tagged = tree.tags.contains(tag);
+            if (tagMode == TagFilterMode.ALL && !tagged) {
+                return false;
+            }
+            if (tagMode == TagFilterMode.ANY && tagged) {
+                return true;
+            }
+        }
+        return tagMode == TagFilterMode.ALL;
+    }
+
+    /**
+     * Keeps no more than offset + limit best entries in a heap, so a page does not cost a sort of all matches.
+     */
+    private static List<Map.Entry<Integer, Double>> selectTop(final Map<Integer, Double> scores,
+                                                              final int offset, final int limit) {
+        final int kept = (int) Math.min((long) offset + limit, scores.size());
+        if (kept <= offset) {
+            return Collections.emptyList();
+        }
+        final PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(kept, BY_RANK.reversed());
+        for (final Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            if (top.size() < kept) {
+                top.add(entry);
+            } else if (BY_RANK.compare(entry, top.peek()) < 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+        final List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(top);
+        ranked.sort(BY_RANK);
+        return ranked.subList(offset, ranked.size());
+    }
+
+    private static List<SearchHitView> toHits(final Contents searched,
+                                              final List<Map.Entry<Integer, Double>> ranked) {
+        final List<SearchHitView> hits = new ArrayList<>(ranked.size());
+        for (final Map.Entry<Integer, Double> entry : ranked) {
+            final Tree tree = searched.trees.get(searched.documents.get(entry.getKey()).treeId);
+            hits.add(new SearchHitView(
+                    entry.getKey(), tree.rootMessageId, tree.forumId, tree.subject, entry.getValue()
+            ));
+        }
+        return hits;
+    }
+
+    /**
+     * Writes trees and term frequencies of documents, postings are rebuilt from them on read.
+     */
+    public void writeTo(final DataOutput output) throws IOException {
+        lock.readLock().lock();
+        try {
+            output.writeInt(FILE_MAGIC);
+            output.writeInt(FILE_FORMAT);
+            output.writeInt(contents.trees.size());
+            for (final Map.Entry<Integer, Tree> entry : contents.trees.entrySet()) {
+                final Tree tree = entry.getValue();
+                output.writeInt(entry.getKey());
+                output.writeInt(tree.forumId);
+                output.writeInt(tree.rootMessageId);
+                output.writeUTF(tree.subject);
+                output.writeInt(tree.tags.size());
+                for (final String tag : tree.tags) {
+                    output.writeUTF(tag);
+                }
+            }
+            output.writeInt(contents.documents.size());
+            for (final Map.Entry<Integer, Document> entry : contents.documents.entrySet()) {
+                final Document document = entry.getValue();
+                output.writeInt(entry.getKey());
+                output.writeInt(document.treeId);
+                output.writeInt(document.bodyLength);
+                output.writeInt(document.bodyTerms.size());
+                for (final Map.Entry<String, Integer> term : document.bodyTerms.entrySet()) {
+                    output.writeUTF(term.getKey());
+                    output.writeInt(term.getValue());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads contents written by {@link #writeTo(DataOutput)} into the load started by {@link #beginLoad()}.
+     * The caller finishes the load, or aborts it if the input is not a complete index of the current format.
+     */
+    public void readFrom(final DataInput input) throws IOException {
+        if (input.readInt() != FILE_MAGIC || input.readInt() != FILE_FORMAT) {
+            throw new IOException("Not a search index of format " + FILE_FORMAT);
+        }
+        final int treeCount = input.readInt();
+        for (int i = 0; i < treeCount; i++) {
+            final int treeId = input.readInt();
+            final int forumId = input.readInt();
+            final int rootMessageId = input.readInt();
+            final String subject = input.readUTF();
+            final int tagCount = input.readInt();
+            final List<String> tags = new ArrayList<>(tagCount);
+            for (int j = 0; j < tagCount; j++) {
+                tags.add(input.readUTF());
+            }
+            loadTree(treeId, forumId, rootMessageId, subject, tags);
+        }
+        final int documentCount = input.readInt();
+        for (int i = 0; i < documentCount; i++) {
+            final int messageId = input.readInt();
+            final int treeId = input.readInt();
+            final int bodyLength = input.readInt();
+            final int termCount = input.readInt();
+            final Map<String, Integer> bodyTerms = new HashMap<>(termCount * 2);
+            for (int j = 0; j < termCount; j++) {
+                bodyTerms.put(input.readUTF(), input.readInt());
+            }
+            final Document document = new Document(treeId, bodyTerms, bodyLength);
+            lock.writeLock().lock();
+            try {
+                loading.putDocument(messageId, document);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
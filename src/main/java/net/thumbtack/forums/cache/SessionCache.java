@@ -0,0 +1,205 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.model.User;
+import net.thumbtack.forums.configuration.CacheProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded token to user cache standing in front of {@code SessionMapper.getUserByToken}.
+ * Entries live no longer than configured TTL and are evicted in insertion order when cache is full.
+ * DAO write paths that change user or session must call one of {@code invalidate*} methods after commit.
+ */
+@Component
+public class SessionCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionCache.class);
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final Map<String, Entry> tokenToEntry = new ConcurrentHashMap<>();
+    private final Map<Integer, String> userIdToToken = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong epoch = new AtomicLong();
+    private final CacheCounters counters = new CacheCounters();
+
+    @Autowired
+    public SessionCache(final CacheProperties properties) {
+        this(properties.getSessionsMaxSize(), Duration.ofSeconds(properties.getSessionsTtlSeconds()),
+                Clock.systemDefaultZone()
+        );
+    }
+
+    public SessionCache(final int maxSize, final Duration ttl, final Clock clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    private static class Entry {
+        private final User user;
+        private final long expiresAt;
+
+        Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static User copyOf(final User user) {
+        return new User(
+                user.getId(), user.getRole(), user.getUsername(), user.getEmail(), user.getPassword(),
+                user.getRegisteredAt(), user.isDeleted(), user.getBannedUntil(), user.getBanCount()
+        );
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0 && ttlMillis > 0;
+    }
+
+    /**
+     * Returns copy of cached user, so callers are free to modify it.
+     * @return user or null if token is not cached or entry already expired
+     */
+    public User get(final String token) {
+        if (!isEnabled() || token == null) {
+            return null;
+        }
+        final Entry entry = tokenToEntry.get(token);
+        if (entry == null) {
+            counters.miss();
+            return null;
+        }
+        if (entry.expiresAt <= clock.millis()) {
+            if (tokenToEntry.remove(token, entry)) {
+                userIdToToken.remove(entry.user.getId(), token);
+                counters.evicted();
+            }
+            counters.miss();
+            return null;
+        }
+        counters.hit();
+        return copyOf(entry.user);
+    }
+
+    /**
+     * Loader must take epoch before reading user from database and pass it here,
+     * so the result of a read that raced with invalidation would not be cached.
+     */
+    public long currentEpoch() {
+        return epoch.get();
+    }
+
+    public void put(final String token, final User user, final long loadEpoch) {
+        if (!isEnabled() || token == null || user == null) {
+            return;
+        }
+        if (loadEpoch != epoch.get()) {
+            return;
+        }
+
+        final Entry entry = new Entry(copyOf(user), clock.millis() + ttlMillis);
+        final String previousToken = userIdToToken.put(user.getId(), token);
+        if (previousToken != null && !previousToken.equals(token)) {
+            tokenToEntry.remove(previousToken);
+        }
+        if (tokenToEntry.put(token, entry) == null) {
+            insertionOrder.add(token);
+            queued.incrementAndGet();
+        }
+        // invalidation increments epoch before removing entries, so it either removes this entry
+        // or has incremented epoch by now and the entry is removed here
+        if (loadEpoch != epoch.get()) {
+            if (tokenToEntry.remove(token, entry)) {
+                userIdToToken.remove(user.getId(), token);
+            }
+            return;
+        }
+        evictOverflow();
+    }
+
+    private void evictOverflow() {
+        // queue also keeps tokens that were invalidated or re-cached, such stale items are dropped here
+        int budget = queued.get();
+        while ((tokenToEntry.size() > maxSize || queued.get() > 2 * maxSize) && budget-- > 0) {
+            final String eldest = insertionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (tokenToEntry.size() <= maxSize) {
+                if (tokenToEntry.containsKey(eldest)) {
+                    insertionOrder.add(eldest);
+                    queued.incrementAndGet();
+                }
+                continue;
+            }
+            final Entry removed = tokenToEntry.remove(eldest);
+            if (removed != null) {
+                userIdToToken.remove(removed.user.getId(), eldest);
+                counters.evicted();
+            }
+        }
+    }
+
+    public void invalidateToken(final String token) {
+        epoch.incrementAndGet();
+        final Entry removed = tokenToEntry.remove(token);
+        if (removed != null) {
+            userIdToToken.remove(removed.user.getId(), token);
+            counters.invalidated();
+        }
+    }
+
+    public void invalidateUser(final int userId) {
+        epoch.incrementAndGet();
+        final String token = userIdToToken.remove(userId);
+        if (token != null && tokenToEntry.remove(token) != null) {
+            counters.invalidated();
+        }
+    }
+
+    public void invalidateBannedBefore(final LocalDateTime date) {
+        epoch.incrementAndGet();
+        tokenToEntry.forEach((token, entry) -> {
+            final LocalDateTime bannedUntil = entry.user.getBannedUntil();
+            if (bannedUntil != null && bannedUntil.isBefore(date)) {
+                invalidateToken(token);
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        final int size = tokenToEntry.size();
+        tokenToEntry.clear();
+        userIdToToken.clear();
+        insertionOrder.clear();
+        queued.set(0);
+        LOGGER.debug("Session cache cleared, {} entries dropped", size);
+        counters.invalidated(size);
+    }
+
+    public int size() {
+        return tokenToEntry.size();
+    }
+
+    public CacheCounters getCounters() {
+        return counters;
+    }
+}
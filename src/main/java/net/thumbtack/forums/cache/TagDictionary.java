@@ -0,0 +1,48 @@
+package net.thumbtack.forums.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tag name to tag ID dictionary. Tags are never renamed and only removed all at once,
+ * so entries stay valid until {@link #clear()}. Only committed tags must be put here.
+ */
+@Component
+public class TagDictionary {
+    private final Map<String, Integer> nameToId = new ConcurrentHashMap<>();
+    private final CacheCounters counters = new CacheCounters();
+
+    public static String normalize(final String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    public Integer getId(final String name) {
+        final Integer id = nameToId.get(normalize(name));
+        if (id == null) {
+            counters.miss();
+        } else {
+            counters.hit();
+        }
+        return id;
+    }
+
+    public void put(final String name, final int id) {
+        nameToId.put(normalize(name), id);
+    }
+
+    public void clear() {
+        counters.invalidated(nameToId.size());
+        nameToId.clear();
+    }
+
+    public int size() {
+        return nameToId.size();
+    }
+
+    public CacheCounters getCounters() {
+        return counters;
+    }
+}
@@ -0,0 +1,225 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.model.enums.TagFilterMode;
+import net.thumbtack.forums.view.TreeTagView;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per forum inverted index tag ID to sorted array of tree IDs.
+ * <p>
+ * Forum index is loaded from database on first use and then kept up to date by message tree DAO
+ * after commits. Snapshots are immutable and replaced on each change, so readers take no locks.
+ * Loading is published only if no change happened since {@link #currentEpoch()} was read,
+ * otherwise a change committed during the load could be lost.
+ */
+@Component
+public class TagIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<Integer, ForumTags> forums = new ConcurrentHashMap<>();
+    private long epoch;
+    private final CacheCounters counters = new CacheCounters();
+
+    private static class ForumTags {
+        private final Map<Integer, int[]> tagToTrees;
+        private final Map<Integer, int[]> treeToTags;
+
+        ForumTags(Map<Integer, int[]> tagToTrees, Map<Integer, int[]> treeToTags) {
+            this.tagToTrees = tagToTrees;
+            this.treeToTags = treeToTags;
+        }
+    }
+
+    public synchronized long currentEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @return sorted IDs of forum trees matching tags or null if forum index isn't loaded
+     */
+    public int[] find(final int forumId, final List<Integer> tagIds, final TagFilterMode mode) {
+        final ForumTags forumTags = forums.get(forumId);
+        if (forumTags == null) {
+            counters.miss();
+            return null;
+        }
+        counters.hit();
+        return find(forumTags, tagIds, mode);
+    }
+
+    public synchronized int[] load(
+            final int forumId, final List<TreeTagView> treeTags,
+            final List<Integer> tagIds, final TagFilterMode mode, final long loadEpoch) {
+        final Map<Integer, List<Integer>> tagToTrees = new HashMap<>();
+        final Map<Integer, List<Integer>> treeToTags = new HashMap<>();
+        for (final TreeTagView treeTag : treeTags) {
+            tagToTrees.computeIfAbsent(treeTag.getTagId(), id -> new ArrayList<>()).add(treeTag.getTreeId());
+            treeToTags.computeIfAbsent(treeTag.getTreeId(), id -> new ArrayList<>()).add(treeTag.getTagId());
+        }
+        final ForumTags forumTags = new ForumTags(toSortedArrays(tagToTrees), toSortedArrays(treeToTags));
+        if (loadEpoch == epoch) {
+            forums.put(forumId, forumTags);
+        }
+        return find(forumTags, tagIds, mode);
+    }
+
+    public synchronized void addTree(final int forumId, final int treeId, final Collection<Integer> tagIds) {
+        epoch++;
+        final ForumTags forumTags = forums.get(forumId);
+        if (forumTags == null || tagIds.isEmpty()) {
+            return;
+        }
+        final Map<Integer, int[]> tagToTrees = new HashMap<>(forumTags.tagToTrees);
+        final int[] sortedTagIds = tagIds.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+        for (final int tagId : sortedTagIds) {
+            tagToTrees.put(tagId, insert(tagToTrees.getOrDefault(tagId, EMPTY), treeId));
+        }
+        final Map<Integer, int[]> treeToTags = new HashMap<>(forumTags.treeToTags);
+        treeToTags.put(treeId, sortedTagIds);
+        forums.put(forumId, new ForumTags(tagToTrees, treeToTags));
+    }
+
+    public synchronized void removeTree(final int treeId) {
+        epoch++;
+        for (final Map.Entry<Integer, ForumTags> entry : forums.entrySet()) {
+            final ForumTags forumTags = entry.getValue();
+            final int[] tagIds = forumTags.treeToTags.get(treeId);
+            if (tagIds == null) {
+                continue;
+            }
+            final Map<Integer, int[]> tagToTrees = new HashMap<>(forumTags.tagToTrees);
+            for (final int tagId : tagIds) {
+                final int[] trees = remove(tagToTrees.getOrDefault(tagId, EMPTY), treeId);
+                if (trees.length == 0) {
+                    tagToTrees.remove(tagId);
+                } else {
+                    tagToTrees.put(tagId, trees);
+                }
+            }
+            final Map<Integer, int[]> treeToTags = new HashMap<>(forumTags.treeToTags);
+            treeToTags.remove(treeId);
+            entry.setValue(new ForumTags(tagToTrees, treeToTags));
+            counters.invalidated();
+        }
+    }
+
+    public synchronized void removeForum(final int forumId) {
+        epoch++;
+        if (forums.remove(forumId) != null) {
+            counters.invalidated();
+        }
+    }
+
+    public synchronized void clear() {
+        epoch++;
+        counters.invalidated(forums.size());
+        forums.clear();
+    }
+
+    public int size() {
+        return forums.size();
+    }
+
+    public CacheCounters getCounters() {
+        return counters;
+    }
+
+    private static int[] find(final ForumTags forumTags, final List<Integer> tagIds, final TagFilterMode mode) {
+        final List<int[]> postings = new ArrayList<>();
+        for (final Integer tagId : tagIds) {
+            postings.add(forumTags.tagToTrees.getOrDefault(tagId, EMPTY));
+        }
+        if (mode == TagFilterMode.ALL) {
+            return intersect(postings);
+        }
+        return union(postings);
+    }
+
+    static int[] union(final List<int[]> sortedArrays) {
+        int total = 0;
+        for (final int[] array : sortedArrays) {
+            total += array.length;
+        }
+        final int[] merged = new int[total];
+        int position = 0;
+        for (final int[] array : sortedArrays) {
+            System.arraycopy(array, 0, merged, position, array.length);
+            position += array.length;
+        }
+        Arrays.sort(merged);
+        return distinct(merged);
+    }
+
+    static int[] intersect(final List<int[]> sortedArrays) {
+        if (sortedArrays.isEmpty()) {
+            return EMPTY;
+        }
+        final List<int[]> bySize = new ArrayList<>(sortedArrays);
+        bySize.sort(Comparator.comparingInt(array -> array.length));
+
+        final int[] smallest = bySize.get(0);
+        final int[] result = new int[smallest.length];
+        int size = 0;
+        candidates:
+        for (final int value : smallest) {
+            for (int i = 1; i < bySize.size(); i++) {
+                if (Arrays.binarySearch(bySize.get(i), value) < 0) {
+                    continue candidates;
+                }
+            }
+            if (size == 0 || result[size - 1] != value) {
+                result[size++] = value;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static int[] distinct(final int[] sorted) {
+        if (sorted.length == 0) {
+            return sorted;
+        }
+        int size = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    private static int[] insert(final int[] sorted, final int value) {
+        final int position = Arrays.binarySearch(sorted, value);
+        if (position >= 0) {
+            return sorted;
+        }
+        final int insertAt = -position - 1;
+        final int[] result = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, insertAt);
+        result[insertAt] = value;
+        System.arraycopy(sorted, insertAt, result, insertAt + 1, sorted.length - insertAt);
+        return result;
+    }
+
+    private static int[] remove(final int[] sorted, final int value) {
+        final int position = Arrays.binarySearch(sorted, value);
+        if (position < 0) {
+            return sorted;
+        }
+        final int[] result = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, position);
+        System.arraycopy(sorted, position + 1, result, position, sorted.length - position - 1);
+        return result;
+    }
+
+    private static Map<Integer, int[]> toSortedArrays(final Map<Integer, List<Integer>> lists) {
+        final Map<Integer, int[]> arrays = new HashMap<>();
+        lists.forEach((key, values) -> arrays.put(
+                key, distinct(values.stream().mapToInt(Integer::intValue).sorted().toArray())
+        ));
+        return arrays;
+    }
+}
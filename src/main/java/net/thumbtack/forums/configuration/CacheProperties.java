@@ -0,0 +1,54 @@
+package net.thumbtack.forums.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+    private int sessionsMaxSize;
+    private int sessionsTtlSeconds;
+    private int messageResponsesMaxSize;
+    private long mapperMaxBytes;
+    private int mapperTtlSeconds;
+
+    public int getSessionsMaxSize() {
+        return sessionsMaxSize;
+    }
+
+    public void setSessionsMaxSize(int sessionsMaxSize) {
+        this.sessionsMaxSize = sessionsMaxSize;
+    }
+
+    public int getSessionsTtlSeconds() {
+        return sessionsTtlSeconds;
+    }
+
+    public void setSessionsTtlSeconds(int sessionsTtlSeconds) {
+        this.sessionsTtlSeconds = sessionsTtlSeconds;
+    }
+
+    public int getMessageResponsesMaxSize() {
+        return messageResponsesMaxSize;
+    }
+
+    public void setMessageResponsesMaxSize(int messageResponsesMaxSize) {
+        this.messageResponsesMaxSize = messageResponsesMaxSize;
+    }
+
+    public long getMapperMaxBytes() {
+        return mapperMaxBytes;
+    }
+
+    public void setMapperMaxBytes(long mapperMaxBytes) {
+        this.mapperMaxBytes = mapperMaxBytes;
+    }
+
+    public int getMapperTtlSeconds() {
+        return mapperTtlSeconds;
+    }
+
+    public void setMapperTtlSeconds(int mapperTtlSeconds) {
+        this.mapperTtlSeconds = mapperTtlSeconds;
+    }
+}
@@ -1,16 +1,104 @@
 package net.thumbtack.forums.configuration;
 
-import net.thumbtack.forums.utils.MyBatisConnectionUtils;
+import net.thumbtack.forums.utils.PoolMetrics;
+import net.thumbtack.forums.utils.ReplicaDataSource;
+import net.thumbtack.forums.utils.RoutingSqlSessionFactory;
+import net.thumbtack.forums.utils.UnitOfWorkSqlSessionFactory;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionFactoryBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.Properties;
 
 @Configuration
+@PropertySource("classpath:dbconfig.properties")
 public class DatabaseConfig {
+    @Bean(destroyMethod = "close")
+    @Primary
+    public HikariDataSource dataSource(final DatabaseProperties databaseProperties, final PoolMetrics poolMetrics) {
+        final HikariConfig config = createPoolConfig(databaseProperties);
+        config.setPoolName("forums");
+        config.setJdbcUrl(databaseProperties.getUrl());
+        config.setUsername(databaseProperties.getUsername());
+        config.setPassword(databaseProperties.getPassword());
+        config.setMetricsTrackerFactory(poolMetrics);
+        return new HikariDataSource(config);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaDataSource replicaDataSource(final DatabaseProperties databaseProperties,
+                                               final HikariDataSource dataSource) {
+        final String replicaUrl = databaseProperties.getReplicaUrl();
+        if (replicaUrl == null || replicaUrl.isEmpty()) {
+            return new ReplicaDataSource(null, dataSource, 0, Clock.systemDefaultZone());
+        }
+        final HikariConfig config = createPoolConfig(databaseProperties);
+        config.setPoolName("forums-replica");
+        config.setJdbcUrl(replicaUrl);
+        config.setUsername(databaseProperties.getReplicaUsername());
+        config.setPassword(databaseProperties.getReplicaPassword());
+        config.setReadOnly(true);
+        // the server starts with the replica down and reads from primary until it is up
+        config.setInitializationFailTimeout(-1);
+        return new ReplicaDataSource(
+                new HikariDataSource(config), dataSource,
+                databaseProperties.getReplicaRetryMs(), Clock.systemDefaultZone()
+        );
+    }
+
+    /**
+     * Mappers and settings are still taken from mybatis-config.xml, its environment is replaced by the pool.
+     */
     @Bean
-    public SqlSessionFactory sqlSessionFactory() {
-        MyBatisConnectionUtils.createSqlSessionFactory();
-        return MyBatisConnectionUtils.getSqlSessionFactory();
+    public SqlSessionFactory sqlSessionFactory(final HikariDataSource dataSource,
+                                               final ReplicaDataSource replicaDataSource,
+                                               final CacheProperties cacheProperties) throws Exception {
+        final SqlSessionFactory primarySqlSessionFactory = new UnitOfWorkSqlSessionFactory(
+                createSqlSessionFactory(dataSource, cacheProperties)
+        );
+        if (!replicaDataSource.isReplicaConfigured()) {
+            return new RoutingSqlSessionFactory(primarySqlSessionFactory, null);
+        }
+        return new RoutingSqlSessionFactory(
+                primarySqlSessionFactory, createSqlSessionFactory(replicaDataSource, cacheProperties)
+        );
+    }
+
+    static HikariConfig createPoolConfig(final DatabaseProperties databaseProperties) {
+        final HikariConfig config = new HikariConfig();
+        config.setDriverClassName(databaseProperties.getDriverClassName());
+        config.setMaximumPoolSize(databaseProperties.getMaximumPoolSize());
+        config.setMinimumIdle(databaseProperties.getMinimumIdle());
+        config.setConnectionTimeout(databaseProperties.getConnectionTimeoutMs());
+        config.setValidationTimeout(databaseProperties.getValidationTimeoutMs());
+        config.setIdleTimeout(databaseProperties.getIdleTimeoutMs());
+        config.setMaxLifetime(databaseProperties.getMaxLifetimeMs());
+        config.setLeakDetectionThreshold(databaseProperties.getLeakDetectionThresholdMs());
+        // sessions commit and roll back themselves, so connections are not switched to autocommit and back
+        config.setAutoCommit(false);
+        return config;
+    }
+
+    private static SqlSessionFactory createSqlSessionFactory(final DataSource dataSource,
+                                                            final CacheProperties cacheProperties) throws Exception {
+        // placeholders of @CacheNamespace properties are resolved against these
+        final Properties variables = new Properties();
+        variables.setProperty("cache.mapperMaxBytes", String.valueOf(cacheProperties.getMapperMaxBytes()));
+        variables.setProperty("cache.mapperTtlSeconds", String.valueOf(cacheProperties.getMapperTtlSeconds()));
+
+        final SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setConfigLocation(new ClassPathResource("mybatis-config.xml"));
+        factoryBean.setConfigurationProperties(variables);
+        return factoryBean.getObject();
     }
 }
@@ -0,0 +1,157 @@
+package net.thumbtack.forums.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connection settings come from dbconfig.properties shared with mybatis-config.xml,
+ * pool settings from application.properties. Reads are routed to a replica only if its URL is set.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "jdbc")
+public class DatabaseProperties {
+    private String driverClassName;
+    private String url;
+    private String username;
+    private String password;
+    private String replicaUrl;
+    private String replicaUsername;
+    private String replicaPassword;
+    private int maximumPoolSize;
+    private int minimumIdle;
+    private long connectionTimeoutMs;
+    private long validationTimeoutMs;
+    private long idleTimeoutMs;
+    private long maxLifetimeMs;
+    private long leakDetectionThresholdMs;
+    private long replicaRetryMs;
+    private long readYourWritesMs;
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    public void setDriverClassName(String driverClassName) {
+        this.driverClassName = driverClassName;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getReplicaUrl() {
+        return replicaUrl;
+    }
+
+    public void setReplicaUrl(String replicaUrl) {
+        this.replicaUrl = replicaUrl;
+    }
+
+    public String getReplicaUsername() {
+        return replicaUsername;
+    }
+
+    public void setReplicaUsername(String replicaUsername) {
+        this.replicaUsername = replicaUsername;
+    }
+
+    public String getReplicaPassword() {
+        return replicaPassword;
+    }
+
+    public void setReplicaPassword(String replicaPassword) {
+        this.replicaPassword = replicaPassword;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(int minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    public long getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+
+    public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    public long getValidationTimeoutMs() {
+        return validationTimeoutMs;
+    }
+
+    public void setValidationTimeoutMs(long validationTimeoutMs) {
+        this.validationTimeoutMs = validationTimeoutMs;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    public long getMaxLifetimeMs() {
+        return maxLifetimeMs;
+    }
+
+    public void setMaxLifetimeMs(long maxLifetimeMs) {
+        this.maxLifetimeMs = maxLifetimeMs;
+    }
+
+    public long getLeakDetectionThresholdMs() {
+        return leakDetectionThresholdMs;
+    }
+
+    public void setLeakDetectionThresholdMs(long leakDetectionThresholdMs) {
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+    }
+
+    public long getReplicaRetryMs() {
+        return replicaRetryMs;
+    }
+
+    public void setReplicaRetryMs(long replicaRetryMs) {
+        this.replicaRetryMs = replicaRetryMs;
+    }
+
+    public long getReadYourWritesMs() {
+        return readYourWritesMs;
+    }
+
+    public void setReadYourWritesMs(long readYourWritesMs) {
+        this.readYourWritesMs = readYourWritesMs;
+    }
+}
@@ -0,0 +1,36 @@
+package net.thumbtack.forums.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "events")
+public class EventsProperties {
+    private int subscriberBufferSize;
+    private int heartbeatSeconds;
+    private boolean disconnectOnOverflow;
+
+    public int getSubscriberBufferSize() {
+        return subscriberBufferSize;
+    }
+
+    public void setSubscriberBufferSize(int subscriberBufferSize) {
+        this.subscriberBufferSize = subscriberBufferSize;
+    }
+
+    public int getHeartbeatSeconds() {
+        return heartbeatSeconds;
+    }
+
+    public void setHeartbeatSeconds(int heartbeatSeconds) {
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    public boolean isDisconnectOnOverflow() {
+        return disconnectOnOverflow;
+    }
+
+    public void setDisconnectOnOverflow(boolean disconnectOnOverflow) {
+        this.disconnectOnOverflow = disconnectOnOverflow;
+    }
+}
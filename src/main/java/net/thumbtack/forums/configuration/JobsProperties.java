@@ -0,0 +1,72 @@
+package net.thumbtack.forums.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "jobs")
+public class JobsProperties {
+    private int ratingRepairChunkSize;
+    private int activityHourlyRetentionDays;
+    private int activityDailyRetentionDays;
+    private int importChunkSize;
+    private int purgeBatchSize;
+    private int unbanBatchSize;
+    private int historyReencodeBatchSize;
+
+    public int getRatingRepairChunkSize() {
+        return ratingRepairChunkSize;
+    }
+
+    public void setRatingRepairChunkSize(int ratingRepairChunkSize) {
+        this.ratingRepairChunkSize = ratingRepairChunkSize;
+    }
+
+    public int getActivityHourlyRetentionDays() {
+        return activityHourlyRetentionDays;
+    }
+
+    public void setActivityHourlyRetentionDays(int activityHourlyRetentionDays) {
+        this.activityHourlyRetentionDays = activityHourlyRetentionDays;
+    }
+
+    public int getActivityDailyRetentionDays() {
+        return activityDailyRetentionDays;
+    }
+
+    public void setActivityDailyRetentionDays(int activityDailyRetentionDays) {
+        this.activityDailyRetentionDays = activityDailyRetentionDays;
+    }
+
+    public int getImportChunkSize() {
+        return importChunkSize;
+    }
+
+    public void setImportChunkSize(int importChunkSize) {
+        this.importChunkSize = importChunkSize;
+    }
+
+    public int getPurgeBatchSize() {
+        return purgeBatchSize;
+    }
+
+    public void setPurgeBatchSize(int purgeBatchSize) {
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    public int getUnbanBatchSize() {
+        return unbanBatchSize;
+    }
+
+    public void setUnbanBatchSize(int unbanBatchSize) {
+        this.unbanBatchSize = unbanBatchSize;
+    }
+
+    public int getHistoryReencodeBatchSize() {
+        return historyReencodeBatchSize;
+    }
+
+    public void setHistoryReencodeBatchSize(int historyReencodeBatchSize) {
+        this.historyReencodeBatchSize = historyReencodeBatchSize;
+    }
+}
@@ -0,0 +1,45 @@
+package net.thumbtack.forums.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "ratings")
+public class RatingsProperties {
+    private boolean writeBehind;
+    private int bufferCapacity;
+    private int flushBatchSize;
+    private long maxStalenessMs;
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    public int getFlushBatchSize() {
+        return flushBatchSize;
+    }
+
+    public void setFlushBatchSize(int flushBatchSize) {
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    public long getMaxStalenessMs() {
+        return maxStalenessMs;
+    }
+
+    public void setMaxStalenessMs(long maxStalenessMs) {
+        this.maxStalenessMs = maxStalenessMs;
+    }
+}
@@ -0,0 +1,45 @@
+package net.thumbtack.forums.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "search")
+public class SearchProperties {
+    private String indexFile;
+    private int subjectWeight;
+    private double k1;
+    private double b;
+
+    public String getIndexFile() {
+        return indexFile;
+    }
+
+    public void setIndexFile(String indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    public int getSubjectWeight() {
+        return subjectWeight;
+    }
+
+    public void setSubjectWeight(int subjectWeight) {
+        this.subjectWeight = subjectWeight;
+    }
+
+    public double getK1() {
+        return k1;
+    }
+
+    public void setK1(double k1) {
+        this.k1 = k1;
+    }
+
+    public double getB() {
+        return b;
+    }
+
+    public void setB(double b) {
+        this.b = b;
+    }
+}
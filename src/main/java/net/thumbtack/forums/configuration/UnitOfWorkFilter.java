@@ -0,0 +1,63 @@
+package net.thumbtack.forums.configuration;
+
+import net.thumbtack.forums.utils.ReadRouting;
+import net.thumbtack.forums.utils.ReadYourWritesTracker;
+import net.thumbtack.forums.utils.UnitOfWork;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Binds a {@link UnitOfWork} to every request. The unit is usually committed before the response body
+ * is written by {@code UnitOfWorkCommitAdvice}, here it is completed for responses without a body
+ * and for asynchronous requests, whose body is produced by other threads with sessions of their own.
+ * <p>
+ * Requests of a client that wrote shortly before read from the primary, so they see their own writes
+ * even if the replica lags behind.
+ */
+@Component
+public class UnitOfWorkFilter extends OncePerRequestFilter {
+    private final String COOKIE_NAME = "JAVASESSIONID";
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    /**
+     * The tracker is optional, web slice tests run the filter without the database layer.
+     */
+    @Autowired
+    public UnitOfWorkFilter(final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker.getIfAvailable();
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        final Cookie sessionCookie = WebUtils.getCookie(request, COOKIE_NAME);
+        final String token = sessionCookie == null || readYourWritesTracker == null
+                ? null
+                : sessionCookie.getValue();
+        final boolean primaryOnly = token != null && readYourWritesTracker.wroteRecently(token);
+
+        final UnitOfWork unitOfWork = UnitOfWork.begin();
+        if (token != null) {
+            // recorded before the commit, so the next request can't outrun it
+            unitOfWork.setWriteListener(() -> readYourWritesTracker.recordWrite(token));
+        }
+        boolean success = false;
+        try (ReadRouting.Scope ignored = primaryOnly ? ReadRouting.primaryOnly() : null) {
+            filterChain.doFilter(request, response);
+            success = true;
+        } finally {
+            unitOfWork.end(success);
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package net.thumbtack.forums.controller;
 
+import net.thumbtack.forums.dto.responses.debug.CacheStatisticsListDtoResponse;
+import net.thumbtack.forums.dto.responses.debug.PoolStatisticsDtoResponse;
+import net.thumbtack.forums.dto.responses.debug.PurgeListDtoResponse;
+import net.thumbtack.forums.dto.responses.debug.HistoryReencodeDtoResponse;
 import net.thumbtack.forums.exception.ServerException;
 import net.thumbtack.forums.service.DebugService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -26,4 +32,36 @@ public class DebugController {
                 .ok()
                 .build();
     }
+
+    @GetMapping(
+            value = "/caches",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<CacheStatisticsListDtoResponse> getCachesStatistics() {
+        return ResponseEntity.ok(debugService.getCachesStatistics());
+    }
+
+    @GetMapping(
+            value = "/pool",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<PoolStatisticsDtoResponse> getPoolStatistics() {
+        return ResponseEntity.ok(debugService.getPoolStatistics());
+    }
+
+    @GetMapping(
+            value = "/purges",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<PurgeListDtoResponse> getPurges() throws ServerException {
+        return ResponseEntity.ok(debugService.getPurges());
+    }
+
+    @PostMapping(
+            value = "/history/reencode",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<HistoryReencodeDtoResponse> reencodeHistory() throws ServerException {
+        return ResponseEntity.ok(debugService.reencodeHistory());
+    }
 }
@@ -0,0 +1,67 @@
+package net.thumbtack.forums.controller;
+
+import net.thumbtack.forums.service.ExportService;
+import net.thumbtack.forums.service.JsonStreamWriter;
+import net.thumbtack.forums.exception.ServerException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String GZIP_VALUE = "application/gzip";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
+    private final String COOKIE_NAME = "JAVASESSIONID";
+
+    @Autowired
+    public ExportController(final ExportService exportService,
+                            final ObjectMapper objectMapper) {
+        this.exportService = exportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Sends the forum as a file of NDJSON records, compressed with gzip if asked.
+     * Like the import, the body is written by the request thread, as an export of a large forum
+     * may run longer than asynchronous requests are allowed to.
+     */
+    @GetMapping(value = "/{forum_id}")
+    public void exportForum(
+            @CookieValue(value = COOKIE_NAME) String token,
+            @PathVariable("forum_id") int forumId,
+            @RequestParam(value = "gzip", required = false) Boolean gzip,
+            HttpServletResponse response) throws ServerException, IOException {
+        final JsonStreamWriter writer = exportService.exportForum(token, forumId);
+        final boolean compressed = gzip != null && gzip;
+
+        response.setContentType(compressed ? GZIP_VALUE : NDJSON_VALUE);
+        response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"forum-" + forumId + (compressed ? ".ndjson.gz" : ".ndjson") + "\""
+        );
+        final OutputStream outputStream = compressed
+                ? new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE)
+                : response.getOutputStream();
+        final JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        try {
+            writer.writeTo(generator);
+        } catch (ServerException ex) {
+            // part of the body may be already sent, so the response can only be broken off,
+            // the generator is left open for a gzip stream not to get a valid end
+            throw new IOException(ex.getMessage(), ex);
+        }
+        generator.close();
+    }
+}
@@ -1,8 +1,11 @@
 package net.thumbtack.forums.controller;
 
+import net.thumbtack.forums.dto.responses.message.ForumChangesDtoResponse;
+import net.thumbtack.forums.dto.responses.message.ForumEventDtoResponse;
 import net.thumbtack.forums.dto.responses.message.ListMessageInfoDtoResponse;
 import net.thumbtack.forums.service.ForumService;
 import net.thumbtack.forums.service.MessageService;
+import net.thumbtack.forums.service.JsonStreamWriter;
 import net.thumbtack.forums.dto.requests.forum.CreateForumDtoRequest;
 import net.thumbtack.forums.dto.requests.message.CreateMessageDtoRequest;
 import net.thumbtack.forums.dto.responses.EmptyDtoResponse;
@@ -13,27 +16,41 @@ import net.thumbtack.forums.dto.responses.message.MessageDtoResponse;
 import net.thumbtack.forums.exception.ServerException;
 
 import net.thumbtack.forums.validator.message.AvailableOrder;
+import net.thumbtack.forums.validator.message.AvailableTagMode;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/forums")
+@Validated
 public class ForumController {
     private final ForumService forumService;
     private final MessageService messageService;
+    private final ObjectMapper objectMapper;
     private final String COOKIE_NAME = "JAVASESSIONID";
 
     @Autowired
     public ForumController(final ForumService forumService,
-                           final MessageService messageService) {
+                           final MessageService messageService,
+                           final ObjectMapper objectMapper) {
         this.forumService = forumService;
         this.messageService = messageService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping(
@@ -102,15 +119,91 @@ public class ForumController {
             @RequestParam(value = "unpublished", required = false) Boolean unpublished,
             @RequestParam(value = "order", required = false) @AvailableOrder String order,
             @RequestParam(value = "tags", required = false) List<@NotBlank String> tags,
+            @RequestParam(value = "tagmode", required = false) @AvailableTagMode String tagMode,
             @RequestParam(value = "offset", required = false) Integer offset,
-            @RequestParam(value = "limit", required = false) Integer limit
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "commentslimit", required = false) @Positive Integer commentsLimit,
+            @RequestParam(value = "maxdepth", required = false) @PositiveOrZero Integer maxDepth
     ) throws ServerException {
         return ResponseEntity.ok(
                 messageService.getForumMessageList(
                         token, forumId,
                         allVersions, noComments, unpublished,
-                        tags, order, offset, limit
+                        tags, order, offset, limit, cursor, tagMode, commentsLimit, maxDepth
                 )
         );
     }
+
+    @GetMapping(
+            value = "/{forum_id}/messages",
+            params = "stream=true",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<StreamingResponseBody> streamMessages(
+            @CookieValue(value = COOKIE_NAME) String token,
+            @PathVariable("forum_id") int forumId,
+            @RequestParam(value = "allversions", required = false) Boolean allVersions,
+            @RequestParam(value = "nocomments", required = false) Boolean noComments,
+            @RequestParam(value = "unpublished", required = false) Boolean unpublished,
+            @RequestParam(value = "order", required = false) @AvailableOrder String order,
+            @RequestParam(value = "tags", required = false) List<@NotBlank String> tags,
+            @RequestParam(value = "tagmode", required = false) @AvailableTagMode String tagMode,
+            @RequestParam(value = "offset", required = false) Integer offset,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "commentslimit", required = false) @Positive Integer commentsLimit,
+            @RequestParam(value = "maxdepth", required = false) @PositiveOrZero Integer maxDepth
+    ) throws ServerException {
+        final JsonStreamWriter writer = messageService.getForumMessageListStream(
+                token, forumId,
+                allVersions, noComments, unpublished,
+                tags, order, offset, limit, cursor, tagMode, commentsLimit, maxDepth
+        );
+        final StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                writer.writeTo(generator);
+            } catch (ServerException ex) {
+                // part of the body may be already sent, so the response can only be broken off
+                throw new IOException(ex.getMessage(), ex);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping(
+            value = "/{forum_id}/changes",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<ForumChangesDtoResponse> getChanges(
+            @CookieValue(value = COOKIE_NAME) String token,
+            @PathVariable("forum_id") int forumId,
+            @RequestParam(value = "since") long since,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "allversions", required = false) Boolean allVersions,
+            @RequestParam(value = "nocomments", required = false) Boolean noComments,
+            @RequestParam(value = "unpublished", required = false) Boolean unpublished,
+            @RequestParam(value = "order", required = false) @AvailableOrder String order
+    ) throws ServerException {
+        return ResponseEntity.ok(
+                messageService.getForumChanges(
+                        token, forumId, since, limit,
+                        allVersions, noComments, unpublished, order
+                )
+        );
+    }
+
+    @GetMapping(
+            value = "/{forum_id}/events",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    public Flux<ServerSentEvent<ForumEventDtoResponse>> getEvents(
+            @CookieValue(value = COOKIE_NAME) String token,
+            @PathVariable("forum_id") int forumId
+    ) throws ServerException {
+        return messageService.subscribeForumEvents(token, forumId);
+    }
 }
@@ -32,6 +32,9 @@ public class GlobalExceptionHandler {
         if (errorCode == USER_NOT_FOUND || errorCode == FORUM_NOT_FOUND || errorCode == MESSAGE_NOT_FOUND) {
             httpStatus = HttpStatus.NOT_FOUND;
         }
+        if (errorCode == SEARCH_NOT_READY) {
+            httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
+        }
         return ResponseEntity
                 .status(httpStatus)
                 .body(exceptionResponse);
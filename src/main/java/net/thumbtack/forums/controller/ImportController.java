@@ -0,0 +1,56 @@
+package net.thumbtack.forums.controller;
+
+import net.thumbtack.forums.service.ImportService;
+import net.thumbtack.forums.service.JsonStreamWriter;
+import net.thumbtack.forums.dto.requests.imports.ImportRecordDtoRequest;
+import net.thumbtack.forums.exception.ServerException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private final ImportService importService;
+    private final ObjectMapper objectMapper;
+    private final String COOKIE_NAME = "JAVASESSIONID";
+
+    @Autowired
+    public ImportController(final ImportService importService,
+                            final ObjectMapper objectMapper) {
+        this.importService = importService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Records are read from the request and progress is written to the response while the import goes.
+     * The body is written by the request thread, an import may run much longer than asynchronous requests
+     * are allowed to.
+     */
+    @PostMapping(
+            consumes = NDJSON_VALUE,
+            produces = NDJSON_VALUE
+    )
+    public void importForums(
+            @CookieValue(value = COOKIE_NAME) String token,
+            HttpServletRequest request,
+            HttpServletResponse response) throws ServerException, IOException {
+        final MappingIterator<ImportRecordDtoRequest> records = objectMapper
+                .readerFor(ImportRecordDtoRequest.class)
+                .readValues(request.getInputStream());
+        final JsonStreamWriter writer = importService.importForums(token, records);
+
+        response.setContentType(NDJSON_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            writer.writeTo(generator);
+        }
+    }
+}
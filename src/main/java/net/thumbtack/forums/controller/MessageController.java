@@ -17,6 +17,8 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 
 @RestController
 @RequestMapping("/api/messages")
@@ -134,9 +136,15 @@ public class MessageController {
             @RequestParam(value = "allversions", required = false) Boolean allVersions,
             @RequestParam(value = "nocomments", required = false) Boolean noComments,
             @RequestParam(value = "unpublished", required = false) Boolean unpublished,
-            @RequestParam(value = "order", required = false) @AvailableOrder String order
+            @RequestParam(value = "order", required = false) @AvailableOrder String order,
+            @RequestParam(value = "commentslimit", required = false) @Positive Integer commentsLimit,
+            @RequestParam(value = "maxdepth", required = false) @PositiveOrZero Integer maxDepth,
+            @RequestParam(value = "commentscursor", required = false) String commentsCursor
     ) throws ServerException {
         return ResponseEntity
-                .ok(messageService.getMessage(token, id, allVersions, noComments, unpublished, order));
+                .ok(messageService.getMessage(
+                        token, id, allVersions, noComments, unpublished, order,
+                        commentsLimit, maxDepth, commentsCursor
+                ));
     }
 }
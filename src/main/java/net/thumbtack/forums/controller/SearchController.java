@@ -0,0 +1,46 @@
+package net.thumbtack.forums.controller;
+
+import net.thumbtack.forums.service.SearchService;
+import net.thumbtack.forums.dto.responses.search.SearchResultListDtoResponse;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.validator.message.AvailableTagMode;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.constraints.NotBlank;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@Validated
+public class SearchController {
+    private final SearchService searchService;
+    private final String COOKIE_NAME = "JAVASESSIONID";
+
+    @Autowired
+    public SearchController(final SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping(
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<SearchResultListDtoResponse> search(
+            @CookieValue(value = COOKIE_NAME) String token,
+            @RequestParam(value = "query") String query,
+            @RequestParam(value = "forum-id", required = false) Integer forumId,
+            @RequestParam(value = "tags", required = false) List<@NotBlank String> tags,
+            @RequestParam(value = "tagmode", required = false) @AvailableTagMode String tagMode,
+            @RequestParam(value = "offset", required = false) Integer offset,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) throws ServerException {
+        return ResponseEntity.ok(
+                searchService.search(token, query, forumId, tags, tagMode, offset, limit)
+        );
+    }
+}
@@ -5,6 +5,7 @@ import net.thumbtack.forums.dto.responses.statistic.MessagesCountDtoResponse;
 import net.thumbtack.forums.dto.responses.statistic.CommentsCountDtoResponse;
 import net.thumbtack.forums.dto.responses.statistic.MessageRatingListDtoResponse;
 import net.thumbtack.forums.dto.responses.statistic.UserRatingListDtoResponse;
+import net.thumbtack.forums.dto.responses.statistic.ActivityListDtoResponse;
 import net.thumbtack.forums.exception.ServerException;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -82,4 +83,21 @@ public class StatisticsController {
                 .ok()
                 .body(statisticService.getCommentsCount(token, forumId));
     }
+
+    @GetMapping(
+            value = "/activity",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<ActivityListDtoResponse> getActivity(
+            @CookieValue(value = COOKIE_NAME) String token,
+            @RequestParam(value = "forum-id", required = false) Integer forumId,
+            @RequestParam(value = "from") String from,
+            @RequestParam(value = "to") String to,
+            @RequestParam(value = "granularity", required = false) String granularity
+    ) throws ServerException {
+        return ResponseEntity.ok(
+                statisticService.getActivity(token, forumId, from, to, granularity)
+        );
+    }
 }
@@ -0,0 +1,56 @@
+package net.thumbtack.forums.controller;
+
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.utils.UnitOfWork;
+import net.thumbtack.forums.dto.responses.exception.ExceptionDtoResponse;
+import net.thumbtack.forums.dto.responses.exception.ExceptionListDtoResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Commits the unit of work of the request before the response body is written,
+ * so a client never gets a successful response for changes that failed to commit.
+ */
+@RestControllerAdvice
+public class UnitOfWorkCommitAdvice implements ResponseBodyAdvice<Object> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnitOfWorkCommitAdvice.class);
+
+    @Override
+    public boolean supports(final MethodParameter returnType,
+                            final Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(final Object body, final MethodParameter returnType,
+                                  final MediaType selectedContentType,
+                                  final Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  final ServerHttpRequest request, final ServerHttpResponse response) {
+        final UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork == null) {
+            return body;
+        }
+        try {
+            unitOfWork.complete(true);
+        } catch (RuntimeException ex) {
+            LOGGER.info("Unable to commit request changes", ex);
+            final ErrorCode errorCode = ErrorCode.DATABASE_ERROR;
+            final ExceptionListDtoResponse exceptionResponse = new ExceptionListDtoResponse();
+            exceptionResponse.addError(
+                    new ExceptionDtoResponse(errorCode.name(), errorCode.getErrorCauseField(), errorCode.getMessage())
+            );
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return exceptionResponse;
+        }
+        return body;
+    }
+}
@@ -0,0 +1,19 @@
+package net.thumbtack.forums.converter;
+
+import net.thumbtack.forums.cache.CacheCounters;
+import net.thumbtack.forums.dto.responses.debug.CacheStatisticsDtoResponse;
+
+public class CacheStatisticsConverter {
+    public static CacheStatisticsDtoResponse countersToResponse(
+            final String name, final int size, final CacheCounters counters) {
+        return new CacheStatisticsDtoResponse(
+                name,
+                size,
+                counters.getHits(),
+                counters.getMisses(),
+                counters.getEvictions(),
+                counters.getInvalidations(),
+                counters.getHitRatio()
+        );
+    }
+}
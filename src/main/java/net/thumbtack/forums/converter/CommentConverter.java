@@ -17,7 +17,8 @@ public class CommentConverter {
                 comment.getCreatedAt(),
                 comment.getAverageRating(),
                 comment.getRated(),
-                commentListToResponse(comment.getChildrenComments())
+                commentListToResponse(comment.getChildrenComments()),
+                CursorConverter.commentsCursorToString(comment.getMoreComments())
         );
     }
 
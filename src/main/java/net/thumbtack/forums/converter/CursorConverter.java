@@ -0,0 +1,78 @@
+package net.thumbtack.forums.converter;
+
+import net.thumbtack.forums.model.CommentsCursor;
+import net.thumbtack.forums.model.MessageTreeCursor;
+import net.thumbtack.forums.model.enums.MessagePriority;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+public class CursorConverter {
+    private static final String SEPARATOR = "|";
+
+    private static String encode(final String raw) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String cursorToString(final MessageTreeCursor cursor) {
+        return encode(cursor.getPriority().name() + SEPARATOR +
+                cursor.getCreatedAt() + SEPARATOR +
+                cursor.getId()
+        );
+    }
+
+    public static MessageTreeCursor stringToCursor(final String cursor) throws ServerException {
+        try {
+            final String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new ServerException(ErrorCode.INVALID_CURSOR);
+            }
+            return new MessageTreeCursor(
+                    MessagePriority.valueOf(parts[0]),
+                    LocalDateTime.parse(parts[1]),
+                    Integer.parseInt(parts[2])
+            );
+        } catch (RuntimeException ex) {
+            throw new ServerException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    public static String commentsCursorToString(final CommentsCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        if (!cursor.hasPosition()) {
+            return encode(String.valueOf(cursor.getParentId()));
+        }
+        return encode(cursor.getParentId() + SEPARATOR +
+                cursor.getCreatedAt() + SEPARATOR +
+                cursor.getId()
+        );
+    }
+
+    public static CommentsCursor stringToCommentsCursor(final String cursor) throws ServerException {
+        try {
+            final String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final String[] parts = raw.split("\\|");
+            if (parts.length == 1) {
+                return new CommentsCursor(Integer.parseInt(parts[0]));
+            }
+            if (parts.length != 3) {
+                throw new ServerException(ErrorCode.INVALID_COMMENTS_CURSOR);
+            }
+            return new CommentsCursor(
+                    Integer.parseInt(parts[0]),
+                    LocalDateTime.parse(parts[1]),
+                    Integer.parseInt(parts[2])
+            );
+        } catch (RuntimeException ex) {
+            throw new ServerException(ErrorCode.INVALID_COMMENTS_CURSOR);
+        }
+    }
+}
@@ -31,39 +31,42 @@ public class MessageConverter {
                 message.getCreatedAt(),
                 message.getAverageRating(),
                 message.getRated(),
-                commentsResponse
+                commentsResponse,
+                CursorConverter.commentsCursorToString(message.getMoreComments())
         );
     }
 
-    public static List<MessageInfoDtoResponse> messageListToResponse(final List<MessageTree> messages) {
-        final List<MessageInfoDtoResponse> messagesResponse = new ArrayList<>();
+    public static MessageInfoDtoResponse treeToResponse(final MessageTree tree) {
+        final MessageItem root = tree.getRootMessage();
+        final String creator = root.getOwner().getUsername();
+        final List<MessageItem> comments = root.getChildrenComments();
 
-        for (final MessageTree tree : messages) {
-            final MessageItem root = tree.getRootMessage();
-            final String creator = root.getOwner().getUsername();
-            final List<MessageItem> comments = root.getChildrenComments();
+        final List<String> bodyResponse = HistoryConverter
+                .historyToBodyHistoryList(root.getHistory());
+        final List<String> tagsResponse = TagConverter
+                .tagListToTagNamesList(tree.getTags());
+        final List<CommentInfoDtoResponse> commentsResponse = CommentConverter
+                .commentListToResponse(comments);
 
-            final List<String> bodyResponse = HistoryConverter
-                    .historyToBodyHistoryList(root.getHistory());
-            final List<String> tagsResponse = TagConverter
-                    .tagListToTagNamesList(tree.getTags());
-            final List<CommentInfoDtoResponse> commentsResponse = CommentConverter
-                    .commentListToResponse(comments);
+        return new MessageInfoDtoResponse(
+                root.getId(),
+                creator,
+                tree.getSubject(),
+                bodyResponse,
+                tree.getPriority().name(),
+                tagsResponse,
+                root.getCreatedAt(),
+                root.getAverageRating(),
+                root.getRated(),
+                commentsResponse,
+                CursorConverter.commentsCursorToString(root.getMoreComments())
+        );
+    }
 
-            messagesResponse.add(
-                    new MessageInfoDtoResponse(
-                            root.getId(),
-                            creator,
-                            tree.getSubject(),
-                            bodyResponse,
-                            tree.getPriority().name(),
-                            tagsResponse,
-                            root.getCreatedAt(),
-                            root.getAverageRating(),
-                            root.getRated(),
-                            commentsResponse
-                    )
-            );
+    public static List<MessageInfoDtoResponse> messageListToResponse(final List<MessageTree> messages) {
+        final List<MessageInfoDtoResponse> messagesResponse = new ArrayList<>();
+        for (final MessageTree tree : messages) {
+            messagesResponse.add(treeToResponse(tree));
         }
         return messagesResponse;
     }
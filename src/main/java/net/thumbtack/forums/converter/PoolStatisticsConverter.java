@@ -0,0 +1,21 @@
+package net.thumbtack.forums.converter;
+
+import net.thumbtack.forums.utils.PoolMetrics;
+import net.thumbtack.forums.dto.responses.debug.PoolStatisticsDtoResponse;
+
+public class PoolStatisticsConverter {
+    public static PoolStatisticsDtoResponse metricsToResponse(final PoolMetrics metrics) {
+        return new PoolStatisticsDtoResponse(
+                metrics.getActiveConnections(),
+                metrics.getIdleConnections(),
+                metrics.getTotalConnections(),
+                metrics.getPendingThreads(),
+                metrics.getAcquisitions(),
+                metrics.getTimeouts(),
+                metrics.getAverageWaitMillis(),
+                metrics.getMaxWaitMillis(),
+                metrics.getAverageUsageMillis(),
+                metrics.getMaxUsageMillis()
+        );
+    }
+}
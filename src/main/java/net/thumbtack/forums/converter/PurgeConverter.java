@@ -0,0 +1,31 @@
+package net.thumbtack.forums.converter;
+
+import net.thumbtack.forums.model.Purge;
+import net.thumbtack.forums.dto.responses.debug.PurgeDtoResponse;
+import net.thumbtack.forums.dto.responses.debug.PurgeListDtoResponse;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PurgeConverter {
+    public static PurgeDtoResponse purgeToResponse(final Purge purge, final DateTimeFormatter formatter) {
+        return new PurgeDtoResponse(
+                purge.getId(),
+                purge.getTargetType().name(),
+                purge.getTargetId(),
+                purge.getRequestedAt().format(formatter),
+                purge.getRowsPurged(),
+                purge.getFinishedAt() == null ? null : purge.getFinishedAt().format(formatter)
+        );
+    }
+
+    public static PurgeListDtoResponse purgeListToResponse(final List<Purge> purges,
+                                                           final DateTimeFormatter formatter) {
+        final List<PurgeDtoResponse> list = new ArrayList<>();
+        for (final Purge purge : purges) {
+            list.add(purgeToResponse(purge, formatter));
+        }
+        return new PurgeListDtoResponse(list);
+    }
+}
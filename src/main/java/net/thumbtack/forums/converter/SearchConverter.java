@@ -0,0 +1,29 @@
+package net.thumbtack.forums.converter;
+
+import net.thumbtack.forums.view.SearchHitView;
+import net.thumbtack.forums.view.SearchPageView;
+import net.thumbtack.forums.dto.responses.search.SearchResultDtoResponse;
+import net.thumbtack.forums.dto.responses.search.SearchResultListDtoResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchConverter {
+    public static SearchResultDtoResponse hitToResponse(final SearchHitView hit) {
+        return new SearchResultDtoResponse(
+                hit.getMessageId(),
+                hit.getRootMessageId(),
+                hit.getForumId(),
+                hit.getSubject(),
+                Math.round(hit.getScore() * 10000) / 10000.0
+        );
+    }
+
+    public static SearchResultListDtoResponse pageToResponse(final SearchPageView page) {
+        final List<SearchResultDtoResponse> results = new ArrayList<>();
+        for (final SearchHitView hit : page.getHits()) {
+            results.add(hitToResponse(hit));
+        }
+        return new SearchResultListDtoResponse(page.getTotal(), results);
+    }
+}
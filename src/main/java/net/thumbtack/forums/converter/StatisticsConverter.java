@@ -1,12 +1,17 @@
 package net.thumbtack.forums.converter;
 
+import net.thumbtack.forums.model.enums.ActivityGranularity;
+import net.thumbtack.forums.view.ActivityBucketView;
 import net.thumbtack.forums.view.MessageRatingView;
 import net.thumbtack.forums.view.UserRatingView;
 import net.thumbtack.forums.dto.responses.statistic.MessageRatingListDtoResponse;
 import net.thumbtack.forums.dto.responses.statistic.MessageRatingDtoResponse;
 import net.thumbtack.forums.dto.responses.statistic.UserRatingDtoResponse;
 import net.thumbtack.forums.dto.responses.statistic.UserRatingListDtoResponse;
+import net.thumbtack.forums.dto.responses.statistic.ActivityDtoResponse;
+import net.thumbtack.forums.dto.responses.statistic.ActivityListDtoResponse;
 
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -36,4 +41,21 @@ public class StatisticsConverter {
         );
         return new UserRatingListDtoResponse(ratingsResponse);
     }
+
+    public static ActivityListDtoResponse activityToResponse(
+            final ActivityGranularity granularity,
+            final List<ActivityBucketView> activity,
+            final DateTimeFormatter formatter) {
+        final List<ActivityDtoResponse> activityResponse = new ArrayList<>();
+        activity.forEach(abv -> activityResponse.add(
+                new ActivityDtoResponse(
+                        abv.getPeriodStart().format(formatter),
+                        abv.getMessages(),
+                        abv.getComments(),
+                        abv.getRatings(),
+                        abv.getNewUsers()
+                ))
+        );
+        return new ActivityListDtoResponse(granularity.name(), activityResponse);
+    }
 }
@@ -0,0 +1,26 @@
+package net.thumbtack.forums.dao;
+
+import net.thumbtack.forums.model.enums.ActivityGranularity;
+import net.thumbtack.forums.view.ActivityBucketView;
+import net.thumbtack.forums.exception.ServerException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ActivityDao {
+    /**
+     * @param forumId forum of activity or null for the whole server
+     * @return sums of buckets that start in [from, to), one per period of given granularity that has any
+     */
+    List<ActivityBucketView> getActivity(
+            Integer forumId, ActivityGranularity granularity, LocalDateTime from, LocalDateTime to
+    ) throws ServerException;
+
+    /**
+     * Moves buckets of {@code from} granularity that start before {@code before} into buckets
+     * of {@code to} granularity in one transaction.
+     *
+     * @return count of compacted buckets
+     */
+    int rollup(ActivityGranularity from, ActivityGranularity to, LocalDateTime before) throws ServerException;
+}
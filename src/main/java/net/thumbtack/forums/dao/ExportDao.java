@@ -0,0 +1,15 @@
+package net.thumbtack.forums.dao;
+
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.view.ExportRowView;
+
+import java.util.function.Consumer;
+
+public interface ExportDao {
+    /**
+     * Passes all rows of the forum content to the consumer while they are read from database,
+     * in the order described by {@link net.thumbtack.forums.mappers.ExportMapper#getForumRows}.
+     * {@link java.io.UncheckedIOException} thrown by the consumer stops the export and is rethrown as is.
+     */
+    void exportForum(int forumId, Consumer<ExportRowView> consumer) throws ServerException;
+}
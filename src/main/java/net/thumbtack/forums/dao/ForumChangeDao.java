@@ -0,0 +1,26 @@
+package net.thumbtack.forums.dao;
+
+import net.thumbtack.forums.model.ForumChange;
+import net.thumbtack.forums.model.enums.ForumChangeType;
+import net.thumbtack.forums.exception.ServerException;
+
+import java.util.List;
+
+public interface ForumChangeDao {
+    /**
+     * Assigns next sequence number of the change's forum and saves the change.
+     * Callers join the unit of work of the data change, so both are committed in one transaction.
+     */
+    ForumChange saveChange(ForumChange change) throws ServerException;
+
+    /**
+     * Saves one change of given type for every message, messages which no longer exist are skipped.
+     *
+     * @return saved changes with their sequence numbers
+     */
+    List<ForumChange> saveMessageChanges(List<Integer> messageIds, ForumChangeType type) throws ServerException;
+
+    List<ForumChange> getChangesSince(int forumId, long since, int limit) throws ServerException;
+
+    long getLastSequence(int forumId) throws ServerException;
+}
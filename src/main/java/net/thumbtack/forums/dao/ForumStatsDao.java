@@ -0,0 +1,17 @@
+package net.thumbtack.forums.dao;
+
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.view.ForumStatsView;
+
+import java.util.List;
+
+public interface ForumStatsDao {
+    ForumStatsView getStats(int forumId) throws ServerException;
+
+    List<Integer> getForumIds() throws ServerException;
+
+    /**
+     * @return true if stored counters of the forum did not match a recount and were replaced
+     */
+    boolean repairStats(int forumId) throws ServerException;
+}
@@ -0,0 +1,17 @@
+package net.thumbtack.forums.dao;
+
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.model.Forum;
+import net.thumbtack.forums.model.MessageTree;
+import net.thumbtack.forums.model.Rating;
+
+import java.util.List;
+
+public interface ImportDao {
+    /**
+     * Saves new forums, trees with all their messages, history and tags, and ratings of these messages
+     * in one transaction. Owners, authors and raters are found by username and must exist.
+     * Generated IDs are set on the passed models.
+     */
+    void saveChunk(List<Forum> forums, List<MessageTree> trees, List<Rating> ratings) throws ServerException;
+}
@@ -3,6 +3,7 @@ package net.thumbtack.forums.dao;
 import net.thumbtack.forums.exception.ServerException;
 import net.thumbtack.forums.model.HistoryItem;
 import net.thumbtack.forums.model.MessageItem;
+import net.thumbtack.forums.view.HistoryReencodeView;
 
 import java.util.List;
 
@@ -12,4 +13,6 @@ public interface MessageHistoryDao {
     void editLatestVersion(MessageItem item) throws ServerException;
 
     void unpublishNewVersionBy(int messageId) throws ServerException;
+
+    HistoryReencodeView reencodeHistory(int afterMessageId, int maxMessages) throws ServerException;
 }
@@ -1,26 +1,75 @@
 package net.thumbtack.forums.dao;
 
+import net.thumbtack.forums.model.CommentsSlice;
 import net.thumbtack.forums.model.MessageTree;
+import net.thumbtack.forums.model.MessageTreeCursor;
 import net.thumbtack.forums.model.MessageItem;
 import net.thumbtack.forums.model.enums.MessageOrder;
+import net.thumbtack.forums.model.enums.TagFilterMode;
 import net.thumbtack.forums.exception.ServerException;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MessageTreeDao {
     MessageTree saveMessageTree(MessageTree tree) throws ServerException;
 
     MessageTree newBranch(MessageTree tree) throws ServerException;
 
+    /**
+     * @throws ServerException with {@code INVALID_COMMENTS_CURSOR} if cursor of the slice points
+     *                         outside of the requested tree
+     */
     MessageItem getTreeRootMessage(
             int messageId, MessageOrder order,
+            boolean noComments, boolean allVersions, boolean unpublished, int requesterId,
+            CommentsSlice commentsSlice
+    ) throws ServerException;
+
+    /**
+     * @return root messages of trees containing at least one of given messages, in order of their IDs;
+     * messages that no longer exist are skipped
+     */
+    List<MessageItem> getTreeRootMessagesOf(
+            List<Integer> messageIds, MessageOrder order,
             boolean noComments, boolean allVersions, boolean unpublished, int requesterId
     ) throws ServerException;
 
+    List<Integer> getUnpublishedOwnerIds(int messageId, boolean noComments) throws ServerException;
+
     List<MessageTree> getForumTrees(
             int forumId,
             boolean allVersions, boolean noComments, boolean unpublished,
-            List<String> tags, MessageOrder order, int offset, int limit,  int requesterId
+            List<String> tags, TagFilterMode tagMode, MessageOrder order,
+            int offset, int limit, int requesterId, CommentsSlice commentsSlice
+    ) throws ServerException;
+
+    List<MessageTree> getForumTreesAfter(
+            int forumId,
+            boolean allVersions, boolean noComments, boolean unpublished,
+            List<String> tags, TagFilterMode tagMode, MessageOrder order,
+            MessageTreeCursor cursor, int limit, int requesterId, CommentsSlice commentsSlice
+    ) throws ServerException;
+
+    /**
+     * Same as {@code getForumTrees}, but trees are assembled in small batches and passed to consumer
+     * one at a time. Consumer is called with no database connection held.
+     * {@code UncheckedIOException} thrown by consumer is propagated as is.
+     */
+    void streamForumTrees(
+            int forumId,
+            boolean allVersions, boolean noComments, boolean unpublished,
+            List<String> tags, TagFilterMode tagMode, MessageOrder order,
+            int offset, int limit, int requesterId,
+            CommentsSlice commentsSlice, Consumer<MessageTree> consumer
+    ) throws ServerException;
+
+    void streamForumTreesAfter(
+            int forumId,
+            boolean allVersions, boolean noComments, boolean unpublished,
+            List<String> tags, TagFilterMode tagMode, MessageOrder order,
+            MessageTreeCursor cursor, int limit, int requesterId,
+            CommentsSlice commentsSlice, Consumer<MessageTree> consumer
     ) throws ServerException;
 
     void changeBranchPriority(MessageTree tree) throws ServerException;
@@ -0,0 +1,21 @@
+package net.thumbtack.forums.dao;
+
+import net.thumbtack.forums.model.Purge;
+import net.thumbtack.forums.exception.ServerException;
+
+import java.util.List;
+
+public interface PurgeDao {
+    List<Purge> getUnfinished() throws ServerException;
+
+    List<Purge> getLatest(int limit) throws ServerException;
+
+    /**
+     * Removes at most {@code batchSize} rows of the purge target in one transaction and adds them
+     * to the purge progress. The next rows to remove are found from what is left in database,
+     * so a purge interrupted by a restart goes on from where it stopped.
+     *
+     * @return number of removed rows, 0 if nothing was left and the purge was marked finished
+     */
+    int purgeBatch(Purge purge, int batchSize) throws ServerException;
+}
@@ -4,15 +4,30 @@ import net.thumbtack.forums.exception.ServerException;
 import net.thumbtack.forums.model.MessageItem;
 import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.Forum;
+import net.thumbtack.forums.view.RatingVoteView;
+
+import java.util.List;
 
 public interface RatingDao {
-    void upsertRating(MessageItem message, User user, int rating) throws ServerException;
+    /**
+     * @return true if the vote is queued to be written behind, false if it is written already
+     */
+    boolean upsertRating(MessageItem message, User user, int rating) throws ServerException;
 
     void rate(MessageItem message, User user, int rating) throws ServerException;
 
     void changeRating(MessageItem message, User user, int rating) throws ServerException;
 
-    void deleteRate(MessageItem message, User user) throws ServerException;
+    /**
+     * @return true if the vote is queued to be written behind, false if it is written already
+     */
+    boolean deleteRate(MessageItem message, User user) throws ServerException;
+
+    List<Integer> flushRatings(List<RatingVoteView> votes) throws ServerException;
 
     double getMessageRating(MessageItem message) throws ServerException;
+
+    int getMaxMessageId() throws ServerException;
+
+    int recomputeAggregates(int fromId, int toId) throws ServerException;
 }
@@ -0,0 +1,17 @@
+package net.thumbtack.forums.dao;
+
+import net.thumbtack.forums.exception.ServerException;
+
+public interface SearchDao {
+    /**
+     * Builds {@link net.thumbtack.forums.cache.SearchIndex} from the latest published versions
+     * of messages and subjects of trees, replacing its contents.
+     */
+    void loadSearchIndex() throws ServerException;
+
+    /**
+     * @return a value which is different after any change of searchable content,
+     * used to tell whether a saved search index is still up to date
+     */
+    String getContentVersion() throws ServerException;
+}
@@ -31,4 +31,6 @@ public interface StatisticDao {
     List<UserRatingView> getUsersRatingsInForum(
             int forumId, int offset, int limit
     ) throws ServerException;
+
+    void loadRatingLeaderboard() throws ServerException;
 }
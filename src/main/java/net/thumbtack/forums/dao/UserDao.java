@@ -34,6 +34,19 @@ public interface UserDao {
 
     void unbanAllByDate(LocalDateTime date) throws ServerException;
 
+    /**
+     * Puts ends of bans, that end before the given date, to the ban expiry queue.
+     * Bans that already ended are due at once.
+     */
+    void loadBanExpiries(LocalDateTime before) throws ServerException;
+
+    /**
+     * Lifts bans of the users, which ended by the given date. Users banned again since then stay banned.
+     *
+     * @return number of unbanned users
+     */
+    int unbanEnded(List<Integer> userIds, LocalDateTime date) throws ServerException;
+
     void deactivateById(int id) throws ServerException;
 
     void deleteAll() throws ServerException;
@@ -0,0 +1,63 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.dao.ActivityDao;
+import net.thumbtack.forums.model.enums.ActivityGranularity;
+import net.thumbtack.forums.view.ActivityBucketView;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component("activityDao")
+public class ActivityDaoImpl extends MapperCreatorDao implements ActivityDao {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivityDaoImpl.class);
+    private final SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    public ActivityDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public List<ActivityBucketView> getActivity(
+            Integer forumId, ActivityGranularity granularity, LocalDateTime from, LocalDateTime to
+    ) throws ServerException {
+        LOGGER.debug("Getting {} activity of forum {} from {} to {}", granularity, forumId, from, to);
+
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
+            try {
+                return getActivityMapper(sqlSession).getActivity(forumId, granularity.name(), from, to);
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get activity of forum {}", forumId, ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    @Override
+    public int rollup(ActivityGranularity from, ActivityGranularity to, LocalDateTime before) throws ServerException {
+        LOGGER.debug("Rolling up {} activity buckets before {} to {}", from, before, to);
+
+        final int compacted;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                getActivityMapper(sqlSession).rollup(from.name(), to.name(), before);
+                compacted = getActivityMapper(sqlSession).deleteBuckets(from.name(), before);
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to roll up {} activity buckets before {}", from, before, ex);
+                sqlSession.rollback();
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+            sqlSession.commit();
+        }
+        return compacted;
+    }
+}
@@ -1,8 +1,15 @@
 package net.thumbtack.forums.daoimpl;
 
 import net.thumbtack.forums.dao.DebugDao;
+import net.thumbtack.forums.cache.SessionCache;
+import net.thumbtack.forums.cache.TagDictionary;
+import net.thumbtack.forums.cache.TagIndex;
+import net.thumbtack.forums.cache.RatingLeaderboard;
+import net.thumbtack.forums.cache.BanExpiryQueue;
+import net.thumbtack.forums.cache.RatingWriteBuffer;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.utils.UnitOfWork;
 
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -15,10 +22,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 public class DebugDaoImpl extends MapperCreatorDao implements DebugDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(DebugDaoImpl.class);
     private final SqlSessionFactory sqlSessionFactory;
+    private final SessionCache sessionCache;
+    private final TagDictionary tagDictionary;
+    private final TagIndex tagIndex;
+    private final RatingLeaderboard ratingLeaderboard;
+    private final BanExpiryQueue banExpiryQueue;
+    private final RatingWriteBuffer ratingWriteBuffer;
 
     @Autowired
-    public DebugDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+    public DebugDaoImpl(final SqlSessionFactory sqlSessionFactory,
+                        final SessionCache sessionCache,
+                        final TagDictionary tagDictionary,
+                        final TagIndex tagIndex,
+                        final RatingLeaderboard ratingLeaderboard,
+                        final BanExpiryQueue banExpiryQueue,
+                        final RatingWriteBuffer ratingWriteBuffer) {
         this.sqlSessionFactory = sqlSessionFactory;
+        this.sessionCache = sessionCache;
+        this.tagDictionary = tagDictionary;
+        this.tagIndex = tagIndex;
+        this.ratingLeaderboard = ratingLeaderboard;
+        this.banExpiryQueue = banExpiryQueue;
+        this.ratingWriteBuffer = ratingWriteBuffer;
     }
 
     @Override
@@ -31,6 +56,8 @@ public class DebugDaoImpl extends MapperCreatorDao implements DebugDao {
                 getTagMapper(session).deleteAll();
                 getMessageTreeMapper(session).deleteAll();
                 getForumMapper(session).deleteAll();
+                getActivityMapper(session).deleteAll();
+                getPurgeMapper(session).deleteAll();
             } catch (RuntimeException e) {
                 LOGGER.info("Unable to clear database", e);
                 session.rollback();
@@ -38,5 +65,13 @@ public class DebugDaoImpl extends MapperCreatorDao implements DebugDao {
             }
             session.commit();
         }
+        UnitOfWork.afterCommit(() -> {
+            sessionCache.invalidateAll();
+            tagDictionary.clear();
+            tagIndex.clear();
+            ratingLeaderboard.invalidate();
+            banExpiryQueue.clear();
+            ratingWriteBuffer.clear();
+        });
     }
 }
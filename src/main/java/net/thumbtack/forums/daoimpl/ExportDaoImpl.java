@@ -0,0 +1,80 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.dao.ExportDao;
+import net.thumbtack.forums.view.ExportRowView;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+@Component("exportDao")
+public class ExportDaoImpl extends MapperCreatorDao implements ExportDao {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportDaoImpl.class);
+    private final SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    public ExportDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public void exportForum(int forumId, Consumer<ExportRowView> consumer) throws ServerException {
+        LOGGER.debug("Exporting forum {}", forumId);
+
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
+            try (Cursor<ExportRowView> rows = getExportMapper(sqlSession).getForumRows(forumId)) {
+                rows.forEach(new VersionDecoder(consumer));
+            } catch (UncheckedIOException ex) {
+                throw ex;
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.info("Unable to export forum {}", forumId, ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Passes rows on with versions of messages in full.
+     */
+    private static class VersionDecoder implements Consumer<ExportRowView> {
+        private final Consumer<ExportRowView> consumer;
+        private int messageId;
+        private String previousBody;
+
+        VersionDecoder(final Consumer<ExportRowView> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(final ExportRowView row) {
+            if (row.getKind() != ExportRowView.HISTORY) {
+                consumer.accept(row);
+                return;
+            }
+            String body = row.getBody();
+            if (row.getPrefixLength() != null) {
+                if (previousBody == null || messageId != row.getMessageId()) {
+                    throw new IllegalStateException("No version to apply delta of message " + row.getMessageId());
+                }
+                body = HistoryCodec.apply(previousBody, body, row.getPrefixLength(), row.getSuffixLength());
+            }
+            messageId = row.getMessageId();
+            previousBody = body;
+            consumer.accept(new ExportRowView(
+                    row.getTreeId(), row.getKind(), row.getMessageId(), row.getParentId(), row.getUsername(),
+                    row.getSubject(), row.getPriority(), row.getTagName(), body, row.getState(),
+                    row.getRating(), row.getCreatedAt()
+            ));
+        }
+    }
+}
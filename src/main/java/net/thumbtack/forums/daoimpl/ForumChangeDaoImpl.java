@@ -0,0 +1,117 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.dao.ForumChangeDao;
+import net.thumbtack.forums.model.ForumChange;
+import net.thumbtack.forums.model.enums.ForumChangeType;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Component("forumChangeDao")
+public class ForumChangeDaoImpl extends MapperCreatorDao implements ForumChangeDao {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ForumChangeDaoImpl.class);
+    private final SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    public ForumChangeDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public ForumChange saveChange(ForumChange change) throws ServerException {
+        LOGGER.debug("Saving forum change {}", change);
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                saveChange(sqlSession, change);
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to save forum change {}", change, ex);
+                sqlSession.rollback();
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+            sqlSession.commit();
+        }
+        return change;
+    }
+
+    @Override
+    public List<ForumChange> saveMessageChanges(List<Integer> messageIds, ForumChangeType type)
+            throws ServerException {
+        LOGGER.debug("Saving {} changes of messages {}", type, messageIds);
+        if (messageIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<ForumChange> saved = new ArrayList<>();
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                final LocalDateTime createdAt = LocalDateTime.now();
+                for (final ForumChange change : getForumChangeMapper(sqlSession).getMessageChanges(messageIds)) {
+                    change.setType(type);
+                    change.setCreatedAt(createdAt);
+                    if (saveChange(sqlSession, change)) {
+                        saved.add(change);
+                    }
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to save {} changes of messages {}", type, messageIds, ex);
+                sqlSession.rollback();
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+            sqlSession.commit();
+        }
+        return saved;
+    }
+
+    /**
+     * @return false if the forum was deleted, nobody would ask for its changes then
+     */
+    private boolean saveChange(final SqlSession sqlSession, final ForumChange change) {
+        if (getForumChangeMapper(sqlSession).incrementSequence(change.getForumId()) == 0) {
+            return false;
+        }
+        change.setSequence(getForumChangeMapper(sqlSession).getSequence(change.getForumId()));
+        getForumChangeMapper(sqlSession).saveChange(change);
+        return true;
+    }
+
+    @Override
+    public List<ForumChange> getChangesSince(int forumId, long since, int limit) throws ServerException {
+        LOGGER.debug("Getting changes in forum {} since {}, limit={}", forumId, since, limit);
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                return getForumChangeMapper(sqlSession).getChangesSince(forumId, since, limit);
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get changes in forum {} since {}", forumId, since, ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    @Override
+    public long getLastSequence(int forumId) throws ServerException {
+        LOGGER.debug("Getting last change sequence in forum {}", forumId);
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                final Long sequence = getForumChangeMapper(sqlSession).getSequence(forumId);
+                return sequence == null ? 0 : sequence;
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get last change sequence in forum {}", forumId, ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+}
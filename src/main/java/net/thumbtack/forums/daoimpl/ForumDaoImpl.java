@@ -2,8 +2,12 @@ package net.thumbtack.forums.daoimpl;
 
 import net.thumbtack.forums.dao.ForumDao;
 import net.thumbtack.forums.model.Forum;
+import net.thumbtack.forums.model.enums.PurgeTarget;
+import net.thumbtack.forums.cache.TagIndex;
+import net.thumbtack.forums.cache.RatingLeaderboard;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.utils.UnitOfWork;
 
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -20,10 +24,16 @@ import java.sql.SQLIntegrityConstraintViolationException;
 public class ForumDaoImpl extends MapperCreatorDao implements ForumDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(ForumDaoImpl.class);
     private final SqlSessionFactory sqlSessionFactory;
+    private final TagIndex tagIndex;
+    private final RatingLeaderboard ratingLeaderboard;
 
     @Autowired
-    public ForumDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+    public ForumDaoImpl(final SqlSessionFactory sqlSessionFactory,
+                        final TagIndex tagIndex,
+                        final RatingLeaderboard ratingLeaderboard) {
         this.sqlSessionFactory = sqlSessionFactory;
+        this.tagIndex = tagIndex;
+        this.ratingLeaderboard = ratingLeaderboard;
     }
 
     @Override
@@ -33,6 +43,7 @@ public class ForumDaoImpl extends MapperCreatorDao implements ForumDao {
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
                 getForumMapper(sqlSession).save(forum);
+                getForumStatsMapper(sqlSession).createStats(forum.getId());
             } catch (PersistenceException e) {
                 if (e.getCause() instanceof SQLIntegrityConstraintViolationException) {
                     LOGGER.info("Forum name already used {} {}", forum, e.getMessage());
@@ -67,7 +78,7 @@ public class ForumDaoImpl extends MapperCreatorDao implements ForumDao {
     public List<Forum> getAll() throws ServerException {
         LOGGER.debug("Getting all forums");
 
-        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
             try {
                 return getForumMapper(sqlSession).getAll();
             } catch (RuntimeException ex) {
@@ -100,7 +111,11 @@ public class ForumDaoImpl extends MapperCreatorDao implements ForumDao {
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
-                getForumMapper(sqlSession).deleteById(id);
+                // trees, messages and changes of the forum are removed later by the purge job
+                if (getForumMapper(sqlSession).markDeleted(id) > 0) {
+                    getForumStatsMapper(sqlSession).deleteStats(id);
+                    requestPurge(sqlSession, PurgeTarget.FORUM, id);
+                }
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to delete forum by ID {}", id);
 
@@ -109,6 +124,10 @@ public class ForumDaoImpl extends MapperCreatorDao implements ForumDao {
             }
             sqlSession.commit();
         }
+        UnitOfWork.afterCommit(() -> {
+            tagIndex.removeForum(id);
+            ratingLeaderboard.removeForum(id);
+        });
     }
 
     @Override
@@ -126,5 +145,9 @@ public class ForumDaoImpl extends MapperCreatorDao implements ForumDao {
             }
             sqlSession.commit();
         }
+        UnitOfWork.afterCommit(() -> {
+            tagIndex.clear();
+            ratingLeaderboard.invalidate();
+        });
     }
 }
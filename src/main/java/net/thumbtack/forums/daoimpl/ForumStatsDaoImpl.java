@@ -0,0 +1,83 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.dao.ForumStatsDao;
+import net.thumbtack.forums.mappers.ForumStatsMapper;
+import net.thumbtack.forums.view.ForumStatsView;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component("forumStatsDao")
+public class ForumStatsDaoImpl extends MapperCreatorDao implements ForumStatsDao {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ForumStatsDaoImpl.class);
+    private final SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    public ForumStatsDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public ForumStatsView getStats(int forumId) throws ServerException {
+        LOGGER.debug("Getting stats of forum with ID {}", forumId);
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                final ForumStatsView stats = getForumStatsMapper(sqlSession).getStats(forumId);
+                return stats == null ? ForumStatsView.ZERO : stats;
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get stats of forum with ID {}", forumId, ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    @Override
+    public List<Integer> getForumIds() throws ServerException {
+        LOGGER.debug("Getting IDs of all forums");
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                return getForumStatsMapper(sqlSession).getForumIds();
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get IDs of all forums", ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    @Override
+    public boolean repairStats(int forumId) throws ServerException {
+        LOGGER.debug("Verifying stats of forum with ID {}", forumId);
+
+        final boolean repaired;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                final ForumStatsMapper statsMapper = getForumStatsMapper(sqlSession);
+                // row lock is taken before the recount reads a snapshot, so every write
+                // either is already counted with its delta applied or applies the delta after us
+                final ForumStatsView stored = statsMapper.getStatsForUpdate(forumId);
+                final ForumStatsView actual = statsMapper.countForum(forumId);
+                repaired = !actual.equals(stored);
+                if (repaired) {
+                    LOGGER.info("Stats of forum with ID {} were {}, fixed to {}", forumId, stored, actual);
+                    statsMapper.replaceStats(forumId, actual);
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to repair stats of forum with ID {}", forumId, ex);
+                sqlSession.rollback();
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+            sqlSession.commit();
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,174 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.model.HistoryItem;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.view.HistoryVersionView;
+import net.thumbtack.forums.view.MessageHistoryView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Delta encoding of message history. A version is stored as the part of its body which differs
+ * from the previous version, between a prefix and a suffix they have in common, that is compact
+ * for a typical edit. Every {@link #SNAPSHOT_INTERVAL}-th version is stored in full, so rebuilding
+ * the latest version never needs more versions than that.
+ */
+final class HistoryCodec {
+    static final int SNAPSHOT_INTERVAL = 8;
+    // a shorter delta does not pay for a longer chain of versions
+    private static final int MIN_SAVED_LENGTH = 16;
+    private static final String UNPUBLISHED_MARK = "[UNPUBLISHED]";
+
+    private HistoryCodec() {
+    }
+
+    /**
+     * Replaces the full body of the version with a delta against the previous body if it is worth it.
+     *
+     * @param previousBody full body of the previous version, {@code null} for the first version
+     * @param chainLength  number of versions from the latest snapshot to the previous version including both
+     */
+    static void encode(final HistoryVersionView version, final String previousBody, final int chainLength) {
+        final String body = version.getBody();
+        version.setPrefixLength(null);
+        version.setSuffixLength(null);
+        if (previousBody == null || chainLength >= SNAPSHOT_INTERVAL) {
+            return;
+        }
+
+        final int maxLength = Math.min(body.length(), previousBody.length());
+        int prefix = 0;
+        while (prefix < maxLength && body.charAt(prefix) == previousBody.charAt(prefix)) {
+            prefix++;
+        }
+        // surrogate pairs are not split, a half of a pair can not be stored in database
+        if (prefix > 0 && Character.isHighSurrogate(body.charAt(prefix - 1))) {
+            prefix--;
+        }
+        int suffix = 0;
+        while (suffix < maxLength - prefix && body.charAt(body.length() - 1 - suffix)
+                == previousBody.charAt(previousBody.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (suffix > 0 && Character.isLowSurrogate(body.charAt(body.length() - suffix))) {
+            suffix--;
+        }
+        if (prefix + suffix < MIN_SAVED_LENGTH) {
+            return;
+        }
+
+        version.setBody(body.substring(prefix, body.length() - suffix));
+        version.setPrefixLength(prefix);
+        version.setSuffixLength(suffix);
+    }
+
+    /**
+     * Rebuilds full bodies of versions ordered by message and then by ID. Versions of every message
+     * must start with a snapshot.
+     *
+     * @return versions in the same order, all of them in full
+     */
+    static List<HistoryVersionView> decode(final List<HistoryVersionView> versions) {
+        final List<HistoryVersionView> decoded = new ArrayList<>(versions.size());
+        HistoryVersionView previous = null;
+        for (final HistoryVersionView version : versions) {
+            String body = version.getBody();
+            if (version.isDelta()) {
+                if (previous == null || previous.getMessageId() != version.getMessageId()) {
+                    throw new IllegalStateException("No version to apply delta " + version.getId() + " to");
+                }
+                body = apply(previous.getBody(), body, version.getPrefixLength(), version.getSuffixLength());
+            }
+            previous = new HistoryVersionView(
+                    version.getId(), version.getMessageId(), body, null, null,
+                    version.getState(), version.getCreatedAt(), version.isVisible()
+            );
+            decoded.add(previous);
+        }
+        return decoded;
+    }
+
+    static String apply(final String previousBody, final String delta, final int prefixLength,
+                        final int suffixLength) {
+        return previousBody.substring(0, prefixLength)
+                + delta
+                + previousBody.substring(previousBody.length() - suffixLength);
+    }
+
+    /**
+     * Encodes versions of messages, ordered by message and then by ID, from scratch.
+     *
+     * @param versions versions in full, their bodies are replaced with stored ones
+     */
+    static void encodeAll(final List<HistoryVersionView> versions) {
+        HistoryVersionView previous = null;
+        String previousBody = null;
+        int chainLength = 0;
+        for (final HistoryVersionView version : versions) {
+            if (previous == null || previous.getMessageId() != version.getMessageId()) {
+                previousBody = null;
+                chainLength = 0;
+            }
+            final String body = version.getBody();
+            encode(version, previousBody, chainLength);
+            chainLength = version.isDelta() ? chainLength + 1 : 1;
+            previous = version;
+            previousBody = body;
+        }
+    }
+
+    /**
+     * @return full history of one message, latest version first
+     */
+    static List<HistoryItem> toHistory(final List<HistoryVersionView> versions) {
+        final List<HistoryItem> history = new ArrayList<>(versions.size());
+        for (final HistoryVersionView version : decode(versions)) {
+            history.add(new HistoryItem(version.getBody(), version.getState(), version.getCreatedAt()));
+        }
+        Collections.reverse(history);
+        return history;
+    }
+
+    /**
+     * Rebuilds versions shown to a user: only visible ones, every message latest version first,
+     * bodies of unpublished versions marked.
+     *
+     * @param allVersions {@code false} to keep only the latest visible version of every message
+     */
+    static List<MessageHistoryView> toVisibleHistory(final List<HistoryVersionView> versions,
+                                                     final boolean allVersions) {
+        final List<MessageHistoryView> history = new ArrayList<>();
+        final List<MessageHistoryView> messageHistory = new ArrayList<>();
+        Integer messageId = null;
+        for (final HistoryVersionView version : decode(versions)) {
+            if (messageId != null && messageId != version.getMessageId()) {
+                addLatestFirst(history, messageHistory, allVersions);
+            }
+            messageId = version.getMessageId();
+            if (version.isVisible()) {
+                final String body = version.getState() == MessageState.UNPUBLISHED
+                        ? UNPUBLISHED_MARK + version.getBody()
+                        : version.getBody();
+                messageHistory.add(new MessageHistoryView(
+                        version.getMessageId(), body, version.getState(), version.getCreatedAt()
+                ));
+            }
+        }
+        addLatestFirst(history, messageHistory, allVersions);
+        return history;
+    }
+
+    private static void addLatestFirst(final List<MessageHistoryView> history,
+                                       final List<MessageHistoryView> messageHistory,
+                                       final boolean allVersions) {
+        Collections.reverse(messageHistory);
+        if (allVersions) {
+            history.addAll(messageHistory);
+        } else if (!messageHistory.isEmpty()) {
+            history.add(messageHistory.get(0));
+        }
+        messageHistory.clear();
+    }
+}
@@ -0,0 +1,312 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.dao.ImportDao;
+import net.thumbtack.forums.model.Forum;
+import net.thumbtack.forums.model.HistoryItem;
+import net.thumbtack.forums.model.MessageItem;
+import net.thumbtack.forums.model.MessageTree;
+import net.thumbtack.forums.model.Rating;
+import net.thumbtack.forums.model.Tag;
+import net.thumbtack.forums.model.User;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.cache.TagDictionary;
+import net.thumbtack.forums.cache.TagIndex;
+import net.thumbtack.forums.cache.RatingLeaderboard;
+import net.thumbtack.forums.view.ForumStatsView;
+import net.thumbtack.forums.view.HistoryVersionView;
+import net.thumbtack.forums.view.UserNameView;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Writes imported data with batch sessions. Single-row inserts that need generated keys are sent
+ * as one JDBC batch per level: forums, trees, and messages depth by depth, as children refer to IDs
+ * of their parents. The driver rewrites such batches to multi-row statements with
+ * {@code rewriteBatchedStatements}. Rows without keys are inserted with explicit multi-row statements.
+ */
+@Component("importDao")
+public class ImportDaoImpl extends MapperCreatorDao implements ImportDao {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportDaoImpl.class);
+    // keeps every statement well below max_allowed_packet of the server
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final TagDictionary tagDictionary;
+    private final TagIndex tagIndex;
+    private final RatingLeaderboard ratingLeaderboard;
+
+    @Autowired
+    public ImportDaoImpl(final SqlSessionFactory sqlSessionFactory,
+                         final TagDictionary tagDictionary,
+                         final TagIndex tagIndex,
+                         final RatingLeaderboard ratingLeaderboard) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.tagDictionary = tagDictionary;
+        this.tagIndex = tagIndex;
+        this.ratingLeaderboard = ratingLeaderboard;
+    }
+
+    @Override
+    public void saveChunk(List<Forum> forums, List<MessageTree> trees, List<Rating> ratings) throws ServerException {
+        LOGGER.debug("Importing {} forums, {} trees and {} ratings", forums.size(), trees.size(), ratings.size());
+
+        final List<Tag> tags;
+        // batch sessions are never part of the unit of work, every chunk is committed on its own
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            try {
+                setUserIds(sqlSession, forums, trees, ratings);
+                saveForums(sqlSession, forums);
+                for (final MessageTree tree : trees) {
+                    getMessageTreeMapper(sqlSession).saveMessageTree(tree);
+                }
+                sqlSession.flushStatements();
+                tags = bindTags(sqlSession, trees);
+
+                final List<MessageItem> messages = saveMessages(sqlSession, trees);
+                saveHistory(sqlSession, messages);
+                saveRatings(sqlSession, ratings);
+                addStatsAndActivity(sqlSession, messages);
+                sqlSession.flushStatements();
+            } catch (ServerException ex) {
+                sqlSession.rollback();
+                throw ex;
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to import {} forums and {} trees", forums.size(), trees.size(), ex);
+                sqlSession.rollback();
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+            sqlSession.commit();
+        }
+
+        for (final Tag tag : tags) {
+            tagDictionary.put(tag.getName(), tag.getId());
+        }
+        if (!trees.isEmpty()) {
+            // loaded again with the imported trees on next use
+            trees.stream().map(tree -> tree.getForum().getId()).distinct().forEach(tagIndex::removeForum);
+            ratingLeaderboard.invalidate();
+        }
+    }
+
+    private void setUserIds(final SqlSession sqlSession, final List<Forum> forums,
+                            final List<MessageTree> trees, final List<Rating> ratings) throws ServerException {
+        final List<User> users = new ArrayList<>();
+        forums.forEach(forum -> users.add(forum.getOwner()));
+        forEachMessage(trees, message -> users.add(message.getOwner()));
+        ratings.forEach(rating -> users.add(rating.getRater()));
+
+        final List<String> names = users.stream()
+                .map(user -> user.getUsername().toLowerCase(Locale.ROOT))
+                .distinct()
+                .collect(Collectors.toList());
+        final Map<String, Integer> ids = new HashMap<>();
+        for (final List<String> slice : slices(names)) {
+            for (final UserNameView user : getUserMapper(sqlSession).getUserNamesByNames(slice)) {
+                ids.put(user.getUsername().toLowerCase(Locale.ROOT), user.getUserId());
+            }
+        }
+        for (final User user : users) {
+            final Integer id = ids.get(user.getUsername().toLowerCase(Locale.ROOT));
+            if (id == null) {
+                LOGGER.info("Unable to import data of unknown user {}", user.getUsername());
+                throw new ServerException(ErrorCode.USER_NOT_FOUND);
+            }
+            user.setId(id);
+        }
+    }
+
+    private void saveForums(final SqlSession sqlSession, final List<Forum> forums) throws ServerException {
+        if (forums.isEmpty()) {
+            return;
+        }
+        for (final Forum forum : forums) {
+            getForumMapper(sqlSession).save(forum);
+        }
+        try {
+            sqlSession.flushStatements();
+        } catch (PersistenceException ex) {
+            if (isConstraintViolation(ex)) {
+                LOGGER.info("Forum name of imported forums already used {}", ex.getMessage());
+                throw new ServerException(ErrorCode.FORUM_NAME_ALREADY_USED);
+            }
+            throw ex;
+        }
+        for (final Forum forum : forums) {
+            getForumStatsMapper(sqlSession).createStats(forum.getId());
+        }
+    }
+
+    /**
+     * @return all tags of the trees, with IDs
+     */
+    private List<Tag> bindTags(final SqlSession sqlSession, final List<MessageTree> trees) {
+        final Map<String, Tag> tagsByName = new LinkedHashMap<>();
+        final List<MessageTree> taggedTrees = new ArrayList<>();
+        for (final MessageTree tree : trees) {
+            final Map<String, Tag> treeTags = new LinkedHashMap<>();
+            for (final Tag tag : tree.getTags()) {
+                final String name = TagDictionary.normalize(tag.getName());
+                treeTags.putIfAbsent(name, tagsByName.computeIfAbsent(name, Tag::new));
+            }
+            tree.setTags(new ArrayList<>(treeTags.values()));
+            if (!treeTags.isEmpty()) {
+                taggedTrees.add(tree);
+            }
+        }
+
+        final List<String> unknownNames = new ArrayList<>();
+        for (final Map.Entry<String, Tag> entry : tagsByName.entrySet()) {
+            final Integer tagId = tagDictionary.getId(entry.getKey());
+            if (tagId == null) {
+                unknownNames.add(entry.getKey());
+            } else {
+                entry.getValue().setId(tagId);
+            }
+        }
+        for (final List<String> slice : slices(unknownNames)) {
+            getTagMapper(sqlSession).saveTagNames(slice);
+            for (final Tag savedTag : getTagMapper(sqlSession).getByNames(slice)) {
+                tagsByName.get(TagDictionary.normalize(savedTag.getName())).setId(savedTag.getId());
+            }
+        }
+        for (final List<MessageTree> slice : slices(taggedTrees)) {
+            getTagMapper(sqlSession).bindTreesAndTags(slice);
+        }
+        return new ArrayList<>(tagsByName.values());
+    }
+
+    /**
+     * @return saved messages, parents before children
+     */
+    private List<MessageItem> saveMessages(final SqlSession sqlSession, final List<MessageTree> trees) {
+        final List<MessageItem> messages = new ArrayList<>();
+        List<MessageItem> level = trees.stream().map(MessageTree::getRootMessage).collect(Collectors.toList());
+        while (!level.isEmpty()) {
+            final List<MessageItem> nextLevel = new ArrayList<>();
+            for (final MessageItem message : level) {
+                getMessageMapper(sqlSession).saveMessageItem(message);
+                nextLevel.addAll(message.getChildrenComments());
+            }
+            // keys of a batch are set when it is sent
+            sqlSession.flushStatements();
+            messages.addAll(level);
+            level = nextLevel;
+        }
+        return messages;
+    }
+
+    private void saveHistory(final SqlSession sqlSession, final List<MessageItem> messages) {
+        final List<HistoryVersionView> history = new ArrayList<>();
+        for (final MessageItem message : messages) {
+            // versions are kept latest first, they are inserted in order of time, as history is read by ID
+            for (int i = message.getHistory().size() - 1; i >= 0; i--) {
+                final HistoryItem item = message.getHistory().get(i);
+                history.add(new HistoryVersionView(
+                        0, message.getId(), item.getBody(), null, null, item.getState(), item.getCreatedAt()
+                ));
+            }
+        }
+        HistoryCodec.encodeAll(history);
+        for (final List<HistoryVersionView> slice : slices(history)) {
+            getMessageHistoryMapper(sqlSession).saveHistories(slice);
+        }
+    }
+
+    private void saveRatings(final SqlSession sqlSession, final List<Rating> ratings) {
+        if (ratings.isEmpty()) {
+            return;
+        }
+        for (final List<Rating> slice : slices(ratings)) {
+            getRatingMapper(sqlSession).saveRatings(slice);
+        }
+        final int fromId = ratings.stream().mapToInt(rating -> rating.getMessage().getId()).min().getAsInt();
+        final int toId = ratings.stream().mapToInt(rating -> rating.getMessage().getId()).max().getAsInt();
+        getRatingMapper(sqlSession).recomputeAggregates(fromId, toId);
+    }
+
+    private void addStatsAndActivity(final SqlSession sqlSession, final List<MessageItem> messages) {
+        final Map<Integer, ForumStatsView> stats = new LinkedHashMap<>();
+        final Map<Integer, Map<LocalDateTime, int[]>> activity = new LinkedHashMap<>();
+        for (final MessageItem message : messages) {
+            final int forumId = message.getMessageTree().getForum().getId();
+            final boolean isComment = message.getParentMessage() != null;
+            final boolean published = message.getHistory().stream()
+                    .anyMatch(item -> item.getState() == MessageState.PUBLISHED);
+
+            final ForumStatsView delta = stats.computeIfAbsent(forumId, id -> new ForumStatsView(0, 0, 0));
+            if (!published) {
+                delta.setPendingMessages(delta.getPendingMessages() + 1);
+            } else if (isComment) {
+                delta.setPublishedComments(delta.getPublishedComments() + 1);
+            } else {
+                delta.setPublishedMessages(delta.getPublishedMessages() + 1);
+            }
+
+            final int[] counts = activity
+                    .computeIfAbsent(forumId, id -> new LinkedHashMap<>())
+                    .computeIfAbsent(message.getCreatedAt().truncatedTo(ChronoUnit.HOURS), hour -> new int[2]);
+            counts[isComment ? 1 : 0]++;
+        }
+
+        for (final Map.Entry<Integer, ForumStatsView> entry : stats.entrySet()) {
+            getForumStatsMapper(sqlSession).addToStats(entry.getKey(), entry.getValue());
+        }
+        for (final Map.Entry<Integer, Map<LocalDateTime, int[]>> forumActivity : activity.entrySet()) {
+            for (final Map.Entry<LocalDateTime, int[]> bucket : forumActivity.getValue().entrySet()) {
+                getActivityMapper(sqlSession).addActivity(
+                        forumActivity.getKey(), bucket.getKey(), bucket.getValue()[0], bucket.getValue()[1], 0, 0
+                );
+            }
+        }
+    }
+
+    private static void forEachMessage(final List<MessageTree> trees,
+                                       final Consumer<MessageItem> action) {
+        final List<MessageItem> pending = trees.stream()
+                .map(MessageTree::getRootMessage)
+                .collect(Collectors.toCollection(ArrayList::new));
+        while (!pending.isEmpty()) {
+            final MessageItem message = pending.remove(pending.size() - 1);
+            action.accept(message);
+            pending.addAll(message.getChildrenComments());
+        }
+    }
+
+    private static <T> List<List<T>> slices(final List<T> items) {
+        final List<List<T>> slices = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += ROWS_PER_STATEMENT) {
+            slices.add(items.subList(from, Math.min(items.size(), from + ROWS_PER_STATEMENT)));
+        }
+        return slices;
+    }
+
+    private static boolean isConstraintViolation(final Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
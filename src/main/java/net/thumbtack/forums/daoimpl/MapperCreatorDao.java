@@ -1,10 +1,28 @@
 package net.thumbtack.forums.daoimpl;
 
 import net.thumbtack.forums.mappers.*;
+import net.thumbtack.forums.model.Purge;
+import net.thumbtack.forums.model.enums.PurgeTarget;
+import net.thumbtack.forums.view.ForumStatsView;
+import net.thumbtack.forums.utils.RoutingSqlSessionFactory;
 
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 public class MapperCreatorDao {
+    /**
+     * Opens a session for a read that may be served by a replica, see {@link RoutingSqlSessionFactory}.
+     */
+    protected SqlSession openReadSession(final SqlSessionFactory sqlSessionFactory) {
+        if (sqlSessionFactory instanceof RoutingSqlSessionFactory) {
+            return ((RoutingSqlSessionFactory) sqlSessionFactory).openReadSession();
+        }
+        return sqlSessionFactory.openSession();
+    }
+
     protected UserMapper getUserMapper(final SqlSession sqlSession) {
         return sqlSession.getMapper(UserMapper.class);
     }
@@ -37,15 +55,74 @@ public class MapperCreatorDao {
         return sqlSession.getMapper(MessageHistoryMapper.class);
     }
 
-    protected ParametrizedMessageMapper getParametrizedMessageMapper(final SqlSession sqlSession) {
-        return sqlSession.getMapper(ParametrizedMessageMapper.class);
-    }
-
     protected ParametrizedMessageTreeMapper getParametrizedMessageTreeMapper(final SqlSession sqlSession) {
         return sqlSession.getMapper(ParametrizedMessageTreeMapper.class);
     }
 
+    protected MessageSubtreeMapper getMessageSubtreeMapper(final SqlSession sqlSession) {
+        return sqlSession.getMapper(MessageSubtreeMapper.class);
+    }
+
     protected StatisticMapper getStatisticMapper(final SqlSession sqlSession) {
         return sqlSession.getMapper(StatisticMapper.class);
     }
+
+    protected ForumChangeMapper getForumChangeMapper(final SqlSession sqlSession) {
+        return sqlSession.getMapper(ForumChangeMapper.class);
+    }
+
+    protected ForumStatsMapper getForumStatsMapper(final SqlSession sqlSession) {
+        return sqlSession.getMapper(ForumStatsMapper.class);
+    }
+
+    protected ActivityMapper getActivityMapper(final SqlSession sqlSession) {
+        return sqlSession.getMapper(ActivityMapper.class);
+    }
+
+    protected ExportMapper getExportMapper(final SqlSession sqlSession) {
+        return sqlSession.getMapper(ExportMapper.class);
+    }
+
+    protected PurgeMapper getPurgeMapper(final SqlSession sqlSession) {
+        return sqlSession.getMapper(PurgeMapper.class);
+    }
+
+    protected SearchMapper getSearchMapper(final SqlSession sqlSession) {
+        return sqlSession.getMapper(SearchMapper.class);
+    }
+
+    /**
+     * Adds the difference of message counts taken before and after a write to forum_stats,
+     * so the counters are committed or rolled back together with the write itself.
+     */
+    protected void updateForumStats(final SqlSession sqlSession, final Integer forumId,
+                                    final ForumStatsView before, final ForumStatsView after) {
+        final ForumStatsView delta = after.minus(before);
+        if (forumId != null && !delta.isZero()) {
+            getForumStatsMapper(sqlSession).addToStats(forumId, delta);
+        }
+    }
+
+    /**
+     * Counts events of a write in the current hourly bucket of activity_buckets,
+     * in the same transaction as the write itself.
+     */
+    protected void addActivity(final SqlSession sqlSession, final Integer forumId,
+                               final int messages, final int comments, final int ratings, final int newUsers) {
+        if (forumId != null) {
+            getActivityMapper(sqlSession).addActivity(
+                    forumId, LocalDateTime.now().truncatedTo(ChronoUnit.HOURS), messages, comments, ratings, newUsers
+            );
+        }
+    }
+
+    /**
+     * Queues removal of rows of a hidden forum or tree for the purge job,
+     * in the same transaction that hides it.
+     */
+    protected void requestPurge(final SqlSession sqlSession, final PurgeTarget targetType, final int targetId) {
+        getPurgeMapper(sqlSession).save(
+                new Purge(targetType, targetId, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS))
+        );
+    }
 }
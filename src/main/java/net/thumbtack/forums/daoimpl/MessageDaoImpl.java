@@ -2,10 +2,14 @@ package net.thumbtack.forums.daoimpl;
 
 import net.thumbtack.forums.model.MessageItem;
 import net.thumbtack.forums.dao.MessageDao;
+import net.thumbtack.forums.cache.RatingLeaderboard;
+import net.thumbtack.forums.mappers.ForumStatsMapper;
+import net.thumbtack.forums.view.ForumStatsView;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
 
 import net.thumbtack.forums.model.enums.MessageOrder;
+import net.thumbtack.forums.utils.UnitOfWork;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.slf4j.Logger;
@@ -19,22 +23,32 @@ import java.util.List;
 public class MessageDaoImpl extends MapperCreatorDao implements MessageDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageDaoImpl.class);
     private final SqlSessionFactory sqlSessionFactory;
+    private final RatingLeaderboard ratingLeaderboard;
 
     @Autowired
-    public MessageDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+    public MessageDaoImpl(final SqlSessionFactory sqlSessionFactory,
+                          final RatingLeaderboard ratingLeaderboard) {
         this.sqlSessionFactory = sqlSessionFactory;
+        this.ratingLeaderboard = ratingLeaderboard;
     }
 
     @Override
     public MessageItem saveMessageItem(MessageItem item) throws ServerException {
         LOGGER.debug("Saving new message {}", item);
 
+        final Integer forumId;
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
                 getMessageMapper(sqlSession).saveMessageItem(item);
                 getMessageHistoryMapper(sqlSession).saveHistory(
                         item.getId(), item.getHistory().get(0)
                 );
+                final ForumStatsMapper statsMapper = getForumStatsMapper(sqlSession);
+                forumId = statsMapper.getForumIdOfMessage(item.getId());
+                updateForumStats(
+                        sqlSession, forumId, ForumStatsView.ZERO, statsMapper.countMessage(item.getId())
+                );
+                addActivity(sqlSession, forumId, 0, 1, 0, 0);
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to save new {}", item, ex);
                 sqlSession.rollback();
@@ -42,6 +56,12 @@ public class MessageDaoImpl extends MapperCreatorDao implements MessageDao {
             }
             sqlSession.commit();
         }
+        if (forumId != null) {
+            final int messageId = item.getId();
+            final int ownerId = item.getOwner().getId();
+            final boolean isMessage = item.getParentMessage() == null;
+            UnitOfWork.afterCommit(() -> ratingLeaderboard.addMessage(messageId, forumId, ownerId, isMessage));
+        }
         return item;
     }
 
@@ -51,7 +71,14 @@ public class MessageDaoImpl extends MapperCreatorDao implements MessageDao {
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
-                return getMessageMapper(sqlSession).getMessageById(id);
+                final MessageItem message = getMessageMapper(sqlSession).getMessageById(id);
+                if (message != null) {
+                    // stored versions may be deltas, so history is rebuilt instead of being loaded lazily
+                    message.setHistory(HistoryCodec.toHistory(
+                            getMessageHistoryMapper(sqlSession).getMessageVersions(id)
+                    ));
+                }
+                return message;
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to get message by ID {}", id, ex);
                 throw new ServerException(ErrorCode.DATABASE_ERROR);
@@ -65,7 +92,13 @@ public class MessageDaoImpl extends MapperCreatorDao implements MessageDao {
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
+                final ForumStatsMapper statsMapper = getForumStatsMapper(sqlSession);
+                final ForumStatsView before = statsMapper.countMessage(item.getId());
                 getMessageHistoryMapper(sqlSession).updateMessageHistory(item.getId(), item.getHistory().get(0));
+                updateForumStats(
+                        sqlSession, statsMapper.getForumIdOfMessage(item.getId()),
+                        before, statsMapper.countMessage(item.getId())
+                );
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to publish message {}", item, ex);
                 sqlSession.rollback();
@@ -79,10 +112,16 @@ public class MessageDaoImpl extends MapperCreatorDao implements MessageDao {
     public void deleteMessageById(int id) throws ServerException {
         LOGGER.debug("Deleting message by ID {}", id);
 
+        final List<Integer> messageIds;
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
+                messageIds = getMessageSubtreeMapper(sqlSession).getSubtreeIds(id);
+                final ForumStatsMapper statsMapper = getForumStatsMapper(sqlSession);
+                final Integer forumId = statsMapper.getForumIdOfMessage(id);
+                final ForumStatsView before = statsMapper.countSubtree(id);
                 getMessageMapper(sqlSession).deleteById(id);
-                // histories would be deleted by ON DELETE CASCADE
+                // histories and comments would be deleted by ON DELETE CASCADE
+                updateForumStats(sqlSession, forumId, before, ForumStatsView.ZERO);
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to delete message by ID {}", id, ex);
                 sqlSession.rollback();
@@ -90,6 +129,7 @@ public class MessageDaoImpl extends MapperCreatorDao implements MessageDao {
             }
             sqlSession.commit();
         }
+        UnitOfWork.afterCommit(() -> ratingLeaderboard.removeMessages(messageIds));
     }
 
     @Override
@@ -99,6 +139,7 @@ public class MessageDaoImpl extends MapperCreatorDao implements MessageDao {
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
                 getMessageMapper(sqlSession).deleteAll();
+                getForumStatsMapper(sqlSession).resetAll();
                 // histories and message tree would be deleted by ON DELETE CASCADE
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to delete all messages", ex);
@@ -107,5 +148,6 @@ public class MessageDaoImpl extends MapperCreatorDao implements MessageDao {
             }
             sqlSession.commit();
         }
+        UnitOfWork.afterCommit(ratingLeaderboard::invalidate);
     }
 }
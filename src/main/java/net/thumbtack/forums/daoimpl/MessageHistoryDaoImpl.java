@@ -3,6 +3,11 @@ package net.thumbtack.forums.daoimpl;
 import net.thumbtack.forums.model.HistoryItem;
 import net.thumbtack.forums.model.MessageItem;
 import net.thumbtack.forums.dao.MessageHistoryDao;
+import net.thumbtack.forums.mappers.ForumStatsMapper;
+import net.thumbtack.forums.mappers.MessageHistoryMapper;
+import net.thumbtack.forums.view.ForumStatsView;
+import net.thumbtack.forums.view.HistoryVersionView;
+import net.thumbtack.forums.view.HistoryReencodeView;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
 
@@ -13,6 +18,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.List;
+import java.util.Objects;
+
 @Component("messageHistoryDao")
 public class MessageHistoryDaoImpl extends MapperCreatorDao implements MessageHistoryDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageHistoryDaoImpl.class);
@@ -30,7 +38,21 @@ public class MessageHistoryDaoImpl extends MapperCreatorDao implements MessageHi
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
-                getMessageHistoryMapper(sqlSession).saveHistory(item.getId(), newVersion);
+                final ForumStatsMapper statsMapper = getForumStatsMapper(sqlSession);
+                final ForumStatsView before = statsMapper.countMessage(item.getId());
+                final List<HistoryVersionView> latest = HistoryCodec.decode(
+                        getMessageHistoryMapper(sqlSession).getLatestVersionsForUpdate(item.getId())
+                );
+                final HistoryVersionView version = new HistoryVersionView(
+                        0, item.getId(), newVersion.getBody(), null, null,
+                        newVersion.getState(), newVersion.getCreatedAt()
+                );
+                HistoryCodec.encode(version, getLatestBody(latest), latest.size());
+                getMessageHistoryMapper(sqlSession).saveVersion(version);
+                updateForumStats(
+                        sqlSession, statsMapper.getForumIdOfMessage(item.getId()),
+                        before, statsMapper.countMessage(item.getId())
+                );
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to save new version of message {}", item, ex);
                 sqlSession.rollback();
@@ -47,9 +69,20 @@ public class MessageHistoryDaoImpl extends MapperCreatorDao implements MessageHi
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
-                getMessageHistoryMapper(sqlSession).editUnpublishedHistory(
-                        item.getId(), item.getHistory().get(0)
+                final List<HistoryVersionView> latest = HistoryCodec.decode(
+                        getMessageHistoryMapper(sqlSession).getLatestVersionsForUpdate(item.getId())
+                );
+                final HistoryItem editedVersion = item.getHistory().get(0);
+                final HistoryVersionView version = new HistoryVersionView(
+                        0, item.getId(), editedVersion.getBody(), null, null,
+                        editedVersion.getState(), editedVersion.getCreatedAt()
                 );
+                // the edited version is the latest one, it is encoded against the version before it
+                final List<HistoryVersionView> previous = latest.isEmpty()
+                        ? latest
+                        : latest.subList(0, latest.size() - 1);
+                HistoryCodec.encode(version, getLatestBody(previous), previous.size());
+                getMessageHistoryMapper(sqlSession).editUnpublishedHistory(version);
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to update unpublished version of message {}", item);
                 sqlSession.rollback();
@@ -65,7 +98,13 @@ public class MessageHistoryDaoImpl extends MapperCreatorDao implements MessageHi
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
+                final ForumStatsMapper statsMapper = getForumStatsMapper(sqlSession);
+                final ForumStatsView before = statsMapper.countMessage(messageId);
                 getMessageHistoryMapper(sqlSession).deleteRejectedHistory(messageId);
+                updateForumStats(
+                        sqlSession, statsMapper.getForumIdOfMessage(messageId),
+                        before, statsMapper.countMessage(messageId)
+                );
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to delete unpublished version by message ID {}", messageId, ex);
                 sqlSession.rollback();
@@ -74,4 +113,54 @@ public class MessageHistoryDaoImpl extends MapperCreatorDao implements MessageHi
             sqlSession.commit();
         }
     }
+
+    /**
+     * Re-encodes the whole history of messages following the given one, so rows saved in full before
+     * history was encoded, or encoded with other settings, are stored as snapshots and deltas.
+     * Bodies of versions do not change, so the batch can be repeated and run while the server is working.
+     */
+    @Override
+    public HistoryReencodeView reencodeHistory(int afterMessageId, int maxMessages) throws ServerException {
+        LOGGER.debug("Re-encoding history of {} messages after message {}", maxMessages, afterMessageId);
+
+        final HistoryReencodeView result;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                final MessageHistoryMapper historyMapper = getMessageHistoryMapper(sqlSession);
+                final List<Integer> messageIds = historyMapper.getMessageIdsWithHistory(afterMessageId, maxMessages);
+                int rewritten = 0;
+                if (!messageIds.isEmpty()) {
+                    final List<HistoryVersionView> stored = historyMapper.getVersionsForUpdate(messageIds);
+                    final List<HistoryVersionView> versions = HistoryCodec.decode(stored);
+                    HistoryCodec.encodeAll(versions);
+                    for (int i = 0; i < versions.size(); i++) {
+                        if (!isStoredAs(stored.get(i), versions.get(i))) {
+                            historyMapper.updateEncoding(versions.get(i));
+                            rewritten++;
+                        }
+                    }
+                }
+                result = new HistoryReencodeView(
+                        messageIds.isEmpty() ? afterMessageId : messageIds.get(messageIds.size() - 1),
+                        messageIds.size(), rewritten
+                );
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to re-encode history of messages after message {}", afterMessageId, ex);
+                sqlSession.rollback();
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+            sqlSession.commit();
+        }
+        return result;
+    }
+
+    private static boolean isStoredAs(final HistoryVersionView stored, final HistoryVersionView version) {
+        return Objects.equals(stored.getBody(), version.getBody())
+                && Objects.equals(stored.getPrefixLength(), version.getPrefixLength())
+                && Objects.equals(stored.getSuffixLength(), version.getSuffixLength());
+    }
+
+    private static String getLatestBody(final List<HistoryVersionView> versions) {
+        return versions.isEmpty() ? null : versions.get(versions.size() - 1).getBody();
+    }
 }
@@ -0,0 +1,120 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.model.CommentsCursor;
+import net.thumbtack.forums.model.HistoryItem;
+import net.thumbtack.forums.model.MessageItem;
+import net.thumbtack.forums.model.MessageTree;
+import net.thumbtack.forums.model.enums.MessageOrder;
+import net.thumbtack.forums.view.MessageHistoryView;
+
+import java.util.*;
+
+/**
+ * Builds message trees from the flat rows returned by {@link net.thumbtack.forums.mappers.MessageSubtreeMapper}.
+ * Parent of every comment is a stub holding only ID and tree, so the graph has no cycles
+ * for equals(), hashCode() and toString().
+ */
+final class MessageTreeAssembler {
+    private MessageTreeAssembler() {
+    }
+
+    static Map<Integer, MessageItem> assembleRoots(
+            final List<MessageItem> messages,
+            final List<MessageHistoryView> history,
+            final MessageOrder order) {
+        final Map<Integer, MessageItem> messagesById = attachHistory(messages, history);
+        for (final MessageItem message : messages) {
+            message.setChildrenComments(new ArrayList<>());
+        }
+
+        final Map<Integer, MessageItem> roots = new LinkedHashMap<>();
+        for (final MessageItem message : messages) {
+            final MessageItem parentStub = message.getParentMessage();
+            if (parentStub == null) {
+                roots.put(message.getId(), message);
+                continue;
+            }
+            final MessageItem parent = messagesById.get(parentStub.getId());
+            if (parent != null) {
+                parent.getChildrenComments().add(message);
+            }
+        }
+
+        Comparator<MessageItem> comparator = Comparator
+                .comparing(MessageItem::getCreatedAt)
+                .thenComparingInt(MessageItem::getId);
+        if (order == MessageOrder.DESC) {
+            comparator = comparator.reversed();
+        }
+        for (final MessageItem message : messages) {
+            message.getChildrenComments().sort(comparator);
+        }
+        return roots;
+    }
+
+    /**
+     * Builds roots from a slice of their trees. Children order comes from {@code childrenByParent} as it was
+     * loaded, messages that weren't loaded are skipped.
+     */
+    static Map<Integer, MessageItem> assembleSlice(
+            final List<MessageItem> messages,
+            final List<MessageHistoryView> history,
+            final List<Integer> rootIds,
+            final Map<Integer, List<Integer>> childrenByParent,
+            final Map<Integer, CommentsCursor> moreByParent) {
+        final Map<Integer, MessageItem> messagesById = attachHistory(messages, history);
+        for (final MessageItem message : messages) {
+            final List<MessageItem> children = new ArrayList<>();
+            for (final Integer childId : childrenByParent.getOrDefault(message.getId(), Collections.emptyList())) {
+                final MessageItem child = messagesById.get(childId);
+                if (child != null) {
+                    children.add(child);
+                }
+            }
+            message.setChildrenComments(children);
+            message.setMoreComments(moreByParent.get(message.getId()));
+        }
+
+        final Map<Integer, MessageItem> roots = new LinkedHashMap<>();
+        for (final Integer rootId : rootIds) {
+            final MessageItem root = messagesById.get(rootId);
+            if (root != null) {
+                roots.put(rootId, root);
+            }
+        }
+        return roots;
+    }
+
+    private static Map<Integer, MessageItem> attachHistory(
+            final List<MessageItem> messages,
+            final List<MessageHistoryView> history) {
+        final Map<Integer, List<HistoryItem>> historyByMessage = new HashMap<>();
+        for (final MessageHistoryView version : history) {
+            historyByMessage
+                    .computeIfAbsent(version.getMessageId(), id -> new ArrayList<>())
+                    .add(new HistoryItem(version.getBody(), version.getState(), version.getCreatedAt()));
+        }
+
+        final Map<Integer, MessageItem> messagesById = new HashMap<>();
+        for (final MessageItem message : messages) {
+            message.setHistory(historyByMessage.getOrDefault(message.getId(), new ArrayList<>()));
+            messagesById.put(message.getId(), message);
+        }
+        return messagesById;
+    }
+
+    static void attachTree(final MessageItem root, final MessageTree tree) {
+        tree.setRootMessage(root);
+
+        final Deque<MessageItem> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final MessageItem message = pending.pop();
+            message.setMessageTree(tree);
+            if (message.getParentMessage() != null) {
+                message.getParentMessage().setMessageTree(tree);
+            }
+            message.getChildrenComments().forEach(pending::push);
+        }
+    }
+}
@@ -1,11 +1,28 @@
 package net.thumbtack.forums.daoimpl;
 
 import net.thumbtack.forums.dao.MessageTreeDao;
+import net.thumbtack.forums.mappers.ForumStatsMapper;
+import net.thumbtack.forums.mappers.MessageSubtreeMapper;
+import net.thumbtack.forums.model.CommentsCursor;
+import net.thumbtack.forums.model.CommentsSlice;
+import net.thumbtack.forums.model.Forum;
 import net.thumbtack.forums.model.MessageItem;
 import net.thumbtack.forums.model.MessageTree;
+import net.thumbtack.forums.model.MessageTreeCursor;
+import net.thumbtack.forums.model.Tag;
 import net.thumbtack.forums.model.enums.MessageOrder;
+import net.thumbtack.forums.model.enums.PurgeTarget;
+import net.thumbtack.forums.model.enums.TagFilterMode;
+import net.thumbtack.forums.cache.TagDictionary;
+import net.thumbtack.forums.cache.TagIndex;
+import net.thumbtack.forums.cache.RatingLeaderboard;
+import net.thumbtack.forums.view.ChildMessageView;
+import net.thumbtack.forums.view.ForumStatsView;
+import net.thumbtack.forums.view.MessageHistoryView;
+import net.thumbtack.forums.view.TreeTagView;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.utils.UnitOfWork;
 
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -14,17 +31,39 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Component("messageTreeDao")
 public class MessageTreeDaoImpl extends MapperCreatorDao implements MessageTreeDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageTreeDaoImpl.class);
+    // trees of a stream loaded with one session, the session is closed before they are written
+    static final int STREAM_BATCH_SIZE = 10;
+    // parents of one statement of a comments slice, every parent adds a subquery to it
+    static final int SLICE_PARENTS_CHUNK_SIZE = 100;
     private final SqlSessionFactory sqlSessionFactory;
+    private final TagDictionary tagDictionary;
+    private final TagIndex tagIndex;
+    private final RatingLeaderboard ratingLeaderboard;
 
     @Autowired
-    public MessageTreeDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+    public MessageTreeDaoImpl(final SqlSessionFactory sqlSessionFactory,
+                              final TagDictionary tagDictionary,
+                              final TagIndex tagIndex,
+                              final RatingLeaderboard ratingLeaderboard) {
         this.sqlSessionFactory = sqlSessionFactory;
+        this.tagDictionary = tagDictionary;
+        this.tagIndex = tagIndex;
+        this.ratingLeaderboard = ratingLeaderboard;
     }
 
     @Override
@@ -40,11 +79,12 @@ public class MessageTreeDaoImpl extends MapperCreatorDao implements MessageTreeD
                 getMessageHistoryMapper(sqlSession).saveHistory(
                         rootMessage.getId(), rootMessage.getHistory().get(0)
                 );
-
-                if (!tree.getTags().isEmpty()) {
-                    getTagMapper(sqlSession).saveAllTags(tree.getTags());
-                    getTagMapper(sqlSession).safeBindMessageAndTags(tree);
-                }
+                bindTags(sqlSession, tree);
+                updateForumStats(
+                        sqlSession, tree.getForum().getId(),
+                        ForumStatsView.ZERO, getForumStatsMapper(sqlSession).countMessage(rootMessage.getId())
+                );
+                addActivity(sqlSession, tree.getForum().getId(), 1, 0, 0, 0);
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to create new tree {}", tree, ex);
                 sqlSession.rollback();
@@ -52,6 +92,11 @@ public class MessageTreeDaoImpl extends MapperCreatorDao implements MessageTreeD
             }
             sqlSession.commit();
         }
+        indexTags(tree);
+        final int rootMessageId = tree.getRootMessage().getId();
+        final int forumId = tree.getForum().getId();
+        final int ownerId = tree.getRootMessage().getOwner().getId();
+        UnitOfWork.afterCommit(() -> ratingLeaderboard.addMessage(rootMessageId, forumId, ownerId, true));
         return tree;
     }
 
@@ -61,12 +106,16 @@ public class MessageTreeDaoImpl extends MapperCreatorDao implements MessageTreeD
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
+                final ForumStatsMapper statsMapper = getForumStatsMapper(sqlSession);
+                final int rootMessageId = tree.getRootMessage().getId();
+                final ForumStatsView before = statsMapper.countMessage(rootMessageId);
                 getMessageTreeMapper(sqlSession).saveMessageTree(tree);
-                if (!tree.getTags().isEmpty()) {
-                    getTagMapper(sqlSession).saveAllTags(tree.getTags());
-                    getTagMapper(sqlSession).safeBindMessageAndTags(tree);
-                }
+                bindTags(sqlSession, tree);
                 getMessageMapper(sqlSession).madeTreeRootMessage(tree.getRootMessage());
+                updateForumStats(
+                        sqlSession, statsMapper.getForumIdOfMessage(rootMessageId),
+                        before, statsMapper.countMessage(rootMessageId)
+                );
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to made new branch from message {}", tree, ex);
                 sqlSession.rollback();
@@ -74,29 +123,132 @@ public class MessageTreeDaoImpl extends MapperCreatorDao implements MessageTreeD
             }
             sqlSession.commit();
         }
+        indexTags(tree);
+        final int rootMessageId = tree.getRootMessage().getId();
+        UnitOfWork.afterCommit(() -> ratingLeaderboard.makeRoot(rootMessageId));
         return tree;
     }
 
     @Override
     public MessageItem getTreeRootMessage(
             int messageId, MessageOrder order, boolean noComments,
-            boolean allVersions, boolean unpublished, int requesterId) throws ServerException {
+            boolean allVersions, boolean unpublished, int requesterId,
+            CommentsSlice commentsSlice) throws ServerException {
         LOGGER.debug(
                 "Getting root message for {} by ID {} with params: order={}, " +
+                        "noComments={}, allVersions={}, unpublished={}, comments={}",
+                requesterId, messageId, order.name(), noComments, allVersions, unpublished, commentsSlice
+        );
+
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
+            try {
+                final List<Integer> rootIds = Collections.singletonList(messageId);
+                if (!noComments && !commentsSlice.isUnlimited()) {
+                    final MessageSubtreeMapper subtreeMapper = getMessageSubtreeMapper(sqlSession);
+                    if (!Integer.valueOf(messageId).equals(subtreeMapper.getRootMessageId(messageId))) {
+                        return null;
+                    }
+                    final CommentsCursor cursor = commentsSlice.getCursor();
+                    if (cursor != null &&
+                            !Integer.valueOf(messageId).equals(subtreeMapper.getRootMessageId(cursor.getParentId()))) {
+                        throw new ServerException(ErrorCode.INVALID_COMMENTS_CURSOR);
+                    }
+                    final MessageItem rootMessage = loadSlice(
+                            sqlSession, rootIds, commentsSlice, allVersions, unpublished, order, requesterId
+                    ).get(messageId);
+                    return attachTree(sqlSession, rootMessage);
+                }
+
+                final List<MessageItem> messages = getMessageSubtreeMapper(sqlSession)
+                        .getSubtreeMessages(rootIds, noComments);
+                if (messages.isEmpty()) {
+                    return null;
+                }
+                final List<MessageHistoryView> history = HistoryCodec.toVisibleHistory(
+                        getMessageSubtreeMapper(sqlSession)
+                                .getSubtreeHistory(rootIds, noComments, allVersions, unpublished, requesterId),
+                        allVersions
+                );
+
+                final MessageItem rootMessage = MessageTreeAssembler
+                        .assembleRoots(messages, history, order)
+                        .get(messageId);
+                return attachTree(sqlSession, rootMessage);
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get root message by ID {}", messageId, ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    @Override
+    public List<MessageItem> getTreeRootMessagesOf(
+            List<Integer> messageIds, MessageOrder order, boolean noComments,
+            boolean allVersions, boolean unpublished, int requesterId) throws ServerException {
+        LOGGER.debug(
+                "Getting root messages of {} for {} with params: order={}, " +
                         "noComments={}, allVersions={}, unpublished={}",
-                requesterId, messageId, order.name(), noComments, allVersions, unpublished
+                messageIds, requesterId, order.name(), noComments, allVersions, unpublished
         );
+        if (messageIds.isEmpty()) {
+            return new ArrayList<>();
+        }
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
-                MessageItem rootMessage = getParametrizedMessageMapper(sqlSession)
-                        .getRootMessage(messageId, order.name(), allVersions, unpublished, requesterId);
-                if (noComments) {
-                    rootMessage.setChildrenComments(Collections.emptyList());
+                final List<Integer> rootIds = getMessageSubtreeMapper(sqlSession).getRootMessageIds(messageIds);
+                if (rootIds.isEmpty()) {
+                    return new ArrayList<>();
                 }
-                return rootMessage;
+                final List<MessageItem> messages = getMessageSubtreeMapper(sqlSession)
+                        .getSubtreeMessages(rootIds, noComments);
+                final List<MessageHistoryView> history = HistoryCodec.toVisibleHistory(
+                        getMessageSubtreeMapper(sqlSession)
+                                .getSubtreeHistory(rootIds, noComments, allVersions, unpublished, requesterId),
+                        allVersions
+                );
+                final Map<Integer, MessageItem> roots = MessageTreeAssembler.assembleRoots(messages, history, order);
+
+                final List<MessageItem> rootMessages = new ArrayList<>();
+                for (final Integer rootId : rootIds) {
+                    final MessageItem rootMessage = attachTree(sqlSession, roots.get(rootId));
+                    if (rootMessage != null) {
+                        rootMessages.add(rootMessage);
+                    }
+                }
+                return rootMessages;
             } catch (RuntimeException ex) {
-                LOGGER.info("Unable to get root message by ID {}", messageId, ex);
+                LOGGER.info("Unable to get root messages of {}", messageIds, ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    /**
+     * @return root message with its tree attached, or null if the tree was deleted after the root was read
+     */
+    private MessageItem attachTree(final SqlSession sqlSession, final MessageItem rootMessage) {
+        if (rootMessage == null) {
+            return null;
+        }
+        final MessageTree tree = getMessageTreeMapper(sqlSession).getTreeById(rootMessage.getMessageTree().getId());
+        if (tree == null) {
+            return null;
+        }
+        MessageTreeAssembler.attachTree(rootMessage, tree);
+        return rootMessage;
+    }
+
+    @Override
+    public List<Integer> getUnpublishedOwnerIds(int messageId, boolean noComments) throws ServerException {
+        LOGGER.debug("Getting owners of unpublished messages in tree of message {}", messageId);
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                return getMessageSubtreeMapper(sqlSession)
+                        .getSubtreeUnpublishedOwners(Collections.singletonList(messageId), noComments);
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get owners of unpublished messages in tree of message {}", messageId, ex);
                 throw new ServerException(ErrorCode.DATABASE_ERROR);
             }
         }
@@ -105,7 +257,8 @@ public class MessageTreeDaoImpl extends MapperCreatorDao implements MessageTreeD
     @Override
     public List<MessageTree> getForumTrees(
             int forumId, boolean allVersions, boolean noComments, boolean unpublished,
-            List<String> tags, MessageOrder order, int offset, int limit, int requesterId
+            List<String> tags, TagFilterMode tagMode, MessageOrder order,
+            int offset, int limit, int requesterId, CommentsSlice commentsSlice
     ) throws ServerException {
         LOGGER.debug(
                 "Getting messages in forum {} with params for {}: offset={}, limit={}, order={}, " +
@@ -113,16 +266,21 @@ public class MessageTreeDaoImpl extends MapperCreatorDao implements MessageTreeD
                 forumId, requesterId, offset, limit, order.name(), noComments, allVersions, unpublished
         );
 
-        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
             try {
-                List<MessageTree> trees = getParametrizedMessageTreeMapper(sqlSession)
-                        .getTrees(forumId, offset, limit, order.name(), tags, allVersions, unpublished, requesterId);
-                if (noComments) {
-                    trees.forEach(tree -> tree.getRootMessage()
-                            .setChildrenComments(Collections.emptyList())
-                    );
+                final List<Integer> treeIds = findTaggedTrees(sqlSession, forumId, tags, tagMode);
+                if (treeIds != null && treeIds.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                final List<MessageTree> trees = getParametrizedMessageTreeMapper(sqlSession)
+                        .getTrees(forumId, offset, limit, order.name(), treeIds);
+                if (trees.isEmpty()) {
+                    return trees;
                 }
-                return trees;
+                return loadTreesContent(
+                        sqlSession, getForumMapper(sqlSession).getById(forumId), trees,
+                        allVersions, noComments, unpublished, order, requesterId, commentsSlice
+                );
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to get messages", ex);
                 throw new ServerException(ErrorCode.DATABASE_ERROR);
@@ -130,6 +288,108 @@ public class MessageTreeDaoImpl extends MapperCreatorDao implements MessageTreeD
         }
     }
 
+    @Override
+    public List<MessageTree> getForumTreesAfter(
+            int forumId, boolean allVersions, boolean noComments, boolean unpublished,
+            List<String> tags, TagFilterMode tagMode, MessageOrder order,
+            MessageTreeCursor cursor, int limit, int requesterId, CommentsSlice commentsSlice
+    ) throws ServerException {
+        LOGGER.debug(
+                "Getting messages in forum {} with params for {}: cursor={}, limit={}, order={}, " +
+                        "noComments={}, allVersions={}, unpublished={}",
+                forumId, requesterId, cursor, limit, order.name(), noComments, allVersions, unpublished
+        );
+
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
+            try {
+                final List<Integer> treeIds = findTaggedTrees(sqlSession, forumId, tags, tagMode);
+                if (treeIds != null && treeIds.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                final List<MessageTree> trees = getParametrizedMessageTreeMapper(sqlSession)
+                        .getTreesAfter(forumId, cursor, limit, order.name(), treeIds);
+                if (trees.isEmpty()) {
+                    return trees;
+                }
+                return loadTreesContent(
+                        sqlSession, getForumMapper(sqlSession).getById(forumId), trees,
+                        allVersions, noComments, unpublished, order, requesterId, commentsSlice
+                );
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get messages after {}", cursor, ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    @Override
+    public void streamForumTrees(
+            int forumId, boolean allVersions, boolean noComments, boolean unpublished,
+            List<String> tags, TagFilterMode tagMode, MessageOrder order,
+            int offset, int limit, int requesterId,
+            CommentsSlice commentsSlice, Consumer<MessageTree> consumer
+    ) throws ServerException {
+        LOGGER.debug(
+                "Streaming messages in forum {} with params for {}: offset={}, limit={}, order={}, " +
+                        "noComments={}, allVersions={}, unpublished={}",
+                forumId, requesterId, offset, limit, order.name(), noComments, allVersions, unpublished
+        );
+
+        final List<MessageTree> trees;
+        final Forum forum;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                final List<Integer> treeIds = findTaggedTrees(sqlSession, forumId, tags, tagMode);
+                if (treeIds != null && treeIds.isEmpty()) {
+                    return;
+                }
+                trees = getParametrizedMessageTreeMapper(sqlSession)
+                        .getTrees(forumId, offset, limit, order.name(), treeIds);
+                forum = trees.isEmpty() ? null : getForumMapper(sqlSession).getById(forumId);
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to stream messages", ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+        streamTreesContent(
+                forum, trees, allVersions, noComments, unpublished, order, requesterId, commentsSlice, consumer
+        );
+    }
+
+    @Override
+    public void streamForumTreesAfter(
+            int forumId, boolean allVersions, boolean noComments, boolean unpublished,
+            List<String> tags, TagFilterMode tagMode, MessageOrder order,
+            MessageTreeCursor cursor, int limit, int requesterId,
+            CommentsSlice commentsSlice, Consumer<MessageTree> consumer
+    ) throws ServerException {
+        LOGGER.debug(
+                "Streaming messages in forum {} with params for {}: cursor={}, limit={}, order={}, " +
+                        "noComments={}, allVersions={}, unpublished={}",
+                forumId, requesterId, cursor, limit, order.name(), noComments, allVersions, unpublished
+        );
+
+        final List<MessageTree> trees;
+        final Forum forum;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                final List<Integer> treeIds = findTaggedTrees(sqlSession, forumId, tags, tagMode);
+                if (treeIds != null && treeIds.isEmpty()) {
+                    return;
+                }
+                trees = getParametrizedMessageTreeMapper(sqlSession)
+                        .getTreesAfter(forumId, cursor, limit, order.name(), treeIds);
+                forum = trees.isEmpty() ? null : getForumMapper(sqlSession).getById(forumId);
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to stream messages after {}", cursor, ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+        streamTreesContent(
+                forum, trees, allVersions, noComments, unpublished, order, requesterId, commentsSlice, consumer
+        );
+    }
+
     @Override
     public void changeBranchPriority(MessageTree tree) throws ServerException {
         LOGGER.debug("Changing priority of message tree {}", tree);
@@ -150,10 +410,18 @@ public class MessageTreeDaoImpl extends MapperCreatorDao implements MessageTreeD
     public void deleteTreeById(int id) throws ServerException {
         LOGGER.debug("Deleting message tree by ID {}", id);
 
+        final List<Integer> messageIds;
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
-                getMessageTreeMapper(sqlSession).deleteTreeById(id);
-                // histories and message item would be deleted by ON DELETE CASCADE
+                messageIds = getMessageSubtreeMapper(sqlSession).getTreeMessageIds(id);
+                final ForumStatsMapper statsMapper = getForumStatsMapper(sqlSession);
+                final Integer forumId = statsMapper.getForumIdOfTree(id);
+                final ForumStatsView before = statsMapper.countTree(id);
+                // messages of the tree are removed later by the purge job
+                if (getMessageTreeMapper(sqlSession).markDeleted(id) > 0) {
+                    updateForumStats(sqlSession, forumId, before, ForumStatsView.ZERO);
+                    requestPurge(sqlSession, PurgeTarget.TREE, id);
+                }
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to delete message tree by ID {}", id, ex);
                 sqlSession.rollback();
@@ -161,16 +429,32 @@ public class MessageTreeDaoImpl extends MapperCreatorDao implements MessageTreeD
             }
             sqlSession.commit();
         }
+        UnitOfWork.afterCommit(() -> {
+            tagIndex.removeTree(id);
+            ratingLeaderboard.removeMessages(messageIds);
+        });
     }
 
     @Override
     public void deleteTreeByRootMessageId(int messageId) throws ServerException {
         LOGGER.debug("Deleting message tree with root message ID {}", messageId);
 
+        final Integer treeId;
+        final List<Integer> messageIds = new ArrayList<>();
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
-                getMessageTreeMapper(sqlSession).deleteTreeByRootMessageId(messageId);
-                // histories and message item would be deleted by ON DELETE CASCADE
+                treeId = getMessageTreeMapper(sqlSession).getTreeIdByRootMessageId(messageId);
+                if (treeId != null) {
+                    messageIds.addAll(getMessageSubtreeMapper(sqlSession).getTreeMessageIds(treeId));
+                    final ForumStatsMapper statsMapper = getForumStatsMapper(sqlSession);
+                    final Integer forumId = statsMapper.getForumIdOfTree(treeId);
+                    final ForumStatsView before = statsMapper.countTree(treeId);
+                    // messages of the tree are removed later by the purge job
+                    if (getMessageTreeMapper(sqlSession).markDeleted(treeId) > 0) {
+                        updateForumStats(sqlSession, forumId, before, ForumStatsView.ZERO);
+                        requestPurge(sqlSession, PurgeTarget.TREE, treeId);
+                    }
+                }
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to delete message tree with root message ID {}", messageId, ex);
                 sqlSession.rollback();
@@ -178,5 +462,255 @@ public class MessageTreeDaoImpl extends MapperCreatorDao implements MessageTreeD
             }
             sqlSession.commit();
         }
+        if (treeId != null) {
+            UnitOfWork.afterCommit(() -> {
+                tagIndex.removeTree(treeId);
+                ratingLeaderboard.removeMessages(messageIds);
+            });
+        }
+    }
+
+    private void bindTags(final SqlSession sqlSession, final MessageTree tree) {
+        if (tree.getTags().isEmpty()) {
+            return;
+        }
+
+        final Map<String, Tag> tagsByName = new LinkedHashMap<>();
+        for (final Tag tag : tree.getTags()) {
+            tagsByName.putIfAbsent(TagDictionary.normalize(tag.getName()), tag);
+        }
+        final List<String> unknownNames = new ArrayList<>();
+        for (final Map.Entry<String, Tag> entry : tagsByName.entrySet()) {
+            final Integer tagId = tagDictionary.getId(entry.getKey());
+            if (tagId == null) {
+                unknownNames.add(entry.getKey());
+            } else {
+                entry.getValue().setId(tagId);
+            }
+        }
+        if (!unknownNames.isEmpty()) {
+            getTagMapper(sqlSession).saveAllTags(
+                    unknownNames.stream().map(Tag::new).collect(Collectors.toList())
+            );
+            for (final Tag savedTag : getTagMapper(sqlSession).getByNames(unknownNames)) {
+                tagsByName.get(TagDictionary.normalize(savedTag.getName())).setId(savedTag.getId());
+            }
+        }
+
+        tree.setTags(new ArrayList<>(tagsByName.values()));
+        getTagMapper(sqlSession).bindMessageAndTags(tree);
+    }
+
+    private void indexTags(final MessageTree tree) {
+        final List<Tag> tags = new ArrayList<>(tree.getTags());
+        final int forumId = tree.getForum().getId();
+        final int treeId = tree.getId();
+        UnitOfWork.afterCommit(() -> {
+            final List<Integer> tagIds = new ArrayList<>();
+            for (final Tag tag : tags) {
+                tagDictionary.put(tag.getName(), tag.getId());
+                tagIds.add(tag.getId());
+            }
+            tagIndex.addTree(forumId, treeId, tagIds);
+        });
+    }
+
+    /**
+     * @return IDs of forum trees matching tags, or null if tags filter isn't set
+     */
+    private List<Integer> findTaggedTrees(
+            final SqlSession sqlSession, final int forumId,
+            final List<String> tags, final TagFilterMode tagMode) {
+        if (tags == null) {
+            return null;
+        }
+
+        final Set<Integer> tagIds = new LinkedHashSet<>();
+        final List<String> unknownNames = new ArrayList<>();
+        for (final String name : tags) {
+            final Integer tagId = tagDictionary.getId(name);
+            if (tagId == null) {
+                unknownNames.add(name);
+            } else {
+                tagIds.add(tagId);
+            }
+        }
+        if (!unknownNames.isEmpty()) {
+            final List<Tag> foundTags = getTagMapper(sqlSession).getByNames(unknownNames);
+            for (final Tag tag : foundTags) {
+                tagDictionary.put(tag.getName(), tag.getId());
+                tagIds.add(tag.getId());
+            }
+            final Set<String> foundNames = foundTags.stream()
+                    .map(tag -> TagDictionary.normalize(tag.getName()))
+                    .collect(Collectors.toSet());
+            final boolean allFound = unknownNames.stream()
+                    .allMatch(name -> foundNames.contains(TagDictionary.normalize(name)));
+            if (tagMode == TagFilterMode.ALL && !allFound) {
+                return new ArrayList<>();
+            }
+        }
+
+        final List<Integer> tagIdList = new ArrayList<>(tagIds);
+        int[] treeIds = tagIndex.find(forumId, tagIdList, tagMode);
+        if (treeIds == null) {
+            // the index is shared, so it is loaded from primary even if trees are read from a replica
+            try (SqlSession primarySession = sqlSessionFactory.openSession()) {
+                final long epoch = tagIndex.currentEpoch();
+                treeIds = tagIndex.load(
+                        forumId, getTagMapper(primarySession).getForumTreesTags(forumId), tagIdList, tagMode, epoch
+                );
+            }
+        }
+        return Arrays.stream(treeIds).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Loads contents of {@link #STREAM_BATCH_SIZE} trees at a time and passes them to consumer
+     * after the session is closed, so a slow client holds no connection of the pool.
+     */
+    private void streamTreesContent(
+            final Forum forum, final List<MessageTree> trees,
+            final boolean allVersions, final boolean noComments, final boolean unpublished,
+            final MessageOrder order, final int requesterId,
+            final CommentsSlice commentsSlice, final Consumer<MessageTree> consumer) throws ServerException {
+        for (int from = 0; from < trees.size(); from += STREAM_BATCH_SIZE) {
+            final List<MessageTree> batch = new ArrayList<>(
+                    trees.subList(from, Math.min(from + STREAM_BATCH_SIZE, trees.size()))
+            );
+            try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+                try {
+                    loadTreesContent(
+                            sqlSession, forum, batch,
+                            allVersions, noComments, unpublished, order, requesterId, commentsSlice
+                    );
+                } catch (RuntimeException ex) {
+                    LOGGER.info("Unable to load messages of trees to stream", ex);
+                    throw new ServerException(ErrorCode.DATABASE_ERROR);
+                }
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                final MessageTree tree = batch.get(i);
+                batch.set(i, null);
+                trees.set(from + i, null);
+                consumer.accept(tree);
+            }
+        }
+    }
+
+    private List<MessageTree> loadTreesContent(
+            final SqlSession sqlSession, final Forum forum, final List<MessageTree> trees,
+            final boolean allVersions, final boolean noComments, final boolean unpublished,
+            final MessageOrder order, final int requesterId, final CommentsSlice commentsSlice) {
+        final List<Integer> treeIds = trees.stream()
+                .map(MessageTree::getId)
+                .collect(Collectors.toList());
+        final Map<Integer, MessageItem> roots;
+        if (!noComments && !commentsSlice.isUnlimited()) {
+            roots = loadSlice(
+                    sqlSession, getMessageSubtreeMapper(sqlSession).getTreesRootIds(treeIds),
+                    commentsSlice, allVersions, unpublished, order, requesterId
+            );
+        } else {
+            final List<MessageItem> messages = getMessageSubtreeMapper(sqlSession)
+                    .getTreesMessages(treeIds, noComments);
+            final List<MessageHistoryView> history = HistoryCodec.toVisibleHistory(
+                    getMessageSubtreeMapper(sqlSession)
+                            .getTreesHistory(treeIds, noComments, allVersions, unpublished, requesterId),
+                    allVersions
+            );
+            roots = MessageTreeAssembler.assembleRoots(messages, history, order);
+        }
+        final Map<Integer, List<Tag>> tagsByTree = new HashMap<>();
+        for (final TreeTagView treeTag : getTagMapper(sqlSession).getTreesTags(treeIds)) {
+            tagsByTree
+                    .computeIfAbsent(treeTag.getTreeId(), id -> new ArrayList<>())
+                    .add(new Tag(treeTag.getTagId(), treeTag.getTagName()));
+        }
+        final Map<Integer, MessageItem> rootsByTree = new HashMap<>();
+        roots.values().forEach(root -> rootsByTree.put(root.getMessageTree().getId(), root));
+        for (final MessageTree tree : trees) {
+            tree.setForum(forum);
+            tree.setTags(tagsByTree.getOrDefault(tree.getId(), new ArrayList<>()));
+            final MessageItem root = rootsByTree.get(tree.getId());
+            if (root != null) {
+                MessageTreeAssembler.attachTree(root, tree);
+            }
+        }
+        return trees;
+    }
+
+    /**
+     * Loads roots with a slice of their comments: one query per level of comments and
+     * {@link #SLICE_PARENTS_CHUNK_SIZE} parents, one query for messages cut by depth limit
+     * and two queries for contents of all loaded messages.
+     * With cursor set, the only root gets continuation of the cursor parent's children instead of its own.
+     */
+    private Map<Integer, MessageItem> loadSlice(
+            final SqlSession sqlSession, final List<Integer> rootIds, final CommentsSlice commentsSlice,
+            final boolean allVersions, final boolean unpublished,
+            final MessageOrder order, final int requesterId) {
+        final CommentsCursor cursor = commentsSlice.getCursor();
+        final int limit = commentsSlice.getLimit();
+        // one extra child tells whether the list was cut by limit
+        final int fetchLimit = limit == Integer.MAX_VALUE ? limit : limit + 1;
+        final Map<Integer, List<Integer>> childrenByParent = new HashMap<>();
+        final Map<Integer, CommentsCursor> moreByParent = new HashMap<>();
+        final List<Integer> messageIds = new ArrayList<>(rootIds);
+
+        List<Integer> parentIds = cursor == null ? rootIds : Collections.singletonList(cursor.getParentId());
+        for (int depth = 0; depth < commentsSlice.getMaxDepth() && !parentIds.isEmpty(); depth++) {
+            final List<ChildMessageView> children = new ArrayList<>();
+            for (int from = 0; from < parentIds.size(); from += SLICE_PARENTS_CHUNK_SIZE) {
+                children.addAll(getMessageSubtreeMapper(sqlSession).getChildrenSlice(
+                        parentIds.subList(from, Math.min(from + SLICE_PARENTS_CHUNK_SIZE, parentIds.size())),
+                        depth == 0 ? cursor : null, order.name(), fetchLimit
+                ));
+            }
+            final List<Integer> nextParentIds = new ArrayList<>();
+            ChildMessageView lastKept = null;
+            for (final ChildMessageView child : children) {
+                final List<Integer> siblings = childrenByParent
+                        .computeIfAbsent(child.getParentId(), id -> new ArrayList<>());
+                if (siblings.size() == limit) {
+                    moreByParent.put(child.getParentId(), new CommentsCursor(
+                            child.getParentId(), lastKept.getCreatedAt(), lastKept.getId()
+                    ));
+                    continue;
+                }
+                siblings.add(child.getId());
+                nextParentIds.add(child.getId());
+                lastKept = child;
+            }
+            messageIds.addAll(nextParentIds);
+            parentIds = nextParentIds;
+        }
+        if (!parentIds.isEmpty()) {
+            for (final Integer parentId : getMessageSubtreeMapper(sqlSession).getParentsWithChildren(parentIds)) {
+                moreByParent.put(
+                        parentId,
+                        cursor != null && parentId == cursor.getParentId() ? cursor : new CommentsCursor(parentId)
+                );
+            }
+        }
+        if (cursor != null) {
+            final int rootId = rootIds.get(0);
+            final List<Integer> children = childrenByParent.remove(cursor.getParentId());
+            childrenByParent.put(rootId, children == null ? new ArrayList<>() : children);
+            final CommentsCursor more = moreByParent.remove(cursor.getParentId());
+            if (more == null) {
+                moreByParent.remove(rootId);
+            } else {
+                moreByParent.put(rootId, more);
+            }
+        }
+
+        final List<MessageItem> messages = getMessageSubtreeMapper(sqlSession).getMessagesByIds(messageIds);
+        final List<MessageHistoryView> history = HistoryCodec.toVisibleHistory(
+                getMessageSubtreeMapper(sqlSession)
+                        .getHistoryByIds(messageIds, allVersions, unpublished, requesterId),
+                allVersions
+        );
+        return MessageTreeAssembler.assembleSlice(messages, history, rootIds, childrenByParent, moreByParent);
     }
 }
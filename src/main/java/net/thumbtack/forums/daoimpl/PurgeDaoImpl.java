@@ -0,0 +1,120 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.dao.PurgeDao;
+import net.thumbtack.forums.mappers.PurgeMapper;
+import net.thumbtack.forums.model.Purge;
+import net.thumbtack.forums.model.enums.PurgeTarget;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Component("purgeDao")
+public class PurgeDaoImpl extends MapperCreatorDao implements PurgeDao {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PurgeDaoImpl.class);
+    private final SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    public PurgeDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public List<Purge> getUnfinished() throws ServerException {
+        LOGGER.debug("Getting unfinished purges");
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                return getPurgeMapper(sqlSession).getUnfinished();
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get unfinished purges", ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    @Override
+    public List<Purge> getLatest(int limit) throws ServerException {
+        LOGGER.debug("Getting {} latest purges", limit);
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                return getPurgeMapper(sqlSession).getLatest(limit);
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get latest purges", ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    @Override
+    public int purgeBatch(Purge purge, int batchSize) throws ServerException {
+        LOGGER.debug("Purging next {} rows of {}", batchSize, purge);
+
+        final int rows;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                final PurgeMapper purgeMapper = getPurgeMapper(sqlSession);
+                if (purge.getTargetType() == PurgeTarget.TREE) {
+                    rows = purgeTree(purgeMapper, purge.getTargetId(), batchSize);
+                } else {
+                    rows = purgeForum(purgeMapper, purge.getTargetId(), batchSize);
+                }
+
+                if (rows > 0) {
+                    purgeMapper.addProgress(purge.getId(), rows);
+                } else {
+                    purgeMapper.finish(purge.getId(), LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to purge rows of {}", purge, ex);
+                sqlSession.rollback();
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+            sqlSession.commit();
+        }
+        return rows;
+    }
+
+    /**
+     * Trees go first, then changes of the forum, and the forum row is the last one,
+     * so removing it cascades only to rows that are already gone.
+     */
+    private int purgeForum(final PurgeMapper purgeMapper, final int forumId, final int batchSize) {
+        final Integer treeId = purgeMapper.getForumTreeId(forumId);
+        if (treeId != null) {
+            return purgeTree(purgeMapper, treeId, batchSize);
+        }
+        final int changes = purgeMapper.deleteForumChanges(forumId, batchSize);
+        return changes > 0 ? changes : purgeMapper.deleteForum(forumId);
+    }
+
+    /**
+     * Ratings and history of the last messages of the tree go before the messages themselves,
+     * tags and the tree row go after all messages.
+     */
+    private int purgeTree(final PurgeMapper purgeMapper, final int treeId, final int batchSize) {
+        final List<Integer> messageIds = purgeMapper.getLastMessageIds(treeId, batchSize);
+        if (!messageIds.isEmpty()) {
+            int rows = purgeMapper.deleteRatings(messageIds, batchSize);
+            if (rows == 0) {
+                rows = purgeMapper.deleteHistory(messageIds, batchSize);
+            }
+            if (rows == 0) {
+                rows = purgeMapper.deleteMessages(messageIds);
+            }
+            return rows;
+        }
+        final int tags = purgeMapper.deleteTreeTags(treeId, batchSize);
+        return tags > 0 ? tags : purgeMapper.deleteTree(treeId);
+    }
+}
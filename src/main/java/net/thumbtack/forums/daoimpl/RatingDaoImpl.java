@@ -3,8 +3,12 @@ package net.thumbtack.forums.daoimpl;
 import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.MessageItem;
 import net.thumbtack.forums.dao.RatingDao;
+import net.thumbtack.forums.cache.RatingLeaderboard;
+import net.thumbtack.forums.cache.RatingWriteBuffer;
+import net.thumbtack.forums.view.RatingVoteView;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.utils.UnitOfWork;
 
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -13,32 +17,62 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.*;
+
 @Component("ratingDao")
 public class RatingDaoImpl extends MapperCreatorDao implements RatingDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(RatingDaoImpl.class);
     private final SqlSessionFactory sqlSessionFactory;
+    private final RatingLeaderboard ratingLeaderboard;
+    private final RatingWriteBuffer ratingWriteBuffer;
 
     @Autowired
-    public RatingDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+    public RatingDaoImpl(final SqlSessionFactory sqlSessionFactory,
+                         final RatingLeaderboard ratingLeaderboard,
+                         final RatingWriteBuffer ratingWriteBuffer) {
         this.sqlSessionFactory = sqlSessionFactory;
+        this.ratingLeaderboard = ratingLeaderboard;
+        this.ratingWriteBuffer = ratingWriteBuffer;
     }
 
     @Override
-    public void upsertRating(MessageItem message, User user, int rating) throws ServerException {
+    public boolean upsertRating(MessageItem message, User user, int rating) throws ServerException {
         LOGGER.debug("Upserting rating {} for message {} from user {}",
                 rating, message, user
         );
+        if (writeBehind(message, user, rating)) {
+            return true;
+        }
 
+        ratingLeaderboard.beginRatingUpdate();
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            final Integer previous;
             try {
+                previous = getRatingMapper(sqlSession).getRatingForUpdate(message, user);
                 getRatingMapper(sqlSession).upsertRating(message, user, rating);
+                if (previous == null) {
+                    getRatingMapper(sqlSession).addToAggregates(message, rating, 1);
+                } else {
+                    getRatingMapper(sqlSession).addToAggregates(message, rating - previous, 0);
+                }
+                addRatingActivity(sqlSession, message);
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to upsert rating for message {}", message, ex);
                 sqlSession.rollback();
                 throw new ServerException(ErrorCode.DATABASE_ERROR);
             }
             sqlSession.commit();
+            final int messageId = message.getId();
+            if (previous == null) {
+                UnitOfWork.afterCommit(() -> ratingLeaderboard.addRating(messageId, rating, 1));
+            } else {
+                UnitOfWork.afterCommit(() -> ratingLeaderboard.addRating(messageId, rating - previous, 0));
+            }
+        } finally {
+            // the ranking must not be rebuilt before the delta is applied after commit of the request
+            UnitOfWork.afterCompletion(ratingLeaderboard::endRatingUpdate);
         }
+        return false;
     }
 
     @Override
@@ -47,15 +81,22 @@ public class RatingDaoImpl extends MapperCreatorDao implements RatingDao {
                 rating, message, user
         );
 
+        ratingLeaderboard.beginRatingUpdate();
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
                 getRatingMapper(sqlSession).rate(message, user, rating);
+                getRatingMapper(sqlSession).addToAggregates(message, rating, 1);
+                addRatingActivity(sqlSession, message);
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to save new rate for message {}", message, ex);
                 sqlSession.rollback();
                 throw new ServerException(ErrorCode.DATABASE_ERROR);
             }
             sqlSession.commit();
+            final int messageId = message.getId();
+            UnitOfWork.afterCommit(() -> ratingLeaderboard.addRating(messageId, rating, 1));
+        } finally {
+            UnitOfWork.afterCompletion(ratingLeaderboard::endRatingUpdate);
         }
     }
 
@@ -65,32 +106,108 @@ public class RatingDaoImpl extends MapperCreatorDao implements RatingDao {
                 rating, message, user
         );
 
+        ratingLeaderboard.beginRatingUpdate();
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            final Integer previous;
             try {
-                getRatingMapper(sqlSession).changeRating(message, user, rating);
+                previous = getRatingMapper(sqlSession).getRatingForUpdate(message, user);
+                if (previous != null) {
+                    getRatingMapper(sqlSession).changeRating(message, user, rating);
+                    getRatingMapper(sqlSession).addToAggregates(message, rating - previous, 0);
+                    addRatingActivity(sqlSession, message);
+                }
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to change rating for message {}", message, ex);
                 sqlSession.rollback();
                 throw new ServerException(ErrorCode.DATABASE_ERROR);
             }
             sqlSession.commit();
+            if (previous != null) {
+                final int messageId = message.getId();
+                UnitOfWork.afterCommit(() -> ratingLeaderboard.addRating(messageId, rating - previous, 0));
+            }
+        } finally {
+            UnitOfWork.afterCompletion(ratingLeaderboard::endRatingUpdate);
         }
     }
 
     @Override
-    public void deleteRate(MessageItem message, User user) throws ServerException {
+    public boolean deleteRate(MessageItem message, User user) throws ServerException {
         LOGGER.debug("Deleting rating for message {} from user {}", message, user);
+        if (writeBehind(message, user, null)) {
+            return true;
+        }
 
+        ratingLeaderboard.beginRatingUpdate();
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            final Integer previous;
             try {
-                getRatingMapper(sqlSession).deleteRate(message, user);
+                previous = getRatingMapper(sqlSession).getRatingForUpdate(message, user);
+                if (previous != null) {
+                    getRatingMapper(sqlSession).deleteRate(message, user);
+                    getRatingMapper(sqlSession).addToAggregates(message, -previous, -1);
+                }
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to delete rating for message {}", message, ex);
                 sqlSession.rollback();
                 throw new ServerException(ErrorCode.DATABASE_ERROR);
             }
             sqlSession.commit();
+            if (previous != null) {
+                final int messageId = message.getId();
+                UnitOfWork.afterCommit(() -> ratingLeaderboard.addRating(messageId, -previous, -1));
+            }
+        } finally {
+            UnitOfWork.afterCompletion(ratingLeaderboard::endRatingUpdate);
+        }
+        return false;
+    }
+
+    /**
+     * Writes votes taken from the write-behind buffer in one transaction: ratings are upserted
+     * and deleted by multi-row statements, aggregates and activity are updated once per message.
+     * Votes for messages or users which no longer exist are dropped.
+     *
+     * @return IDs of messages whose ratings were written
+     */
+    @Override
+    public List<Integer> flushRatings(List<RatingVoteView> votes) throws ServerException {
+        LOGGER.debug("Flushing {} rating votes", votes.size());
+
+        final Map<Integer, int[]> deltas = new TreeMap<>();
+        ratingLeaderboard.beginRatingUpdate();
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                final List<RatingVoteView> written = getWrittenVotes(sqlSession, votes);
+                if (!written.isEmpty()) {
+                    final Map<Long, Integer> previous = new HashMap<>();
+                    for (final RatingVoteView stored : getRatingMapper(sqlSession).getRatingsForUpdate(written)) {
+                        previous.put(key(stored.getMessageId(), stored.getUserId()), stored.getRating());
+                    }
+                    writeVotes(sqlSession, written);
+                    for (final RatingVoteView vote : written) {
+                        addDelta(deltas, vote, previous.get(key(vote.getMessageId(), vote.getUserId())));
+                    }
+                    for (final Map.Entry<Integer, int[]> delta : deltas.entrySet()) {
+                        getRatingMapper(sqlSession).addToAggregatesById(
+                                delta.getKey(), delta.getValue()[0], delta.getValue()[1]
+                        );
+                    }
+                    addRatingsActivity(sqlSession, deltas);
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to flush {} rating votes", votes.size(), ex);
+                sqlSession.rollback();
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+            sqlSession.commit();
+            UnitOfWork.afterCommit(() -> deltas.forEach(
+                    (messageId, delta) -> ratingLeaderboard.addRating(messageId, delta[0], delta[1])
+            ));
+        } finally {
+            UnitOfWork.afterCompletion(ratingLeaderboard::endRatingUpdate);
         }
+        return new ArrayList<>(deltas.keySet());
     }
 
     @Override
@@ -106,4 +223,141 @@ public class RatingDaoImpl extends MapperCreatorDao implements RatingDao {
             }
         }
     }
+
+    @Override
+    public int getMaxMessageId() throws ServerException {
+        LOGGER.debug("Getting max message ID");
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                return getRatingMapper(sqlSession).getMaxMessageId();
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get max message ID", ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    @Override
+    public int recomputeAggregates(int fromId, int toId) throws ServerException {
+        LOGGER.debug("Recomputing rating aggregates of messages from {} to {}", fromId, toId);
+
+        final int updated;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                updated = getRatingMapper(sqlSession).recomputeAggregates(fromId, toId);
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to recompute rating aggregates of messages from {} to {}", fromId, toId, ex);
+                sqlSession.rollback();
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+            sqlSession.commit();
+        }
+        // recomputation repairs drifted aggregates, so the ranking built from them is rebuilt too
+        if (updated > 0) {
+            UnitOfWork.afterCommit(ratingLeaderboard::invalidate);
+        }
+        return updated;
+    }
+
+    private void addRatingActivity(final SqlSession sqlSession, final MessageItem message) {
+        addActivity(
+                sqlSession, getForumStatsMapper(sqlSession).getForumIdOfMessage(message.getId()), 0, 0, 1, 0
+        );
+    }
+
+    /**
+     * @return {@code true} if the vote is queued to be written behind
+     */
+    private boolean writeBehind(final MessageItem message, final User user, final Integer rating)
+            throws ServerException {
+        if (!ratingWriteBuffer.isEnabled()) {
+            return false;
+        }
+        try {
+            return ratingWriteBuffer.offer(message.getId(), user.getId(), rating);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServerException(ErrorCode.DATABASE_ERROR);
+        }
+    }
+
+    /**
+     * Locks messages and users of the votes, so they are not deleted before the votes are written,
+     * and leaves the votes in primary key order.
+     */
+    private List<RatingVoteView> getWrittenVotes(final SqlSession sqlSession, final List<RatingVoteView> votes) {
+        final Set<Integer> messageIds = new TreeSet<>();
+        final Set<Integer> userIds = new TreeSet<>();
+        for (final RatingVoteView vote : votes) {
+            messageIds.add(vote.getMessageId());
+            userIds.add(vote.getUserId());
+        }
+        if (messageIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Set<Integer> existingMessages = new HashSet<>(
+                getRatingMapper(sqlSession).getExistingMessageIds(messageIds)
+        );
+        final Set<Integer> existingUsers = new HashSet<>(getRatingMapper(sqlSession).getExistingUserIds(userIds));
+
+        final List<RatingVoteView> written = new ArrayList<>();
+        for (final RatingVoteView vote : votes) {
+            if (existingMessages.contains(vote.getMessageId()) && existingUsers.contains(vote.getUserId())) {
+                written.add(vote);
+            }
+        }
+        written.sort(Comparator.comparingInt(RatingVoteView::getMessageId).thenComparingInt(RatingVoteView::getUserId));
+        return written;
+    }
+
+    private void writeVotes(final SqlSession sqlSession, final List<RatingVoteView> votes) {
+        final List<RatingVoteView> upserted = new ArrayList<>();
+        final List<RatingVoteView> deleted = new ArrayList<>();
+        for (final RatingVoteView vote : votes) {
+            (vote.getRating() == null ? deleted : upserted).add(vote);
+        }
+        if (!upserted.isEmpty()) {
+            getRatingMapper(sqlSession).upsertRatings(upserted);
+        }
+        if (!deleted.isEmpty()) {
+            getRatingMapper(sqlSession).deleteRatings(deleted);
+        }
+    }
+
+    /**
+     * Adds the change of sum and count of ratings of the message and the number of votes for it.
+     */
+    private static void addDelta(final Map<Integer, int[]> deltas, final RatingVoteView vote, final Integer previous) {
+        final int[] delta = deltas.computeIfAbsent(vote.getMessageId(), messageId -> new int[3]);
+        final Integer rating = vote.getRating();
+        if (previous == null && rating != null) {
+            delta[0] += rating;
+            delta[1]++;
+        } else if (previous != null && rating != null) {
+            delta[0] += rating - previous;
+        } else if (previous != null) {
+            delta[0] -= previous;
+            delta[1]--;
+        }
+        delta[2] += vote.getVotes();
+    }
+
+    private void addRatingsActivity(final SqlSession sqlSession, final Map<Integer, int[]> deltas) {
+        final Map<Integer, Integer> forumVotes = new HashMap<>();
+        for (final Map.Entry<Integer, int[]> delta : deltas.entrySet()) {
+            if (delta.getValue()[2] == 0) {
+                continue;
+            }
+            final Integer forumId = getForumStatsMapper(sqlSession).getForumIdOfMessage(delta.getKey());
+            if (forumId != null) {
+                forumVotes.merge(forumId, delta.getValue()[2], Integer::sum);
+            }
+        }
+        forumVotes.forEach((forumId, votes) -> addActivity(sqlSession, forumId, 0, 0, votes, 0));
+    }
+
+    private static long key(final int messageId, final int userId) {
+        return ((long) messageId << 32) | (userId & 0xFFFFFFFFL);
+    }
 }
@@ -0,0 +1,132 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.dao.SearchDao;
+import net.thumbtack.forums.cache.SearchIndex;
+import net.thumbtack.forums.mappers.SearchMapper;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.view.SearchTreeView;
+import net.thumbtack.forums.view.SearchVersionView;
+import net.thumbtack.forums.view.TreeTagView;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Component("searchDao")
+public class SearchDaoImpl extends MapperCreatorDao implements SearchDao {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchDaoImpl.class);
+    private final SqlSessionFactory sqlSessionFactory;
+    private final SearchIndex searchIndex;
+
+    @Autowired
+    public SearchDaoImpl(final SqlSessionFactory sqlSessionFactory, final SearchIndex searchIndex) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    public void loadSearchIndex() throws ServerException {
+        LOGGER.debug("Loading search index");
+
+        // read from primary, changes missed by a lagging replica would never get to the index
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            searchIndex.beginLoad();
+            try {
+                final SearchMapper searchMapper = getSearchMapper(sqlSession);
+                final Map<Integer, List<String>> treeTags = new HashMap<>();
+                try (Cursor<TreeTagView> tags = searchMapper.getTreeTags()) {
+                    for (final TreeTagView tag : tags) {
+                        treeTags.computeIfAbsent(tag.getTreeId(), id -> new ArrayList<>()).add(tag.getTagName());
+                    }
+                }
+                try (Cursor<SearchTreeView> trees = searchMapper.getTrees()) {
+                    for (final SearchTreeView tree : trees) {
+                        searchIndex.loadTree(
+                                tree.getTreeId(), tree.getForumId(), tree.getRootMessageId(), tree.getSubject(),
+                                treeTags.getOrDefault(tree.getTreeId(), Collections.emptyList())
+                        );
+                    }
+                }
+                treeTags.clear();
+                final PublishedVersionLoader loader = new PublishedVersionLoader();
+                try (Cursor<SearchVersionView> versions = searchMapper.getVersions()) {
+                    versions.forEach(loader);
+                }
+                loader.flush();
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.info("Unable to load search index", ex);
+                searchIndex.abortLoad();
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+            searchIndex.finishLoad();
+        }
+    }
+
+    /**
+     * Rebuilds versions of every message and loads the latest published one
+     * when the versions of the next message begin, and on {@link #flush()} after the last row.
+     */
+    private class PublishedVersionLoader implements Consumer<SearchVersionView> {
+        private SearchVersionView message;
+        private String body;
+        private String publishedBody;
+
+        @Override
+        public void accept(final SearchVersionView version) {
+            if (message != null && message.getMessageId() != version.getMessageId()) {
+                flush();
+            }
+            if (version.getPrefixLength() == null) {
+                body = version.getBody();
+            } else {
+                if (message == null) {
+                    throw new IllegalStateException("No version to apply delta of message " + version.getMessageId());
+                }
+                body = HistoryCodec.apply(
+                        body, version.getBody(), version.getPrefixLength(), version.getSuffixLength()
+                );
+            }
+            if (version.getState() == MessageState.PUBLISHED) {
+                publishedBody = body;
+            }
+            message = version;
+        }
+
+        void flush() {
+            if (message != null && publishedBody != null) {
+                searchIndex.loadMessage(message.getMessageId(), message.getTreeId(), publishedBody);
+            }
+            message = null;
+            body = null;
+            publishedBody = null;
+        }
+    }
+
+    @Override
+    public String getContentVersion() throws ServerException {
+        LOGGER.debug("Getting version of searchable content");
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                return getSearchMapper(sqlSession).getContentVersion();
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to get version of searchable content", ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+}
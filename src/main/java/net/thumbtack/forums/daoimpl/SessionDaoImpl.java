@@ -1,10 +1,12 @@
 package net.thumbtack.forums.daoimpl;
 
 import net.thumbtack.forums.dao.SessionDao;
+import net.thumbtack.forums.cache.SessionCache;
 import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.UserSession;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.utils.UnitOfWork;
 
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -17,10 +19,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 public class SessionDaoImpl extends MapperCreatorDao implements SessionDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(SessionDaoImpl.class);
     private final SqlSessionFactory sqlSessionFactory;
+    private final SessionCache sessionCache;
 
     @Autowired
-    public SessionDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+    public SessionDaoImpl(final SqlSessionFactory sqlSessionFactory,
+                          final SessionCache sessionCache) {
         this.sqlSessionFactory = sqlSessionFactory;
+        this.sessionCache = sessionCache;
     }
 
     @Override
@@ -37,6 +42,9 @@ public class SessionDaoImpl extends MapperCreatorDao implements SessionDao {
             }
             sqlSession.commit();
         }
+        // previous token of this user was replaced
+        final int userId = session.getUser().getId();
+        UnitOfWork.afterCommit(() -> sessionCache.invalidateUser(userId));
     }
 
     @Override
@@ -57,9 +65,17 @@ public class SessionDaoImpl extends MapperCreatorDao implements SessionDao {
     public User getUserByToken(String token) throws ServerException {
         LOGGER.debug("Getting user by session token {}", token);
 
+        final User cachedUser = sessionCache.get(token);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+
+        final long loadEpoch = sessionCache.currentEpoch();
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
-                return getSessionMapper(sqlSession).getUserByToken(token);
+                final User user = getSessionMapper(sqlSession).getUserByToken(token);
+                sessionCache.put(token, user, loadEpoch);
+                return user;
             } catch (RuntimeException ex) {
                 LOGGER.info("Unable to get user by session token {}", token, ex);
                 throw new ServerException(ErrorCode.DATABASE_ERROR);
@@ -81,6 +97,7 @@ public class SessionDaoImpl extends MapperCreatorDao implements SessionDao {
             }
             sqlSession.commit();
         }
+        UnitOfWork.afterCommit(() -> sessionCache.invalidateToken(token));
     }
 
     @Override
@@ -97,5 +114,6 @@ public class SessionDaoImpl extends MapperCreatorDao implements SessionDao {
             }
             sqlSession.commit();
         }
+        UnitOfWork.afterCommit(sessionCache::invalidateAll);
     }
 }
@@ -1,6 +1,7 @@
 package net.thumbtack.forums.daoimpl;
 
 import net.thumbtack.forums.dao.StatisticDao;
+import net.thumbtack.forums.cache.RatingLeaderboard;
 import net.thumbtack.forums.view.MessageRatingView;
 import net.thumbtack.forums.view.MessagesCountView;
 import net.thumbtack.forums.view.UserRatingView;
@@ -20,17 +21,20 @@ import java.util.List;
 public class StatisticDaoImpl extends MapperCreatorDao implements StatisticDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(StatisticDaoImpl.class);
     private final SqlSessionFactory sqlSessionFactory;
+    private final RatingLeaderboard ratingLeaderboard;
 
     @Autowired
-    public StatisticDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+    public StatisticDaoImpl(final SqlSessionFactory sqlSessionFactory,
+                            final RatingLeaderboard ratingLeaderboard) {
         this.sqlSessionFactory = sqlSessionFactory;
+        this.ratingLeaderboard = ratingLeaderboard;
     }
 
     @Override
     public int getMessagesCount() throws ServerException {
         LOGGER.debug("Getting messages count in server");
 
-        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
             try {
                 return getStatisticMapper(sqlSession).getMessagesCount();
             } catch (RuntimeException re) {
@@ -44,7 +48,7 @@ public class StatisticDaoImpl extends MapperCreatorDao implements StatisticDao {
     public int getMessagesCount(int forumId) throws ServerException {
         LOGGER.debug("Getting messages count in forum with ID {}", forumId);
 
-        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
             try {
                 return getForumMapper(sqlSession).getPublishedMessagesCount(forumId);
             } catch (RuntimeException re) {
@@ -58,7 +62,7 @@ public class StatisticDaoImpl extends MapperCreatorDao implements StatisticDao {
     public int getCommentsCount() throws ServerException {
         LOGGER.debug("Getting comments count in server");
 
-        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
             try {
                 return getStatisticMapper(sqlSession).getCommentsCount();
             } catch (RuntimeException re) {
@@ -72,7 +76,7 @@ public class StatisticDaoImpl extends MapperCreatorDao implements StatisticDao {
     public int getCommentsCount(int forumId) throws ServerException {
         LOGGER.debug("Getting comments count in forum with ID {}", forumId);
 
-        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
             try {
                 return getForumMapper(sqlSession).getPublishedCommentCount(forumId);
             } catch (RuntimeException re) {
@@ -86,7 +90,7 @@ public class StatisticDaoImpl extends MapperCreatorDao implements StatisticDao {
     public MessagesCountView getMessagesAndCommentsCount() throws ServerException {
         LOGGER.debug("Getting messages and comments count in server");
 
-        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
             try {
                 return getStatisticMapper(sqlSession).getMessagesAndCommentsCount();
             } catch (RuntimeException re) {
@@ -100,7 +104,7 @@ public class StatisticDaoImpl extends MapperCreatorDao implements StatisticDao {
     public MessagesCountView getMessagesAndCommentsCount(int forumId) throws ServerException {
         LOGGER.debug("Getting messages and comments count in forum with ID {}", forumId);
 
-        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
             try {
                 return getStatisticMapper(sqlSession).getMessagesAndCommentsCountInForum(forumId);
             } catch (RuntimeException re) {
@@ -118,6 +122,9 @@ public class StatisticDaoImpl extends MapperCreatorDao implements StatisticDao {
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
+                if (loadLeaderboard(sqlSession)) {
+                    return ratingLeaderboard.getMessagesRatings(null, offset, limit);
+                }
                 return getStatisticMapper(sqlSession).getMessagesRatings(offset, limit);
             } catch (RuntimeException re) {
                 LOGGER.info("Unable to get messages ratings", re);
@@ -136,6 +143,9 @@ public class StatisticDaoImpl extends MapperCreatorDao implements StatisticDao {
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
+                if (loadLeaderboard(sqlSession)) {
+                    return ratingLeaderboard.getMessagesRatings(forumId, offset, limit);
+                }
                 return getStatisticMapper(sqlSession)
                         .getMessagesRatingsInForum(forumId, offset, limit);
             } catch (RuntimeException re) {
@@ -151,6 +161,9 @@ public class StatisticDaoImpl extends MapperCreatorDao implements StatisticDao {
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
+                if (loadLeaderboard(sqlSession)) {
+                    return ratingLeaderboard.getUsersRatings(null, offset, limit);
+                }
                 return getStatisticMapper(sqlSession).getUsersRatings(offset, limit);
             } catch (RuntimeException re) {
                 LOGGER.info("Unable to get users ratings", re);
@@ -169,6 +182,9 @@ public class StatisticDaoImpl extends MapperCreatorDao implements StatisticDao {
 
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
+                if (loadLeaderboard(sqlSession)) {
+                    return ratingLeaderboard.getUsersRatings(forumId, offset, limit);
+                }
                 return getStatisticMapper(sqlSession).getUsersRatingsInForum(forumId, offset, limit);
             } catch (RuntimeException re) {
                 LOGGER.info("Unable to get users ratings in forum {}", forumId, re);
@@ -176,4 +192,36 @@ public class StatisticDaoImpl extends MapperCreatorDao implements StatisticDao {
             }
         }
     }
+
+    @Override
+    public void loadRatingLeaderboard() throws ServerException {
+        LOGGER.debug("Loading rating leaderboard");
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                loadLeaderboard(sqlSession);
+            } catch (RuntimeException re) {
+                LOGGER.info("Unable to load rating leaderboard", re);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Builds the ranking from database if it is not loaded yet.
+     *
+     * @return false if the ranking was changed during the load and the page must be read from database
+     */
+    private boolean loadLeaderboard(final SqlSession sqlSession) {
+        if (ratingLeaderboard.isLoaded()) {
+            return true;
+        }
+        final long epoch = ratingLeaderboard.currentEpoch();
+        ratingLeaderboard.load(
+                getStatisticMapper(sqlSession).getRatedMessages(),
+                getStatisticMapper(sqlSession).getUserNames(),
+                epoch
+        );
+        return ratingLeaderboard.isLoaded();
+    }
 }
@@ -1,10 +1,15 @@
 package net.thumbtack.forums.daoimpl;
 
 import net.thumbtack.forums.dao.UserDao;
+import net.thumbtack.forums.cache.SessionCache;
+import net.thumbtack.forums.cache.RatingLeaderboard;
+import net.thumbtack.forums.cache.BanExpiryQueue;
+import net.thumbtack.forums.mappers.ActivityMapper;
 import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.UserSession;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.utils.UnitOfWork;
 
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -22,10 +27,19 @@ import java.util.List;
 public class UserDaoImpl extends MapperCreatorDao implements UserDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(UserDaoImpl.class);
     private final SqlSessionFactory sqlSessionFactory;
+    private final SessionCache sessionCache;
+    private final RatingLeaderboard ratingLeaderboard;
+    private final BanExpiryQueue banExpiryQueue;
 
     @Autowired
-    public UserDaoImpl(final SqlSessionFactory sqlSessionFactory) {
+    public UserDaoImpl(final SqlSessionFactory sqlSessionFactory,
+                       final SessionCache sessionCache,
+                       final RatingLeaderboard ratingLeaderboard,
+                       final BanExpiryQueue banExpiryQueue) {
         this.sqlSessionFactory = sqlSessionFactory;
+        this.sessionCache = sessionCache;
+        this.ratingLeaderboard = ratingLeaderboard;
+        this.banExpiryQueue = banExpiryQueue;
     }
 
     @Override
@@ -35,6 +49,7 @@ public class UserDaoImpl extends MapperCreatorDao implements UserDao {
         try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
             try {
                 getUserMapper(sqlSession).save(user);
+                addActivity(sqlSession, ActivityMapper.SERVER_FORUM_ID, 0, 0, 0, 1);
             } catch (PersistenceException e) {
                 if (e.getCause() instanceof SQLIntegrityConstraintViolationException) {
                     LOGGER.info("Username already used {} {}", user, e.getMessage());
@@ -48,6 +63,9 @@ public class UserDaoImpl extends MapperCreatorDao implements UserDao {
             }
             sqlSession.commit();
         }
+        final int userId = user.getId();
+        final String username = user.getUsername();
+        UnitOfWork.afterCommit(() -> ratingLeaderboard.addUser(userId, username));
         return user;
     }
 
@@ -59,6 +77,7 @@ public class UserDaoImpl extends MapperCreatorDao implements UserDao {
             try {
                 getUserMapper(sqlSession).save(user);
                 getSessionMapper(sqlSession).upsertSession(session);
+                addActivity(sqlSession, ActivityMapper.SERVER_FORUM_ID, 0, 0, 0, 1);
             } catch (PersistenceException e) {
                 if (e.getCause() instanceof SQLIntegrityConstraintViolationException) {
                     LOGGER.info("Username already used {} {}", session, e.getMessage());
@@ -72,6 +91,9 @@ public class UserDaoImpl extends MapperCreatorDao implements UserDao {
             }
             sqlSession.commit();
         }
+        final int userId = user.getId();
+        final String username = user.getUsername();
+        UnitOfWork.afterCommit(() -> ratingLeaderboard.addUser(userId, username));
         return session;
     }
 
@@ -167,7 +189,7 @@ public class UserDaoImpl extends MapperCreatorDao implements UserDao {
     public List<UserSession> getAllWithSessions() throws ServerException {
         LOGGER.debug("Getting all users with they sessions from database");
 
-        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        try (SqlSession sqlSession = openReadSession(sqlSessionFactory)) {
             try {
                 return getUserMapper(sqlSession).getAllWithSessions();
             } catch (RuntimeException ex) {
@@ -191,6 +213,8 @@ public class UserDaoImpl extends MapperCreatorDao implements UserDao {
             }
             sqlSession.commit();
         }
+        final int userId = user.getId();
+        UnitOfWork.afterCommit(() -> sessionCache.invalidateUser(userId));
     }
 
     @Override
@@ -209,6 +233,8 @@ public class UserDaoImpl extends MapperCreatorDao implements UserDao {
             }
             sqlSession.commit();
         }
+        final int userId = user.getId();
+        UnitOfWork.afterCommit(() -> sessionCache.invalidateUser(userId));
     }
 
     @Override
@@ -228,6 +254,12 @@ public class UserDaoImpl extends MapperCreatorDao implements UserDao {
             }
             sqlSession.commit();
         }
+        final int userId = user.getId();
+        UnitOfWork.afterCommit(() -> sessionCache.invalidateUser(userId));
+        if (!isPermanent) {
+            final LocalDateTime bannedUntil = user.getBannedUntil();
+            UnitOfWork.afterCommit(() -> banExpiryQueue.schedule(userId, bannedUntil));
+        }
     }
 
     @Override
@@ -244,6 +276,40 @@ public class UserDaoImpl extends MapperCreatorDao implements UserDao {
             }
             sqlSession.commit();
         }
+        UnitOfWork.afterCommit(() -> sessionCache.invalidateBannedBefore(date));
+    }
+
+    @Override
+    public void loadBanExpiries(LocalDateTime before) throws ServerException {
+        LOGGER.debug("Loading ends of bans before {}", before);
+
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                banExpiryQueue.scheduleAll(getUserMapper(sqlSession).getBansEndingBefore(before));
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to load ends of bans before {}", before, ex);
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+        }
+    }
+
+    @Override
+    public int unbanEnded(List<Integer> userIds, LocalDateTime date) throws ServerException {
+        LOGGER.debug("Unban users {} with bans ended on {}", userIds, date);
+
+        final int unbanned;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            try {
+                unbanned = getUserMapper(sqlSession).unbanEnded(userIds, date);
+            } catch (RuntimeException ex) {
+                LOGGER.info("Unable to unban users {} on date {}", userIds, date, ex);
+                sqlSession.rollback();
+                throw new ServerException(ErrorCode.DATABASE_ERROR);
+            }
+            sqlSession.commit();
+        }
+        UnitOfWork.afterCommit(() -> userIds.forEach(sessionCache::invalidateUser));
+        return unbanned;
     }
 
     @Override
@@ -262,6 +328,7 @@ public class UserDaoImpl extends MapperCreatorDao implements UserDao {
             }
             sqlSession.commit();
         }
+        UnitOfWork.afterCommit(() -> sessionCache.invalidateUser(id));
     }
 
     @Override
@@ -278,5 +345,9 @@ public class UserDaoImpl extends MapperCreatorDao implements UserDao {
             }
             sqlSession.commit();
         }
+        UnitOfWork.afterCommit(() -> {
+            sessionCache.invalidateAll();
+            ratingLeaderboard.invalidate();
+        });
     }
 }
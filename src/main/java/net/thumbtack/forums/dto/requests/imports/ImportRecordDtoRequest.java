@@ -0,0 +1,142 @@
+package net.thumbtack.forums.dto.requests.imports;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One line of an import. Records refer to each other by IDs of the source system,
+ * users are referred to by username. Fields used by each type of record:
+ * <ul>
+ *     <li>forum: id, user, name, forumType, readonly, createdAt</li>
+ *     <li>tree: id, forum, subject, priority, tags, createdAt</li>
+ *     <li>message: id, tree, parent, user, createdAt</li>
+ *     <li>history: message, body, state, createdAt</li>
+ *     <li>rating: message, user, rating</li>
+ * </ul>
+ */
+public class ImportRecordDtoRequest {
+    private String type;
+    private String id;
+    private String forum;
+    private String tree;
+    private String message;
+    private String parent;
+    private String user;
+    private String name;
+    private String forumType;
+    private Boolean readonly;
+    private String subject;
+    private String priority;
+    private List<String> tags;
+    private String body;
+    private String state;
+    private Integer rating;
+    private String createdAt;
+
+    @JsonCreator
+    public ImportRecordDtoRequest(@JsonProperty("type") String type,
+                                  @JsonProperty("id") String id,
+                                  @JsonProperty("forum") String forum,
+                                  @JsonProperty("tree") String tree,
+                                  @JsonProperty("message") String message,
+                                  @JsonProperty("parent") String parent,
+                                  @JsonProperty("user") String user,
+                                  @JsonProperty("name") String name,
+                                  @JsonProperty("forumType") String forumType,
+                                  @JsonProperty("readonly") Boolean readonly,
+                                  @JsonProperty("subject") String subject,
+                                  @JsonProperty("priority") String priority,
+                                  @JsonProperty("tags") List<String> tags,
+                                  @JsonProperty("body") String body,
+                                  @JsonProperty("state") String state,
+                                  @JsonProperty("rating") Integer rating,
+                                  @JsonProperty("createdAt") String createdAt) {
+        this.type = type;
+        this.id = id;
+        this.forum = forum;
+        this.tree = tree;
+        this.message = message;
+        this.parent = parent;
+        this.user = user;
+        this.name = name;
+        this.forumType = forumType;
+        this.readonly = readonly;
+        this.subject = subject;
+        this.priority = priority;
+        this.tags = tags;
+        this.body = body;
+        this.state = state;
+        this.rating = rating;
+        this.createdAt = createdAt;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getForum() {
+        return forum;
+    }
+
+    public String getTree() {
+        return tree;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getParent() {
+        return parent;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getForumType() {
+        return forumType;
+    }
+
+    public Boolean getReadonly() {
+        return readonly;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,94 @@
+package net.thumbtack.forums.dto.responses.debug;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+public class CacheStatisticsDtoResponse {
+    private String name;
+    private int size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private double hitRatio;
+
+    @JsonCreator
+    public CacheStatisticsDtoResponse(
+            @JsonProperty("name") String name,
+            @JsonProperty("size") int size,
+            @JsonProperty("hits") long hits,
+            @JsonProperty("misses") long misses,
+            @JsonProperty("evictions") long evictions,
+            @JsonProperty("invalidations") long invalidations,
+            @JsonProperty("hitRatio") double hitRatio) {
+        this.name = name;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.hitRatio = hitRatio;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheStatisticsDtoResponse)) return false;
+        CacheStatisticsDtoResponse that = (CacheStatisticsDtoResponse) o;
+        return size == that.size &&
+                hits == that.hits &&
+                misses == that.misses &&
+                evictions == that.evictions &&
+                invalidations == that.invalidations &&
+                Double.compare(that.hitRatio, hitRatio) == 0 &&
+                Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, size, hits, misses, evictions, invalidations, hitRatio);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatisticsDtoResponse{" +
+                "name='" + name + '\'' +
+                ", size=" + size +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", invalidations=" + invalidations +
+                ", hitRatio=" + hitRatio +
+                '}';
+    }
+}
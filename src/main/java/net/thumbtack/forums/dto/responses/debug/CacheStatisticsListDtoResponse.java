@@ -0,0 +1,40 @@
+package net.thumbtack.forums.dto.responses.debug;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Objects;
+
+public class CacheStatisticsListDtoResponse {
+    private List<CacheStatisticsDtoResponse> caches;
+
+    @JsonCreator
+    public CacheStatisticsListDtoResponse(@JsonProperty("caches") List<CacheStatisticsDtoResponse> caches) {
+        this.caches = caches;
+    }
+
+    public List<CacheStatisticsDtoResponse> getCaches() {
+        return caches;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheStatisticsListDtoResponse)) return false;
+        CacheStatisticsListDtoResponse that = (CacheStatisticsListDtoResponse) o;
+        return Objects.equals(caches, that.caches);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(caches);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatisticsListDtoResponse{" +
+                "caches=" + caches +
+                '}';
+    }
+}
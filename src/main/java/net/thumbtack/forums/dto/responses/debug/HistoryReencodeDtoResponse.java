@@ -0,0 +1,48 @@
+package net.thumbtack.forums.dto.responses.debug;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+public class HistoryReencodeDtoResponse {
+    private int messages;
+    private int rewrittenVersions;
+
+    @JsonCreator
+    public HistoryReencodeDtoResponse(@JsonProperty("messages") int messages,
+                                      @JsonProperty("rewrittenVersions") int rewrittenVersions) {
+        this.messages = messages;
+        this.rewrittenVersions = rewrittenVersions;
+    }
+
+    public int getMessages() {
+        return messages;
+    }
+
+    public int getRewrittenVersions() {
+        return rewrittenVersions;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HistoryReencodeDtoResponse)) return false;
+        HistoryReencodeDtoResponse that = (HistoryReencodeDtoResponse) o;
+        return messages == that.messages &&
+                rewrittenVersions == that.rewrittenVersions;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messages, rewrittenVersions);
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryReencodeDtoResponse{" +
+                "messages=" + messages +
+                ", rewrittenVersions=" + rewrittenVersions +
+                '}';
+    }
+}
@@ -0,0 +1,124 @@
+package net.thumbtack.forums.dto.responses.debug;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+public class PoolStatisticsDtoResponse {
+    private int activeConnections;
+    private int idleConnections;
+    private int totalConnections;
+    private int pendingThreads;
+    private long acquisitions;
+    private long timeouts;
+    private double averageWaitMillis;
+    private double maxWaitMillis;
+    private double averageUsageMillis;
+    private long maxUsageMillis;
+
+    @JsonCreator
+    public PoolStatisticsDtoResponse(
+            @JsonProperty("activeConnections") int activeConnections,
+            @JsonProperty("idleConnections") int idleConnections,
+            @JsonProperty("totalConnections") int totalConnections,
+            @JsonProperty("pendingThreads") int pendingThreads,
+            @JsonProperty("acquisitions") long acquisitions,
+            @JsonProperty("timeouts") long timeouts,
+            @JsonProperty("averageWaitMillis") double averageWaitMillis,
+            @JsonProperty("maxWaitMillis") double maxWaitMillis,
+            @JsonProperty("averageUsageMillis") double averageUsageMillis,
+            @JsonProperty("maxUsageMillis") long maxUsageMillis) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.pendingThreads = pendingThreads;
+        this.acquisitions = acquisitions;
+        this.timeouts = timeouts;
+        this.averageWaitMillis = averageWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.averageUsageMillis = averageUsageMillis;
+        this.maxUsageMillis = maxUsageMillis;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getPendingThreads() {
+        return pendingThreads;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public double getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public double getAverageUsageMillis() {
+        return averageUsageMillis;
+    }
+
+    public long getMaxUsageMillis() {
+        return maxUsageMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PoolStatisticsDtoResponse)) return false;
+        PoolStatisticsDtoResponse that = (PoolStatisticsDtoResponse) o;
+        return activeConnections == that.activeConnections &&
+                idleConnections == that.idleConnections &&
+                totalConnections == that.totalConnections &&
+                pendingThreads == that.pendingThreads &&
+                acquisitions == that.acquisitions &&
+                timeouts == that.timeouts &&
+                Double.compare(that.averageWaitMillis, averageWaitMillis) == 0 &&
+                Double.compare(that.maxWaitMillis, maxWaitMillis) == 0 &&
+                Double.compare(that.averageUsageMillis, averageUsageMillis) == 0 &&
+                maxUsageMillis == that.maxUsageMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                activeConnections, idleConnections, totalConnections, pendingThreads, acquisitions,
+                timeouts, averageWaitMillis, maxWaitMillis, averageUsageMillis, maxUsageMillis
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStatisticsDtoResponse{" +
+                "activeConnections=" + activeConnections +
+                ", idleConnections=" + idleConnections +
+                ", totalConnections=" + totalConnections +
+                ", pendingThreads=" + pendingThreads +
+                ", acquisitions=" + acquisitions +
+                ", timeouts=" + timeouts +
+                ", averageWaitMillis=" + averageWaitMillis +
+                ", maxWaitMillis=" + maxWaitMillis +
+                ", averageUsageMillis=" + averageUsageMillis +
+                ", maxUsageMillis=" + maxUsageMillis +
+                '}';
+    }
+}
@@ -0,0 +1,85 @@
+package net.thumbtack.forums.dto.responses.debug;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+public class PurgeDtoResponse {
+    private int id;
+    private String targetType;
+    private int targetId;
+    private String requestedAt;
+    private long rowsPurged;
+    private String finishedAt;
+
+    @JsonCreator
+    public PurgeDtoResponse(
+            @JsonProperty("id") int id,
+            @JsonProperty("targetType") String targetType,
+            @JsonProperty("targetId") int targetId,
+            @JsonProperty("requestedAt") String requestedAt,
+            @JsonProperty("rowsPurged") long rowsPurged,
+            @JsonProperty("finishedAt") String finishedAt) {
+        this.id = id;
+        this.targetType = targetType;
+        this.targetId = targetId;
+        this.requestedAt = requestedAt;
+        this.rowsPurged = rowsPurged;
+        this.finishedAt = finishedAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getTargetType() {
+        return targetType;
+    }
+
+    public int getTargetId() {
+        return targetId;
+    }
+
+    public String getRequestedAt() {
+        return requestedAt;
+    }
+
+    public long getRowsPurged() {
+        return rowsPurged;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PurgeDtoResponse)) return false;
+        PurgeDtoResponse that = (PurgeDtoResponse) o;
+        return id == that.id &&
+                targetId == that.targetId &&
+                rowsPurged == that.rowsPurged &&
+                Objects.equals(targetType, that.targetType) &&
+                Objects.equals(requestedAt, that.requestedAt) &&
+                Objects.equals(finishedAt, that.finishedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, targetType, targetId, requestedAt, rowsPurged, finishedAt);
+    }
+
+    @Override
+    public String toString() {
+        return "PurgeDtoResponse{" +
+                "id=" + id +
+                ", targetType='" + targetType + '\'' +
+                ", targetId=" + targetId +
+                ", requestedAt='" + requestedAt + '\'' +
+                ", rowsPurged=" + rowsPurged +
+                ", finishedAt='" + finishedAt + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+package net.thumbtack.forums.dto.responses.debug;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Objects;
+
+public class PurgeListDtoResponse {
+    private List<PurgeDtoResponse> purges;
+
+    @JsonCreator
+    public PurgeListDtoResponse(@JsonProperty("purges") List<PurgeDtoResponse> purges) {
+        this.purges = purges;
+    }
+
+    public List<PurgeDtoResponse> getPurges() {
+        return purges;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PurgeListDtoResponse)) return false;
+        PurgeListDtoResponse that = (PurgeListDtoResponse) o;
+        return Objects.equals(purges, that.purges);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(purges);
+    }
+
+    @Override
+    public String toString() {
+        return "PurgeListDtoResponse{" +
+                "purges=" + purges +
+                '}';
+    }
+}
@@ -0,0 +1,192 @@
+package net.thumbtack.forums.dto.responses.exports;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One line of a forum export, in the format read by the import,
+ * see {@link net.thumbtack.forums.dto.requests.imports.ImportRecordDtoRequest}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExportRecordDtoResponse {
+    private String type;
+    private String id;
+    private String forum;
+    private String tree;
+    private String message;
+    private String parent;
+    private String user;
+    private String name;
+    private String forumType;
+    private Boolean readonly;
+    private String subject;
+    private String priority;
+    private List<String> tags;
+    private String body;
+    private String state;
+    private Integer rating;
+    private String createdAt;
+
+    @JsonCreator
+    public ExportRecordDtoResponse(@JsonProperty("type") String type,
+                                   @JsonProperty("id") String id,
+                                   @JsonProperty("forum") String forum,
+                                   @JsonProperty("tree") String tree,
+                                   @JsonProperty("message") String message,
+                                   @JsonProperty("parent") String parent,
+                                   @JsonProperty("user") String user,
+                                   @JsonProperty("name") String name,
+                                   @JsonProperty("forumType") String forumType,
+                                   @JsonProperty("readonly") Boolean readonly,
+                                   @JsonProperty("subject") String subject,
+                                   @JsonProperty("priority") String priority,
+                                   @JsonProperty("tags") List<String> tags,
+                                   @JsonProperty("body") String body,
+                                   @JsonProperty("state") String state,
+                                   @JsonProperty("rating") Integer rating,
+                                   @JsonProperty("createdAt") String createdAt) {
+        this.type = type;
+        this.id = id;
+        this.forum = forum;
+        this.tree = tree;
+        this.message = message;
+        this.parent = parent;
+        this.user = user;
+        this.name = name;
+        this.forumType = forumType;
+        this.readonly = readonly;
+        this.subject = subject;
+        this.priority = priority;
+        this.tags = tags;
+        this.body = body;
+        this.state = state;
+        this.rating = rating;
+        this.createdAt = createdAt;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getForum() {
+        return forum;
+    }
+
+    public String getTree() {
+        return tree;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getParent() {
+        return parent;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getForumType() {
+        return forumType;
+    }
+
+    public Boolean getReadonly() {
+        return readonly;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExportRecordDtoResponse)) return false;
+        ExportRecordDtoResponse that = (ExportRecordDtoResponse) o;
+        return Objects.equals(type, that.type) &&
+                Objects.equals(id, that.id) &&
+                Objects.equals(forum, that.forum) &&
+                Objects.equals(tree, that.tree) &&
+                Objects.equals(message, that.message) &&
+                Objects.equals(parent, that.parent) &&
+                Objects.equals(user, that.user) &&
+                Objects.equals(name, that.name) &&
+                Objects.equals(forumType, that.forumType) &&
+                Objects.equals(readonly, that.readonly) &&
+                Objects.equals(subject, that.subject) &&
+                Objects.equals(priority, that.priority) &&
+                Objects.equals(tags, that.tags) &&
+                Objects.equals(body, that.body) &&
+                Objects.equals(state, that.state) &&
+                Objects.equals(rating, that.rating) &&
+                Objects.equals(createdAt, that.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, id, forum, tree, message, parent, user, name, forumType, readonly,
+                subject, priority, tags, body, state, rating, createdAt
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "ExportRecordDtoResponse{" +
+                "type='" + type + '\'' +
+                ", id='" + id + '\'' +
+                ", forum='" + forum + '\'' +
+                ", tree='" + tree + '\'' +
+                ", message='" + message + '\'' +
+                ", parent='" + parent + '\'' +
+                ", user='" + user + '\'' +
+                ", name='" + name + '\'' +
+                ", forumType='" + forumType + '\'' +
+                ", readonly=" + readonly +
+                ", subject='" + subject + '\'' +
+                ", priority='" + priority + '\'' +
+                ", tags=" + tags +
+                ", body='" + body + '\'' +
+                ", state='" + state + '\'' +
+                ", rating=" + rating +
+                ", createdAt='" + createdAt + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,127 @@
+package net.thumbtack.forums.dto.responses.imports;
+
+import net.thumbtack.forums.dto.responses.exception.ExceptionDtoResponse;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportProgressDtoResponse {
+    private int lines;
+    private int forums;
+    private int trees;
+    private int messages;
+    private int history;
+    private int ratings;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    private boolean finished;
+    private ExceptionDtoResponse error;
+
+    @JsonCreator
+    public ImportProgressDtoResponse(
+            @JsonProperty("lines") int lines,
+            @JsonProperty("forums") int forums,
+            @JsonProperty("trees") int trees,
+            @JsonProperty("messages") int messages,
+            @JsonProperty("history") int history,
+            @JsonProperty("ratings") int ratings,
+            @JsonProperty("elapsedMillis") long elapsedMillis,
+            @JsonProperty("rowsPerSecond") long rowsPerSecond,
+            @JsonProperty("finished") boolean finished,
+            @JsonProperty("error") ExceptionDtoResponse error) {
+        this.lines = lines;
+        this.forums = forums;
+        this.trees = trees;
+        this.messages = messages;
+        this.history = history;
+        this.ratings = ratings;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = rowsPerSecond;
+        this.finished = finished;
+        this.error = error;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public int getForums() {
+        return forums;
+    }
+
+    public int getTrees() {
+        return trees;
+    }
+
+    public int getMessages() {
+        return messages;
+    }
+
+    public int getHistory() {
+        return history;
+    }
+
+    public int getRatings() {
+        return ratings;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public ExceptionDtoResponse getError() {
+        return error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ImportProgressDtoResponse)) return false;
+        ImportProgressDtoResponse that = (ImportProgressDtoResponse) o;
+        return lines == that.lines &&
+                forums == that.forums &&
+                trees == that.trees &&
+                messages == that.messages &&
+                history == that.history &&
+                ratings == that.ratings &&
+                elapsedMillis == that.elapsedMillis &&
+                rowsPerSecond == that.rowsPerSecond &&
+                finished == that.finished &&
+                Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lines, forums, trees, messages, history, ratings,
+                elapsedMillis, rowsPerSecond, finished, error
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "ImportProgressDtoResponse{" +
+                "lines=" + lines +
+                ", forums=" + forums +
+                ", trees=" + trees +
+                ", messages=" + messages +
+                ", history=" + history +
+                ", ratings=" + ratings +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rowsPerSecond=" + rowsPerSecond +
+                ", finished=" + finished +
+                ", error=" + error +
+                '}';
+    }
+}
@@ -1,6 +1,7 @@
 package net.thumbtack.forums.dto.responses.message;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
@@ -15,6 +16,8 @@ public class CommentInfoDtoResponse {
     private double rating;
     private int rated;
     private List<CommentInfoDtoResponse> comments;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String more;
 
     @JsonCreator
     public CommentInfoDtoResponse(
@@ -24,7 +27,8 @@ public class CommentInfoDtoResponse {
             @JsonProperty("created") LocalDateTime created,
             @JsonProperty("rating") double rating,
             @JsonProperty("rated") int rated,
-            @JsonProperty("comments") List<CommentInfoDtoResponse> comments
+            @JsonProperty("comments") List<CommentInfoDtoResponse> comments,
+            @JsonProperty("more") String more
     ) {
         this.id = id;
         this.creator = creator;
@@ -33,6 +37,19 @@ public class CommentInfoDtoResponse {
         this.rating = rating;
         this.rated = rated;
         this.comments = comments;
+        this.more = more;
+    }
+
+    public CommentInfoDtoResponse(
+            int id,
+            String creator,
+            List<String> body,
+            LocalDateTime created,
+            double rating,
+            int rated,
+            List<CommentInfoDtoResponse> comments
+    ) {
+        this(id, creator, body, created, rating, rated, comments, null);
     }
 
     public int getId() {
@@ -63,6 +80,10 @@ public class CommentInfoDtoResponse {
         return comments;
     }
 
+    public String getMore() {
+        return more;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -74,12 +95,13 @@ public class CommentInfoDtoResponse {
                 Objects.equals(creator, response.creator) &&
                 Objects.equals(body, response.body) &&
                 Objects.equals(created, response.created) &&
-                Objects.equals(comments, response.comments);
+                Objects.equals(comments, response.comments) &&
+                Objects.equals(more, response.more);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, creator, body, created, rating, rated, comments);
+        return Objects.hash(id, creator, body, created, rating, rated, comments, more);
     }
 
     @Override
@@ -92,6 +114,7 @@ public class CommentInfoDtoResponse {
                 ", rating=" + rating +
                 ", rated=" + rated +
                 ", comments=" + comments +
+                ", more='" + more + '\'' +
                 '}';
     }
 }
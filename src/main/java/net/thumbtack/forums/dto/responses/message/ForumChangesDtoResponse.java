@@ -0,0 +1,59 @@
+package net.thumbtack.forums.dto.responses.message;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Objects;
+
+public class ForumChangesDtoResponse {
+    private long sequence;
+    private List<MessageInfoDtoResponse> messages;
+    private List<Integer> deleted;
+
+    @JsonCreator
+    public ForumChangesDtoResponse(
+            @JsonProperty("sequence") long sequence,
+            @JsonProperty("messages") List<MessageInfoDtoResponse> messages,
+            @JsonProperty("deleted") List<Integer> deleted) {
+        this.sequence = sequence;
+        this.messages = messages;
+        this.deleted = deleted;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public List<MessageInfoDtoResponse> getMessages() {
+        return messages;
+    }
+
+    public List<Integer> getDeleted() {
+        return deleted;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ForumChangesDtoResponse)) return false;
+        ForumChangesDtoResponse that = (ForumChangesDtoResponse) o;
+        return sequence == that.sequence &&
+                Objects.equals(messages, that.messages) &&
+                Objects.equals(deleted, that.deleted);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sequence, messages, deleted);
+    }
+
+    @Override
+    public String toString() {
+        return "ForumChangesDtoResponse{" +
+                "sequence=" + sequence +
+                ", messages=" + messages +
+                ", deleted=" + deleted +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package net.thumbtack.forums.dto.responses.message;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ForumEventDtoResponse {
+    private long sequence;
+    private String type;
+    private int messageId;
+    private Integer parentMessageId;
+
+    @JsonCreator
+    public ForumEventDtoResponse(
+            @JsonProperty("sequence") long sequence,
+            @JsonProperty("type") String type,
+            @JsonProperty("messageId") int messageId,
+            @JsonProperty("parentMessageId") Integer parentMessageId) {
+        this.sequence = sequence;
+        this.type = type;
+        this.messageId = messageId;
+        this.parentMessageId = parentMessageId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    public Integer getParentMessageId() {
+        return parentMessageId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ForumEventDtoResponse)) return false;
+        ForumEventDtoResponse that = (ForumEventDtoResponse) o;
+        return sequence == that.sequence &&
+                messageId == that.messageId &&
+                Objects.equals(type, that.type) &&
+                Objects.equals(parentMessageId, that.parentMessageId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sequence, type, messageId, parentMessageId);
+    }
+
+    @Override
+    public String toString() {
+        return "ForumEventDtoResponse{" +
+                "sequence=" + sequence +
+                ", type='" + type + '\'' +
+                ", messageId=" + messageId +
+                ", parentMessageId=" + parentMessageId +
+                '}';
+    }
+}
@@ -1,6 +1,7 @@
 package net.thumbtack.forums.dto.responses.message;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
@@ -8,33 +9,48 @@ import java.util.Objects;
 
 public class ListMessageInfoDtoResponse {
     private List<MessageInfoDtoResponse> messages;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 
     @JsonCreator
-    public ListMessageInfoDtoResponse(@JsonProperty("messages") List<MessageInfoDtoResponse> messages) {
+    public ListMessageInfoDtoResponse(
+            @JsonProperty("messages") List<MessageInfoDtoResponse> messages,
+            @JsonProperty("nextCursor") String nextCursor) {
         this.messages = messages;
+        this.nextCursor = nextCursor;
+    }
+
+    public ListMessageInfoDtoResponse(List<MessageInfoDtoResponse> messages) {
+        this(messages, null);
     }
 
     public List<MessageInfoDtoResponse> getMessages() {
         return messages;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof ListMessageInfoDtoResponse)) return false;
         ListMessageInfoDtoResponse that = (ListMessageInfoDtoResponse) o;
-        return Objects.equals(messages, that.messages);
+        return Objects.equals(messages, that.messages) &&
+                Objects.equals(nextCursor, that.nextCursor);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(messages);
+        return Objects.hash(messages, nextCursor);
     }
 
     @Override
     public String toString() {
         return "ListMessageInfoDtoResponse{" +
                 "messages=" + messages +
+                ", nextCursor='" + nextCursor + '\'' +
                 '}';
     }
 }
@@ -1,6 +1,7 @@
 package net.thumbtack.forums.dto.responses.message;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.LocalDateTime;
@@ -18,6 +19,8 @@ public class MessageInfoDtoResponse {
     private double rating;
     private int rated;
     private List<CommentInfoDtoResponse> comments;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String more;
 
     @JsonCreator
     public MessageInfoDtoResponse(
@@ -30,7 +33,8 @@ public class MessageInfoDtoResponse {
             @JsonProperty("created") LocalDateTime created,
             @JsonProperty("rating") double rating,
             @JsonProperty("rated") int rated,
-            @JsonProperty("comments") List<CommentInfoDtoResponse> comments
+            @JsonProperty("comments") List<CommentInfoDtoResponse> comments,
+            @JsonProperty("more") String more
     ) {
         this.id = id;
         this.creator = creator;
@@ -42,6 +46,22 @@ public class MessageInfoDtoResponse {
         this.rating = rating;
         this.rated = rated;
         this.comments = comments;
+        this.more = more;
+    }
+
+    public MessageInfoDtoResponse(
+            int id,
+            String creator,
+            String subject,
+            List<String> body,
+            String priority,
+            List<String> tags,
+            LocalDateTime created,
+            double rating,
+            int rated,
+            List<CommentInfoDtoResponse> comments
+    ) {
+        this(id, creator, subject, body, priority, tags, created, rating, rated, comments, null);
     }
 
     public int getId() {
@@ -84,6 +104,10 @@ public class MessageInfoDtoResponse {
         return comments;
     }
 
+    public String getMore() {
+        return more;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -98,12 +122,13 @@ public class MessageInfoDtoResponse {
                 Objects.equals(priority, response.priority) &&
                 Objects.equals(tags, response.tags) &&
                 Objects.equals(created, response.created) &&
-                Objects.equals(comments, response.comments);
+                Objects.equals(comments, response.comments) &&
+                Objects.equals(more, response.more);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, creator, subject, body, priority, tags, created, rating, rated, comments);
+        return Objects.hash(id, creator, subject, body, priority, tags, created, rating, rated, comments, more);
     }
 
     @Override
@@ -119,6 +144,7 @@ public class MessageInfoDtoResponse {
                 ", rating=" + rating +
                 ", rated=" + rated +
                 ", comments=" + comments +
+                ", more='" + more + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,75 @@
+package net.thumbtack.forums.dto.responses.search;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+public class SearchResultDtoResponse {
+    private int messageId;
+    private int rootMessageId;
+    private int forumId;
+    private String subject;
+    private double score;
+
+    @JsonCreator
+    public SearchResultDtoResponse(@JsonProperty("messageId") int messageId,
+                                   @JsonProperty("rootMessageId") int rootMessageId,
+                                   @JsonProperty("forumId") int forumId,
+                                   @JsonProperty("subject") String subject,
+                                   @JsonProperty("score") double score) {
+        this.messageId = messageId;
+        this.rootMessageId = rootMessageId;
+        this.forumId = forumId;
+        this.subject = subject;
+        this.score = score;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    public int getRootMessageId() {
+        return rootMessageId;
+    }
+
+    public int getForumId() {
+        return forumId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchResultDtoResponse)) return false;
+        SearchResultDtoResponse that = (SearchResultDtoResponse) o;
+        return messageId == that.messageId &&
+                rootMessageId == that.rootMessageId &&
+                forumId == that.forumId &&
+                Double.compare(that.score, score) == 0 &&
+                Objects.equals(subject, that.subject);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, rootMessageId, forumId, subject, score);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResultDtoResponse{" +
+                "messageId=" + messageId +
+                ", rootMessageId=" + rootMessageId +
+                ", forumId=" + forumId +
+                ", subject='" + subject + '\'' +
+                ", score=" + score +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package net.thumbtack.forums.dto.responses.search;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Objects;
+
+public class SearchResultListDtoResponse {
+    private int total;
+    private List<SearchResultDtoResponse> results;
+
+    @JsonCreator
+    public SearchResultListDtoResponse(@JsonProperty("total") int total,
+                                       @JsonProperty("results") List<SearchResultDtoResponse> results) {
+        this.total = total;
+        this.results = results;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public List<SearchResultDtoResponse> getResults() {
+        return results;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchResultListDtoResponse)) return false;
+        SearchResultListDtoResponse that = (SearchResultListDtoResponse) o;
+        return total == that.total &&
+                Objects.equals(results, that.results);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(total, results);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResultListDtoResponse{" +
+                "total=" + total +
+                ", results=" + results +
+                '}';
+    }
+}
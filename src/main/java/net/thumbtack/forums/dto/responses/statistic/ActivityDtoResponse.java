@@ -0,0 +1,75 @@
+package net.thumbtack.forums.dto.responses.statistic;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+public class ActivityDtoResponse {
+    private String periodStart;
+    private int messages;
+    private int comments;
+    private int ratings;
+    private int newUsers;
+
+    @JsonCreator
+    public ActivityDtoResponse(@JsonProperty("periodStart") String periodStart,
+                               @JsonProperty("messages") int messages,
+                               @JsonProperty("comments") int comments,
+                               @JsonProperty("ratings") int ratings,
+                               @JsonProperty("newUsers") int newUsers) {
+        this.periodStart = periodStart;
+        this.messages = messages;
+        this.comments = comments;
+        this.ratings = ratings;
+        this.newUsers = newUsers;
+    }
+
+    public String getPeriodStart() {
+        return periodStart;
+    }
+
+    public int getMessages() {
+        return messages;
+    }
+
+    public int getComments() {
+        return comments;
+    }
+
+    public int getRatings() {
+        return ratings;
+    }
+
+    public int getNewUsers() {
+        return newUsers;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ActivityDtoResponse)) return false;
+        ActivityDtoResponse that = (ActivityDtoResponse) o;
+        return messages == that.messages &&
+                comments == that.comments &&
+                ratings == that.ratings &&
+                newUsers == that.newUsers &&
+                Objects.equals(periodStart, that.periodStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(periodStart, messages, comments, ratings, newUsers);
+    }
+
+    @Override
+    public String toString() {
+        return "ActivityDtoResponse{" +
+                "periodStart='" + periodStart + '\'' +
+                ", messages=" + messages +
+                ", comments=" + comments +
+                ", ratings=" + ratings +
+                ", newUsers=" + newUsers +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package net.thumbtack.forums.dto.responses.statistic;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Objects;
+
+public class ActivityListDtoResponse {
+    private String granularity;
+    private List<ActivityDtoResponse> activity;
+
+    @JsonCreator
+    public ActivityListDtoResponse(@JsonProperty("granularity") String granularity,
+                                   @JsonProperty("activity") List<ActivityDtoResponse> activity) {
+        this.granularity = granularity;
+        this.activity = activity;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public List<ActivityDtoResponse> getActivity() {
+        return activity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ActivityListDtoResponse)) return false;
+        ActivityListDtoResponse that = (ActivityListDtoResponse) o;
+        return Objects.equals(granularity, that.granularity) &&
+                Objects.equals(activity, that.activity);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(granularity, activity);
+    }
+}
@@ -20,7 +20,10 @@ public enum ErrorCode {
     USER_NOT_FOUND("User not found", "user"),
     FORBIDDEN_OPERATION("Operation not allowed for this user", "role"),
     USER_BANNED("Not available operation while user banned", "user"),
-    USER_PERMANENTLY_BANNED("User got a permanent ban", "user");
+    USER_PERMANENTLY_BANNED("User got a permanent ban", "user"),
+    INVALID_CURSOR("Invalid pagination cursor", "cursor"),
+    INVALID_COMMENTS_CURSOR("Invalid comments cursor", "commentsCursor"),
+    SEARCH_NOT_READY("Search index is being built, try again later", "search");
 
     private String message;
     private String errorCause;
@@ -0,0 +1,107 @@
+package net.thumbtack.forums.mappers;
+
+import net.thumbtack.forums.view.ActivityBucketView;
+
+import org.apache.ibatis.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pre-aggregated activity counters. Write paths add to hourly buckets, compaction moves old buckets
+ * to daily and monthly ones. A bucket is reported in the period where it starts, so buckets that
+ * were already compacted show up at the start of their day or month even in finer reports.
+ */
+public interface ActivityMapper {
+    int SERVER_FORUM_ID = 0;
+
+    String PERIOD_START = "<choose>" +
+            "<when test=\"granularity == 'MONTH'\">" +
+            "CAST(DATE_FORMAT(bucket_start, '%Y-%m-01 00:00:00') AS DATETIME)" +
+            "</when>" +
+            "<when test=\"granularity == 'DAY'\">" +
+            "CAST(DATE_FORMAT(bucket_start, '%Y-%m-%d 00:00:00') AS DATETIME)" +
+            "</when>" +
+            "<otherwise>bucket_start</otherwise>" +
+            "</choose>";
+
+    @Insert({"INSERT INTO activity_buckets",
+            "(forum_id, granularity, bucket_start, messages, comments, ratings, new_users)",
+            "VALUES(#{forumId}, 'HOUR', #{bucketStart}, #{messages}, #{comments}, #{ratings}, #{newUsers})",
+            "ON DUPLICATE KEY UPDATE",
+            "messages = messages + VALUES(messages),",
+            "comments = comments + VALUES(comments),",
+            "ratings = ratings + VALUES(ratings),",
+            "new_users = new_users + VALUES(new_users)"
+    })
+    void addActivity(
+            @Param("forumId") int forumId,
+            @Param("bucketStart") LocalDateTime bucketStart,
+            @Param("messages") int messages,
+            @Param("comments") int comments,
+            @Param("ratings") int ratings,
+            @Param("newUsers") int newUsers
+    );
+
+    @Select({"<script>",
+            "SELECT", PERIOD_START, "AS period_start,",
+            "IFNULL(SUM(messages), 0) AS messages, IFNULL(SUM(comments), 0) AS comments,",
+            "IFNULL(SUM(ratings), 0) AS ratings, IFNULL(SUM(new_users), 0) AS new_users",
+            "FROM activity_buckets",
+            "WHERE bucket_start &gt;= #{from} AND bucket_start &lt; #{to}",
+            "<if test='forumId != null'>",
+            " AND forum_id = #{forumId}",
+            "</if>",
+            "GROUP BY period_start ORDER BY period_start",
+            "</script>"
+    })
+    @ConstructorArgs(value = {
+            @Arg(name = "periodStart", column = "period_start", javaType = LocalDateTime.class),
+            @Arg(name = "messages", column = "messages", javaType = int.class),
+            @Arg(name = "comments", column = "comments", javaType = int.class),
+            @Arg(name = "ratings", column = "ratings", javaType = int.class),
+            @Arg(name = "newUsers", column = "new_users", javaType = int.class)
+    })
+    List<ActivityBucketView> getActivity(
+            @Param("forumId") Integer forumId,
+            @Param("granularity") String granularity,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    /**
+     * Adds buckets of {@code fromGranularity} that start before {@code before} to the buckets
+     * of {@code granularity} they fall into.
+     */
+    @Insert({"<script>",
+            "INSERT INTO activity_buckets",
+            "(forum_id, granularity, bucket_start, messages, comments, ratings, new_users)",
+            "SELECT forum_id, #{granularity},", PERIOD_START, "AS period_start,",
+            "SUM(messages), SUM(comments), SUM(ratings), SUM(new_users)",
+            "FROM activity_buckets AS compacted",
+            "WHERE granularity = #{fromGranularity} AND bucket_start &lt; #{before}",
+            "GROUP BY forum_id, period_start",
+            "ON DUPLICATE KEY UPDATE",
+            "messages = activity_buckets.messages + VALUES(messages),",
+            "comments = activity_buckets.comments + VALUES(comments),",
+            "ratings = activity_buckets.ratings + VALUES(ratings),",
+            "new_users = activity_buckets.new_users + VALUES(new_users)",
+            "</script>"
+    })
+    void rollup(
+            @Param("fromGranularity") String fromGranularity,
+            @Param("granularity") String granularity,
+            @Param("before") LocalDateTime before
+    );
+
+    @Delete({"DELETE FROM activity_buckets",
+            "WHERE granularity = #{granularity} AND bucket_start < #{before}"
+    })
+    int deleteBuckets(
+            @Param("granularity") String granularity,
+            @Param("before") LocalDateTime before
+    );
+
+    @Delete("DELETE FROM activity_buckets")
+    void deleteAll();
+}
@@ -0,0 +1,82 @@
+package net.thumbtack.forums.mappers;
+
+import net.thumbtack.forums.view.ExportRowView;
+
+import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.time.LocalDateTime;
+
+public interface ExportMapper {
+    /**
+     * MySQL driver reads the whole result set into memory for any other fetch size,
+     * unless cursor fetch is enabled for the connection.
+     */
+    int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    /**
+     * All not deleted trees of the forum with their tags, messages, history and ratings. Rows of a tree come together:
+     * the tree, its tags, its messages with parents before children, versions and ratings of the messages.
+     * Versions of a message come in order of ID, so deltas can be applied while the rows are read.
+     * While the rows are read, the connection can not be used for other statements.
+     */
+    @Select({"SELECT tree_id, kind, message_id, parent_id, username,",
+            "subject, priority, tag_name, body, prefix_length, suffix_length, state, rating, created_at FROM (",
+            "SELECT messages_tree.id AS tree_id, 0 AS kind, 0 AS message_id, 0 AS item_id,",
+            "NULL AS parent_id, NULL AS username, subject, priority, NULL AS tag_name,",
+            "NULL AS body, NULL AS prefix_length, NULL AS suffix_length, NULL AS state, NULL AS rating, created_at",
+            "FROM messages_tree WHERE forum_id = #{forumId} AND deleted = FALSE",
+            "UNION ALL",
+            "SELECT message_tags.tree_id, 1, 0, available_tags.id,",
+            "NULL, NULL, NULL, NULL, available_tags.tag_name, NULL, NULL, NULL, NULL, NULL, NULL",
+            "FROM messages_tree",
+            "JOIN message_tags ON message_tags.tree_id = messages_tree.id",
+            "JOIN available_tags ON available_tags.id = message_tags.tag_id",
+            "WHERE messages_tree.forum_id = #{forumId} AND messages_tree.deleted = FALSE",
+            "UNION ALL",
+            "SELECT messages.tree_id, 2, messages.id, 0,",
+            "messages.parent_message, users.username, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL,",
+            "messages.created_at",
+            "FROM messages_tree",
+            "JOIN messages ON messages.tree_id = messages_tree.id",
+            "JOIN users ON users.id = messages.owner_id",
+            "WHERE messages_tree.forum_id = #{forumId} AND messages_tree.deleted = FALSE",
+            "UNION ALL",
+            "SELECT messages.tree_id, 3, messages.id, message_history.id,",
+            "NULL, NULL, NULL, NULL, NULL, message_history.body,",
+            "message_history.prefix_length, message_history.suffix_length, message_history.state, NULL,",
+            "message_history.created_at",
+            "FROM messages_tree",
+            "JOIN messages ON messages.tree_id = messages_tree.id",
+            "JOIN message_history ON message_history.message_id = messages.id",
+            "WHERE messages_tree.forum_id = #{forumId} AND messages_tree.deleted = FALSE",
+            "UNION ALL",
+            "SELECT messages.tree_id, 4, messages.id, message_ratings.user_id,",
+            "NULL, users.username, NULL, NULL, NULL, NULL, NULL, NULL, NULL, message_ratings.rating, NULL",
+            "FROM messages_tree",
+            "JOIN messages ON messages.tree_id = messages_tree.id",
+            "JOIN message_ratings ON message_ratings.message_id = messages.id",
+            "JOIN users ON users.id = message_ratings.user_id",
+            "WHERE messages_tree.forum_id = #{forumId} AND messages_tree.deleted = FALSE",
+            ") AS export_rows ORDER BY tree_id, kind, message_id, item_id"
+    })
+    @Options(fetchSize = STREAMING_FETCH_SIZE, resultSetType = ResultSetType.FORWARD_ONLY)
+    @ConstructorArgs(value = {
+            @Arg(name = "treeId", column = "tree_id", javaType = int.class),
+            @Arg(name = "kind", column = "kind", javaType = int.class),
+            @Arg(name = "messageId", column = "message_id", javaType = int.class),
+            @Arg(name = "parentId", column = "parent_id", javaType = Integer.class),
+            @Arg(name = "username", column = "username", javaType = String.class),
+            @Arg(name = "subject", column = "subject", javaType = String.class),
+            @Arg(name = "priority", column = "priority", javaType = String.class),
+            @Arg(name = "tagName", column = "tag_name", javaType = String.class),
+            @Arg(name = "body", column = "body", javaType = String.class),
+            @Arg(name = "prefixLength", column = "prefix_length", javaType = Integer.class),
+            @Arg(name = "suffixLength", column = "suffix_length", javaType = Integer.class),
+            @Arg(name = "state", column = "state", javaType = String.class),
+            @Arg(name = "rating", column = "rating", javaType = Integer.class),
+            @Arg(name = "createdAt", column = "created_at", javaType = LocalDateTime.class)
+    })
+    Cursor<ExportRowView> getForumRows(@Param("forumId") int forumId);
+}
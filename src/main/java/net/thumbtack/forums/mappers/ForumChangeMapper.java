@@ -0,0 +1,64 @@
+package net.thumbtack.forums.mappers;
+
+import net.thumbtack.forums.model.ForumChange;
+import net.thumbtack.forums.model.enums.ForumChangeType;
+
+import org.apache.ibatis.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ForumChangeMapper {
+    /**
+     * Locks forum row till the end of transaction, so changes of one forum are committed in sequence order.
+     */
+    @Update("UPDATE forums SET change_seq = change_seq + 1 WHERE id = #{forumId}")
+    int incrementSequence(@Param("forumId") int forumId);
+
+    @Select("SELECT change_seq FROM forums WHERE id = #{forumId}")
+    Long getSequence(@Param("forumId") int forumId);
+
+    @Insert({"INSERT INTO forum_changes (forum_id, seq, message_id, parent_message, change_type, created_at)",
+            "VALUES(#{forumId}, #{sequence}, #{messageId}, #{parentMessageId}, #{type.name}, #{createdAt})"
+    })
+    void saveChange(ForumChange change);
+
+    /**
+     * Changes with forum and parent of every message, ordered by forum, so forum rows are locked in one order.
+     */
+    @Select({"<script>",
+            "SELECT messages_tree.forum_id, messages.id AS message_id, messages.parent_message FROM messages",
+            "JOIN messages_tree ON messages.tree_id = messages_tree.id",
+            "WHERE messages.id IN",
+            " (<foreach collection='messageIds' item='messageId' separator=','> #{messageId} </foreach>)",
+            "ORDER BY messages_tree.forum_id, messages.id",
+            "</script>"
+    })
+    @Results({
+            @Result(property = "forumId", column = "forum_id", javaType = int.class),
+            @Result(property = "messageId", column = "message_id", javaType = int.class),
+            @Result(property = "parentMessageId", column = "parent_message", javaType = Integer.class)
+    })
+    List<ForumChange> getMessageChanges(@Param("messageIds") List<Integer> messageIds);
+
+    @Select({"SELECT forum_id, seq, message_id, parent_message, change_type, created_at",
+            "FROM forum_changes",
+            "WHERE forum_id = #{forumId} AND seq > #{since}",
+            "ORDER BY seq LIMIT #{limit}"
+    })
+    @Results(id = "forumChangeResult",
+            value = {
+                    @Result(property = "forumId", column = "forum_id", javaType = int.class),
+                    @Result(property = "sequence", column = "seq", javaType = long.class),
+                    @Result(property = "messageId", column = "message_id", javaType = int.class),
+                    @Result(property = "parentMessageId", column = "parent_message", javaType = Integer.class),
+                    @Result(property = "type", column = "change_type", javaType = ForumChangeType.class),
+                    @Result(property = "createdAt", column = "created_at", javaType = LocalDateTime.class)
+            }
+    )
+    List<ForumChange> getChangesSince(
+            @Param("forumId") int forumId,
+            @Param("since") long since,
+            @Param("limit") int limit
+    );
+}
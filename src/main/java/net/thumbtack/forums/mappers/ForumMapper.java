@@ -3,6 +3,7 @@ package net.thumbtack.forums.mappers;
 import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.Forum;
 import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.cache.MapperCache;
 
 import org.apache.ibatis.annotations.*;
 import org.apache.ibatis.mapping.FetchType;
@@ -10,7 +11,23 @@ import org.apache.ibatis.mapping.FetchType;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Cached forums embed the owner and counters of forum_stats, so they are flushed with both namespaces.
+ */
+@CacheNamespace(implementation = MapperCache.class, properties = {
+        @Property(name = "maxBytes", value = "${cache.mapperMaxBytes}"),
+        @Property(name = "ttlSeconds", value = "${cache.mapperTtlSeconds}"),
+        @Property(name = "flushedBy", value = "net.thumbtack.forums.mappers.UserMapper,"
+                + "net.thumbtack.forums.mappers.ForumStatsMapper")
+})
 public interface ForumMapper {
+    /**
+     * Counters are read from forum_stats, which is kept in step with messages by the DAO layer.
+     */
+    String COLUMNS = "forums.id, forum_type, owner_id, name, readonly, created_at, " +
+            "IFNULL(forum_stats.published_messages, 0) AS published_messages, " +
+            "IFNULL(forum_stats.published_comments, 0) AS published_comments";
+
     @Insert({"INSERT INTO forums (forum_type, owner_id, name, readonly, created_at) ",
             "VALUES(",
             "#{type.name}, #{owner.id}, ",
@@ -20,8 +37,9 @@ public interface ForumMapper {
     @Options(useGeneratedKeys = true, keyProperty = "id")
     Integer save(Forum forum);
 
-    @Select({"SELECT id, forum_type, owner_id, name, readonly, created_at",
-            "FROM forums WHERE id = #{id}"
+    @Select({"SELECT", COLUMNS, "FROM forums",
+            "LEFT JOIN forum_stats ON forums.id = forum_stats.forum_id",
+            "WHERE forums.id = #{id} AND forums.deleted = FALSE"
     })
     @Results(id = "forumResult",
             value = {
@@ -30,44 +48,28 @@ public interface ForumMapper {
                     @Result(property = "owner", column = "owner_id", javaType = User.class,
                             one = @One(
                                     select = "net.thumbtack.forums.mappers.UserMapper.getById",
-                                    fetchType = FetchType.LAZY
+                                    fetchType = FetchType.EAGER
                             )
                     ),
                     @Result(property = "name", column = "name", javaType = String.class),
                     @Result(property = "createdAt", column = "created_at", javaType = LocalDateTime.class),
                     @Result(property = "readonly", column = "readonly", javaType = boolean.class),
-                    @Result(property = "messageCount", column = "id", javaType = int.class,
-                            one = @One(
-                                    select = "net.thumbtack.forums.mappers.ForumMapper.getPublishedMessagesCount",
-                                    fetchType = FetchType.LAZY
-                            )
-                    ),
-                    @Result(property = "commentCount", column = "id", javaType = int.class,
-                            one = @One(
-                                    select = "net.thumbtack.forums.mappers.ForumMapper.getPublishedCommentCount",
-                                    fetchType = FetchType.LAZY
-                            )
-                    )
+                    @Result(property = "messageCount", column = "published_messages", javaType = int.class),
+                    @Result(property = "commentCount", column = "published_comments", javaType = int.class)
             })
     Forum getById(@Param("id") int id);
 
-    @Select({"SELECT COUNT(DISTINCT message_id) AS pmc FROM message_history",
-            "WHERE state = 'PUBLISHED' AND message_id IN (",
-            "SELECT id FROM messages WHERE parent_message IS NULL AND tree_id IN (",
-            "SELECT id FROM messages_tree WHERE forum_id = #{forumId} )",
-            ")"
-    })
+    @Select("SELECT IFNULL(SUM(published_messages), 0) FROM forum_stats WHERE forum_id = #{forumId}")
     int getPublishedMessagesCount(@Param("forumId") int forumId);
 
-    @Select({"SELECT COUNT(DISTINCT message_id) AS pcc FROM message_history",
-            "WHERE state = 'PUBLISHED' AND message_id IN (",
-            "SELECT id FROM messages WHERE parent_message IS NOT NULL AND tree_id IN (",
-            "SELECT id FROM messages_tree WHERE forum_id = #{forumId} )",
-            ")"
-    })
+    @Select("SELECT IFNULL(SUM(published_comments), 0) FROM forum_stats WHERE forum_id = #{forumId}")
     int getPublishedCommentCount(@Param("forumId") int forumId);
 
-    @Select("SELECT id, forum_type, owner_id, name, readonly, created_at FROM forums")
+    @Select({"SELECT", COLUMNS, "FROM forums",
+            "LEFT JOIN forum_stats ON forums.id = forum_stats.forum_id",
+            "WHERE forums.deleted = FALSE"
+    })
+    @Options(useCache = false)
     @ResultMap("forumResult")
     List<Forum> getAll();
 
@@ -84,6 +86,12 @@ public interface ForumMapper {
     })
     void changeReadonlyFlagModeratedForums(@Param("id") int id, @Param("isReadonly") boolean isReadonly);
 
+    /**
+     * Hides the forum, its rows are removed later by the purge job.
+     */
+    @Update("UPDATE forums SET deleted = TRUE WHERE id = #{id} AND deleted = FALSE")
+    int markDeleted(@Param("id") int id);
+
     @Delete("DELETE FROM forums WHERE id = #{id}")
     void deleteById(@Param("id") int id);
 
@@ -0,0 +1,140 @@
+package net.thumbtack.forums.mappers;
+
+import net.thumbtack.forums.view.ForumStatsView;
+import net.thumbtack.forums.cache.MapperCache;
+
+import org.apache.ibatis.annotations.*;
+
+import java.util.List;
+
+/**
+ * Nothing is cached here, the namespace has a cache only to flush cached forums on writes.
+ */
+@CacheNamespace(implementation = MapperCache.class, properties = @Property(name = "maxBytes", value = "0"))
+public interface ForumStatsMapper {
+    /**
+     * Message is published when at least one of its versions is published, and pending otherwise.
+     * Must be followed by a condition on {@code messages} and {@link #COUNTS_END}.
+     */
+    String COUNTS_BEGIN = "SELECT IFNULL(SUM(parent_message IS NULL AND is_published), 0) AS published_messages, " +
+            "IFNULL(SUM(parent_message IS NOT NULL AND is_published), 0) AS published_comments, " +
+            "IFNULL(SUM(NOT is_published), 0) AS pending_messages " +
+            "FROM (SELECT messages.parent_message, EXISTS(" +
+            "SELECT 1 FROM message_history " +
+            "WHERE message_history.message_id = messages.id AND message_history.state = 'PUBLISHED'" +
+            ") AS is_published FROM messages ";
+    String COUNTS_END = ") AS counted";
+
+    @Insert("INSERT INTO forum_stats (forum_id) VALUES(#{forumId})")
+    void createStats(@Param("forumId") int forumId);
+
+    @Insert({"INSERT INTO forum_stats (forum_id, published_messages, published_comments, pending_messages)",
+            "VALUES(#{forumId}, #{delta.publishedMessages}, #{delta.publishedComments}, #{delta.pendingMessages})",
+            "ON DUPLICATE KEY UPDATE",
+            "published_messages = published_messages + VALUES(published_messages),",
+            "published_comments = published_comments + VALUES(published_comments),",
+            "pending_messages = pending_messages + VALUES(pending_messages)"
+    })
+    void addToStats(@Param("forumId") int forumId, @Param("delta") ForumStatsView delta);
+
+    @Insert({"REPLACE INTO forum_stats (forum_id, published_messages, published_comments, pending_messages)",
+            "VALUES(#{forumId}, #{stats.publishedMessages}, #{stats.publishedComments}, #{stats.pendingMessages})"
+    })
+    void replaceStats(@Param("forumId") int forumId, @Param("stats") ForumStatsView stats);
+
+    @Delete("DELETE FROM forum_stats WHERE forum_id = #{forumId}")
+    void deleteStats(@Param("forumId") int forumId);
+
+    @Update("UPDATE forum_stats SET published_messages = 0, published_comments = 0, pending_messages = 0")
+    void resetAll();
+
+    @Select({"SELECT published_messages, published_comments, pending_messages",
+            "FROM forum_stats WHERE forum_id = #{forumId}"
+    })
+    @Results(id = "forumStatsResult",
+            value = {
+                    @Result(property = "publishedMessages", column = "published_messages", javaType = int.class),
+                    @Result(property = "publishedComments", column = "published_comments", javaType = int.class),
+                    @Result(property = "pendingMessages", column = "pending_messages", javaType = int.class)
+            }
+    )
+    @ConstructorArgs(value = {
+            @Arg(name = "publishedMessages", column = "published_messages", javaType = int.class),
+            @Arg(name = "publishedComments", column = "published_comments", javaType = int.class),
+            @Arg(name = "pendingMessages", column = "pending_messages", javaType = int.class)
+    })
+    ForumStatsView getStats(@Param("forumId") int forumId);
+
+    /**
+     * Locks the row, so writers of the forum wait until stats are recounted.
+     */
+    @Select({"SELECT published_messages, published_comments, pending_messages",
+            "FROM forum_stats WHERE forum_id = #{forumId} FOR UPDATE"
+    })
+    @ResultMap("forumStatsResult")
+    ForumStatsView getStatsForUpdate(@Param("forumId") int forumId);
+
+    @Select({"SELECT IFNULL(SUM(published_messages), 0) AS published_messages,",
+            "IFNULL(SUM(published_comments), 0) AS published_comments,",
+            "IFNULL(SUM(pending_messages), 0) AS pending_messages",
+            "FROM forum_stats"
+    })
+    @ResultMap("forumStatsResult")
+    ForumStatsView getTotalStats();
+
+    @Select("SELECT id FROM forums WHERE deleted = FALSE ORDER BY id")
+    List<Integer> getForumIds();
+
+    @Select({"SELECT messages_tree.forum_id FROM messages",
+            "JOIN messages_tree ON messages.tree_id = messages_tree.id",
+            "WHERE messages.id = #{messageId}"
+    })
+    Integer getForumIdOfMessage(@Param("messageId") int messageId);
+
+    @Select("SELECT forum_id FROM messages_tree WHERE id = #{treeId}")
+    Integer getForumIdOfTree(@Param("treeId") int treeId);
+
+    @Select({COUNTS_BEGIN,
+            "WHERE messages.id = #{messageId}",
+            COUNTS_END
+    })
+    @ResultMap("forumStatsResult")
+    ForumStatsView countMessage(@Param("messageId") int messageId);
+
+    /**
+     * Counts the message and all messages that would be deleted with it by ON DELETE CASCADE.
+     */
+    @Select({"WITH RECURSIVE subtree(id) AS (",
+            "SELECT id FROM messages WHERE id = #{messageId}",
+            "UNION",
+            "SELECT messages.id FROM messages JOIN subtree ON messages.parent_message = subtree.id",
+            ")",
+            COUNTS_BEGIN,
+            "WHERE messages.id IN (SELECT id FROM subtree)",
+            COUNTS_END
+    })
+    @ResultMap("forumStatsResult")
+    ForumStatsView countSubtree(@Param("messageId") int messageId);
+
+    /**
+     * Counts all messages that would be deleted with the tree by ON DELETE CASCADE.
+     */
+    @Select({"WITH RECURSIVE subtree(id) AS (",
+            "SELECT id FROM messages WHERE tree_id = #{treeId}",
+            "UNION",
+            "SELECT messages.id FROM messages JOIN subtree ON messages.parent_message = subtree.id",
+            ")",
+            COUNTS_BEGIN,
+            "WHERE messages.id IN (SELECT id FROM subtree)",
+            COUNTS_END
+    })
+    @ResultMap("forumStatsResult")
+    ForumStatsView countTree(@Param("treeId") int treeId);
+
+    @Select({COUNTS_BEGIN,
+            "WHERE messages.tree_id IN (SELECT id FROM messages_tree WHERE forum_id = #{forumId} AND deleted = FALSE)",
+            COUNTS_END
+    })
+    @ResultMap("forumStatsResult")
+    ForumStatsView countForum(@Param("forumId") int forumId);
+}
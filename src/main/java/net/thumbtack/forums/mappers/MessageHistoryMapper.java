@@ -2,6 +2,7 @@ package net.thumbtack.forums.mappers;
 
 import net.thumbtack.forums.model.HistoryItem;
 import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.view.HistoryVersionView;
 
 import org.apache.ibatis.annotations.*;
 
@@ -9,12 +10,38 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 public interface MessageHistoryMapper {
+    String VERSION_COLUMNS = "id, message_id, body, prefix_length, suffix_length, state, created_at";
+
+    /**
+     * Saves the version in full, the first version of a message is always a snapshot.
+     */
     @Insert({"INSERT INTO message_history",
             "(message_id, body, state, created_at)",
             "VALUES (#{id}, #{hist.body}, #{hist.state.name}, #{hist.createdAt})"
     })
     void saveHistory(@Param("id") int messageId, @Param("hist") HistoryItem history);
 
+    @Insert({"INSERT INTO message_history",
+            "(message_id, body, prefix_length, suffix_length, state, created_at)",
+            "VALUES (#{ver.messageId}, #{ver.body}, #{ver.prefixLength}, #{ver.suffixLength},",
+            "#{ver.state.name}, #{ver.createdAt})"
+    })
+    void saveVersion(@Param("ver") HistoryVersionView version);
+
+    @Insert({"<script>",
+            "INSERT INTO message_history (message_id, body, prefix_length, suffix_length, state, created_at) VALUES",
+            "<foreach item='ver' collection='items' separator=','>",
+            "(#{ver.messageId}, #{ver.body}, #{ver.prefixLength}, #{ver.suffixLength},",
+            "#{ver.state.name}, #{ver.createdAt})",
+            "</foreach>",
+            "</script>"
+    })
+    void saveHistories(@Param("items") List<HistoryVersionView> items);
+
+    /**
+     * Versions as they are stored, for lazy loading of {@link net.thumbtack.forums.model.MessageItem} history
+     * where only states and times of versions are used. Bodies are rebuilt by DAOs from {@link #getMessageVersions}.
+     */
     @Select({"SELECT body, state, created_at",
             "FROM message_history WHERE message_id = #{id}",
             "ORDER BY id DESC"
@@ -28,11 +55,66 @@ public interface MessageHistoryMapper {
     )
     List<HistoryItem> getMessageHistory(@Param("id") int messageId);
 
+    @Select({"SELECT", VERSION_COLUMNS,
+            "FROM message_history WHERE message_id = #{id}",
+            "ORDER BY id"
+    })
+    @Results(id = "historyVersionResult")
+    @ConstructorArgs(value = {
+            @Arg(name = "id", column = "id", javaType = int.class),
+            @Arg(name = "messageId", column = "message_id", javaType = int.class),
+            @Arg(name = "body", column = "body", javaType = String.class),
+            @Arg(name = "prefixLength", column = "prefix_length", javaType = Integer.class),
+            @Arg(name = "suffixLength", column = "suffix_length", javaType = Integer.class),
+            @Arg(name = "state", column = "state", javaType = MessageState.class),
+            @Arg(name = "createdAt", column = "created_at", javaType = LocalDateTime.class)
+    })
+    List<HistoryVersionView> getMessageVersions(@Param("id") int messageId);
+
+    /**
+     * Versions from the latest full snapshot of the message, which are enough to rebuild its latest version.
+     */
+    @Select({"SELECT", VERSION_COLUMNS,
+            "FROM message_history WHERE message_id = #{id} AND id >= (",
+            "SELECT IFNULL(MAX(id), 0) FROM message_history",
+            "WHERE message_id = #{id} AND prefix_length IS NULL",
+            ")",
+            "ORDER BY id FOR UPDATE"
+    })
+    @ResultMap("historyVersionResult")
+    List<HistoryVersionView> getLatestVersionsForUpdate(@Param("id") int messageId);
+
     @Update({"UPDATE message_history",
-            "SET body = #{hist.body}",
-            "WHERE message_id = #{id} AND state = 'UNPUBLISHED'"
+            "SET body = #{ver.body}, prefix_length = #{ver.prefixLength}, suffix_length = #{ver.suffixLength}",
+            "WHERE message_id = #{ver.messageId} AND state = 'UNPUBLISHED'"
+    })
+    void editUnpublishedHistory(@Param("ver") HistoryVersionView version);
+
+    @Select({"SELECT DISTINCT message_id FROM message_history",
+            "WHERE message_id > #{afterId}",
+            "ORDER BY message_id LIMIT #{limit}"
+    })
+    List<Integer> getMessageIdsWithHistory(
+            @Param("afterId") int afterMessageId,
+            @Param("limit") int limit
+    );
+
+    @Select({"<script>",
+            "SELECT", VERSION_COLUMNS, "FROM message_history WHERE message_id IN",
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>",
+            "#{id}",
+            "</foreach>",
+            "ORDER BY message_id, id FOR UPDATE",
+            "</script>"
+    })
+    @ResultMap("historyVersionResult")
+    List<HistoryVersionView> getVersionsForUpdate(@Param("ids") List<Integer> messageIds);
+
+    @Update({"UPDATE message_history",
+            "SET body = #{ver.body}, prefix_length = #{ver.prefixLength}, suffix_length = #{ver.suffixLength}",
+            "WHERE id = #{ver.id}"
     })
-    void editUnpublishedHistory(@Param("id") int messageId, @Param("hist") HistoryItem history);
+    void updateEncoding(@Param("ver") HistoryVersionView version);
 
     @Update({"UPDATE message_history",
             "SET state = COALESCE(#{hist.state.name}, state),",
@@ -20,8 +20,9 @@ public interface MessageMapper {
     @Options(useGeneratedKeys = true, keyProperty = "id")
     Integer saveMessageItem(MessageItem item);
 
-    @Select({"SELECT id, owner_id, tree_id, parent_message, created_at, updated_at",
-            "FROM messages WHERE id = #{id}"
+    @Select({"SELECT id, owner_id, tree_id, parent_message, created_at, updated_at,",
+            RatingMapper.AGGREGATES,
+            "FROM messages WHERE id = #{id} AND tree_id IN (", MessageTreeMapper.VISIBLE_TREE_IDS, ")"
     })
     @Results(id = "messageResult",
             value = {
@@ -58,29 +59,21 @@ public interface MessageMapper {
                     ),
                     @Result(property = "createdAt", column = "created_at", javaType = LocalDateTime.class),
                     @Result(property = "updatedAt", column = "updated_at", javaType = LocalDateTime.class),
-                    @Result(property = "averageRating", column = "id", javaType = double.class,
-                            one = @One(
-                                    select = "net.thumbtack.forums.mappers.RatingMapper.getMessageRating",
-                                    fetchType = FetchType.LAZY
-                            )
-                    ),
-                    @Result(property = "rated", column = "id", javaType = int.class,
-                            one = @One(
-                                    select = "net.thumbtack.forums.mappers.RatingMapper.getMessageRatedCount",
-                                    fetchType = FetchType.LAZY
-                            )
-                    )
+                    @Result(property = "averageRating", column = "avg_rating", javaType = double.class),
+                    @Result(property = "rated", column = "rated", javaType = int.class)
             }
     )
     MessageItem getMessageById(int id);
 
-    @Select({"SELECT id, owner_id, tree_id, parent_message, created_at, updated_at",
+    @Select({"SELECT id, owner_id, tree_id, parent_message, created_at, updated_at,",
+            RatingMapper.AGGREGATES,
             "FROM messages WHERE tree_id = #{treeId} AND parent_message IS NULL"
     })
     @ResultMap("messageResult")
     MessageItem getRootMessageById(int treeId);
 
-    @Select({"SELECT id, owner_id, tree_id, parent_message, created_at, updated_at",
+    @Select({"SELECT id, owner_id, tree_id, parent_message, created_at, updated_at,",
+            RatingMapper.AGGREGATES,
             "FROM messages WHERE parent_message = #{id}",
             "ORDER BY created_at DESC"
     })
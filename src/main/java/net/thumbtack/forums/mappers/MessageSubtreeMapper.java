@@ -0,0 +1,288 @@
+package net.thumbtack.forums.mappers;
+
+import net.thumbtack.forums.model.CommentsCursor;
+import net.thumbtack.forums.model.MessageItem;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.model.enums.UserRole;
+import net.thumbtack.forums.view.ChildMessageView;
+import net.thumbtack.forums.view.HistoryVersionView;
+
+import org.apache.ibatis.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based loading of whole comment trees: every method costs one query
+ * regardless of how many roots were requested and how deep their comments are.
+ * Slices of trees are loaded one level per query and then fetched by IDs.
+ */
+public interface MessageSubtreeMapper {
+    String ROOTS_BY_ID = "SELECT id FROM messages WHERE parent_message IS NULL AND id IN " +
+            "(<foreach collection='rootIds' item='rootId' separator=','> #{rootId} </foreach>)";
+
+    String ROOTS_BY_TREE = "SELECT id FROM messages WHERE parent_message IS NULL AND tree_id IN " +
+            "(<foreach collection='treeIds' item='treeId' separator=','> #{treeId} </foreach>)";
+
+    String MESSAGES_BY_ID = "SELECT id FROM messages WHERE id IN " +
+            "(<foreach collection='messageIds' item='messageId' separator=','> #{messageId} </foreach>)";
+
+    String SUBTREE_START = "WITH RECURSIVE subtree (id) AS (";
+
+    String SUBTREE_END = "<if test='noComments == false'>" +
+            " UNION ALL" +
+            " SELECT messages.id FROM messages JOIN subtree ON messages.parent_message = subtree.id" +
+            "</if>" +
+            ")";
+
+    String MESSAGES = "SELECT messages.id, messages.owner_id, messages.tree_id, messages.parent_message," +
+            " messages.created_at, messages.updated_at," +
+            " users.role, users.username, users.email, users.password, users.registered_at," +
+            " users.deleted, users.banned_until, users.ban_count," +
+            " " + RatingMapper.AGGREGATES +
+            " FROM subtree" +
+            " JOIN messages ON messages.id = subtree.id" +
+            " JOIN users ON users.id = messages.owner_id";
+
+    /**
+     * Stored versions of the messages ordered by message and then by ID, to be rebuilt by DAO.
+     * Unless all versions are asked for, versions start from the latest snapshot the requester can see,
+     * which is enough to rebuild the latest visible version.
+     */
+    String HISTORY = "SELECT message_history.id, message_history.message_id, message_history.body," +
+            " message_history.prefix_length, message_history.suffix_length," +
+            " message_history.state, message_history.created_at," +
+            "<choose>" +
+            "<when test='unpublished == true'> TRUE</when>" +
+            "<otherwise> (message_history.state = 'PUBLISHED' OR messages.owner_id = #{requesterId})</otherwise>" +
+            "</choose>" +
+            " AS visible" +
+            " FROM subtree" +
+            " JOIN messages ON messages.id = subtree.id" +
+            " JOIN message_history ON message_history.message_id = subtree.id" +
+            "<if test='allVersions == false'>" +
+            " WHERE message_history.id >= (" +
+            " SELECT MAX(snapshots.id) FROM message_history AS snapshots" +
+            " WHERE snapshots.message_id = subtree.id AND snapshots.prefix_length IS NULL" +
+            "<if test='unpublished == false'>" +
+            " AND (snapshots.state = 'PUBLISHED' OR messages.owner_id = #{requesterId})" +
+            "</if>" +
+            " )" +
+            "</if>" +
+            " ORDER BY message_history.message_id, message_history.id";
+
+    @Select({"<script>",
+            SUBTREE_START, ROOTS_BY_ID, SUBTREE_END,
+            MESSAGES,
+            "</script>"
+    })
+    @Results(id = "subtreeMessageResult",
+            value = {
+                    @Result(property = "id", column = "id", javaType = int.class),
+                    @Result(property = "owner.id", column = "owner_id", javaType = int.class),
+                    @Result(property = "owner.role", column = "role", javaType = UserRole.class),
+                    @Result(property = "owner.username", column = "username", javaType = String.class),
+                    @Result(property = "owner.email", column = "email", javaType = String.class),
+                    @Result(property = "owner.password", column = "password", javaType = String.class),
+                    @Result(property = "owner.registeredAt", column = "registered_at", javaType = LocalDateTime.class),
+                    @Result(property = "owner.deleted", column = "deleted", javaType = boolean.class),
+                    @Result(property = "owner.bannedUntil", column = "banned_until", javaType = LocalDateTime.class),
+                    @Result(property = "owner.banCount", column = "ban_count", javaType = int.class),
+                    @Result(property = "messageTree.id", column = "tree_id", javaType = int.class),
+                    @Result(property = "parentMessage.id", column = "parent_message", javaType = int.class),
+                    @Result(property = "createdAt", column = "created_at", javaType = LocalDateTime.class),
+                    @Result(property = "updatedAt", column = "updated_at", javaType = LocalDateTime.class),
+                    @Result(property = "averageRating", column = "avg_rating", javaType = double.class),
+                    @Result(property = "rated", column = "rated", javaType = int.class)
+            }
+    )
+    List<MessageItem> getSubtreeMessages(
+            @Param("rootIds") List<Integer> rootIds,
+            @Param("noComments") boolean noComments
+    );
+
+    @Select({"<script>",
+            SUBTREE_START, ROOTS_BY_ID, SUBTREE_END,
+            HISTORY,
+            "</script>"
+    })
+    @Results(id = "subtreeHistoryResult")
+    @ConstructorArgs(value = {
+            @Arg(name = "id", column = "id", javaType = int.class),
+            @Arg(name = "messageId", column = "message_id", javaType = int.class),
+            @Arg(name = "body", column = "body", javaType = String.class),
+            @Arg(name = "prefixLength", column = "prefix_length", javaType = Integer.class),
+            @Arg(name = "suffixLength", column = "suffix_length", javaType = Integer.class),
+            @Arg(name = "state", column = "state", javaType = MessageState.class),
+            @Arg(name = "createdAt", column = "created_at", javaType = LocalDateTime.class),
+            @Arg(name = "visible", column = "visible", javaType = boolean.class)
+    })
+    List<HistoryVersionView> getSubtreeHistory(
+            @Param("rootIds") List<Integer> rootIds,
+            @Param("noComments") boolean noComments,
+            @Param("allVersions") boolean allVersions,
+            @Param("unpublished") boolean unpublished,
+            @Param("requesterId") int requesterId
+    );
+
+    @Select({"<script>",
+            SUBTREE_START, ROOTS_BY_ID, SUBTREE_END,
+            "SELECT DISTINCT messages.owner_id FROM subtree",
+            " JOIN messages ON messages.id = subtree.id",
+            " JOIN message_history ON message_history.message_id = subtree.id",
+            " WHERE message_history.state = 'UNPUBLISHED'",
+            "</script>"
+    })
+    List<Integer> getSubtreeUnpublishedOwners(
+            @Param("rootIds") List<Integer> rootIds,
+            @Param("noComments") boolean noComments
+    );
+
+    @Select({"<script>",
+            SUBTREE_START, ROOTS_BY_TREE, SUBTREE_END,
+            MESSAGES,
+            "</script>"
+    })
+    @ResultMap("subtreeMessageResult")
+    List<MessageItem> getTreesMessages(
+            @Param("treeIds") List<Integer> treeIds,
+            @Param("noComments") boolean noComments
+    );
+
+    @Select({"<script>",
+            SUBTREE_START, ROOTS_BY_TREE, SUBTREE_END,
+            HISTORY,
+            "</script>"
+    })
+    @ResultMap("subtreeHistoryResult")
+    List<HistoryVersionView> getTreesHistory(
+            @Param("treeIds") List<Integer> treeIds,
+            @Param("noComments") boolean noComments,
+            @Param("allVersions") boolean allVersions,
+            @Param("unpublished") boolean unpublished,
+            @Param("requesterId") int requesterId
+    );
+
+    @Select({"<script>",
+            SUBTREE_START, MESSAGES_BY_ID, ")",
+            MESSAGES,
+            "</script>"
+    })
+    @ResultMap("subtreeMessageResult")
+    List<MessageItem> getMessagesByIds(@Param("messageIds") List<Integer> messageIds);
+
+    @Select({"<script>",
+            SUBTREE_START, MESSAGES_BY_ID, ")",
+            HISTORY,
+            "</script>"
+    })
+    @ResultMap("subtreeHistoryResult")
+    List<HistoryVersionView> getHistoryByIds(
+            @Param("messageIds") List<Integer> messageIds,
+            @Param("allVersions") boolean allVersions,
+            @Param("unpublished") boolean unpublished,
+            @Param("requesterId") int requesterId
+    );
+
+    /**
+     * First {@code limit} children of every parent in given order, starting after the cursor position if it is set.
+     * Every parent gets its own limited select served by {@code (parent_message, created_at)} index,
+     * so a parent costs at most {@code limit} rows however many children it has.
+     */
+    @Select({"<script>",
+            "SELECT id, parent_message, created_at FROM (",
+            "<foreach collection='parentIds' item='parentId' separator=' UNION ALL '>",
+            " (SELECT id, parent_message, created_at FROM messages",
+            " WHERE parent_message = #{parentId}",
+            "<if test='cursor != null and cursor.hasPosition()'>",
+            " AND (",
+            "<choose>",
+            "<when test=\"order == 'ASC'\">",
+            " created_at &gt; #{cursor.createdAt}",
+            " OR (created_at = #{cursor.createdAt} AND id &gt; #{cursor.id})",
+            "</when>",
+            "<otherwise>",
+            " created_at &lt; #{cursor.createdAt}",
+            " OR (created_at = #{cursor.createdAt} AND id &lt; #{cursor.id})",
+            "</otherwise>",
+            "</choose>",
+            " )",
+            "</if>",
+            " ORDER BY created_at ${order}, id ${order} LIMIT #{limit})",
+            "</foreach>",
+            " ) AS children",
+            " ORDER BY parent_message, created_at ${order}, id ${order}",
+            "</script>"
+    })
+    @ConstructorArgs(value = {
+            @Arg(name = "id", column = "id", javaType = int.class),
+            @Arg(name = "parentId", column = "parent_message", javaType = int.class),
+            @Arg(name = "createdAt", column = "created_at", javaType = LocalDateTime.class)
+    })
+    List<ChildMessageView> getChildrenSlice(
+            @Param("parentIds") List<Integer> parentIds,
+            @Param("cursor") CommentsCursor cursor,
+            @Param("order") String order,
+            @Param("limit") int limit
+    );
+
+    @Select({"<script>",
+            "SELECT DISTINCT parent_message FROM messages WHERE parent_message IN",
+            " (<foreach collection='parentIds' item='parentId' separator=','> #{parentId} </foreach>)",
+            "</script>"
+    })
+    List<Integer> getParentsWithChildren(@Param("parentIds") List<Integer> parentIds);
+
+    @Select({"<script>",
+            ROOTS_BY_TREE,
+            "</script>"
+    })
+    List<Integer> getTreesRootIds(@Param("treeIds") List<Integer> treeIds);
+
+    /**
+     * IDs of the message and all messages that would be deleted with it by ON DELETE CASCADE.
+     */
+    @Select({"WITH RECURSIVE subtree (id) AS (",
+            " SELECT id FROM messages WHERE id = #{messageId}",
+            " UNION",
+            " SELECT messages.id FROM messages JOIN subtree ON messages.parent_message = subtree.id",
+            ")",
+            "SELECT id FROM subtree"
+    })
+    List<Integer> getSubtreeIds(@Param("messageId") int messageId);
+
+    /**
+     * IDs of all messages that would be deleted with the tree by ON DELETE CASCADE.
+     */
+    @Select({"WITH RECURSIVE subtree (id) AS (",
+            " SELECT id FROM messages WHERE tree_id = #{treeId}",
+            " UNION",
+            " SELECT messages.id FROM messages JOIN subtree ON messages.parent_message = subtree.id",
+            ")",
+            "SELECT id FROM subtree"
+    })
+    List<Integer> getTreeMessageIds(@Param("treeId") int treeId);
+
+    @Select({"WITH RECURSIVE ancestors (id, parent_message) AS (",
+            " SELECT id, parent_message FROM messages WHERE id = #{messageId}",
+            " UNION ALL",
+            " SELECT messages.id, messages.parent_message FROM messages",
+            " JOIN ancestors ON messages.id = ancestors.parent_message",
+            ")",
+            "SELECT id FROM ancestors WHERE parent_message IS NULL"
+    })
+    Integer getRootMessageId(@Param("messageId") int messageId);
+
+    @Select({"<script>",
+            "WITH RECURSIVE ancestors (id, parent_message) AS (",
+            " SELECT id, parent_message FROM messages WHERE id IN",
+            " (<foreach collection='messageIds' item='messageId' separator=','> #{messageId} </foreach>)",
+            " UNION ALL",
+            " SELECT messages.id, messages.parent_message FROM messages",
+            " JOIN ancestors ON messages.id = ancestors.parent_message",
+            ")",
+            "SELECT DISTINCT id FROM ancestors WHERE parent_message IS NULL ORDER BY id",
+            "</script>"
+    })
+    List<Integer> getRootMessageIds(@Param("messageIds") List<Integer> messageIds);
+}
@@ -5,6 +5,7 @@ import net.thumbtack.forums.model.MessageTree;
 import net.thumbtack.forums.model.MessageItem;
 import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.enums.MessageOrder;
+import net.thumbtack.forums.cache.MapperCache;
 
 import org.apache.ibatis.annotations.*;
 import org.apache.ibatis.mapping.FetchType;
@@ -12,7 +13,20 @@ import org.apache.ibatis.mapping.FetchType;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Trees hold lazily loaded root messages and are not cached, the namespace has a cache only
+ * to flush tags of deleted trees. Forum and tags of a tree come from caches of their namespaces.
+ */
+@CacheNamespace(implementation = MapperCache.class, properties = @Property(name = "maxBytes", value = "0"))
 public interface MessageTreeMapper {
+    /**
+     * Trees that are not deleted and belong to a forum that is not deleted. Rows of deleted trees
+     * and forums stay in database until the purge job removes them.
+     */
+    String VISIBLE_TREE_IDS = "SELECT messages_tree.id FROM messages_tree " +
+            "JOIN forums ON forums.id = messages_tree.forum_id " +
+            "WHERE messages_tree.deleted = FALSE AND forums.deleted = FALSE";
+
     @Insert({"INSERT INTO messages_tree",
             "(forum_id, subject, priority, created_at)",
             "VALUES(#{forum.id}, #{subject}, #{priority.name}, #{createdAt})"
@@ -21,7 +35,7 @@ public interface MessageTreeMapper {
     Integer saveMessageTree(MessageTree tree);
 
     @Select({"SELECT id, forum_id, subject, priority, created_at",
-            "FROM messages_tree WHERE id = #{id}"
+            "FROM messages_tree WHERE id = #{id} AND id IN (", VISIBLE_TREE_IDS, ")"
     })
     @Results(id = "treeResult",
             value = {
@@ -55,9 +69,18 @@ public interface MessageTreeMapper {
     })
     void updateMessagePriority(MessageTree tree);
 
+    /**
+     * Hides the tree, its rows are removed later by the purge job.
+     */
+    @Update("UPDATE messages_tree SET deleted = TRUE WHERE id = #{id} AND deleted = FALSE")
+    int markDeleted(int id);
+
     @Delete("DELETE FROM messages_tree WHERE id = #{id}")
     void deleteTreeById(int id);
 
+    @Select("SELECT tree_id FROM messages WHERE id = #{messageId} AND parent_message IS NULL")
+    Integer getTreeIdByRootMessageId(int messageId);
+
     @Delete({"DELETE FROM messages_tree WHERE id = (",
             "SELECT tree_id FROM messages WHERE id = #{messageId} AND parent_message IS NULL",
             ")"
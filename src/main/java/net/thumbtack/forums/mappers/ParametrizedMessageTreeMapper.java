@@ -1,8 +1,8 @@
 package net.thumbtack.forums.mappers;
 
 import net.thumbtack.forums.model.Forum;
-import net.thumbtack.forums.model.MessageItem;
 import net.thumbtack.forums.model.MessageTree;
+import net.thumbtack.forums.model.MessageTreeCursor;
 
 import org.apache.ibatis.annotations.*;
 import org.apache.ibatis.mapping.FetchType;
@@ -11,27 +11,16 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ParametrizedMessageTreeMapper {
-    String PARAMS_INITIALIZING = "(SELECT #{order}) AS comment_order," +
-            "(SELECT #{allVersions}) AS all_versions," +
-            "(SELECT #{unpublished}) AS unpublished";
+    String FORUM_TREES = "SELECT id, forum_id, subject, priority, created_at" +
+            " FROM messages_tree" +
+            " WHERE forum_id = #{forumId} AND deleted = FALSE" +
 
-    String CREATOR_UNPUBLISHED = ",(SELECT #{requesterId}) AS requester_id";
+            "<if test='treeIds != null'>" +
+            " AND id IN (<foreach collection='treeIds' item='treeId' separator=','> #{treeId} </foreach>)" +
+            "</if>";
 
     @Select({"<script>",
-            "SELECT id, forum_id, subject, priority, created_at,",
-            PARAMS_INITIALIZING,
-            CREATOR_UNPUBLISHED,
-            "FROM messages_tree",
-            "WHERE forum_id = #{forumId}",
-
-            "<if test='tags != null'>",
-            "AND id IN (",
-            "SELECT tree_id FROM message_tags WHERE tag_id IN (",
-            "SELECT id FROM available_tags WHERE tag_name IN",
-            "(<foreach collection='tags' item='tag' separator=','> #{tag} </foreach>)",
-            "))",
-            "</if>",
-
+            FORUM_TREES,
             "ORDER BY priority DESC, created_at ${order}, id ${order}",
             "LIMIT #{limit} OFFSET #{offset}",
             "</script>"
@@ -45,21 +34,6 @@ public interface ParametrizedMessageTreeMapper {
                                     fetchType = FetchType.LAZY
                             )
                     ),
-                    @Result(property = "rootMessage",
-                            column = "{treeId = id, order = comment_order, allVersions = all_versions, " +
-                                    "unpublished = unpublished, requesterId = requester_id}",
-                            javaType = MessageItem.class,
-                            one = @One(
-                                    select = "net.thumbtack.forums.mappers.ParametrizedMessageMapper.getRootByTreeId",
-                                    fetchType = FetchType.LAZY
-                            )
-                    ),
-                    @Result(property = "tags", column = "id", javaType = List.class,
-                            many = @Many(
-                                    select = "net.thumbtack.forums.mappers.TagMapper.getMessageTreeTags",
-                                    fetchType = FetchType.LAZY
-                            )
-                    ),
                     @Result(property = "createdAt", column = "created_at", javaType = LocalDateTime.class)
             }
     )
@@ -68,9 +42,44 @@ public interface ParametrizedMessageTreeMapper {
             @Param("offset") int offset,
             @Param("limit") int limit,
             @Param("order") String order,
-            @Param("tags") List<String> tags,
-            @Param("allVersions") boolean allVersions,
-            @Param("unpublished") boolean unpublished,
-            @Param("requesterId") int requesterId
+            @Param("treeIds") List<Integer> treeIds
+    );
+
+    @Select({"<script>",
+            FORUM_TREES,
+
+            "<if test='cursor != null'>",
+            "AND (",
+            "<if test='cursor.lowerPriorities.isEmpty() == false'>",
+            "priority IN",
+            "(<foreach collection='cursor.lowerPriorities' item='lower' separator=','> #{lower} </foreach>)",
+            "OR",
+            "</if>",
+            "(priority = #{cursor.priority} AND (",
+            "<choose>",
+            "<when test=\"order == 'ASC'\">",
+            "created_at &gt; #{cursor.createdAt}",
+            "OR (created_at = #{cursor.createdAt} AND id &gt; #{cursor.id})",
+            "</when>",
+            "<otherwise>",
+            "created_at &lt; #{cursor.createdAt}",
+            "OR (created_at = #{cursor.createdAt} AND id &lt; #{cursor.id})",
+            "</otherwise>",
+            "</choose>",
+            "))",
+            ")",
+            "</if>",
+
+            "ORDER BY priority DESC, created_at ${order}, id ${order}",
+            "LIMIT #{limit}",
+            "</script>"
+    })
+    @ResultMap("treeListResult")
+    List<MessageTree> getTreesAfter(
+            @Param("forumId") int forumId,
+            @Param("cursor") MessageTreeCursor cursor,
+            @Param("limit") int limit,
+            @Param("order") String order,
+            @Param("treeIds") List<Integer> treeIds
     );
 }
@@ -0,0 +1,93 @@
+package net.thumbtack.forums.mappers;
+
+import net.thumbtack.forums.model.Purge;
+import net.thumbtack.forums.model.enums.PurgeTarget;
+
+import org.apache.ibatis.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rows of a deleted target are removed leaves first, each delete touches at most {@code limit} rows,
+ * so no statement cascades into an unbounded number of rows.
+ */
+public interface PurgeMapper {
+    String MESSAGE_IDS = "(<foreach collection='messageIds' item='messageId' separator=','> #{messageId} </foreach>)";
+
+    @Insert({"INSERT INTO purges (target_type, target_id, requested_at)",
+            "VALUES(#{targetType.name}, #{targetId}, #{requestedAt})"
+    })
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    Integer save(Purge purge);
+
+    @Select({"SELECT id, target_type, target_id, requested_at, rows_purged, finished_at",
+            "FROM purges WHERE finished_at IS NULL ORDER BY id"
+    })
+    @Results(id = "purgeResult",
+            value = {
+                    @Result(property = "id", column = "id", javaType = int.class),
+                    @Result(property = "targetType", column = "target_type", javaType = PurgeTarget.class),
+                    @Result(property = "targetId", column = "target_id", javaType = int.class),
+                    @Result(property = "requestedAt", column = "requested_at", javaType = LocalDateTime.class),
+                    @Result(property = "rowsPurged", column = "rows_purged", javaType = long.class),
+                    @Result(property = "finishedAt", column = "finished_at", javaType = LocalDateTime.class)
+            }
+    )
+    List<Purge> getUnfinished();
+
+    @Select({"SELECT id, target_type, target_id, requested_at, rows_purged, finished_at",
+            "FROM purges ORDER BY id DESC LIMIT #{limit}"
+    })
+    @ResultMap("purgeResult")
+    List<Purge> getLatest(@Param("limit") int limit);
+
+    @Update("UPDATE purges SET rows_purged = rows_purged + #{rows} WHERE id = #{id}")
+    void addProgress(@Param("id") int id, @Param("rows") int rows);
+
+    @Update("UPDATE purges SET finished_at = #{finishedAt} WHERE id = #{id}")
+    void finish(@Param("id") int id, @Param("finishedAt") LocalDateTime finishedAt);
+
+    @Select("SELECT id FROM messages_tree WHERE forum_id = #{forumId} LIMIT 1")
+    Integer getForumTreeId(@Param("forumId") int forumId);
+
+    /**
+     * Comments are created after their parents, so the last messages of a tree
+     * have no comments outside of the batch.
+     */
+    @Select("SELECT id FROM messages WHERE tree_id = #{treeId} ORDER BY id DESC LIMIT #{limit}")
+    List<Integer> getLastMessageIds(@Param("treeId") int treeId, @Param("limit") int limit);
+
+    @Delete({"<script>",
+            "DELETE FROM message_ratings WHERE message_id IN", MESSAGE_IDS, "LIMIT #{limit}",
+            "</script>"
+    })
+    int deleteRatings(@Param("messageIds") List<Integer> messageIds, @Param("limit") int limit);
+
+    @Delete({"<script>",
+            "DELETE FROM message_history WHERE message_id IN", MESSAGE_IDS, "LIMIT #{limit}",
+            "</script>"
+    })
+    int deleteHistory(@Param("messageIds") List<Integer> messageIds, @Param("limit") int limit);
+
+    @Delete({"<script>",
+            "DELETE FROM messages WHERE id IN", MESSAGE_IDS,
+            "</script>"
+    })
+    int deleteMessages(@Param("messageIds") List<Integer> messageIds);
+
+    @Delete("DELETE FROM message_tags WHERE tree_id = #{treeId} LIMIT #{limit}")
+    int deleteTreeTags(@Param("treeId") int treeId, @Param("limit") int limit);
+
+    @Delete("DELETE FROM messages_tree WHERE id = #{treeId}")
+    int deleteTree(@Param("treeId") int treeId);
+
+    @Delete("DELETE FROM forum_changes WHERE forum_id = #{forumId} LIMIT #{limit}")
+    int deleteForumChanges(@Param("forumId") int forumId, @Param("limit") int limit);
+
+    @Delete("DELETE FROM forums WHERE id = #{forumId}")
+    int deleteForum(@Param("forumId") int forumId);
+
+    @Delete("DELETE FROM purges")
+    void deleteAll();
+}
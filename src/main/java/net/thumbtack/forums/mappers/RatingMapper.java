@@ -1,11 +1,19 @@
 package net.thumbtack.forums.mappers;
 
 import net.thumbtack.forums.model.MessageItem;
+import net.thumbtack.forums.model.Rating;
 import net.thumbtack.forums.model.User;
+import net.thumbtack.forums.view.RatingVoteView;
 
 import org.apache.ibatis.annotations.*;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface RatingMapper {
+    String AGGREGATES = "IF(messages.rating_count = 0, 0, messages.rating_sum / messages.rating_count) AS avg_rating," +
+            " messages.rating_count AS rated";
+
     @Insert({"INSERT INTO message_ratings (message_id, user_id, rating)",
             "VALUES(#{msg.id}, #{rater.id}, #{rating})",
             "ON DUPLICATE KEY UPDATE rating = #{rating}"
@@ -25,6 +33,69 @@ public interface RatingMapper {
             @Param("rating") int rating
     );
 
+    @Insert({"<script>",
+            "INSERT INTO message_ratings (message_id, user_id, rating) VALUES",
+            "<foreach item='rating' collection='ratings' separator=','>",
+            "(#{rating.message.id}, #{rating.rater.id}, #{rating.value})",
+            "</foreach>",
+            "</script>"
+    })
+    void saveRatings(@Param("ratings") List<Rating> ratings);
+
+    @Insert({"<script>",
+            "INSERT INTO message_ratings (message_id, user_id, rating) VALUES",
+            "<foreach item='vote' collection='votes' separator=','>",
+            "(#{vote.messageId}, #{vote.userId}, #{vote.rating})",
+            "</foreach>",
+            "ON DUPLICATE KEY UPDATE rating = VALUES(rating)",
+            "</script>"
+    })
+    void upsertRatings(@Param("votes") List<RatingVoteView> votes);
+
+    @Delete({"<script>",
+            "DELETE FROM message_ratings WHERE (message_id, user_id) IN",
+            "<foreach item='vote' collection='votes' open='(' separator=',' close=')'>",
+            "(#{vote.messageId}, #{vote.userId})",
+            "</foreach>",
+            "</script>"
+    })
+    void deleteRatings(@Param("votes") List<RatingVoteView> votes);
+
+    @Select({"<script>",
+            "SELECT message_id, user_id, rating FROM message_ratings WHERE (message_id, user_id) IN",
+            "<foreach item='vote' collection='votes' open='(' separator=',' close=')'>",
+            "(#{vote.messageId}, #{vote.userId})",
+            "</foreach>",
+            "FOR UPDATE",
+            "</script>"
+    })
+    @ConstructorArgs(value = {
+            @Arg(name = "messageId", column = "message_id", javaType = int.class),
+            @Arg(name = "userId", column = "user_id", javaType = int.class),
+            @Arg(name = "rating", column = "rating", javaType = Integer.class)
+    })
+    List<RatingVoteView> getRatingsForUpdate(@Param("votes") List<RatingVoteView> votes);
+
+    @Select({"<script>",
+            "SELECT id FROM messages WHERE id IN",
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>",
+            "#{id}",
+            "</foreach>",
+            "LOCK IN SHARE MODE",
+            "</script>"
+    })
+    List<Integer> getExistingMessageIds(@Param("ids") Collection<Integer> messageIds);
+
+    @Select({"<script>",
+            "SELECT id FROM users WHERE id IN",
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>",
+            "#{id}",
+            "</foreach>",
+            "LOCK IN SHARE MODE",
+            "</script>"
+    })
+    List<Integer> getExistingUserIds(@Param("ids") Collection<Integer> userIds);
+
     @Update({"UPDATE message_ratings SET rating = #{rating}",
             "WHERE message_id = #{msg.id} AND user_id = #{rater.id}"
     })
@@ -42,13 +113,59 @@ public interface RatingMapper {
             @Param("rater") User rater
     );
 
-    @Select({"SELECT IFNULL(AVG(rating), 0) AS avg_rating",
-            "FROM message_ratings WHERE message_id = #{msg}"
+    @Select({"SELECT rating FROM message_ratings",
+            "WHERE message_id = #{msg.id} AND user_id = #{rater.id}",
+            "FOR UPDATE"
+    })
+    Integer getRatingForUpdate(
+            @Param("msg") MessageItem message,
+            @Param("rater") User rater
+    );
+
+    @Update({"UPDATE messages",
+            "SET rating_sum = rating_sum + #{sumDelta}, rating_count = rating_count + #{countDelta}",
+            "WHERE id = #{msg.id}"
+    })
+    void addToAggregates(
+            @Param("msg") MessageItem message,
+            @Param("sumDelta") int sumDelta,
+            @Param("countDelta") int countDelta
+    );
+
+    @Update({"UPDATE messages",
+            "SET rating_sum = rating_sum + #{sumDelta}, rating_count = rating_count + #{countDelta}",
+            "WHERE id = #{id}"
+    })
+    void addToAggregatesById(
+            @Param("id") int messageId,
+            @Param("sumDelta") int sumDelta,
+            @Param("countDelta") int countDelta
+    );
+
+    @Update({"UPDATE messages",
+            "LEFT JOIN (",
+            "SELECT message_id, SUM(rating) AS rating_sum, COUNT(*) AS rating_count FROM message_ratings",
+            "WHERE message_id BETWEEN #{fromId} AND #{toId} GROUP BY message_id",
+            ") AS ratings ON ratings.message_id = messages.id",
+            "SET messages.rating_sum = IFNULL(ratings.rating_sum, 0),",
+            "messages.rating_count = IFNULL(ratings.rating_count, 0)",
+            "WHERE messages.id BETWEEN #{fromId} AND #{toId}"
+    })
+    int recomputeAggregates(
+            @Param("fromId") int fromId,
+            @Param("toId") int toId
+    );
+
+    @Select("SELECT IFNULL(MAX(id), 0) FROM messages")
+    int getMaxMessageId();
+
+    @Select({"SELECT IFNULL(MAX(IF(rating_count = 0, 0, rating_sum / rating_count)), 0) AS avg_rating",
+            "FROM messages WHERE id = #{msg}"
     })
     double getMessageRating(@Param("msg") int messageId);
 
-    @Select({"SELECT IFNULL(COUNT(*), 0) AS rated",
-            "FROM message_ratings WHERE message_id = #{msg}"
+    @Select({"SELECT IFNULL(MAX(rating_count), 0) AS rated",
+            "FROM messages WHERE id = #{msg}"
     })
     int getMessageRatedCount(@Param("msg") int messageId);
 
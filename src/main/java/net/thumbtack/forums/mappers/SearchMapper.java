@@ -0,0 +1,76 @@
+package net.thumbtack.forums.mappers;
+
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.view.SearchTreeView;
+import net.thumbtack.forums.view.SearchVersionView;
+import net.thumbtack.forums.view.TreeTagView;
+
+import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+/**
+ * Rows the search index is built from. Rows are streamed, while they are read
+ * the connection can not be used for other statements.
+ */
+public interface SearchMapper {
+    @Select({"SELECT message_tags.tree_id, message_tags.tag_id AS id, available_tags.tag_name",
+            "FROM message_tags JOIN available_tags ON available_tags.id = message_tags.tag_id"
+    })
+    @Options(fetchSize = ExportMapper.STREAMING_FETCH_SIZE, resultSetType = ResultSetType.FORWARD_ONLY)
+    @ConstructorArgs(value = {
+            @Arg(name = "treeId", column = "tree_id", javaType = int.class),
+            @Arg(name = "tagId", column = "id", javaType = int.class),
+            @Arg(name = "tagName", column = "tag_name", javaType = String.class)
+    })
+    Cursor<TreeTagView> getTreeTags();
+
+    /**
+     * Not deleted trees of not deleted forums.
+     */
+    @Select({"SELECT messages_tree.id, messages_tree.forum_id, messages.id AS root_message_id, messages_tree.subject",
+            "FROM messages_tree",
+            "JOIN forums ON forums.id = messages_tree.forum_id",
+            "JOIN messages ON messages.tree_id = messages_tree.id AND messages.parent_message IS NULL",
+            "WHERE messages_tree.deleted = FALSE AND forums.deleted = FALSE"
+    })
+    @Options(fetchSize = ExportMapper.STREAMING_FETCH_SIZE, resultSetType = ResultSetType.FORWARD_ONLY)
+    @ConstructorArgs(value = {
+            @Arg(name = "treeId", column = "id", javaType = int.class),
+            @Arg(name = "forumId", column = "forum_id", javaType = int.class),
+            @Arg(name = "rootMessageId", column = "root_message_id", javaType = int.class),
+            @Arg(name = "subject", column = "subject", javaType = String.class)
+    })
+    Cursor<SearchTreeView> getTrees();
+
+    /**
+     * Stored versions of messages of not deleted trees of not deleted forums, in order of message and version ID,
+     * so deltas can be applied while the rows are read.
+     */
+    @Select({"SELECT message_history.message_id, messages.tree_id, message_history.body,",
+            "message_history.prefix_length, message_history.suffix_length, message_history.state",
+            "FROM message_history",
+            "JOIN messages ON messages.id = message_history.message_id",
+            "JOIN messages_tree ON messages_tree.id = messages.tree_id",
+            "JOIN forums ON forums.id = messages_tree.forum_id",
+            "WHERE messages_tree.deleted = FALSE AND forums.deleted = FALSE",
+            "ORDER BY message_history.message_id, message_history.id"
+    })
+    @Options(fetchSize = ExportMapper.STREAMING_FETCH_SIZE, resultSetType = ResultSetType.FORWARD_ONLY)
+    @ConstructorArgs(value = {
+            @Arg(name = "messageId", column = "message_id", javaType = int.class),
+            @Arg(name = "treeId", column = "tree_id", javaType = int.class),
+            @Arg(name = "body", column = "body", javaType = String.class),
+            @Arg(name = "prefixLength", column = "prefix_length", javaType = Integer.class),
+            @Arg(name = "suffixLength", column = "suffix_length", javaType = Integer.class),
+            @Arg(name = "state", column = "state", javaType = MessageState.class)
+    })
+    Cursor<SearchVersionView> getVersions();
+
+    /**
+     * Changes with every change of forum content, see {@link ForumChangeMapper}:
+     * the number of not deleted forums and the sum of their change sequences.
+     */
+    @Select("SELECT CONCAT(COUNT(*), ':', IFNULL(SUM(change_seq), 0)) FROM forums WHERE deleted = FALSE")
+    String getContentVersion();
+}
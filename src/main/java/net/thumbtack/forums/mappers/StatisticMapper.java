@@ -2,6 +2,8 @@ package net.thumbtack.forums.mappers;
 
 import net.thumbtack.forums.view.MessagesCountView;
 import net.thumbtack.forums.view.MessageRatingView;
+import net.thumbtack.forums.view.RatedMessageView;
+import net.thumbtack.forums.view.UserNameView;
 import net.thumbtack.forums.view.UserRatingView;
 import net.thumbtack.forums.mappers.provider.StatisticSqlProvider;
 
@@ -10,21 +12,16 @@ import org.apache.ibatis.annotations.*;
 import java.util.List;
 
 public interface StatisticMapper {
-    @Select({"SELECT COUNT(DISTINCT message_id) AS pmc FROM message_history",
-            "WHERE state = 'PUBLISHED' AND message_id IN (",
-            "SELECT id FROM messages WHERE parent_message IS NULL",
-            ")"
-    })
+    @Select("SELECT IFNULL(SUM(published_messages), 0) FROM forum_stats")
     int getMessagesCount();
 
-    @Select({"SELECT COUNT(DISTINCT message_id) AS pcc FROM message_history",
-            "WHERE state = 'PUBLISHED' AND message_id IN (",
-            "SELECT id FROM messages WHERE parent_message IS NOT NULL",
-            ")"
-    })
+    @Select("SELECT IFNULL(SUM(published_comments), 0) FROM forum_stats")
     int getCommentsCount();
 
-    @SelectProvider(method = "getMessagesAndCommentsCount", type = StatisticSqlProvider.class)
+    @Select({"SELECT IFNULL(SUM(published_messages), 0) AS messages_count,",
+            "IFNULL(SUM(published_comments), 0) AS comments_count",
+            "FROM forum_stats"
+    })
     @Results(id = "countsViewResult",
             value = {
                     @Result(property = "messagesCount", column = "messages_count", javaType = int.class),
@@ -37,7 +34,10 @@ public interface StatisticMapper {
     })
     MessagesCountView getMessagesAndCommentsCount();
 
-    @SelectProvider(method = "getMessagesAndCommentsCountInForum", type = StatisticSqlProvider.class)
+    @Select({"SELECT IFNULL(SUM(published_messages), 0) AS messages_count,",
+            "IFNULL(SUM(published_comments), 0) AS comments_count",
+            "FROM forum_stats WHERE forum_id = #{forumId}"
+    })
     @ResultMap("countsViewResult")
     MessagesCountView getMessagesAndCommentsCountInForum(@Param("forumId") int forumId);
 
@@ -96,4 +96,27 @@ public interface StatisticMapper {
             @Param("offset") int offset,
             @Param("limit") int limit
     );
+
+    @Select({"SELECT messages.id AS msg_id, messages_tree.forum_id, messages.owner_id,",
+            "IF(messages.parent_message IS NULL, TRUE, FALSE) AS is_message,",
+            "messages.rating_sum, messages.rating_count",
+            "FROM messages JOIN messages_tree ON messages.tree_id = messages_tree.id",
+            "WHERE messages.tree_id IN (", MessageTreeMapper.VISIBLE_TREE_IDS, ")"
+    })
+    @ConstructorArgs(value = {
+            @Arg(name = "messageId", column = "msg_id", javaType = int.class),
+            @Arg(name = "forumId", column = "forum_id", javaType = int.class),
+            @Arg(name = "ownerId", column = "owner_id", javaType = int.class),
+            @Arg(name = "isMessage", column = "is_message", javaType = boolean.class),
+            @Arg(name = "ratingSum", column = "rating_sum", javaType = int.class),
+            @Arg(name = "ratingCount", column = "rating_count", javaType = int.class)
+    })
+    List<RatedMessageView> getRatedMessages();
+
+    @Select("SELECT id, username FROM users")
+    @ConstructorArgs(value = {
+            @Arg(name = "userId", column = "id", javaType = int.class),
+            @Arg(name = "username", column = "username", javaType = String.class)
+    })
+    List<UserNameView> getUserNames();
 }
@@ -2,11 +2,22 @@ package net.thumbtack.forums.mappers;
 
 import net.thumbtack.forums.model.Tag;
 import net.thumbtack.forums.model.MessageTree;
+import net.thumbtack.forums.view.TreeTagView;
+import net.thumbtack.forums.cache.MapperCache;
 
 import org.apache.ibatis.annotations.*;
 
 import java.util.List;
 
+/**
+ * Bindings of tags are deleted in cascade with their trees and forums.
+ */
+@CacheNamespace(implementation = MapperCache.class, properties = {
+        @Property(name = "maxBytes", value = "${cache.mapperMaxBytes}"),
+        @Property(name = "ttlSeconds", value = "${cache.mapperTtlSeconds}"),
+        @Property(name = "flushedBy", value = "net.thumbtack.forums.mappers.MessageTreeMapper,"
+                + "net.thumbtack.forums.mappers.ForumMapper")
+})
 public interface TagMapper {
     @Insert({"INSERT INTO available_tags (tag_name) VALUES( LOWER(#{name}) )",
             "ON DUPLICATE KEY UPDATE tag_name = tag_name"
@@ -25,6 +36,20 @@ public interface TagMapper {
     @Options(useGeneratedKeys = true, keyProperty = "id")
     Integer saveAllTags(List<Tag> tags);
 
+    /**
+     * Same as {@link #saveAllTags(List)}, but without generated keys, which are not returned
+     * for multi-row statements of batch sessions. IDs are read with {@link #getByNames(List)}.
+     */
+    @Insert({"<script>",
+            "INSERT INTO available_tags (tag_name) VALUES",
+            "<foreach item='name' collection='names' separator=','>",
+            "( LOWER(#{name}) )",
+            "</foreach>",
+            "ON DUPLICATE KEY UPDATE tag_name = tag_name",
+            "</script>"
+    })
+    void saveTagNames(@Param("names") List<String> names);
+
     @Insert({"<script>",
             "INSERT INTO message_tags (tag_id, tree_id) VALUES",
             "<foreach item='tag' collection='tree.tags' separator=','>",
@@ -34,6 +59,17 @@ public interface TagMapper {
     })
     void bindMessageAndTags(@Param("tree") MessageTree message);
 
+    @Insert({"<script>",
+            "INSERT INTO message_tags (tag_id, tree_id) VALUES",
+            "<foreach item='tree' collection='trees' separator=','>",
+            "<foreach item='tag' collection='tree.tags' separator=','>",
+            "(#{tag.id}, #{tree.id})",
+            "</foreach>",
+            "</foreach>",
+            "</script>"
+    })
+    void bindTreesAndTags(@Param("trees") List<MessageTree> trees);
+
     @Insert({"<script>",
             "INSERT INTO message_tags (tag_id, tree_id) VALUES",
             "<foreach item='tag' collection='tree.tags' separator=','>",
@@ -66,6 +102,45 @@ public interface TagMapper {
     @ResultMap("tagResult")
     List<Tag> getMessageTreeTags(int treeId);
 
+    @Select({"<script>",
+            "SELECT message_tags.tree_id, available_tags.id, available_tags.tag_name",
+            "FROM message_tags JOIN available_tags ON available_tags.id = message_tags.tag_id",
+            "WHERE message_tags.tree_id IN",
+            "(<foreach collection='treeIds' item='treeId' separator=','> #{treeId} </foreach>)",
+            "ORDER BY message_tags.tree_id, available_tags.id",
+            "</script>"
+    })
+    @Options(useCache = false)
+    @Results(id = "treeTagResult",
+            value = {
+                    @Result(property = "treeId", column = "tree_id", javaType = int.class),
+                    @Result(property = "tagId", column = "id", javaType = int.class),
+                    @Result(property = "tagName", column = "tag_name", javaType = String.class)
+            }
+    )
+    @ConstructorArgs(value = {
+            @Arg(name = "treeId", column = "tree_id", javaType = int.class),
+            @Arg(name = "tagId", column = "id", javaType = int.class),
+            @Arg(name = "tagName", column = "tag_name", javaType = String.class)
+    })
+    List<TreeTagView> getTreesTags(@Param("treeIds") List<Integer> treeIds);
+
+    @Select({"SELECT message_tags.tree_id, message_tags.tag_id AS id, NULL AS tag_name",
+            "FROM message_tags JOIN messages_tree ON messages_tree.id = message_tags.tree_id",
+            "WHERE messages_tree.forum_id = #{forumId} AND messages_tree.deleted = FALSE"
+    })
+    @Options(useCache = false)
+    @ResultMap("treeTagResult")
+    List<TreeTagView> getForumTreesTags(@Param("forumId") int forumId);
+
+    @Select({"<script>",
+            "SELECT id, tag_name FROM available_tags WHERE tag_name IN",
+            "(<foreach collection='names' item='name' separator=','> LOWER(#{name}) </foreach>)",
+            "</script>"
+    })
+    @ResultMap("tagResult")
+    List<Tag> getByNames(@Param("names") List<String> names);
+
     @Delete("DELETE FROM available_tags WHERE id = #{id}")
     void deleteById(int id);
 
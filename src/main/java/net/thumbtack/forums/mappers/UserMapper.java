@@ -3,13 +3,20 @@ package net.thumbtack.forums.mappers;
 import net.thumbtack.forums.model.UserSession;
 import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.enums.UserRole;
+import net.thumbtack.forums.view.UserNameView;
+import net.thumbtack.forums.view.UserBanView;
 import net.thumbtack.forums.mappers.provider.UserSqlProvider;
+import net.thumbtack.forums.cache.MapperCache;
 
 import org.apache.ibatis.annotations.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+@CacheNamespace(implementation = MapperCache.class, properties = {
+        @Property(name = "maxBytes", value = "${cache.mapperMaxBytes}"),
+        @Property(name = "ttlSeconds", value = "${cache.mapperTtlSeconds}")
+})
 public interface UserMapper {
     @Insert({"INSERT INTO users ",
             "(role, username, email, password, registered_at, deleted, banned_until, ban_count) ",
@@ -69,9 +76,22 @@ public interface UserMapper {
     @ResultMap("userResult")
     User getByNameAndDeleted(@Param("name") String name, @Param("deleted") boolean deleted);
 
+    @Select({"<script>",
+            "SELECT id, username FROM users WHERE LOWER(username) IN",
+            "(<foreach collection='names' item='name' separator=','> LOWER(#{name}) </foreach>)",
+            "</script>"
+    })
+    @Options(useCache = false)
+    @ConstructorArgs(value = {
+            @Arg(name = "userId", column = "id", javaType = int.class),
+            @Arg(name = "username", column = "username", javaType = String.class)
+    })
+    List<UserNameView> getUserNamesByNames(@Param("names") List<String> names);
+
     @Select("SELECT id, role, username, email, password, " +
             "registered_at, deleted, banned_until, ban_count FROM users"
     )
+    @Options(useCache = false)
     @ResultMap("userResult")
     List<User> getAll();
 
@@ -84,10 +104,12 @@ public interface UserMapper {
             "</if>",
             "</script>"
     })
+    @Options(useCache = false)
     @ResultMap("userResult")
     List<User> getAllAndDeleted(@Param("deleted") boolean deleted);
 
     @SelectProvider(method = "getAllUsersWithSessions", type = UserSqlProvider.class)
+    @Options(useCache = false)
     @Results({
             @Result(property = "user.id", column = "id", javaType = int.class),
             @Result(property = "user.role", column = "role", javaType = UserRole.class),
@@ -127,6 +149,24 @@ public interface UserMapper {
     })
     void unbanAllByDate(LocalDateTime date);
 
+    @Update({"<script>",
+            "UPDATE users SET banned_until = NULL",
+            "WHERE id IN (<foreach collection='userIds' item='userId' separator=','> #{userId} </foreach>)",
+            "AND banned_until &lt;= #{date}",
+            "</script>"
+    })
+    int unbanEnded(@Param("userIds") List<Integer> userIds, @Param("date") LocalDateTime date);
+
+    @Select({"SELECT id, banned_until FROM users",
+            "WHERE banned_until IS NOT NULL AND banned_until < #{before}"
+    })
+    @Options(useCache = false)
+    @ConstructorArgs(value = {
+            @Arg(name = "userId", column = "id", javaType = int.class),
+            @Arg(name = "bannedUntil", column = "banned_until", javaType = LocalDateTime.class)
+    })
+    List<UserBanView> getBansEndingBefore(@Param("before") LocalDateTime before);
+
     @Update("UPDATE users SET deleted = TRUE WHERE id = #{id}")
     void deactivateById(int id);
 
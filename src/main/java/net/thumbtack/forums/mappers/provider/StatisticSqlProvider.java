@@ -1,39 +1,18 @@
 package net.thumbtack.forums.mappers.provider;
 
+import net.thumbtack.forums.mappers.RatingMapper;
+import net.thumbtack.forums.mappers.MessageTreeMapper;
+
 import org.apache.ibatis.jdbc.SQL;
 
 public class StatisticSqlProvider {
-    public String getMessagesAndCommentsCount() {
-        return new SQL()
-                .SELECT("IFNULL(SUM(IF(parent_message IS NULL, 1, 0)), 0) AS messages_count")
-                .SELECT("IFNULL(SUM(IF(parent_message IS NOT NULL, 1, 0)), 0) AS comments_count")
-                .FROM("messages")
-                .LEFT_OUTER_JOIN("messages_tree ON messages.tree_id = messages_tree.id")
-                .LEFT_OUTER_JOIN("message_history ON messages.id = message_history.message_id")
-                .WHERE("message_history.state = 'PUBLISHED'")
-                .toString();
-    }
-    public String getMessagesAndCommentsCountInForum(final int forumId) {
-        return new SQL()
-                .SELECT("IFNULL(SUM(IF(parent_message IS NULL, 1, 0)), 0) AS messages_count")
-                .SELECT("IFNULL(SUM(IF(parent_message IS NOT NULL, 1, 0)), 0) AS comments_count")
-                .FROM("messages")
-                .LEFT_OUTER_JOIN("messages_tree ON messages.tree_id = messages_tree.id")
-                .LEFT_OUTER_JOIN("message_history ON messages.id = message_history.message_id")
-                .WHERE("message_history.state = 'PUBLISHED'")
-                .WHERE("forum_id = #{forumId}")
-                .toString();
-    }
-
     public String getMessagesWithRatings(final int offset, final int limit) {
         return new SQL()
                 .SELECT("messages.id AS msg_id")
                 .SELECT("IF(messages.parent_message IS NULL, TRUE, FALSE) AS is_message")
-                .SELECT("IFNULL(AVG(rating), 0) AS avg_rating")
-                .SELECT("COUNT(rating) AS rated")
+                .SELECT(RatingMapper.AGGREGATES)
                 .FROM("messages")
-                .LEFT_OUTER_JOIN("message_ratings ON message_ratings.message_id = messages.id")
-                .GROUP_BY("msg_id")
+                .WHERE("messages.tree_id IN (" + MessageTreeMapper.VISIBLE_TREE_IDS + ")")
                 .ORDER_BY("avg_rating DESC, msg_id ASC LIMIT #{limit} OFFSET #{offset}")
                 .toString();
     }
@@ -42,13 +21,11 @@ public class StatisticSqlProvider {
         return new SQL()
                 .SELECT("messages.id AS msg_id")
                 .SELECT("IF(messages.parent_message IS NULL, TRUE, FALSE) AS is_message")
-                .SELECT("IFNULL(AVG(rating), 0) AS avg_rating")
-                .SELECT("COUNT(rating) AS rated")
+                .SELECT(RatingMapper.AGGREGATES)
                 .FROM("messages")
                 .LEFT_OUTER_JOIN("messages_tree ON messages.tree_id = messages_tree.id")
-                .LEFT_OUTER_JOIN("message_ratings ON message_ratings.message_id = messages.id")
                 .WHERE("forum_id = #{forumId}")
-                .GROUP_BY("msg_id")
+                .WHERE("messages_tree.deleted = FALSE")
                 .ORDER_BY("avg_rating DESC, msg_id ASC LIMIT #{limit} OFFSET #{offset}")
                 .toString();
     }
@@ -57,11 +34,11 @@ public class StatisticSqlProvider {
         return new SQL()
                 .SELECT("users.id AS rated_user_id")
                 .SELECT("username")
-                .SELECT("IFNULL(AVG(rating), 0) AS avg_rating")
-                .SELECT("COUNT(rating) AS rated")
+                .SELECT("IFNULL(SUM(messages.rating_sum) / NULLIF(SUM(messages.rating_count), 0), 0) AS avg_rating")
+                .SELECT("IFNULL(SUM(messages.rating_count), 0) AS rated")
                 .FROM("users")
-                .LEFT_OUTER_JOIN("messages ON users.id = messages.owner_id")
-                .LEFT_OUTER_JOIN("message_ratings ON message_ratings.message_id = messages.id")
+                .LEFT_OUTER_JOIN("messages ON users.id = messages.owner_id"
+                        + " AND messages.tree_id IN (" + MessageTreeMapper.VISIBLE_TREE_IDS + ")")
                 .GROUP_BY("rated_user_id")
                 .ORDER_BY("avg_rating DESC, rated_user_id ASC LIMIT #{limit} OFFSET #{offset}")
                 .toString();
@@ -71,13 +48,13 @@ public class StatisticSqlProvider {
         return new SQL()
                 .SELECT("users.id AS rated_user_id")
                 .SELECT("username")
-                .SELECT("IFNULL(AVG(rating), 0) AS avg_rating")
-                .SELECT("COUNT(rating) AS rated")
+                .SELECT("IFNULL(SUM(messages.rating_sum) / NULLIF(SUM(messages.rating_count), 0), 0) AS avg_rating")
+                .SELECT("IFNULL(SUM(messages.rating_count), 0) AS rated")
                 .FROM("users")
                 .LEFT_OUTER_JOIN("messages ON users.id = messages.owner_id")
                 .LEFT_OUTER_JOIN("messages_tree ON messages.tree_id = messages_tree.id")
-                .LEFT_OUTER_JOIN("message_ratings ON message_ratings.message_id = messages.id")
                 .WHERE("forum_id = #{forumId}")
+                .WHERE("messages_tree.deleted = FALSE")
                 .GROUP_BY("rated_user_id")
                 .ORDER_BY("avg_rating DESC, rated_user_id ASC LIMIT #{limit} OFFSET #{offset}")
                 .toString();
@@ -0,0 +1,64 @@
+package net.thumbtack.forums.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Position in the children list of one message: comments after (creation date, ID) in requested order.
+ * Cursor without position points to the beginning of the list.
+ */
+public class CommentsCursor {
+    private int parentId;
+    private LocalDateTime createdAt;
+    private int id;
+
+    public CommentsCursor(int parentId, LocalDateTime createdAt, int id) {
+        this.parentId = parentId;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public CommentsCursor(int parentId) {
+        this(parentId, null, 0);
+    }
+
+    public int getParentId() {
+        return parentId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean hasPosition() {
+        return createdAt != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CommentsCursor)) return false;
+        CommentsCursor that = (CommentsCursor) o;
+        return parentId == that.parentId &&
+                id == that.id &&
+                Objects.equals(createdAt, that.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(parentId, createdAt, id);
+    }
+
+    @Override
+    public String toString() {
+        return "CommentsCursor{" +
+                "parentId=" + parentId +
+                ", createdAt=" + createdAt +
+                ", id=" + id +
+                '}';
+    }
+}
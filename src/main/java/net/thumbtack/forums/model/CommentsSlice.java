@@ -0,0 +1,61 @@
+package net.thumbtack.forums.model;
+
+import java.util.Objects;
+
+/**
+ * Part of comment tree to load: at most {@code limit} children per message and {@code maxDepth} levels
+ * below the root. With cursor set, root gets continuation of the cursor parent's children instead of its own.
+ */
+public class CommentsSlice {
+    public static final CommentsSlice UNLIMITED = new CommentsSlice(Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+
+    private int limit;
+    private int maxDepth;
+    private CommentsCursor cursor;
+
+    public CommentsSlice(int limit, int maxDepth, CommentsCursor cursor) {
+        this.limit = limit;
+        this.maxDepth = maxDepth;
+        this.cursor = cursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public CommentsCursor getCursor() {
+        return cursor;
+    }
+
+    public boolean isUnlimited() {
+        return limit == Integer.MAX_VALUE && maxDepth == Integer.MAX_VALUE && cursor == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CommentsSlice)) return false;
+        CommentsSlice that = (CommentsSlice) o;
+        return limit == that.limit &&
+                maxDepth == that.maxDepth &&
+                Objects.equals(cursor, that.cursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(limit, maxDepth, cursor);
+    }
+
+    @Override
+    public String toString() {
+        return "CommentsSlice{" +
+                "limit=" + limit +
+                ", maxDepth=" + maxDepth +
+                ", cursor=" + cursor +
+                '}';
+    }
+}
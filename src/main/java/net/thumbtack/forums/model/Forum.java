@@ -2,10 +2,13 @@ package net.thumbtack.forums.model;
 
 import net.thumbtack.forums.model.enums.ForumType;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
-public class Forum {
+public class Forum implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private int id;
     private ForumType type;
     private User owner;
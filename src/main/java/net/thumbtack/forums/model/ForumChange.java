@@ -0,0 +1,114 @@
+package net.thumbtack.forums.model;
+
+import net.thumbtack.forums.model.enums.ForumChangeType;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Record of one change of a message or comment in forum. Sequence is assigned on save
+ * and grows by one with every change in the same forum.
+ */
+public class ForumChange {
+    private int forumId;
+    private long sequence;
+    private int messageId;
+    private Integer parentMessageId;
+    private ForumChangeType type;
+    private LocalDateTime createdAt;
+
+    public ForumChange() {
+    }
+
+    public ForumChange(int forumId, long sequence, int messageId, Integer parentMessageId,
+                       ForumChangeType type, LocalDateTime createdAt) {
+        this.forumId = forumId;
+        this.sequence = sequence;
+        this.messageId = messageId;
+        this.parentMessageId = parentMessageId;
+        this.type = type;
+        this.createdAt = createdAt;
+    }
+
+    public ForumChange(int forumId, int messageId, Integer parentMessageId, ForumChangeType type) {
+        this(forumId, 0, messageId, parentMessageId, type, LocalDateTime.now());
+    }
+
+    public int getForumId() {
+        return forumId;
+    }
+
+    public void setForumId(int forumId) {
+        this.forumId = forumId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(int messageId) {
+        this.messageId = messageId;
+    }
+
+    public Integer getParentMessageId() {
+        return parentMessageId;
+    }
+
+    public void setParentMessageId(Integer parentMessageId) {
+        this.parentMessageId = parentMessageId;
+    }
+
+    public ForumChangeType getType() {
+        return type;
+    }
+
+    public void setType(ForumChangeType type) {
+        this.type = type;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ForumChange)) return false;
+        ForumChange that = (ForumChange) o;
+        return forumId == that.forumId &&
+                sequence == that.sequence &&
+                messageId == that.messageId &&
+                Objects.equals(parentMessageId, that.parentMessageId) &&
+                type == that.type &&
+                Objects.equals(createdAt, that.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(forumId, sequence, messageId, parentMessageId, type, createdAt);
+    }
+
+    @Override
+    public String toString() {
+        return "ForumChange{" +
+                "forumId=" + forumId +
+                ", sequence=" + sequence +
+                ", messageId=" + messageId +
+                ", parentMessageId=" + parentMessageId +
+                ", type=" + type +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
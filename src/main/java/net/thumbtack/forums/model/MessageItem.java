@@ -16,6 +16,8 @@ public class MessageItem {
     private LocalDateTime updatedAt;
     private double averageRating;
     private int rated;
+    // not persisted, set when only a slice of children was loaded
+    private CommentsCursor moreComments;
 
     public MessageItem() {
     }
@@ -174,6 +176,14 @@ public class MessageItem {
         this.rated = rated;
     }
 
+    public CommentsCursor getMoreComments() {
+        return moreComments;
+    }
+
+    public void setMoreComments(CommentsCursor moreComments) {
+        this.moreComments = moreComments;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
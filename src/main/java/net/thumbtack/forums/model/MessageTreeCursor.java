@@ -0,0 +1,74 @@
+package net.thumbtack.forums.model;
+
+import net.thumbtack.forums.model.enums.MessagePriority;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Position of the last tree of a forum page in listing order (priority, creation date, ID).
+ */
+public class MessageTreeCursor {
+    private MessagePriority priority;
+    private LocalDateTime createdAt;
+    private int id;
+
+    public MessageTreeCursor(MessagePriority priority, LocalDateTime createdAt, int id) {
+        this.priority = priority;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public MessageTreeCursor(MessageTree tree) {
+        this(tree.getPriority(), tree.getCreatedAt(), tree.getId());
+    }
+
+    public MessagePriority getPriority() {
+        return priority;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Priorities listed after the cursor priority, since trees are ordered by priority descending.
+     */
+    public List<String> getLowerPriorities() {
+        return Arrays.stream(MessagePriority.values())
+                .filter(value -> value.ordinal() < priority.ordinal())
+                .map(MessagePriority::name)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MessageTreeCursor)) return false;
+        MessageTreeCursor that = (MessageTreeCursor) o;
+        return id == that.id &&
+                priority == that.priority &&
+                Objects.equals(createdAt, that.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(priority, createdAt, id);
+    }
+
+    @Override
+    public String toString() {
+        return "MessageTreeCursor{" +
+                "priority=" + priority +
+                ", createdAt=" + createdAt +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,114 @@
+package net.thumbtack.forums.model;
+
+import net.thumbtack.forums.model.enums.PurgeTarget;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Deleted forum or message tree, whose rows are removed from database in batches
+ * after it was hidden. Purge is finished when nothing of the target is left.
+ */
+public class Purge {
+    private int id;
+    private PurgeTarget targetType;
+    private int targetId;
+    private LocalDateTime requestedAt;
+    private long rowsPurged;
+    private LocalDateTime finishedAt;
+
+    public Purge() {
+    }
+
+    public Purge(int id, PurgeTarget targetType, int targetId,
+                 LocalDateTime requestedAt, long rowsPurged, LocalDateTime finishedAt) {
+        this.id = id;
+        this.targetType = targetType;
+        this.targetId = targetId;
+        this.requestedAt = requestedAt;
+        this.rowsPurged = rowsPurged;
+        this.finishedAt = finishedAt;
+    }
+
+    public Purge(PurgeTarget targetType, int targetId, LocalDateTime requestedAt) {
+        this(0, targetType, targetId, requestedAt, 0, null);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public PurgeTarget getTargetType() {
+        return targetType;
+    }
+
+    public void setTargetType(PurgeTarget targetType) {
+        this.targetType = targetType;
+    }
+
+    public int getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(int targetId) {
+        this.targetId = targetId;
+    }
+
+    public LocalDateTime getRequestedAt() {
+        return requestedAt;
+    }
+
+    public void setRequestedAt(LocalDateTime requestedAt) {
+        this.requestedAt = requestedAt;
+    }
+
+    public long getRowsPurged() {
+        return rowsPurged;
+    }
+
+    public void setRowsPurged(long rowsPurged) {
+        this.rowsPurged = rowsPurged;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Purge)) return false;
+        Purge purge = (Purge) o;
+        return id == purge.id &&
+                targetId == purge.targetId &&
+                rowsPurged == purge.rowsPurged &&
+                targetType == purge.targetType &&
+                Objects.equals(requestedAt, purge.requestedAt) &&
+                Objects.equals(finishedAt, purge.finishedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, targetType, targetId, requestedAt, rowsPurged, finishedAt);
+    }
+
+    @Override
+    public String toString() {
+        return "Purge{" +
+                "id=" + id +
+                ", targetType=" + targetType +
+                ", targetId=" + targetId +
+                ", requestedAt=" + requestedAt +
+                ", rowsPurged=" + rowsPurged +
+                ", finishedAt=" + finishedAt +
+                '}';
+    }
+}
@@ -0,0 +1,66 @@
+package net.thumbtack.forums.model;
+
+import java.util.Objects;
+
+public class Rating {
+    private MessageItem message;
+    private User rater;
+    private int value;
+
+    public Rating() {
+    }
+
+    public Rating(MessageItem message, User rater, int value) {
+        this.message = message;
+        this.rater = rater;
+        this.value = value;
+    }
+
+    public MessageItem getMessage() {
+        return message;
+    }
+
+    public void setMessage(MessageItem message) {
+        this.message = message;
+    }
+
+    public User getRater() {
+        return rater;
+    }
+
+    public void setRater(User rater) {
+        this.rater = rater;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public void setValue(int value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Rating)) return false;
+        Rating rating = (Rating) o;
+        return value == rating.value &&
+                Objects.equals(message, rating.message) &&
+                Objects.equals(rater, rating.rater);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(message, rater, value);
+    }
+
+    @Override
+    public String toString() {
+        return "Rating{" +
+                "message.id=" + message.getId() +
+                ", rater=" + rater +
+                ", value=" + value +
+                '}';
+    }
+}
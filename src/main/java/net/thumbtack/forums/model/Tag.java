@@ -1,8 +1,11 @@
 package net.thumbtack.forums.model;
 
+import java.io.Serializable;
 import java.util.Objects;
 
-public class Tag {
+public class Tag implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private int id;
     private String name;
 
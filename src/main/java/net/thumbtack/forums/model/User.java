@@ -2,12 +2,15 @@ package net.thumbtack.forums.model;
 
 import net.thumbtack.forums.model.enums.UserRole;
 
+import java.io.Serializable;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 
-public class User {
+public class User implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private int id;
     private UserRole role;
     private String username;
@@ -0,0 +1,7 @@
+package net.thumbtack.forums.model.enums;
+
+public enum ActivityGranularity {
+    HOUR,
+    DAY,
+    MONTH
+}
@@ -0,0 +1,11 @@
+package net.thumbtack.forums.model.enums;
+
+public enum ForumChangeType {
+    CREATED,
+    EDITED,
+    PUBLISHED,
+    DELETED,
+    RATED,
+    PRIORITY_CHANGED,
+    BRANCHED
+}
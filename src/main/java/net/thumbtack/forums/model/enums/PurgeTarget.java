@@ -0,0 +1,6 @@
+package net.thumbtack.forums.model.enums;
+
+public enum PurgeTarget {
+    FORUM,
+    TREE
+}
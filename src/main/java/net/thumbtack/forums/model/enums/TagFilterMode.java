@@ -0,0 +1,6 @@
+package net.thumbtack.forums.model.enums;
+
+public enum TagFilterMode {
+    ANY,
+    ALL
+}
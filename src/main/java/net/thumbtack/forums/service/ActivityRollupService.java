@@ -0,0 +1,61 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.ActivityDao;
+import net.thumbtack.forums.model.enums.ActivityGranularity;
+import net.thumbtack.forums.configuration.JobsProperties;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Service("activityRollupService")
+public class ActivityRollupService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivityRollupService.class);
+    private final ActivityDao activityDao;
+    private final JobsProperties jobsProperties;
+    private final Clock clock;
+
+    @Autowired
+    public ActivityRollupService(final ActivityDao activityDao,
+                                 final JobsProperties jobsProperties) {
+        this(activityDao, jobsProperties, Clock.systemDefaultZone());
+    }
+
+    public ActivityRollupService(final ActivityDao activityDao,
+                                 final JobsProperties jobsProperties,
+                                 final Clock clock) {
+        this.activityDao = activityDao;
+        this.jobsProperties = jobsProperties;
+        this.clock = clock;
+    }
+
+    /**
+     * Compacts hourly activity buckets older than hourly retention into daily ones and daily buckets
+     * older than daily retention into monthly ones. Cutoffs are aligned to whole days and months,
+     * so a compacted period is never split between granularities.
+     */
+    @Scheduled(cron = "${cronActivityRollupExpression}")
+    public void rollupActivity() throws ServerException {
+        final LocalDate today = LocalDate.now(clock);
+        final LocalDateTime hourlyCutoff = today
+                .minusDays(Math.max(1, jobsProperties.getActivityHourlyRetentionDays()))
+                .atStartOfDay();
+        final LocalDateTime dailyCutoff = today
+                .minusDays(Math.max(1, jobsProperties.getActivityDailyRetentionDays()))
+                .withDayOfMonth(1)
+                .atStartOfDay();
+
+        final int hours = activityDao.rollup(ActivityGranularity.HOUR, ActivityGranularity.DAY, hourlyCutoff);
+        final int days = activityDao.rollup(ActivityGranularity.DAY, ActivityGranularity.MONTH, dailyCutoff);
+        LOGGER.info("Activity compacted: {} hourly buckets before {}, {} daily buckets before {}",
+                hours, hourlyCutoff, days, dailyCutoff
+        );
+    }
+}
@@ -1,21 +1,137 @@
 package net.thumbtack.forums.service;
 
 import net.thumbtack.forums.dao.DebugDao;
+import net.thumbtack.forums.dao.PurgeDao;
+import net.thumbtack.forums.dao.MessageHistoryDao;
+import net.thumbtack.forums.cache.SessionCache;
+import net.thumbtack.forums.cache.MessageResponseCache;
+import net.thumbtack.forums.cache.TagDictionary;
+import net.thumbtack.forums.cache.TagIndex;
+import net.thumbtack.forums.cache.MapperCache;
+import net.thumbtack.forums.cache.SearchIndex;
+import net.thumbtack.forums.converter.CacheStatisticsConverter;
+import net.thumbtack.forums.converter.PoolStatisticsConverter;
+import net.thumbtack.forums.converter.PurgeConverter;
+import net.thumbtack.forums.dto.responses.debug.CacheStatisticsDtoResponse;
+import net.thumbtack.forums.dto.responses.debug.CacheStatisticsListDtoResponse;
+import net.thumbtack.forums.dto.responses.debug.PoolStatisticsDtoResponse;
+import net.thumbtack.forums.dto.responses.debug.PurgeListDtoResponse;
+import net.thumbtack.forums.dto.responses.debug.HistoryReencodeDtoResponse;
 import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.utils.PoolMetrics;
+import net.thumbtack.forums.utils.UnitOfWork;
+import net.thumbtack.forums.view.HistoryReencodeView;
+import net.thumbtack.forums.configuration.ConstantsProperties;
+import net.thumbtack.forums.configuration.JobsProperties;
 
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
 @Service("debugService")
 public class DebugService {
+    private static final int PURGES_SHOWN = 100;
     private final DebugDao debugDao;
+    private final PurgeDao purgeDao;
+    private final MessageHistoryDao messageHistoryDao;
+    private final SessionCache sessionCache;
+    private final TagDictionary tagDictionary;
+    private final TagIndex tagIndex;
+    private final MessageResponseCache messageResponseCache;
+    private final SearchIndex searchIndex;
+    private final PoolMetrics poolMetrics;
+    private final ConstantsProperties constantsProperties;
+    private final JobsProperties jobsProperties;
 
     @Autowired
-    public DebugService(final DebugDao debugDao) {
+    public DebugService(final DebugDao debugDao,
+                        final PurgeDao purgeDao,
+                        final MessageHistoryDao messageHistoryDao,
+                        final SessionCache sessionCache,
+                        final TagDictionary tagDictionary,
+                        final TagIndex tagIndex,
+                        final MessageResponseCache messageResponseCache,
+                        final SearchIndex searchIndex,
+                        final PoolMetrics poolMetrics,
+                        final ConstantsProperties constantsProperties,
+                        final JobsProperties jobsProperties) {
         this.debugDao = debugDao;
+        this.purgeDao = purgeDao;
+        this.messageHistoryDao = messageHistoryDao;
+        this.sessionCache = sessionCache;
+        this.tagDictionary = tagDictionary;
+        this.tagIndex = tagIndex;
+        this.messageResponseCache = messageResponseCache;
+        this.searchIndex = searchIndex;
+        this.poolMetrics = poolMetrics;
+        this.constantsProperties = constantsProperties;
+        this.jobsProperties = jobsProperties;
     }
 
     public void clearDatabase() throws ServerException {
         debugDao.clear();
+        UnitOfWork.afterCommit(messageResponseCache::clear);
+        UnitOfWork.afterCommit(searchIndex::clear);
+    }
+
+    public CacheStatisticsListDtoResponse getCachesStatistics() {
+        final List<CacheStatisticsDtoResponse> caches = new ArrayList<>();
+        caches.add(CacheStatisticsConverter.countersToResponse(
+                "sessions", sessionCache.size(), sessionCache.getCounters()
+        ));
+        caches.add(CacheStatisticsConverter.countersToResponse(
+                "tags", tagDictionary.size(), tagDictionary.getCounters()
+        ));
+        caches.add(CacheStatisticsConverter.countersToResponse(
+                "tagIndex", tagIndex.size(), tagIndex.getCounters()
+        ));
+        caches.add(CacheStatisticsConverter.countersToResponse(
+                "messageResponses", messageResponseCache.size(), messageResponseCache.getCounters()
+        ));
+        for (final String namespace : MapperCache.getNamespaces()) {
+            caches.add(CacheStatisticsConverter.countersToResponse(
+                    namespace.substring(namespace.lastIndexOf('.') + 1),
+                    MapperCache.size(namespace), MapperCache.getCounters(namespace)
+            ));
+        }
+        return new CacheStatisticsListDtoResponse(caches);
+    }
+
+    public PoolStatisticsDtoResponse getPoolStatistics() {
+        return PoolStatisticsConverter.metricsToResponse(poolMetrics);
+    }
+
+    /**
+     * Latest purges of deleted forums and trees, newest first, unfinished ones show how many rows are removed so far.
+     */
+    public PurgeListDtoResponse getPurges() throws ServerException {
+        return PurgeConverter.purgeListToResponse(
+                purgeDao.getLatest(PURGES_SHOWN),
+                DateTimeFormatter.ofPattern(constantsProperties.getDatetimePattern())
+        );
+    }
+
+    /**
+     * Migrates message history to delta encoding, jobs.historyReencodeBatchSize messages per transaction.
+     * Every batch is committed, so a migration broken off is continued by running it again.
+     */
+    public HistoryReencodeDtoResponse reencodeHistory() throws ServerException {
+        int lastMessageId = 0;
+        int messages = 0;
+        int rewrittenVersions = 0;
+        while (true) {
+            final HistoryReencodeView batch = messageHistoryDao.reencodeHistory(
+                    lastMessageId, jobsProperties.getHistoryReencodeBatchSize()
+            );
+            if (batch.getMessages() == 0) {
+                return new HistoryReencodeDtoResponse(messages, rewrittenVersions);
+            }
+            lastMessageId = batch.getLastMessageId();
+            messages += batch.getMessages();
+            rewrittenVersions += batch.getRewrittenVersions();
+        }
     }
 }
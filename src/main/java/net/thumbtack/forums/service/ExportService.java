@@ -0,0 +1,152 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.model.Forum;
+import net.thumbtack.forums.model.User;
+import net.thumbtack.forums.model.enums.UserRole;
+import net.thumbtack.forums.dao.ExportDao;
+import net.thumbtack.forums.dao.ForumDao;
+import net.thumbtack.forums.dao.SessionDao;
+import net.thumbtack.forums.view.ExportRowView;
+import net.thumbtack.forums.dto.responses.exports.ExportRecordDtoResponse;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.ConstantsProperties;
+import net.thumbtack.forums.configuration.ServerConfigurationProperties;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Service("exportService")
+public class ExportService extends ServiceBase {
+    private final ExportDao exportDao;
+
+    @Autowired
+    public ExportService(final ExportDao exportDao,
+                         final SessionDao sessionDao,
+                         final ForumDao forumDao,
+                         final ServerConfigurationProperties serverProperties,
+                         final ConstantsProperties constantsProperties) {
+        super(sessionDao, forumDao, serverProperties, constantsProperties);
+        this.exportDao = exportDao;
+    }
+
+    /**
+     * Exports the forum with its trees, tags, messages, history and ratings as records of the import format,
+     * one per line, so the output can be imported as is. Records are written while rows are read
+     * from database, only the record of a tree waits for the tags of the tree.
+     */
+    public JsonStreamWriter exportForum(final String token, final int forumId) throws ServerException {
+        final User requesterUser = getUserBySession(token);
+        if (requesterUser.getRole() != UserRole.SUPERUSER) {
+            throw new ServerException(ErrorCode.FORBIDDEN_OPERATION);
+        }
+        final Forum forum = getForumById(forumId);
+        final DateTimeFormatter formatter = getDatetimeFormatter();
+
+        return generator -> {
+            final ForumExport export = new ForumExport(generator, formatter, String.valueOf(forumId));
+            try {
+                export.write(new ExportRecordDtoResponse(
+                        "forum", String.valueOf(forumId), null, null, null, null,
+                        forum.getOwner().getUsername(), forum.getName(), forum.getType().name(), forum.isReadonly(),
+                        null, null, null, null, null, null, export.format(forum.getCreatedAt())
+                ));
+                exportDao.exportForum(forumId, export);
+                export.writeTree();
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            generator.flush();
+        };
+    }
+
+    private static class ForumExport implements Consumer<ExportRowView> {
+        private final JsonGenerator generator;
+        private final DateTimeFormatter formatter;
+        private final String forumId;
+        private final List<String> tags = new ArrayList<>();
+        private ExportRowView tree;
+
+        ForumExport(final JsonGenerator generator, final DateTimeFormatter formatter, final String forumId) {
+            this.generator = generator;
+            this.formatter = formatter;
+            this.forumId = forumId;
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void accept(final ExportRowView row) {
+            if (row.getKind() == ExportRowView.TAG && tree != null && tree.getTreeId() == row.getTreeId()) {
+                tags.add(row.getTagName());
+                return;
+            }
+            writeTree();
+
+            final String treeId = String.valueOf(row.getTreeId());
+            final String messageId = String.valueOf(row.getMessageId());
+            switch (row.getKind()) {
+                case ExportRowView.TREE:
+                    tree = row;
+                    break;
+                case ExportRowView.MESSAGE:
+                    write(new ExportRecordDtoResponse(
+                            "message", messageId, null, treeId, null,
+                            row.getParentId() == null ? null : String.valueOf(row.getParentId()),
+                            row.getUsername(), null, null, null, null, null, null, null, null, null,
+                            format(row.getCreatedAt())
+                    ));
+                    break;
+                case ExportRowView.HISTORY:
+                    write(new ExportRecordDtoResponse(
+                            "history", null, null, null, messageId, null, null, null, null, null, null, null,
+                            null, row.getBody(), row.getState(), null, format(row.getCreatedAt())
+                    ));
+                    break;
+                case ExportRowView.RATING:
+                    write(new ExportRecordDtoResponse(
+                            "rating", null, null, null, messageId, null, row.getUsername(), null, null, null,
+                            null, null, null, null, null, row.getRating(), null
+                    ));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        void writeTree() {
+            if (tree == null) {
+                return;
+            }
+            final ExportRowView row = tree;
+            tree = null;
+            write(new ExportRecordDtoResponse(
+                    "tree", String.valueOf(row.getTreeId()), forumId, null, null, null, null, null, null, null,
+                    row.getSubject(), row.getPriority(), tags.isEmpty() ? null : new ArrayList<>(tags),
+                    null, null, null, format(row.getCreatedAt())
+            ));
+            tags.clear();
+        }
+
+        void write(final ExportRecordDtoResponse record) {
+            try {
+                generator.writeObject(record);
+                generator.writeRaw('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        String format(final LocalDateTime datetime) {
+            return datetime == null ? null : formatter.format(datetime);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.model.ForumChange;
+import net.thumbtack.forums.configuration.EventsProperties;
+import net.thumbtack.forums.dto.responses.message.ForumEventDtoResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans recorded forum changes out to subscribers of {@code GET /api/forums/{forum_id}/events}.
+ * <p>
+ * Every subscriber has its own buffer of at most {@code bufferSize} events, so a slow client never
+ * holds back writers or other subscribers. When the buffer is full either the oldest events are dropped
+ * or the subscriber is disconnected; in both cases the client catches up with
+ * {@code GET /api/forums/{forum_id}/changes?since=<last event id>}.
+ * Idle streams get a comment every {@code heartbeat} so that proxies do not close them.
+ */
+@Component
+public class ForumEventBroker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ForumEventBroker.class);
+
+    private final int bufferSize;
+    private final Duration heartbeat;
+    private final boolean disconnectOnOverflow;
+
+    private final Map<Integer, Set<FluxSink<ForumChange>>> forumToSinks = new ConcurrentHashMap<>();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong disconnectedSubscribers = new AtomicLong();
+
+    @Autowired
+    public ForumEventBroker(final EventsProperties properties) {
+        this(
+                properties.getSubscriberBufferSize(),
+                Duration.ofSeconds(properties.getHeartbeatSeconds()),
+                properties.isDisconnectOnOverflow()
+        );
+    }
+
+    public ForumEventBroker(final int bufferSize, final Duration heartbeat, final boolean disconnectOnOverflow) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.heartbeat = heartbeat;
+        this.disconnectOnOverflow = disconnectOnOverflow;
+    }
+
+    public void publish(final ForumChange change) {
+        final Set<FluxSink<ForumChange>> sinks = forumToSinks.get(change.getForumId());
+        if (sinks == null) {
+            return;
+        }
+        for (final FluxSink<ForumChange> sink : sinks) {
+            sink.next(change);
+        }
+    }
+
+    public Flux<ServerSentEvent<ForumEventDtoResponse>> subscribe(final int forumId) {
+        final Flux<ForumChange> changes = Flux.create(
+                sink -> {
+                    forumToSinks.compute(forumId, (id, sinks) -> {
+                        final Set<FluxSink<ForumChange>> forumSinks =
+                                sinks == null ? ConcurrentHashMap.newKeySet() : sinks;
+                        forumSinks.add(sink);
+                        return forumSinks;
+                    });
+                    sink.onDispose(() -> unsubscribe(forumId, sink));
+                    LOGGER.debug("New subscriber of forum {} events", forumId);
+                },
+                // buffering is done per subscriber by the bounded operator below
+                FluxSink.OverflowStrategy.IGNORE
+        );
+
+        final Flux<ForumChange> bounded = disconnectOnOverflow
+                ? changes.onBackpressureBuffer(bufferSize, change -> droppedEvents.incrementAndGet())
+                : changes.onBackpressureBuffer(
+                        bufferSize, change -> droppedEvents.incrementAndGet(), BufferOverflowStrategy.DROP_OLDEST
+                );
+
+        final Flux<ServerSentEvent<ForumEventDtoResponse>> events = bounded.map(change ->
+                ServerSentEvent.builder(changeToEvent(change))
+                        .id(String.valueOf(change.getSequence()))
+                        .event(change.getType().name())
+                        .build()
+        );
+        // first comment is sent at once, so that the client sees the stream opened
+        final Flux<ServerSentEvent<ForumEventDtoResponse>> heartbeats = Flux.interval(Duration.ZERO, heartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<ForumEventDtoResponse>builder().comment("heartbeat").build());
+        // overflow error cancels heartbeats too, then the response is completed normally
+        return Flux.merge(1, events, heartbeats)
+                .onErrorResume(Exceptions::isOverflow, ex -> {
+                    LOGGER.info("Subscriber of forum {} events is too slow and was disconnected", forumId);
+                    disconnectedSubscribers.incrementAndGet();
+                    return Flux.empty();
+                });
+    }
+
+    private void unsubscribe(final int forumId, final FluxSink<ForumChange> sink) {
+        forumToSinks.computeIfPresent(forumId, (id, sinks) -> {
+            sinks.remove(sink);
+            return sinks.isEmpty() ? null : sinks;
+        });
+        LOGGER.debug("Subscriber of forum {} events is gone", forumId);
+    }
+
+    private static ForumEventDtoResponse changeToEvent(final ForumChange change) {
+        return new ForumEventDtoResponse(
+                change.getSequence(), change.getType().name(),
+                change.getMessageId(), change.getParentMessageId()
+        );
+    }
+
+    public int getSubscribersCount() {
+        int count = 0;
+        for (final Set<FluxSink<ForumChange>> sinks : forumToSinks.values()) {
+            count += sinks.size();
+        }
+        return count;
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    public long getDisconnectedSubscribers() {
+        return disconnectedSubscribers.get();
+    }
+}
@@ -6,6 +6,7 @@ import net.thumbtack.forums.model.enums.ForumType;
 import net.thumbtack.forums.model.enums.UserRole;
 import net.thumbtack.forums.dao.ForumDao;
 import net.thumbtack.forums.dao.SessionDao;
+import net.thumbtack.forums.cache.SearchIndex;
 import net.thumbtack.forums.converter.ForumConverter;
 import net.thumbtack.forums.dto.requests.forum.CreateForumDtoRequest;
 import net.thumbtack.forums.dto.responses.forum.ForumDtoResponse;
@@ -14,6 +15,7 @@ import net.thumbtack.forums.dto.responses.forum.ForumInfoListDtoResponse;
 import net.thumbtack.forums.dto.responses.EmptyDtoResponse;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.utils.UnitOfWork;
 import net.thumbtack.forums.configuration.ConstantsProperties;
 import net.thumbtack.forums.configuration.ServerConfigurationProperties;
 
@@ -27,14 +29,17 @@ import java.util.List;
 @Service("forumService")
 public class ForumService extends ServiceBase {
     private final ForumDao forumDao;
+    private final SearchIndex searchIndex;
 
     @Autowired
     public ForumService(final ForumDao forumDao,
                         final SessionDao sessionDao,
+                        final SearchIndex searchIndex,
                         final ConstantsProperties constantsProperties,
                         final ServerConfigurationProperties serverProperties) {
         super(sessionDao, forumDao, serverProperties, constantsProperties);
         this.forumDao = forumDao;
+        this.searchIndex = searchIndex;
     }
 
     public ForumDtoResponse createForum(
@@ -65,6 +70,7 @@ public class ForumService extends ServiceBase {
         }
 
         forumDao.deleteById(forumId);
+        UnitOfWork.afterCommit(() -> searchIndex.removeForum(forumId));
         return new EmptyDtoResponse();
     }
 
@@ -0,0 +1,37 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.ForumStatsDao;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service("forumStatsRepairService")
+public class ForumStatsRepairService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ForumStatsRepairService.class);
+    private final ForumStatsDao forumStatsDao;
+
+    @Autowired
+    public ForumStatsRepairService(final ForumStatsDao forumStatsDao) {
+        this.forumStatsDao = forumStatsDao;
+    }
+
+    /**
+     * Recounts published messages, published comments and pending messages of every forum
+     * and fixes stored counters that drifted, one forum per transaction. Also fills counters
+     * of forums created before forum_stats existed.
+     */
+    @Scheduled(cron = "${cronForumStatsRepairExpression}")
+    public void repairForumStats() throws ServerException {
+        int repaired = 0;
+        for (final Integer forumId : forumStatsDao.getForumIds()) {
+            if (forumStatsDao.repairStats(forumId)) {
+                repaired++;
+            }
+        }
+        LOGGER.info("Forum stats verified, {} forums fixed", repaired);
+    }
+}
@@ -0,0 +1,417 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.model.Forum;
+import net.thumbtack.forums.model.HistoryItem;
+import net.thumbtack.forums.model.MessageItem;
+import net.thumbtack.forums.model.MessageTree;
+import net.thumbtack.forums.model.Rating;
+import net.thumbtack.forums.model.Tag;
+import net.thumbtack.forums.model.User;
+import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.MessagePriority;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.model.enums.UserRole;
+import net.thumbtack.forums.dao.ForumDao;
+import net.thumbtack.forums.dao.ImportDao;
+import net.thumbtack.forums.dao.SessionDao;
+import net.thumbtack.forums.cache.SearchIndex;
+import net.thumbtack.forums.converter.TagConverter;
+import net.thumbtack.forums.dto.requests.imports.ImportRecordDtoRequest;
+import net.thumbtack.forums.dto.responses.exception.ExceptionDtoResponse;
+import net.thumbtack.forums.dto.responses.imports.ImportProgressDtoResponse;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.utils.UnitOfWork;
+import net.thumbtack.forums.configuration.ConstantsProperties;
+import net.thumbtack.forums.configuration.JobsProperties;
+import net.thumbtack.forums.configuration.ServerConfigurationProperties;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Service("importService")
+public class ImportService extends ServiceBase {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportService.class);
+    private final ImportDao importDao;
+    private final SearchIndex searchIndex;
+    private final JobsProperties jobsProperties;
+
+    @Autowired
+    public ImportService(final ImportDao importDao,
+                         final SessionDao sessionDao,
+                         final ForumDao forumDao,
+                         final SearchIndex searchIndex,
+                         final ServerConfigurationProperties serverProperties,
+                         final ConstantsProperties constantsProperties,
+                         final JobsProperties jobsProperties) {
+        super(sessionDao, forumDao, serverProperties, constantsProperties);
+        this.importDao = importDao;
+        this.searchIndex = searchIndex;
+        this.jobsProperties = jobsProperties;
+    }
+
+    /**
+     * Imports forums with their trees, messages, history, tags and ratings from records
+     * of {@link ImportRecordDtoRequest}, read one at a time.
+     * <p>
+     * A tree record is followed by the messages of the tree, parents before children, and by history
+     * and ratings of these messages, so only the tree being read is held in memory. Whole trees are
+     * committed in chunks of at least {@code jobs.importChunkSize} rows, and a progress line
+     * with committed counts is written after each chunk. The last line has {@code finished} set;
+     * if the import failed, it has the error and the number of the record being read at the time.
+     * Chunks committed before the failure stay in database.
+     */
+    public JsonStreamWriter importForums(
+            final String token,
+            final Iterator<ImportRecordDtoRequest> records
+    ) throws ServerException {
+        final User requesterUser = getUserBySession(token);
+        if (requesterUser.getRole() != UserRole.SUPERUSER) {
+            throw new ServerException(ErrorCode.FORBIDDEN_OPERATION);
+        }
+
+        return generator -> {
+            // chunks are committed by sessions of their own, the request transaction is not kept open meanwhile
+            final UnitOfWork unitOfWork = UnitOfWork.current();
+            if (unitOfWork != null) {
+                unitOfWork.complete(true);
+            }
+            new ForumImport(generator, Math.max(1, jobsProperties.getImportChunkSize())).run(records);
+        };
+    }
+
+    private class ForumImport {
+        private final JsonGenerator generator;
+        private final int chunkSize;
+        private final long startedAt = System.nanoTime();
+        private int line;
+
+        private final Map<String, Forum> forums = new HashMap<>();
+        private final Map<String, User> users = new HashMap<>();
+
+        private MessageTree tree;
+        private String treeId;
+        private final Map<String, MessageItem> treeMessages = new HashMap<>();
+        private final Map<String, Rating> treeRatings = new LinkedHashMap<>();
+
+        private final List<Forum> chunkForums = new ArrayList<>();
+        private final List<MessageTree> chunkTrees = new ArrayList<>();
+        private final List<Rating> chunkRatings = new ArrayList<>();
+        private int chunkMessages;
+        private int chunkHistory;
+
+        private int savedForums;
+        private int savedTrees;
+        private int savedMessages;
+        private int savedHistory;
+        private int savedRatings;
+
+        ForumImport(final JsonGenerator generator, final int chunkSize) {
+            this.generator = generator;
+            this.chunkSize = chunkSize;
+            // every progress line ends with a line break of its own
+            generator.setRootValueSeparator(null);
+        }
+
+        void run(final Iterator<ImportRecordDtoRequest> records) throws IOException {
+            try {
+                ImportRecordDtoRequest record;
+                while ((record = nextRecord(records)) != null) {
+                    line++;
+                    addRecord(record);
+                }
+                closeTree();
+                saveChunk();
+            } catch (ServerException ex) {
+                LOGGER.info("Import stopped at line {}: {}", line, ex.getMessage());
+                final ErrorCode errorCode = ex.getErrorCode();
+                writeProgress(true, new ExceptionDtoResponse(
+                        errorCode.name(), errorCode.getErrorCauseField(), errorCode.getMessage()
+                ));
+                return;
+            }
+            LOGGER.info("Import finished, {} lines read", line);
+            writeProgress(true, null);
+        }
+
+        private ImportRecordDtoRequest nextRecord(final Iterator<ImportRecordDtoRequest> records)
+                throws ServerException {
+            try {
+                return records.hasNext() ? records.next() : null;
+            } catch (RuntimeException ex) {
+                // parser reports malformed lines with unchecked exceptions
+                line++;
+                throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+            }
+        }
+
+        private void addRecord(final ImportRecordDtoRequest record) throws ServerException, IOException {
+            final String type = required(record.getType());
+            switch (type) {
+                case "forum":
+                    addForum(record);
+                    break;
+                case "tree":
+                    addTree(record);
+                    break;
+                case "message":
+                    addMessage(record);
+                    break;
+                case "history":
+                    addHistory(record);
+                    break;
+                case "rating":
+                    addRating(record);
+                    break;
+                default:
+                    throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+            }
+        }
+
+        private void addForum(final ImportRecordDtoRequest record) throws ServerException, IOException {
+            closeTree();
+            final String id = required(record.getId());
+            if (forums.containsKey(id)) {
+                throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+            }
+            final Forum forum = new Forum(
+                    toEnum(ForumType.class, record.getForumType(), ForumType.UNMODERATED),
+                    getUser(record.getUser()), required(record.getName()),
+                    getCreatedAt(record, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS))
+            );
+            forum.setReadonly(record.getReadonly() != null && record.getReadonly());
+            forums.put(id, forum);
+            chunkForums.add(forum);
+        }
+
+        private void addTree(final ImportRecordDtoRequest record) throws ServerException, IOException {
+            closeTree();
+            final Forum forum = forums.get(required(record.getForum()));
+            if (forum == null) {
+                throw new ServerException(ErrorCode.FORUM_NOT_FOUND);
+            }
+            final List<Tag> tags = new ArrayList<>();
+            if (record.getTags() != null) {
+                for (final String tag : record.getTags()) {
+                    tags.add(new Tag(required(tag)));
+                }
+            }
+            treeId = required(record.getId());
+            tree = new MessageTree(
+                    forum, required(record.getSubject()), null,
+                    toEnum(MessagePriority.class, record.getPriority(), MessagePriority.NORMAL),
+                    getCreatedAt(record, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)), tags
+            );
+        }
+
+        private void addMessage(final ImportRecordDtoRequest record) throws ServerException {
+            if (tree == null || !treeId.equals(required(record.getTree()))) {
+                throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+            }
+            final String id = required(record.getId());
+            if (treeMessages.containsKey(id)) {
+                throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+            }
+
+            final MessageItem parent;
+            if (record.getParent() == null) {
+                // the root message comes first, every later message is a comment
+                if (tree.getRootMessage() != null) {
+                    throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+                }
+                parent = null;
+            } else {
+                parent = getMessage(record.getParent());
+            }
+            final MessageItem message = new MessageItem(
+                    getUser(record.getUser()), tree, parent, new ArrayList<>(),
+                    getCreatedAt(record, tree.getCreatedAt())
+            );
+            if (parent == null) {
+                tree.setRootMessage(message);
+            } else {
+                parent.getChildrenComments().add(message);
+            }
+            treeMessages.put(id, message);
+        }
+
+        private void addHistory(final ImportRecordDtoRequest record) throws ServerException {
+            final MessageItem message = getMessage(record.getMessage());
+            message.getHistory().add(new HistoryItem(
+                    required(record.getBody()),
+                    toEnum(MessageState.class, record.getState(), MessageState.PUBLISHED),
+                    getCreatedAt(record, message.getCreatedAt())
+            ));
+        }
+
+        private void addRating(final ImportRecordDtoRequest record) throws ServerException {
+            final MessageItem message = getMessage(record.getMessage());
+            final User rater = getUser(record.getUser());
+            if (rater.getUsername().equalsIgnoreCase(message.getOwner().getUsername())) {
+                throw new ServerException(ErrorCode.MESSAGE_CREATOR_RATES_HIS_MESSAGE);
+            }
+            final Integer value = record.getRating();
+            if (value == null || value < 1 || value > 5) {
+                throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+            }
+            // a user has one rating of a message, the last one wins
+            treeRatings.put(
+                    record.getMessage() + '\n' + rater.getUsername().toLowerCase(Locale.ROOT),
+                    new Rating(message, rater, value)
+            );
+        }
+
+        private void closeTree() throws ServerException, IOException {
+            if (tree == null) {
+                return;
+            }
+            if (tree.getRootMessage() == null) {
+                throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+            }
+            for (final MessageItem message : treeMessages.values()) {
+                if (message.getHistory().isEmpty()) {
+                    throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+                }
+                // latest version first, as history is read from database
+                message.getHistory().sort(Comparator.comparing(HistoryItem::getCreatedAt).reversed());
+                final LocalDateTime lastVersionAt = message.getHistory().get(0).getCreatedAt();
+                message.setUpdatedAt(
+                        lastVersionAt.isAfter(message.getCreatedAt()) ? lastVersionAt : message.getCreatedAt()
+                );
+                chunkHistory += message.getHistory().size();
+            }
+
+            chunkTrees.add(tree);
+            chunkMessages += treeMessages.size();
+            chunkRatings.addAll(treeRatings.values());
+            tree = null;
+            treeId = null;
+            treeMessages.clear();
+            treeRatings.clear();
+
+            final int chunkRows = chunkForums.size() + chunkTrees.size()
+                    + chunkMessages + chunkHistory + chunkRatings.size();
+            if (chunkRows >= chunkSize) {
+                saveChunk();
+            }
+        }
+
+        private void saveChunk() throws ServerException, IOException {
+            if (chunkForums.isEmpty() && chunkTrees.isEmpty()) {
+                return;
+            }
+            importDao.saveChunk(chunkForums, chunkTrees, chunkRatings);
+            // the chunk is committed already, so the index is updated at once
+            for (final MessageTree savedTree : chunkTrees) {
+                indexTree(savedTree);
+            }
+
+            savedForums += chunkForums.size();
+            savedTrees += chunkTrees.size();
+            savedMessages += chunkMessages;
+            savedHistory += chunkHistory;
+            savedRatings += chunkRatings.size();
+            chunkForums.clear();
+            chunkTrees.clear();
+            chunkRatings.clear();
+            chunkMessages = 0;
+            chunkHistory = 0;
+            // users are looked up by the DAO for every chunk anyway, so memory is bounded by the chunk
+            users.clear();
+
+            final ImportProgressDtoResponse progress = writeProgress(false, null);
+            LOGGER.info("Import committed up to line {}: {}", line, progress);
+        }
+
+        private void indexTree(final MessageTree savedTree) {
+            searchIndex.putTree(
+                    savedTree.getId(), savedTree.getForum().getId(), savedTree.getRootMessage().getId(),
+                    savedTree.getSubject(), TagConverter.tagListToTagNamesList(savedTree.getTags())
+            );
+            final List<MessageItem> pending = new ArrayList<>();
+            pending.add(savedTree.getRootMessage());
+            while (!pending.isEmpty()) {
+                final MessageItem message = pending.remove(pending.size() - 1);
+                // history is latest version first, the latest published one is searched
+                for (final HistoryItem version : message.getHistory()) {
+                    if (version.getState() == MessageState.PUBLISHED) {
+                        searchIndex.putMessage(message.getId(), savedTree.getId(), version.getBody());
+                        break;
+                    }
+                }
+                pending.addAll(message.getChildrenComments());
+            }
+        }
+
+        private ImportProgressDtoResponse writeProgress(final boolean finished, final ExceptionDtoResponse error)
+                throws IOException {
+            final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            final long rows = savedForums + savedTrees + savedMessages + savedHistory + savedRatings;
+            final ImportProgressDtoResponse progress = new ImportProgressDtoResponse(
+                    line, savedForums, savedTrees, savedMessages, savedHistory, savedRatings,
+                    elapsedMillis, rows * 1000 / Math.max(1, elapsedMillis), finished, error
+            );
+            generator.writeObject(progress);
+            generator.writeRaw('\n');
+            generator.flush();
+            return progress;
+        }
+
+        private MessageItem getMessage(final String id) throws ServerException {
+            final MessageItem message = treeMessages.get(required(id));
+            if (message == null) {
+                throw new ServerException(ErrorCode.MESSAGE_NOT_FOUND);
+            }
+            return message;
+        }
+
+        private User getUser(final String username) throws ServerException {
+            final String name = required(username);
+            return users.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> {
+                final User user = new User();
+                user.setUsername(name);
+                return user;
+            });
+        }
+
+        private LocalDateTime getCreatedAt(final ImportRecordDtoRequest record, final LocalDateTime defaultValue)
+                throws ServerException {
+            return record.getCreatedAt() == null ? defaultValue : parseDatetime(record.getCreatedAt());
+        }
+    }
+
+    private static String required(final String value) throws ServerException {
+        if (value == null || value.trim().isEmpty()) {
+            throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+        }
+        return value;
+    }
+
+    private static <E extends Enum<E>> E toEnum(final Class<E> type, final String value, final E defaultValue)
+            throws ServerException {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException ex) {
+            throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+        }
+    }
+}
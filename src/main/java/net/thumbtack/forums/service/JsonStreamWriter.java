@@ -0,0 +1,15 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.exception.ServerException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Response body that is written piece by piece after all request checks have passed.
+ */
+@FunctionalInterface
+public interface JsonStreamWriter {
+    void writeTo(JsonGenerator generator) throws IOException, ServerException;
+}
@@ -6,22 +6,35 @@ import net.thumbtack.forums.dao.*;
 import net.thumbtack.forums.dto.requests.message.*;
 import net.thumbtack.forums.dto.responses.message.*;
 import net.thumbtack.forums.dto.responses.EmptyDtoResponse;
+import net.thumbtack.forums.cache.MessageResponseCache;
+import net.thumbtack.forums.cache.SearchIndex;
 import net.thumbtack.forums.converter.TagConverter;
 import net.thumbtack.forums.converter.MessageConverter;
+import net.thumbtack.forums.converter.CursorConverter;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.utils.ReadRouting;
+import net.thumbtack.forums.utils.UnitOfWork;
 import net.thumbtack.forums.configuration.ConstantsProperties;
 import net.thumbtack.forums.configuration.ServerConfigurationProperties;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.function.Consumer;
 
 @Service("messageService")
 public class MessageService extends ServiceBase {
@@ -29,6 +42,10 @@ public class MessageService extends ServiceBase {
     private final MessageDao messageDao;
     private final MessageHistoryDao messageHistoryDao;
     private final RatingDao ratingDao;
+    private final ForumChangeDao forumChangeDao;
+    private final ForumEventBroker forumEventBroker;
+    private final MessageResponseCache messageResponseCache;
+    private final SearchIndex searchIndex;
 
     @Autowired
     public MessageService(final SessionDao sessionDao,
@@ -37,6 +54,10 @@ public class MessageService extends ServiceBase {
                           final MessageDao messageDao,
                           final MessageHistoryDao messageHistoryDao,
                           final RatingDao ratingDao,
+                          final ForumChangeDao forumChangeDao,
+                          final ForumEventBroker forumEventBroker,
+                          final MessageResponseCache messageResponseCache,
+                          final SearchIndex searchIndex,
                           final ServerConfigurationProperties serverProperties,
                           final ConstantsProperties constantsProperties) {
         super(sessionDao, forumDao, serverProperties, constantsProperties);
@@ -44,6 +65,10 @@ public class MessageService extends ServiceBase {
         this.messageDao = messageDao;
         this.messageHistoryDao = messageHistoryDao;
         this.ratingDao = ratingDao;
+        this.forumChangeDao = forumChangeDao;
+        this.forumEventBroker = forumEventBroker;
+        this.messageResponseCache = messageResponseCache;
+        this.searchIndex = searchIndex;
     }
 
     private MessagePriority getMessagePriority(@Nullable final String priority) {
@@ -68,6 +93,68 @@ public class MessageService extends ServiceBase {
         return item;
     }
 
+    private Integer getParentMessageId(final MessageItem message) {
+        final MessageItem parentMessage = message.getParentMessage();
+        return parentMessage == null ? null : parentMessage.getId();
+    }
+
+    /**
+     * Must be called in the unit of work of the data change, so the change is saved in the same transaction.
+     */
+    private void recordChange(
+            final Forum forum, final int messageId,
+            @Nullable final Integer parentMessageId, final ForumChangeType type) throws ServerException {
+        final ForumChange change = forumChangeDao.saveChange(
+                new ForumChange(forum.getId(), messageId, parentMessageId, type)
+        );
+        // sequence stays zero if the forum was deleted meanwhile
+        if (change != null && change.getSequence() > 0) {
+            UnitOfWork.afterCommit(() -> forumEventBroker.publish(change));
+        }
+    }
+
+    private void invalidateCachedMessages(final Integer... messageIds) {
+        UnitOfWork.afterCommit(() -> messageResponseCache.invalidateMessages(messageIds));
+    }
+
+    private void indexTree(final MessageTree tree) {
+        final int treeId = tree.getId();
+        final int forumId = tree.getForum().getId();
+        final int rootMessageId = tree.getRootMessage().getId();
+        final String subject = tree.getSubject();
+        final List<String> tagNames = TagConverter.tagListToTagNamesList(tree.getTags());
+        UnitOfWork.afterCommit(() -> searchIndex.putTree(treeId, forumId, rootMessageId, subject, tagNames));
+    }
+
+    /**
+     * Only published versions are searched, an unpublished version leaves the previous one in the index.
+     */
+    private void indexVersion(final int messageId, final int treeId, final HistoryItem version) {
+        if (version.getState() != MessageState.PUBLISHED) {
+            return;
+        }
+        final String body = version.getBody();
+        UnitOfWork.afterCommit(() -> searchIndex.putMessage(messageId, treeId, body));
+    }
+
+    /**
+     * Removes the comment with its comments, which are deleted by database cascade.
+     */
+    private void unindexComment(final MessageItem comment) {
+        final List<Integer> messageIds = new ArrayList<>();
+        final List<MessageItem> pending = new ArrayList<>(Collections.singletonList(comment));
+        while (!pending.isEmpty()) {
+            final MessageItem message = pending.remove(pending.size() - 1);
+            messageIds.add(message.getId());
+            pending.addAll(message.getChildrenComments());
+        }
+        UnitOfWork.afterCommit(() -> searchIndex.removeMessages(messageIds));
+    }
+
+    private void unindexTree(final int treeId) {
+        UnitOfWork.afterCommit(() -> searchIndex.removeTree(treeId));
+    }
+
     private void checkIsForumReadOnly(final Forum forum) throws ServerException {
         if (forum.isReadonly()) {
             throw new ServerException(ErrorCode.FORUM_READ_ONLY);
@@ -120,7 +207,13 @@ public class MessageService extends ServiceBase {
         );
         messageItem.setMessageTree(tree);
 
-        messageTreeDao.saveMessageTree(tree);
+        try (UnitOfWork.Scope scope = UnitOfWork.join()) {
+            messageTreeDao.saveMessageTree(tree);
+            indexTree(tree);
+            indexVersion(messageItem.getId(), tree.getId(), historyItem);
+            recordChange(forum, messageItem.getId(), null, ForumChangeType.CREATED);
+            scope.success();
+        }
         return new MessageDtoResponse(messageItem.getId(), state.name());
     }
 
@@ -150,7 +243,13 @@ public class MessageService extends ServiceBase {
                 Collections.singletonList(historyItem), createdAt
         );
 
-        messageDao.saveMessageItem(messageItem);
+        try (UnitOfWork.Scope scope = UnitOfWork.join()) {
+            messageDao.saveMessageItem(messageItem);
+            indexVersion(messageItem.getId(), messageTree.getId(), historyItem);
+            invalidateCachedMessages(parentId);
+            recordChange(forum, messageItem.getId(), parentId, ForumChangeType.CREATED);
+            scope.success();
+        }
         return new MessageDtoResponse(messageItem.getId(), state.name());
     }
 
@@ -174,10 +273,17 @@ public class MessageService extends ServiceBase {
             }
         }
 
-        if (deletingMessage.getParentMessage() == null) {
-            messageTreeDao.deleteTreeById(deletingMessage.getMessageTree().getId());
-        } else {
-            messageDao.deleteMessageById(messageId);
+        try (UnitOfWork.Scope scope = UnitOfWork.join()) {
+            if (deletingMessage.getParentMessage() == null) {
+                messageTreeDao.deleteTreeById(deletingMessage.getMessageTree().getId());
+                unindexTree(deletingMessage.getMessageTree().getId());
+            } else {
+                messageDao.deleteMessageById(messageId);
+                unindexComment(deletingMessage);
+            }
+            invalidateCachedMessages(messageId, getParentMessageId(deletingMessage));
+            recordChange(forum, messageId, getParentMessageId(deletingMessage), ForumChangeType.DELETED);
+            scope.success();
         }
         return new EmptyDtoResponse();
     }
@@ -198,20 +304,26 @@ public class MessageService extends ServiceBase {
 
         final HistoryItem latestHistory = editingMessage.getHistory().get(0);
         MessageState messageState;
-        if (latestHistory.getState() == MessageState.PUBLISHED) {
-            final List<HistoryItem> newHistory = new ArrayList<>(editingMessage.getHistory());
-            messageState = getMessageState(forum, requesterUser);
-
-            final HistoryItem newVersion = new HistoryItem(
-                    request.getBody(), messageState, LocalDateTime.now()
-            );
-            newHistory.add(0, newVersion);
-            editingMessage.setHistory(newHistory);
-            messageHistoryDao.saveNewVersion(editingMessage);
-        } else {
-            messageState = MessageState.UNPUBLISHED;
-            latestHistory.setBody(request.getBody());
-            messageHistoryDao.editLatestVersion(editingMessage);
+        try (UnitOfWork.Scope scope = UnitOfWork.join()) {
+            if (latestHistory.getState() == MessageState.PUBLISHED) {
+                final List<HistoryItem> newHistory = new ArrayList<>(editingMessage.getHistory());
+                messageState = getMessageState(forum, requesterUser);
+
+                final HistoryItem newVersion = new HistoryItem(
+                        request.getBody(), messageState, LocalDateTime.now()
+                );
+                newHistory.add(0, newVersion);
+                editingMessage.setHistory(newHistory);
+                messageHistoryDao.saveNewVersion(editingMessage);
+                indexVersion(messageId, editingMessage.getMessageTree().getId(), newVersion);
+            } else {
+                messageState = MessageState.UNPUBLISHED;
+                latestHistory.setBody(request.getBody());
+                messageHistoryDao.editLatestVersion(editingMessage);
+            }
+            invalidateCachedMessages(messageId);
+            recordChange(forum, messageId, getParentMessageId(editingMessage), ForumChangeType.EDITED);
+            scope.success();
         }
         return new EditMessageOrCommentDtoResponse(messageState.name());
     }
@@ -233,7 +345,12 @@ public class MessageService extends ServiceBase {
 
         final MessageTree tree = otherPriorityMessage.getMessageTree();
         tree.setPriority(getMessagePriority(request.getPriority()));
-        messageTreeDao.changeBranchPriority(tree);
+        try (UnitOfWork.Scope scope = UnitOfWork.join()) {
+            messageTreeDao.changeBranchPriority(tree);
+            invalidateCachedMessages(messageId);
+            recordChange(forum, messageId, null, ForumChangeType.PRIORITY_CHANGED);
+            scope.success();
+        }
         return new EmptyDtoResponse();
     }
 
@@ -261,7 +378,14 @@ public class MessageService extends ServiceBase {
                 LocalDateTime.now(), TagConverter.tagNamesToTagList(request.getTags())
         );
         newRootMessage.setMessageTree(newTree);
-        messageTreeDao.newBranch(newTree);
+        try (UnitOfWork.Scope scope = UnitOfWork.join()) {
+            messageTreeDao.newBranch(newTree);
+            indexTree(newTree);
+            UnitOfWork.afterCommit(() -> searchIndex.moveMessage(messageId, newTree.getId()));
+            invalidateCachedMessages(messageId, getParentMessageId(newRootMessage));
+            recordChange(forum, messageId, getParentMessageId(newRootMessage), ForumChangeType.BRANCHED);
+            scope.success();
+        }
         return new MadeBranchFromCommentDtoResponse(messageId);
     }
 
@@ -286,18 +410,30 @@ public class MessageService extends ServiceBase {
         }
 
         final PublicationDecision decision = PublicationDecision.valueOf(request.getDecision());
-        if (decision == PublicationDecision.YES) {
-            latestHistoryToPublish.setState(MessageState.PUBLISHED);
-            messageDao.publish(publishingMessage);
-        }
-        if (decision == PublicationDecision.NO) {
-            if (messageHistory.size() > 1) {
-                messageHistoryDao.unpublishNewVersionBy(publishingMessage.getId());
-            } else if (publishingMessage.getParentMessage() == null) {
-                messageTreeDao.deleteTreeById(tree.getId());
-            } else {
-                messageDao.deleteMessageById(publishingMessage.getId());
+        ForumChangeType changeType = ForumChangeType.PUBLISHED;
+        try (UnitOfWork.Scope scope = UnitOfWork.join()) {
+            if (decision == PublicationDecision.YES) {
+                latestHistoryToPublish.setState(MessageState.PUBLISHED);
+                messageDao.publish(publishingMessage);
+                indexVersion(messageId, tree.getId(), latestHistoryToPublish);
             }
+            if (decision == PublicationDecision.NO) {
+                if (messageHistory.size() > 1) {
+                    messageHistoryDao.unpublishNewVersionBy(publishingMessage.getId());
+                    changeType = ForumChangeType.EDITED;
+                } else if (publishingMessage.getParentMessage() == null) {
+                    messageTreeDao.deleteTreeById(tree.getId());
+                    unindexTree(tree.getId());
+                    changeType = ForumChangeType.DELETED;
+                } else {
+                    messageDao.deleteMessageById(publishingMessage.getId());
+                    unindexComment(publishingMessage);
+                    changeType = ForumChangeType.DELETED;
+                }
+            }
+            invalidateCachedMessages(messageId, getParentMessageId(publishingMessage));
+            recordChange(forum, messageId, getParentMessageId(publishingMessage), changeType);
+            scope.success();
         }
         return new EmptyDtoResponse();
     }
@@ -318,10 +454,22 @@ public class MessageService extends ServiceBase {
             throw new ServerException(ErrorCode.MESSAGE_CREATOR_RATES_HIS_MESSAGE);
         }
 
-        if (request.getValue() == null) {
-            ratingDao.deleteRate(ratedMessage, requesterUser);
-        } else {
-            ratingDao.upsertRating(ratedMessage, requesterUser, request.getValue());
+        try (UnitOfWork.Scope scope = UnitOfWork.join()) {
+            final boolean queued;
+            if (request.getValue() == null) {
+                queued = ratingDao.deleteRate(ratedMessage, requesterUser);
+            } else {
+                queued = ratingDao.upsertRating(ratedMessage, requesterUser, request.getValue());
+            }
+            // votes written behind are recorded by RatingFlusher, one change per message of a batch
+            if (!queued) {
+                invalidateCachedMessages(messageId);
+                recordChange(
+                        ratedMessage.getMessageTree().getForum(), messageId,
+                        getParentMessageId(ratedMessage), ForumChangeType.RATED
+                );
+            }
+            scope.success();
         }
         return new EmptyDtoResponse();
     }
@@ -359,13 +507,35 @@ public class MessageService extends ServiceBase {
         return MessageOrder.valueOf(receivedOrder);
     }
 
+    /**
+     * Comments limit and depth are unbounded when not set. With comments cursor the root message
+     * gets continuation of the children list the cursor points to instead of its own comments.
+     */
+    private CommentsSlice getCommentsSlice(
+            @Nullable final Integer receivedCommentsLimit,
+            @Nullable final Integer receivedMaxDepth,
+            @Nullable final String receivedCommentsCursor) throws ServerException {
+        if (receivedCommentsLimit != null && receivedCommentsLimit < 1 ||
+                receivedMaxDepth != null && receivedMaxDepth < 0) {
+            throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+        }
+        return new CommentsSlice(
+                receivedCommentsLimit == null ? Integer.MAX_VALUE : receivedCommentsLimit,
+                receivedMaxDepth == null ? Integer.MAX_VALUE : receivedMaxDepth,
+                receivedCommentsCursor == null ? null : CursorConverter.stringToCommentsCursor(receivedCommentsCursor)
+        );
+    }
+
     public MessageInfoDtoResponse getMessage(
             final String token,
             final int messageId,
             @Nullable final Boolean receivedAllVersions,
             @Nullable final Boolean receivedNoComments,
             @Nullable final Boolean receivedUnpublished,
-            @Nullable final String receivedOrder
+            @Nullable final String receivedOrder,
+            @Nullable final Integer receivedCommentsLimit,
+            @Nullable final Integer receivedMaxDepth,
+            @Nullable final String receivedCommentsCursor
     ) throws ServerException {
         final User requesterUser = getUserBySession(token);
 
@@ -380,9 +550,49 @@ public class MessageService extends ServiceBase {
         final boolean allVersions = getAllVersionsSetting(receivedAllVersions);
         final boolean noComments = getNoCommentsSetting(receivedNoComments);
         final MessageOrder order = getMessageOrder(receivedOrder);
+        final CommentsSlice commentsSlice = getCommentsSlice(
+                receivedCommentsLimit, receivedMaxDepth, receivedCommentsCursor
+        );
+
+        // continuation pages are cheap to load and too many to be worth caching
+        if (!messageResponseCache.isEnabled() || commentsSlice.getCursor() != null) {
+            return loadMessage(messageId, order, noComments, allVersions, unpublished, requesterUser, commentsSlice);
+        }
+        final MessageResponseCache.Key key = new MessageResponseCache.Key(
+                messageId, allVersions, noComments, order, unpublished,
+                commentsSlice.getLimit(), commentsSlice.getMaxDepth()
+        );
+        final MessageInfoDtoResponse cachedResponse = messageResponseCache.get(key, requesterUser.getId());
+        if (cachedResponse != null) {
+            return cachedResponse;
+        }
 
+        final long loadEpoch = messageResponseCache.currentEpoch();
+        final List<Integer> unpublishedOwners;
+        final MessageInfoDtoResponse response;
+        // shared response is read from primary, a lagging replica would put stale data into cache
+        try (ReadRouting.Scope ignored = ReadRouting.primaryOnly()) {
+            unpublishedOwners = unpublished
+                    ? Collections.emptyList()
+                    : messageTreeDao.getUnpublishedOwnerIds(messageId, noComments);
+            response = loadMessage(
+                    messageId, order, noComments, allVersions, unpublished, requesterUser, commentsSlice
+            );
+        }
+        // response with requester's own drafts is personal and must not be shared
+        if (!unpublishedOwners.contains(requesterUser.getId())) {
+            messageResponseCache.put(key, response, unpublishedOwners, loadEpoch);
+        }
+        return response;
+    }
+
+    private MessageInfoDtoResponse loadMessage(
+            final int messageId, final MessageOrder order, final boolean noComments,
+            final boolean allVersions, final boolean unpublished, final User requesterUser,
+            final CommentsSlice commentsSlice
+    ) throws ServerException {
         final MessageItem rootMessage = messageTreeDao.getTreeRootMessage(
-                messageId, order, noComments, allVersions, unpublished, requesterUser.getId()
+                messageId, order, noComments, allVersions, unpublished, requesterUser.getId(), commentsSlice
         );
         if (rootMessage == null) {
             throw new ServerException(ErrorCode.MESSAGE_NOT_FOUND);
@@ -390,6 +600,78 @@ public class MessageService extends ServiceBase {
         return MessageConverter.messageToResponse(rootMessage);
     }
 
+    /**
+     * Returns trees touched by changes with sequence numbers after {@code since}, rendered as they are now,
+     * and IDs of deleted messages. Returned sequence is the one to pass as {@code since} in the next poll.
+     */
+    public ForumChangesDtoResponse getForumChanges(
+            final String token,
+            final int forumId,
+            final long since,
+            @Nullable final Integer receivedLimit,
+            @Nullable final Boolean receivedAllVersions,
+            @Nullable final Boolean receivedNoComments,
+            @Nullable final Boolean receivedUnpublished,
+            @Nullable final String receivedOrder
+    ) throws ServerException {
+        final User requesterUser = getUserBySession(token);
+        final Forum forum = getForumById(forumId);
+        final boolean unpublished = getUnpublishedSetting(forum, requesterUser, receivedUnpublished);
+
+        final boolean allVersions = getAllVersionsSetting(receivedAllVersions);
+        final boolean noComments = getNoCommentsSetting(receivedNoComments);
+        final MessageOrder order = getMessageOrder(receivedOrder);
+        final int limit = getPaginationLimit(receivedLimit);
+        if (since < 0 || limit < 1) {
+            throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+        }
+
+        final List<ForumChange> changes = forumChangeDao.getChangesSince(forumId, since, limit);
+        if (changes.isEmpty()) {
+            return new ForumChangesDtoResponse(since, new ArrayList<>(), new ArrayList<>());
+        }
+
+        final Set<Integer> touchedIds = new LinkedHashSet<>();
+        final Set<Integer> deletedIds = new LinkedHashSet<>();
+        for (final ForumChange change : changes) {
+            if (change.getType() == ForumChangeType.DELETED) {
+                deletedIds.add(change.getMessageId());
+            } else {
+                touchedIds.add(change.getMessageId());
+            }
+            if (change.getParentMessageId() != null) {
+                touchedIds.add(change.getParentMessageId());
+            }
+        }
+        touchedIds.removeAll(deletedIds);
+
+        final List<MessageItem> rootMessages = messageTreeDao.getTreeRootMessagesOf(
+                new ArrayList<>(touchedIds), order, noComments, allVersions, unpublished, requesterUser.getId()
+        );
+        final List<MessageInfoDtoResponse> messages = new ArrayList<>();
+        for (final MessageItem rootMessage : rootMessages) {
+            messages.add(MessageConverter.messageToResponse(rootMessage));
+        }
+        return new ForumChangesDtoResponse(
+                changes.get(changes.size() - 1).getSequence(), messages, new ArrayList<>(deletedIds)
+        );
+    }
+
+    /**
+     * Events carry only change type and message IDs, clients load the content they may see
+     * with the usual requests.
+     */
+    public Flux<ServerSentEvent<ForumEventDtoResponse>> subscribeForumEvents(
+            final String token, final int forumId) throws ServerException {
+        getUserBySession(token);
+        getForumById(forumId);
+        return forumEventBroker.subscribe(forumId);
+    }
+
+    /**
+     * Cursor mode is enabled by any non-null cursor, empty cursor requests the first page.
+     * Offset is ignored in cursor mode.
+     */
     public ListMessageInfoDtoResponse getForumMessageList(
             final String token,
             final int forumId,
@@ -399,7 +681,11 @@ public class MessageService extends ServiceBase {
             final List<String> receivedTags,
             @Nullable final String receivedOrder,
             @Nullable final Integer receivedOffset,
-            @Nullable final Integer receivedLimit
+            @Nullable final Integer receivedLimit,
+            @Nullable final String receivedCursor,
+            @Nullable final String receivedTagMode,
+            @Nullable final Integer receivedCommentsLimit,
+            @Nullable final Integer receivedMaxDepth
     ) throws ServerException {
         final User requesterUser = getUserBySession(token);
         final Forum forum = getForumById(forumId);
@@ -408,21 +694,123 @@ public class MessageService extends ServiceBase {
         final boolean allVersions = getAllVersionsSetting(receivedAllVersions);
         final boolean noComments = getNoCommentsSetting(receivedNoComments);
         final MessageOrder order = getMessageOrder(receivedOrder);
+        final TagFilterMode tagMode = getTagFilterMode(receivedTagMode);
         final int offset = getPaginationOffset(receivedOffset);
         final int limit = getPaginationLimit(receivedLimit);
+        final CommentsSlice commentsSlice = getCommentsSlice(receivedCommentsLimit, receivedMaxDepth, null);
+
+        final List<String> tags = getTagsSetting(receivedTags);
 
-        final List<String> tags;
-        if (receivedTags != null && receivedTags.isEmpty()) {
-            tags = null;
-        } else {
-            tags = receivedTags;
+        if (receivedCursor == null) {
+            final List<MessageTree> messageTrees = messageTreeDao.getForumTrees(
+                    forumId, allVersions, noComments, unpublished, tags, tagMode, order, offset, limit,
+                    requesterUser.getId(), commentsSlice
+            );
+            return new ListMessageInfoDtoResponse(
+                    MessageConverter.messageListToResponse(messageTrees)
+            );
         }
 
-        final List<MessageTree> messageTrees = messageTreeDao.getForumTrees(
-                forumId, allVersions, noComments, unpublished, tags, order, offset, limit, requesterUser.getId()
+        final MessageTreeCursor cursor = receivedCursor.isEmpty() ? null : CursorConverter.stringToCursor(receivedCursor);
+        final List<MessageTree> messageTrees = messageTreeDao.getForumTreesAfter(
+                forumId, allVersions, noComments, unpublished, tags, tagMode, order, cursor, limit,
+                requesterUser.getId(), commentsSlice
         );
+        String nextCursor = null;
+        if (!messageTrees.isEmpty() && messageTrees.size() == limit) {
+            nextCursor = CursorConverter.cursorToString(
+                    new MessageTreeCursor(messageTrees.get(messageTrees.size() - 1))
+            );
+        }
         return new ListMessageInfoDtoResponse(
-                MessageConverter.messageListToResponse(messageTrees)
+                MessageConverter.messageListToResponse(messageTrees), nextCursor
         );
     }
+
+    /**
+     * Streaming variant of {@code getForumMessageList}: every tree is converted and written
+     * as soon as its batch is loaded, so at most one batch of trees of the page is kept in memory
+     * and no database connection is held while the response is written.
+     */
+    public JsonStreamWriter getForumMessageListStream(
+            final String token,
+            final int forumId,
+            @Nullable final Boolean receivedAllVersions,
+            @Nullable final Boolean receivedNoComments,
+            @Nullable final Boolean receivedUnpublished,
+            final List<String> receivedTags,
+            @Nullable final String receivedOrder,
+            @Nullable final Integer receivedOffset,
+            @Nullable final Integer receivedLimit,
+            @Nullable final String receivedCursor,
+            @Nullable final String receivedTagMode,
+            @Nullable final Integer receivedCommentsLimit,
+            @Nullable final Integer receivedMaxDepth
+    ) throws ServerException {
+        final User requesterUser = getUserBySession(token);
+        final Forum forum = getForumById(forumId);
+        final boolean unpublished = getUnpublishedSetting(forum, requesterUser, receivedUnpublished);
+
+        final boolean allVersions = getAllVersionsSetting(receivedAllVersions);
+        final boolean noComments = getNoCommentsSetting(receivedNoComments);
+        final MessageOrder order = getMessageOrder(receivedOrder);
+        final TagFilterMode tagMode = getTagFilterMode(receivedTagMode);
+        final int offset = getPaginationOffset(receivedOffset);
+        final int limit = getPaginationLimit(receivedLimit);
+        final List<String> tags = getTagsSetting(receivedTags);
+        final CommentsSlice commentsSlice = getCommentsSlice(receivedCommentsLimit, receivedMaxDepth, null);
+        final MessageTreeCursor cursor = receivedCursor == null || receivedCursor.isEmpty()
+                ? null
+                : CursorConverter.stringToCursor(receivedCursor);
+
+        return generator -> {
+            final TreeStreamWriter writer = new TreeStreamWriter(generator);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("messages");
+            try {
+                if (receivedCursor == null) {
+                    messageTreeDao.streamForumTrees(
+                            forumId, allVersions, noComments, unpublished, tags, tagMode, order,
+                            offset, limit, requesterUser.getId(), commentsSlice, writer
+                    );
+                } else {
+                    messageTreeDao.streamForumTreesAfter(
+                            forumId, allVersions, noComments, unpublished, tags, tagMode, order,
+                            cursor, limit, requesterUser.getId(), commentsSlice, writer
+                    );
+                }
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            generator.writeEndArray();
+            if (receivedCursor != null && writer.written > 0 && writer.written == limit) {
+                generator.writeStringField("nextCursor", CursorConverter.cursorToString(writer.lastCursor));
+            }
+            generator.writeEndObject();
+            generator.flush();
+        };
+    }
+
+    private static class TreeStreamWriter implements Consumer<MessageTree> {
+        private final JsonGenerator generator;
+        private int written;
+        private MessageTreeCursor lastCursor;
+
+        TreeStreamWriter(final JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void accept(final MessageTree tree) {
+            try {
+                generator.writeObject(MessageConverter.treeToResponse(tree));
+                generator.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            written++;
+            // cursor is kept instead of the tree, so the tree can be collected right away
+            lastCursor = new MessageTreeCursor(tree);
+        }
+    }
 }
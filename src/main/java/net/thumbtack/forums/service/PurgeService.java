@@ -0,0 +1,47 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.PurgeDao;
+import net.thumbtack.forums.model.Purge;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.JobsProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service("purgeService")
+public class PurgeService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PurgeService.class);
+    private final PurgeDao purgeDao;
+    private final JobsProperties jobsProperties;
+
+    @Autowired
+    public PurgeService(final PurgeDao purgeDao,
+                        final JobsProperties jobsProperties) {
+        this.purgeDao = purgeDao;
+        this.jobsProperties = jobsProperties;
+    }
+
+    /**
+     * Removes rows of deleted forums and trees in batches of jobs.purgeBatchSize rows,
+     * one batch per transaction, so no lock is held for long. Purges are taken in the order
+     * they were requested, unfinished ones are picked up again after a restart.
+     */
+    @Scheduled(cron = "${cronPurgeExpression}")
+    public void purgeDeleted() throws ServerException {
+        final int batchSize = jobsProperties.getPurgeBatchSize();
+        for (final Purge purge : purgeDao.getUnfinished()) {
+            long purged = 0;
+            int rows;
+            do {
+                rows = purgeDao.purgeBatch(purge, batchSize);
+                purged += rows;
+            } while (rows > 0);
+            LOGGER.info("Purge of {} {} finished, {} rows removed",
+                    purge.getTargetType(), purge.getTargetId(), purge.getRowsPurged() + purged
+            );
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.RatingDao;
+import net.thumbtack.forums.dao.ForumChangeDao;
+import net.thumbtack.forums.model.ForumChange;
+import net.thumbtack.forums.model.enums.ForumChangeType;
+import net.thumbtack.forums.cache.RatingWriteBuffer;
+import net.thumbtack.forums.cache.MessageResponseCache;
+import net.thumbtack.forums.view.RatingVoteView;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.utils.UnitOfWork;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+
+/**
+ * Writes rating votes queued in {@link RatingWriteBuffer} when ratings.writeBehind is on.
+ * A vote reaches database no later than ratings.maxStalenessMs after it was queued while database is available;
+ * until then the rating of the message is read without it. Every flushed batch records one RATED change
+ * per message in the transaction of the votes and publishes it after commit.
+ * <p>
+ * On shutdown the buffer is closed and the flusher writes all votes left in it before the application stops.
+ */
+@Service("ratingFlusher")
+public class RatingFlusher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RatingFlusher.class);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+    private final RatingDao ratingDao;
+    private final ForumChangeDao forumChangeDao;
+    private final ForumEventBroker forumEventBroker;
+    private final RatingWriteBuffer ratingWriteBuffer;
+    private final MessageResponseCache messageResponseCache;
+    private Thread worker;
+
+    @Autowired
+    public RatingFlusher(final RatingDao ratingDao,
+                         final ForumChangeDao forumChangeDao,
+                         final ForumEventBroker forumEventBroker,
+                         final RatingWriteBuffer ratingWriteBuffer,
+                         final MessageResponseCache messageResponseCache) {
+        this.ratingDao = ratingDao;
+        this.forumChangeDao = forumChangeDao;
+        this.forumEventBroker = forumEventBroker;
+        this.ratingWriteBuffer = ratingWriteBuffer;
+        this.messageResponseCache = messageResponseCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!ratingWriteBuffer.isEnabled()) {
+            return;
+        }
+        worker = new Thread(this::flushQueued, "rating-flusher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        ratingWriteBuffer.close();
+        if (worker == null) {
+            return;
+        }
+        worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+        if (worker.isAlive()) {
+            LOGGER.error("Rating votes were not flushed in {} ms, {} votes are lost",
+                    SHUTDOWN_TIMEOUT_MILLIS, ratingWriteBuffer.size()
+            );
+            worker.interrupt();
+        }
+    }
+
+    private void flushQueued() {
+        try {
+            List<RatingVoteView> batch;
+            while (!(batch = ratingWriteBuffer.takeBatch()).isEmpty()) {
+                flush(batch);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the batch taken from the buffer. If database is not available, the votes are queued again
+     * unless the buffer is closed, in which case they are lost.
+     */
+    public void flush(final List<RatingVoteView> batch) {
+        final List<Integer> messageIds;
+        try (UnitOfWork.Scope scope = UnitOfWork.join()) {
+            messageIds = ratingDao.flushRatings(batch);
+            for (final ForumChange change : forumChangeDao.saveMessageChanges(messageIds, ForumChangeType.RATED)) {
+                UnitOfWork.afterCommit(() -> forumEventBroker.publish(change));
+            }
+            scope.success();
+        } catch (ServerException | RuntimeException ex) {
+            if (ratingWriteBuffer.isClosed()) {
+                LOGGER.error("Unable to flush rating votes on shutdown, {} votes are lost", batch.size(), ex);
+                ratingWriteBuffer.flushed(batch);
+            } else {
+                LOGGER.info("Unable to flush {} rating votes, retrying later", batch.size(), ex);
+                ratingWriteBuffer.restore(batch);
+            }
+            return;
+        }
+        // responses may be cached between the vote and the write, they must not keep the old rating
+        messageResponseCache.invalidateMessages(messageIds.toArray(new Integer[0]));
+        ratingWriteBuffer.flushed(batch);
+        LOGGER.debug("Flushed {} rating votes for {} messages", batch.size(), messageIds.size());
+    }
+}
@@ -0,0 +1,48 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.RatingDao;
+import net.thumbtack.forums.cache.MessageResponseCache;
+import net.thumbtack.forums.configuration.JobsProperties;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service("ratingRepairService")
+public class RatingRepairService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RatingRepairService.class);
+    private final RatingDao ratingDao;
+    private final MessageResponseCache messageResponseCache;
+    private final JobsProperties jobsProperties;
+
+    @Autowired
+    public RatingRepairService(final RatingDao ratingDao,
+                               final MessageResponseCache messageResponseCache,
+                               final JobsProperties jobsProperties) {
+        this.ratingDao = ratingDao;
+        this.messageResponseCache = messageResponseCache;
+        this.jobsProperties = jobsProperties;
+    }
+
+    /**
+     * Recomputes rating_sum and rating_count of all messages from message_ratings,
+     * one ID range per transaction, so that the job never locks the whole table.
+     */
+    @Scheduled(cron = "${cronRatingRepairExpression}")
+    public void repairRatings() throws ServerException {
+        final int chunkSize = Math.max(1, jobsProperties.getRatingRepairChunkSize());
+        final int maxId = ratingDao.getMaxMessageId();
+
+        int repaired = 0;
+        for (int fromId = 1; fromId <= maxId; fromId += chunkSize) {
+            repaired += ratingDao.recomputeAggregates(fromId, Math.min(maxId, fromId + chunkSize - 1));
+        }
+        if (repaired > 0) {
+            messageResponseCache.clear();
+        }
+        LOGGER.info("Rating aggregates recomputed, {} messages changed", repaired);
+    }
+}
@@ -0,0 +1,188 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.ForumDao;
+import net.thumbtack.forums.dao.SearchDao;
+import net.thumbtack.forums.dao.SessionDao;
+import net.thumbtack.forums.cache.SearchIndex;
+import net.thumbtack.forums.model.enums.TagFilterMode;
+import net.thumbtack.forums.converter.SearchConverter;
+import net.thumbtack.forums.dto.responses.search.SearchResultListDtoResponse;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.ConstantsProperties;
+import net.thumbtack.forums.configuration.SearchProperties;
+import net.thumbtack.forums.configuration.ServerConfigurationProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Full-text search over published messages and subjects of trees, see {@link SearchIndex}.
+ * <p>
+ * The index is saved to search.indexFile at shutdown together with the version of forum content
+ * it was saved at, and read from the file at startup if the content has not changed since;
+ * otherwise it is built from database. Until then search requests are refused.
+ */
+@Service("searchService")
+public class SearchService extends ServiceBase {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchService.class);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+    private final SearchDao searchDao;
+    private final SearchIndex searchIndex;
+    private final SearchProperties searchProperties;
+    private Thread loader;
+
+    @Autowired
+    public SearchService(final SearchDao searchDao,
+                         final SearchIndex searchIndex,
+                         final SessionDao sessionDao,
+                         final ForumDao forumDao,
+                         final SearchProperties searchProperties,
+                         final ServerConfigurationProperties serverProperties,
+                         final ConstantsProperties constantsProperties) {
+        super(sessionDao, forumDao, serverProperties, constantsProperties);
+        this.searchDao = searchDao;
+        this.searchIndex = searchIndex;
+        this.searchProperties = searchProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loader = new Thread(this::loadIndex, "search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (loader != null) {
+            loader.join(SHUTDOWN_TIMEOUT_MILLIS);
+        }
+        final Path file = getIndexFile();
+        if (file == null || !searchIndex.isLoaded()) {
+            return;
+        }
+        try {
+            saveIndex(file);
+        } catch (IOException | ServerException ex) {
+            LOGGER.warn("Unable to save search index to {}, it is built from database at next start", file, ex);
+        }
+    }
+
+    void loadIndex() {
+        final Path file = getIndexFile();
+        try {
+            if (file != null && Files.exists(file) && readIndex(file)) {
+                LOGGER.info("Search index of {} messages read from {}", searchIndex.size(), file);
+                return;
+            }
+            searchDao.loadSearchIndex();
+            LOGGER.info("Search index of {} messages built from database", searchIndex.size());
+        } catch (ServerException ex) {
+            LOGGER.error("Search index was not loaded, search is not available", ex);
+        }
+    }
+
+    private Path getIndexFile() {
+        final String indexFile = searchProperties.getIndexFile();
+        return indexFile == null || indexFile.isEmpty() ? null : Paths.get(indexFile);
+    }
+
+    /**
+     * The load is started before the content version is read, so changes committed after the check
+     * are replayed on the read contents instead of being lost.
+     *
+     * @return false if the file is out of date or can not be read
+     */
+    private boolean readIndex(final Path file) throws ServerException {
+        searchIndex.beginLoad();
+        boolean read = false;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readUTF().equals(searchDao.getContentVersion())) {
+                searchIndex.readFrom(input);
+                read = true;
+            } else {
+                LOGGER.info("Search index in {} is out of date", file);
+            }
+        } catch (IOException ex) {
+            LOGGER.warn("Unable to read search index from {}", file, ex);
+        } finally {
+            if (read) {
+                searchIndex.finishLoad();
+            } else {
+                searchIndex.abortLoad();
+            }
+        }
+        return read;
+    }
+
+    /**
+     * The index is written to a temporary file first, so a broken write does not leave a partial index.
+     * Content changed while the index is written makes the file out of date, so it is not kept.
+     */
+    private void saveIndex(final Path file) throws IOException, ServerException {
+        final String contentVersion = searchDao.getContentVersion();
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeUTF(contentVersion);
+            searchIndex.writeTo(output);
+        }
+        if (!contentVersion.equals(searchDao.getContentVersion())) {
+            Files.delete(temporary);
+            LOGGER.info("Forum content changed while search index was saved, it is built from database at next start");
+            return;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.info("Search index of {} messages saved to {}", searchIndex.size(), file);
+    }
+
+    /**
+     * Finds published messages and subjects containing any word of the query, best matches first.
+     */
+    public SearchResultListDtoResponse search(
+            final String token,
+            final String query,
+            @Nullable final Integer forumId,
+            @Nullable final List<String> receivedTags,
+            @Nullable final String receivedTagMode,
+            @Nullable final Integer receivedOffset,
+            @Nullable final Integer receivedLimit
+    ) throws ServerException {
+        getUserBySession(token);
+        if (forumId != null) {
+            getForumById(forumId);
+        }
+        final int offset = getPaginationOffset(receivedOffset);
+        final int limit = getPaginationLimit(receivedLimit);
+        if (query == null || query.trim().isEmpty() || offset < 0 || limit < 1) {
+            throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+        }
+        final TagFilterMode tagMode = getTagFilterMode(receivedTagMode);
+        final List<String> tags = getTagsSetting(receivedTags);
+
+        if (!searchIndex.isLoaded()) {
+            throw new ServerException(ErrorCode.SEARCH_NOT_READY);
+        }
+        return SearchConverter.pageToResponse(
+                searchIndex.search(query, forumId, tags, tagMode, offset, limit)
+        );
+    }
+}
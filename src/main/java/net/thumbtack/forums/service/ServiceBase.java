@@ -2,6 +2,7 @@ package net.thumbtack.forums.service;
 
 import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.Forum;
+import net.thumbtack.forums.model.enums.TagFilterMode;
 import net.thumbtack.forums.dao.ForumDao;
 import net.thumbtack.forums.dao.SessionDao;
 import net.thumbtack.forums.exception.ErrorCode;
@@ -9,6 +10,13 @@ import net.thumbtack.forums.exception.ServerException;
 import net.thumbtack.forums.configuration.ServerConfigurationProperties;
 import net.thumbtack.forums.configuration.ConstantsProperties;
 
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
 public abstract class ServiceBase {
     private SessionDao sessionDao;
     private ForumDao forumDao;
@@ -66,4 +74,30 @@ public abstract class ServiceBase {
         }
         return receivedLimit;
     }
+
+    protected List<String> getTagsSetting(@Nullable final List<String> receivedTags) {
+        if (receivedTags != null && receivedTags.isEmpty()) {
+            return null;
+        }
+        return receivedTags;
+    }
+
+    protected TagFilterMode getTagFilterMode(@Nullable final String receivedTagMode) {
+        if (receivedTagMode == null) {
+            return TagFilterMode.ANY;
+        }
+        return TagFilterMode.valueOf(receivedTagMode.toUpperCase());
+    }
+
+    protected DateTimeFormatter getDatetimeFormatter() {
+        return DateTimeFormatter.ofPattern(constantsProperties.getDatetimePattern());
+    }
+
+    protected LocalDateTime parseDatetime(final String received) throws ServerException {
+        try {
+            return LocalDateTime.parse(received, getDatetimeFormatter());
+        } catch (DateTimeParseException ex) {
+            throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+        }
+    }
 }
@@ -3,6 +3,9 @@ package net.thumbtack.forums.service;
 import net.thumbtack.forums.dao.ForumDao;
 import net.thumbtack.forums.dao.SessionDao;
 import net.thumbtack.forums.dao.StatisticDao;
+import net.thumbtack.forums.dao.ActivityDao;
+import net.thumbtack.forums.model.enums.ActivityGranularity;
+import net.thumbtack.forums.view.ActivityBucketView;
 import net.thumbtack.forums.view.MessageRatingView;
 import net.thumbtack.forums.view.UserRatingView;
 import net.thumbtack.forums.converter.StatisticsConverter;
@@ -10,29 +13,52 @@ import net.thumbtack.forums.dto.responses.statistic.MessagesCountDtoResponse;
 import net.thumbtack.forums.dto.responses.statistic.CommentsCountDtoResponse;
 import net.thumbtack.forums.dto.responses.statistic.MessageRatingListDtoResponse;
 import net.thumbtack.forums.dto.responses.statistic.UserRatingListDtoResponse;
+import net.thumbtack.forums.dto.responses.statistic.ActivityListDtoResponse;
 import net.thumbtack.forums.configuration.ConstantsProperties;
 import net.thumbtack.forums.configuration.ServerConfigurationProperties;
+import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.lang.Nullable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service("statisticService")
 public class StatisticService extends ServiceBase {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatisticService.class);
     private final StatisticDao statisticDao;
+    private final ActivityDao activityDao;
 
     @Autowired
     public StatisticService(
             final StatisticDao statisticDao,
+            final ActivityDao activityDao,
             final SessionDao sessionDao,
             final ForumDao forumDao,
             final ServerConfigurationProperties serverProperties,
             final ConstantsProperties constantsProperties) {
         super(sessionDao, forumDao, serverProperties, constantsProperties);
         this.statisticDao = statisticDao;
+        this.activityDao = activityDao;
+    }
+
+    /**
+     * Builds rating leaderboard before the first request, otherwise the first ratings request builds it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRatingLeaderboard() {
+        try {
+            statisticDao.loadRatingLeaderboard();
+        } catch (ServerException ex) {
+            LOGGER.info("Rating leaderboard was not loaded at startup", ex);
+        }
     }
 
     public MessagesCountDtoResponse getMessagesCount(
@@ -108,4 +134,46 @@ public class StatisticService extends ServiceBase {
         }
         return StatisticsConverter.usersRatingsToResponse(ratings);
     }
+
+    /**
+     * Activity is summed from pre-aggregated buckets only. Buckets that were already compacted
+     * to a coarser granularity are reported at the start of their day or month.
+     */
+    public ActivityListDtoResponse getActivity(
+            final String sessionToken,
+            @Nullable final Integer forumId,
+            final String from,
+            final String to,
+            @Nullable final String granularity
+    ) throws ServerException {
+        getUserBySession(sessionToken);
+
+        final ActivityGranularity realGranularity = getActivityGranularity(granularity);
+        final LocalDateTime fromTime = parseDatetime(from);
+        final LocalDateTime toTime = parseDatetime(to);
+        if (!fromTime.isBefore(toTime)) {
+            throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+        }
+        if (forumId != null) {
+            getForumById(forumId);
+        }
+
+        final List<ActivityBucketView> activity = activityDao.getActivity(
+                forumId, realGranularity, fromTime, toTime
+        );
+        return StatisticsConverter.activityToResponse(realGranularity, activity, getDatetimeFormatter());
+    }
+
+    private ActivityGranularity getActivityGranularity(@Nullable final String receivedGranularity)
+            throws ServerException {
+        if (receivedGranularity == null) {
+            return ActivityGranularity.HOUR;
+        }
+        for (final ActivityGranularity instance : ActivityGranularity.values()) {
+            if (instance.name().equalsIgnoreCase(receivedGranularity)) {
+                return instance;
+            }
+        }
+        throw new ServerException(ErrorCode.INVALID_REQUEST_DATA);
+    }
 }
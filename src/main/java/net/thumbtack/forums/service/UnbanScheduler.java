@@ -0,0 +1,104 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.UserDao;
+import net.thumbtack.forums.cache.BanExpiryQueue;
+import net.thumbtack.forums.view.UserBanView;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.ConstantsProperties;
+import net.thumbtack.forums.configuration.JobsProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Lifts temporary bans at the time they end, taking them from {@link BanExpiryQueue}
+ * in batches of jobs.unbanBatchSize users. Permanent bans are never queued.
+ * The daily {@link UserService#unbanUsers()} stays as a fallback for bans this scheduler missed.
+ */
+@Service("unbanScheduler")
+public class UnbanScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnbanScheduler.class);
+    private static final long RETRY_DELAY_SECONDS = 60;
+    private final UserDao userDao;
+    private final BanExpiryQueue banExpiryQueue;
+    private final JobsProperties jobsProperties;
+    private final ConstantsProperties constantsProperties;
+    private Thread worker;
+
+    @Autowired
+    public UnbanScheduler(final UserDao userDao,
+                          final BanExpiryQueue banExpiryQueue,
+                          final JobsProperties jobsProperties,
+                          final ConstantsProperties constantsProperties) {
+        this.userDao = userDao;
+        this.banExpiryQueue = banExpiryQueue;
+        this.jobsProperties = jobsProperties;
+        this.constantsProperties = constantsProperties;
+    }
+
+    /**
+     * Queues bans stored in database, bans that ended while the server was down are lifted at once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        final LocalDateTime permanentBanTime = LocalDateTime.parse(
+                constantsProperties.getPermanentBanDatetime(),
+                DateTimeFormatter.ofPattern(constantsProperties.getDatetimePattern())
+        );
+        try {
+            userDao.loadBanExpiries(permanentBanTime);
+        } catch (ServerException ex) {
+            LOGGER.info("Ends of bans were not loaded at startup", ex);
+        }
+
+        worker = new Thread(this::liftEndedBans, "unban-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void liftEndedBans() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                liftBans(banExpiryQueue.takeEnded(jobsProperties.getUnbanBatchSize()));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Unbans users whose bans ended. If database is not available, the bans are queued again
+     * to be retried a minute later.
+     */
+    public void liftBans(final List<UserBanView> endedBans) {
+        final List<Integer> userIds = endedBans.stream()
+                .map(UserBanView::getUserId)
+                .distinct()
+                .collect(Collectors.toList());
+        final LocalDateTime now = LocalDateTime.now();
+        try {
+            final int unbanned = userDao.unbanEnded(userIds, now);
+            LOGGER.debug("Bans of {} users ended, {} users unbanned", userIds.size(), unbanned);
+        } catch (ServerException ex) {
+            LOGGER.info("Unable to unban users {}, retrying in {} seconds", userIds, RETRY_DELAY_SECONDS, ex);
+            userIds.forEach(userId -> banExpiryQueue.schedule(userId, now.plusSeconds(RETRY_DELAY_SECONDS)));
+        }
+    }
+}
@@ -177,6 +177,9 @@ public class UserService extends ServiceBase {
         return new EmptyDtoResponse();
     }
 
+    /**
+     * Bans are lifted on time by {@link UnbanScheduler}, this only catches bans it missed.
+     */
     @Scheduled(cron = "${cronUnbanExpression}")
     public void unbanUsers() throws ServerException {
         final LocalDateTime currentDate = LocalDateTime.now();
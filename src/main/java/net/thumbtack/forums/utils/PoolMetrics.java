@@ -0,0 +1,104 @@
+package net.thumbtack.forums.utils;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the database connection pool: current connections and waiting threads reported by the pool,
+ * and time spent waiting for a connection and holding it since start.
+ */
+@Component
+public class PoolMetrics implements MetricsTrackerFactory {
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong usages = new AtomicLong();
+    private final AtomicLong totalUsageMillis = new AtomicLong();
+    private final AtomicLong maxUsageMillis = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(final String poolName, final PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos) {
+                acquired(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(final long elapsedBorrowedMillis) {
+                used(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.incrementAndGet();
+            }
+        };
+    }
+
+    void acquired(final long waitNanos) {
+        acquisitions.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    void used(final long usageMillis) {
+        usages.incrementAndGet();
+        totalUsageMillis.addAndGet(usageMillis);
+        maxUsageMillis.accumulateAndGet(usageMillis, Math::max);
+    }
+
+    public int getActiveConnections() {
+        final PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getActiveConnections();
+    }
+
+    public int getIdleConnections() {
+        final PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getIdleConnections();
+    }
+
+    public int getTotalConnections() {
+        final PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getTotalConnections();
+    }
+
+    public int getPendingThreads() {
+        final PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getPendingThreads();
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public double getAverageWaitMillis() {
+        final long count = acquisitions.get();
+        return count == 0 ? 0. : (double) totalWaitNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxWaitMillis() {
+        return (double) maxWaitNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getAverageUsageMillis() {
+        final long count = usages.get();
+        return count == 0 ? 0. : (double) totalUsageMillis.get() / count;
+    }
+
+    public long getMaxUsageMillis() {
+        return maxUsageMillis.get();
+    }
+}
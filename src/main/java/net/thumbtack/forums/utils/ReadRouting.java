@@ -0,0 +1,33 @@
+package net.thumbtack.forums.utils;
+
+/**
+ * Forces reads of the current thread to the primary database, for reads that must not be served
+ * by a lagging replica: the requester's own recent writes, or data published into shared caches.
+ */
+public final class ReadRouting {
+    private static final ThreadLocal<Integer> PRIMARY_ONLY_DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private ReadRouting() {
+    }
+
+    public static Scope primaryOnly() {
+        PRIMARY_ONLY_DEPTH.set(PRIMARY_ONLY_DEPTH.get() + 1);
+        return () -> {
+            final int depth = PRIMARY_ONLY_DEPTH.get() - 1;
+            if (depth == 0) {
+                PRIMARY_ONLY_DEPTH.remove();
+            } else {
+                PRIMARY_ONLY_DEPTH.set(depth);
+            }
+        };
+    }
+
+    public static boolean isPrimaryOnly() {
+        return PRIMARY_ONLY_DEPTH.get() > 0;
+    }
+}
@@ -0,0 +1,57 @@
+package net.thumbtack.forums.utils;
+
+import net.thumbtack.forums.configuration.DatabaseProperties;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers clients that wrote to database recently, so their next requests read from the primary
+ * until the replica has surely caught up. Clients are identified by session token.
+ */
+@Component
+public class ReadYourWritesTracker {
+    private static final int CLEANUP_SIZE = 10000;
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final Clock clock;
+
+    @Autowired
+    public ReadYourWritesTracker(final DatabaseProperties databaseProperties) {
+        this(databaseProperties.getReadYourWritesMs(), Clock.systemDefaultZone());
+    }
+
+    public ReadYourWritesTracker(final long windowMillis, final Clock clock) {
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+    public void recordWrite(final String token) {
+        final long now = clock.millis();
+        if (lastWrites.size() >= CLEANUP_SIZE) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowMillis);
+        }
+        lastWrites.put(token, now);
+    }
+
+    public boolean wroteRecently(final String token) {
+        final Long writtenAt = lastWrites.get(token);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (clock.millis() - writtenAt < windowMillis) {
+            return true;
+        }
+        lastWrites.remove(token, writtenAt);
+        return false;
+    }
+
+    public int size() {
+        return lastWrites.size();
+    }
+}
@@ -0,0 +1,89 @@
+package net.thumbtack.forums.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gives connections to the read replica, or to the primary if no replica is configured or it is unavailable.
+ * After a failed connection attempt the replica is skipped for {@code retryMillis}, so requests
+ * do not wait for the connection timeout one after another while it is down.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private final DataSource replica;
+    private final DataSource primary;
+    private final long retryMillis;
+    private final Clock clock;
+    private final AtomicLong fallbacks = new AtomicLong();
+    private volatile long replicaSkippedUntil;
+
+    public ReplicaDataSource(@Nullable final DataSource replica, final DataSource primary,
+                             final long retryMillis, final Clock clock) {
+        this.replica = replica;
+        this.primary = primary;
+        this.retryMillis = retryMillis;
+        this.clock = clock;
+    }
+
+    public boolean isReplicaConfigured() {
+        return replica != null;
+    }
+
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    private interface ConnectionOpener {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    /**
+     * Pools that take credentials from their configuration, like Hikari, do not support this method,
+     * the exception is passed to the caller then instead of taking the replica for unavailable.
+     */
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection getConnection(final ConnectionOpener opener) throws SQLException {
+        if (replica != null && clock.millis() >= replicaSkippedUntil) {
+            try {
+                return opener.open(replica);
+            } catch (SQLFeatureNotSupportedException ex) {
+                throw ex;
+            } catch (SQLException ex) {
+                LOGGER.warn("Replica is unavailable, reading from primary for {} ms", retryMillis, ex);
+                replicaSkippedUntil = clock.millis() + retryMillis;
+            }
+        }
+        if (replica != null) {
+            fallbacks.incrementAndGet();
+        }
+        return opener.open(primary);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (replica instanceof Closeable) {
+            ((Closeable) replica).close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package net.thumbtack.forums.utils;
+
+import org.apache.ibatis.session.*;
+import org.springframework.lang.Nullable;
+
+import java.sql.Connection;
+
+/**
+ * Session factory of DAOs. Sessions are opened on the primary, except {@link #openReadSession()},
+ * which opens a session on the replica unless the read has to see the latest writes:
+ * the request already wrote something, or the thread is in a {@link ReadRouting#primaryOnly()} scope.
+ */
+public class RoutingSqlSessionFactory implements SqlSessionFactory {
+    private final SqlSessionFactory primarySqlSessionFactory;
+    private final SqlSessionFactory replicaSqlSessionFactory;
+
+    /**
+     * @param replicaSqlSessionFactory factory of replica sessions, or null if there is no replica
+     */
+    public RoutingSqlSessionFactory(final SqlSessionFactory primarySqlSessionFactory,
+                                    @Nullable final SqlSessionFactory replicaSqlSessionFactory) {
+        this.primarySqlSessionFactory = primarySqlSessionFactory;
+        this.replicaSqlSessionFactory = replicaSqlSessionFactory;
+    }
+
+    /**
+     * Opens a session for reads that may lag behind the primary a little.
+     */
+    public SqlSession openReadSession() {
+        if (replicaSqlSessionFactory == null || ReadRouting.isPrimaryOnly()) {
+            return primarySqlSessionFactory.openSession();
+        }
+        final UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null && unitOfWork.hasWrites()) {
+            return primarySqlSessionFactory.openSession();
+        }
+        return replicaSqlSessionFactory.openSession();
+    }
+
+    @Override
+    public SqlSession openSession() {
+        return primarySqlSessionFactory.openSession();
+    }
+
+    @Override
+    public SqlSession openSession(boolean autoCommit) {
+        return primarySqlSessionFactory.openSession(autoCommit);
+    }
+
+    @Override
+    public SqlSession openSession(Connection connection) {
+        return primarySqlSessionFactory.openSession(connection);
+    }
+
+    @Override
+    public SqlSession openSession(TransactionIsolationLevel level) {
+        return primarySqlSessionFactory.openSession(level);
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType execType) {
+        return primarySqlSessionFactory.openSession(execType);
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType execType, boolean autoCommit) {
+        return primarySqlSessionFactory.openSession(execType, autoCommit);
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType execType, TransactionIsolationLevel level) {
+        return primarySqlSessionFactory.openSession(execType, level);
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType execType, Connection connection) {
+        return primarySqlSessionFactory.openSession(execType, connection);
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return primarySqlSessionFactory.getConfiguration();
+    }
+}
@@ -0,0 +1,198 @@
+package net.thumbtack.forums.utils;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Database work of one HTTP request. All DAO calls made by the request thread share one SqlSession,
+ * so one pooled connection and one transaction, which is committed once when the request completes.
+ * <p>
+ * Inside a unit DAO commits are deferred and a DAO rollback rolls back the whole unit.
+ * Changes of in-memory state that must follow a commit (cache invalidation, rankings, published events)
+ * are registered with {@link #afterCommit(Runnable)}, so other requests never load data that is not
+ * committed yet. Outside a unit (scheduled jobs, streaming threads, tests) such actions run at once,
+ * right after the commit of the DAO itself.
+ */
+public final class UnitOfWork {
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final List<Runnable> afterCommitActions = new ArrayList<>();
+    private final List<Runnable> afterCompletionActions = new ArrayList<>();
+    private SqlSession sqlSession;
+    private boolean rollbackOnly;
+    private boolean written;
+    private Runnable writeListener;
+
+    private UnitOfWork() {
+    }
+
+    public static UnitOfWork begin() {
+        final UnitOfWork unit = new UnitOfWork();
+        CURRENT.set(unit);
+        return unit;
+    }
+
+    public interface Scope extends AutoCloseable {
+        /**
+         * Marks the work of the scope done. A scope closed without it rolls back the unit it began.
+         */
+        void success();
+
+        @Override
+        void close();
+    }
+
+    private static final Scope JOINED = new Scope() {
+        @Override
+        public void success() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Joins the unit of the current thread, or begins one that ends when the scope is closed,
+     * so DAO calls made in the scope commit in one transaction also outside a request.
+     */
+    public static Scope join() {
+        if (CURRENT.get() != null) {
+            return JOINED;
+        }
+        final UnitOfWork unit = begin();
+        return new Scope() {
+            private boolean success;
+
+            @Override
+            public void success() {
+                success = true;
+            }
+
+            @Override
+            public void close() {
+                unit.end(success);
+            }
+        };
+    }
+
+    @Nullable
+    public static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the action after the current unit is committed, or at once if there is no transaction pending.
+     * The action is dropped if the unit is rolled back.
+     */
+    public static void afterCommit(final Runnable action) {
+        final UnitOfWork unit = CURRENT.get();
+        if (unit == null || unit.sqlSession == null) {
+            action.run();
+        } else {
+            unit.afterCommitActions.add(action);
+        }
+    }
+
+    /**
+     * Runs the action after the current unit is committed or rolled back,
+     * or at once if there is no transaction pending.
+     */
+    public static void afterCompletion(final Runnable action) {
+        final UnitOfWork unit = CURRENT.get();
+        if (unit == null || unit.sqlSession == null) {
+            action.run();
+        } else {
+            unit.afterCompletionActions.add(action);
+        }
+    }
+
+    SqlSession openSession(final SqlSessionFactory sqlSessionFactory) {
+        if (sqlSession == null) {
+            sqlSession = sqlSessionFactory.openSession();
+        }
+        return new UnitOfWorkSqlSession(sqlSession, this);
+    }
+
+    void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    void setWritten() {
+        if (!written && writeListener != null) {
+            writeListener.run();
+        }
+        written = true;
+    }
+
+    /**
+     * Sets the action run once when the request writes to database for the first time.
+     */
+    public void setWriteListener(final Runnable writeListener) {
+        this.writeListener = writeListener;
+    }
+
+    /**
+     * @return true if the request changed anything in database, even if the change was rolled back
+     */
+    public boolean hasWrites() {
+        return written;
+    }
+
+    public boolean isActive() {
+        return sqlSession != null;
+    }
+
+    /**
+     * Commits the transaction of the unit, or rolls it back if the request failed or a DAO rolled back,
+     * closes the session and runs registered actions. Does nothing if no DAO was called
+     * since the previous completion; the unit stays bound and opens a new session on the next DAO call.
+     *
+     * @throws org.apache.ibatis.exceptions.PersistenceException if the commit failed,
+     *                                                            the transaction is rolled back then
+     */
+    public void complete(final boolean success) {
+        if (sqlSession == null) {
+            return;
+        }
+        final SqlSession completing = sqlSession;
+        final List<Runnable> commitActions = new ArrayList<>(afterCommitActions);
+        final List<Runnable> completionActions = new ArrayList<>(afterCompletionActions);
+        final boolean commit = success && !rollbackOnly;
+        sqlSession = null;
+        rollbackOnly = false;
+        afterCommitActions.clear();
+        afterCompletionActions.clear();
+
+        boolean committed = false;
+        try {
+            if (commit) {
+                completing.commit();
+                committed = true;
+            } else {
+                completing.rollback();
+            }
+        } finally {
+            completing.close();
+            if (committed) {
+                commitActions.forEach(Runnable::run);
+            }
+            completionActions.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Completes the unit and unbinds it from the thread.
+     */
+    public void end(final boolean success) {
+        try {
+            complete(success);
+        } finally {
+            CURRENT.remove();
+        }
+    }
+}
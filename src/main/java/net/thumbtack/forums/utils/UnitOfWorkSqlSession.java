@@ -0,0 +1,185 @@
+package net.thumbtack.forums.utils;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * View of the session of a {@link UnitOfWork} given to one DAO call. Commit is left to the unit,
+ * rollback rolls back the whole unit, close only clears the local cache, so every DAO call
+ * reads the database like with a session of its own.
+ */
+class UnitOfWorkSqlSession implements SqlSession {
+    private final SqlSession sqlSession;
+    private final UnitOfWork unitOfWork;
+
+    UnitOfWorkSqlSession(final SqlSession sqlSession, final UnitOfWork unitOfWork) {
+        this.sqlSession = sqlSession;
+        this.unitOfWork = unitOfWork;
+    }
+
+    @Override
+    public <T> T selectOne(String statement) {
+        return sqlSession.selectOne(statement);
+    }
+
+    @Override
+    public <T> T selectOne(String statement, Object parameter) {
+        return sqlSession.selectOne(statement, parameter);
+    }
+
+    @Override
+    public <E> List<E> selectList(String statement) {
+        return sqlSession.selectList(statement);
+    }
+
+    @Override
+    public <E> List<E> selectList(String statement, Object parameter) {
+        return sqlSession.selectList(statement, parameter);
+    }
+
+    @Override
+    public <E> List<E> selectList(String statement, Object parameter, RowBounds rowBounds) {
+        return sqlSession.selectList(statement, parameter, rowBounds);
+    }
+
+    @Override
+    public <K, V> Map<K, V> selectMap(String statement, String mapKey) {
+        return sqlSession.selectMap(statement, mapKey);
+    }
+
+    @Override
+    public <K, V> Map<K, V> selectMap(String statement, Object parameter, String mapKey) {
+        return sqlSession.selectMap(statement, parameter, mapKey);
+    }
+
+    @Override
+    public <K, V> Map<K, V> selectMap(String statement, Object parameter, String mapKey, RowBounds rowBounds) {
+        return sqlSession.selectMap(statement, parameter, mapKey, rowBounds);
+    }
+
+    @Override
+    public <T> Cursor<T> selectCursor(String statement) {
+        return sqlSession.selectCursor(statement);
+    }
+
+    @Override
+    public <T> Cursor<T> selectCursor(String statement, Object parameter) {
+        return sqlSession.selectCursor(statement, parameter);
+    }
+
+    @Override
+    public <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds) {
+        return sqlSession.selectCursor(statement, parameter, rowBounds);
+    }
+
+    @Override
+    public void select(String statement, Object parameter, ResultHandler handler) {
+        sqlSession.select(statement, parameter, handler);
+    }
+
+    @Override
+    public void select(String statement, ResultHandler handler) {
+        sqlSession.select(statement, handler);
+    }
+
+    @Override
+    public void select(String statement, Object parameter, RowBounds rowBounds, ResultHandler handler) {
+        sqlSession.select(statement, parameter, rowBounds, handler);
+    }
+
+    @Override
+    public int insert(String statement) {
+        unitOfWork.setWritten();
+        return sqlSession.insert(statement);
+    }
+
+    @Override
+    public int insert(String statement, Object parameter) {
+        unitOfWork.setWritten();
+        return sqlSession.insert(statement, parameter);
+    }
+
+    @Override
+    public int update(String statement) {
+        unitOfWork.setWritten();
+        return sqlSession.update(statement);
+    }
+
+    @Override
+    public int update(String statement, Object parameter) {
+        unitOfWork.setWritten();
+        return sqlSession.update(statement, parameter);
+    }
+
+    @Override
+    public int delete(String statement) {
+        unitOfWork.setWritten();
+        return sqlSession.delete(statement);
+    }
+
+    @Override
+    public int delete(String statement, Object parameter) {
+        unitOfWork.setWritten();
+        return sqlSession.delete(statement, parameter);
+    }
+
+    @Override
+    public void commit() {
+        // committed by the unit of work
+    }
+
+    @Override
+    public void commit(boolean force) {
+        // committed by the unit of work
+    }
+
+    @Override
+    public void rollback() {
+        unitOfWork.setRollbackOnly();
+        sqlSession.rollback();
+    }
+
+    @Override
+    public void rollback(boolean force) {
+        unitOfWork.setRollbackOnly();
+        sqlSession.rollback(force);
+    }
+
+    @Override
+    public List<BatchResult> flushStatements() {
+        return sqlSession.flushStatements();
+    }
+
+    @Override
+    public void close() {
+        sqlSession.clearCache();
+    }
+
+    @Override
+    public void clearCache() {
+        sqlSession.clearCache();
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return sqlSession.getConfiguration();
+    }
+
+    @Override
+    public <T> T getMapper(Class<T> type) {
+        return getConfiguration().getMapper(type, this);
+    }
+
+    @Override
+    public Connection getConnection() {
+        return sqlSession.getConnection();
+    }
+}
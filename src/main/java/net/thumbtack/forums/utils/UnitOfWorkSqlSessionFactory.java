@@ -0,0 +1,66 @@
+package net.thumbtack.forums.utils;
+
+import org.apache.ibatis.session.*;
+
+import java.sql.Connection;
+
+/**
+ * Gives the session of the current {@link UnitOfWork} to DAOs, or a new session if there is no unit.
+ * Sessions with explicit executor type, connection or isolation level are never shared.
+ */
+public class UnitOfWorkSqlSessionFactory implements SqlSessionFactory {
+    private final SqlSessionFactory sqlSessionFactory;
+
+    public UnitOfWorkSqlSessionFactory(final SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public SqlSession openSession() {
+        final UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork == null) {
+            return sqlSessionFactory.openSession();
+        }
+        return unitOfWork.openSession(sqlSessionFactory);
+    }
+
+    @Override
+    public SqlSession openSession(boolean autoCommit) {
+        return sqlSessionFactory.openSession(autoCommit);
+    }
+
+    @Override
+    public SqlSession openSession(Connection connection) {
+        return sqlSessionFactory.openSession(connection);
+    }
+
+    @Override
+    public SqlSession openSession(TransactionIsolationLevel level) {
+        return sqlSessionFactory.openSession(level);
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType execType) {
+        return sqlSessionFactory.openSession(execType);
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType execType, boolean autoCommit) {
+        return sqlSessionFactory.openSession(execType, autoCommit);
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType execType, TransactionIsolationLevel level) {
+        return sqlSessionFactory.openSession(execType, level);
+    }
+
+    @Override
+    public SqlSession openSession(ExecutorType execType, Connection connection) {
+        return sqlSessionFactory.openSession(execType, connection);
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return sqlSessionFactory.getConfiguration();
+    }
+}
@@ -0,0 +1,17 @@
+package net.thumbtack.forums.validator.message;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.*;
+
+@Documented
+@Constraint(validatedBy = AvailableTagModeValidator.class)
+@Target({ElementType.PARAMETER, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AvailableTagMode {
+    String message() default "tagmode must be one of %s";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,40 @@
+package net.thumbtack.forums.validator.message;
+
+import net.thumbtack.forums.model.enums.TagFilterMode;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.constraintvalidation.SupportedValidationTarget;
+import javax.validation.constraintvalidation.ValidationTarget;
+import java.util.StringJoiner;
+
+public class AvailableTagModeValidator implements ConstraintValidator<AvailableTagMode, String> {
+    private String message;
+
+    @Override
+    public void initialize(AvailableTagMode constraintAnnotation) {
+        final StringJoiner values = new StringJoiner(", ");
+        for (TagFilterMode mode : TagFilterMode.values()) {
+            values.add(mode.name());
+        }
+        message = String.format(constraintAnnotation.message(), values.toString());
+    }
+
+    @Override
+    public boolean isValid(String tagMode, ConstraintValidatorContext constraintValidatorContext) {
+        constraintValidatorContext.disableDefaultConstraintViolation();
+        constraintValidatorContext
+                .buildConstraintViolationWithTemplate(message)
+                .addConstraintViolation();
+
+        if (tagMode == null) {
+            return true;
+        }
+        for (TagFilterMode instance : TagFilterMode.values()) {
+            if (instance.name().equalsIgnoreCase(tagMode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
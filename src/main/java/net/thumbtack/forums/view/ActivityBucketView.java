@@ -0,0 +1,88 @@
+package net.thumbtack.forums.view;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class ActivityBucketView {
+    private LocalDateTime periodStart;
+    private int messages;
+    private int comments;
+    private int ratings;
+    private int newUsers;
+
+    public ActivityBucketView(LocalDateTime periodStart, int messages, int comments, int ratings, int newUsers) {
+        this.periodStart = periodStart;
+        this.messages = messages;
+        this.comments = comments;
+        this.ratings = ratings;
+        this.newUsers = newUsers;
+    }
+
+    public LocalDateTime getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDateTime periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public int getMessages() {
+        return messages;
+    }
+
+    public void setMessages(int messages) {
+        this.messages = messages;
+    }
+
+    public int getComments() {
+        return comments;
+    }
+
+    public void setComments(int comments) {
+        this.comments = comments;
+    }
+
+    public int getRatings() {
+        return ratings;
+    }
+
+    public void setRatings(int ratings) {
+        this.ratings = ratings;
+    }
+
+    public int getNewUsers() {
+        return newUsers;
+    }
+
+    public void setNewUsers(int newUsers) {
+        this.newUsers = newUsers;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ActivityBucketView)) return false;
+        ActivityBucketView that = (ActivityBucketView) o;
+        return messages == that.messages &&
+                comments == that.comments &&
+                ratings == that.ratings &&
+                newUsers == that.newUsers &&
+                Objects.equals(periodStart, that.periodStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(periodStart, messages, comments, ratings, newUsers);
+    }
+
+    @Override
+    public String toString() {
+        return "ActivityBucketView{" +
+                "periodStart=" + periodStart +
+                ", messages=" + messages +
+                ", comments=" + comments +
+                ", ratings=" + ratings +
+                ", newUsers=" + newUsers +
+                '}';
+    }
+}
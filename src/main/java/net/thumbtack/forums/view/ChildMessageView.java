@@ -0,0 +1,64 @@
+package net.thumbtack.forums.view;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class ChildMessageView {
+    private int id;
+    private int parentId;
+    private LocalDateTime createdAt;
+
+    public ChildMessageView(int id, int parentId, LocalDateTime createdAt) {
+        this.id = id;
+        this.parentId = parentId;
+        this.createdAt = createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(int parentId) {
+        this.parentId = parentId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChildMessageView)) return false;
+        ChildMessageView that = (ChildMessageView) o;
+        return id == that.id &&
+                parentId == that.parentId &&
+                Objects.equals(createdAt, that.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, parentId, createdAt);
+    }
+
+    @Override
+    public String toString() {
+        return "ChildMessageView{" +
+                "id=" + id +
+                ", parentId=" + parentId +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
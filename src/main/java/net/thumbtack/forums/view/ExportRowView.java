@@ -0,0 +1,166 @@
+package net.thumbtack.forums.view;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * One row of a forum export: a tree, a tag of a tree, a message, a version of a message or a rating.
+ * Columns that do not belong to the kind of the row are null.
+ */
+public class ExportRowView {
+    public static final int TREE = 0;
+    public static final int TAG = 1;
+    public static final int MESSAGE = 2;
+    public static final int HISTORY = 3;
+    public static final int RATING = 4;
+
+    private int treeId;
+    private int kind;
+    private int messageId;
+    private Integer parentId;
+    private String username;
+    private String subject;
+    private String priority;
+    private String tagName;
+    private String body;
+    private Integer prefixLength;
+    private Integer suffixLength;
+    private String state;
+    private Integer rating;
+    private LocalDateTime createdAt;
+
+    public ExportRowView(int treeId, int kind, int messageId, Integer parentId, String username,
+                         String subject, String priority, String tagName, String body, String state,
+                         Integer rating, LocalDateTime createdAt) {
+        this(treeId, kind, messageId, parentId, username, subject, priority, tagName, body, null, null, state,
+                rating, createdAt
+        );
+    }
+
+    /**
+     * A row with a version stored as a delta against the previous version of the message.
+     */
+    public ExportRowView(int treeId, int kind, int messageId, Integer parentId, String username,
+                         String subject, String priority, String tagName, String body,
+                         Integer prefixLength, Integer suffixLength, String state,
+                         Integer rating, LocalDateTime createdAt) {
+        this.treeId = treeId;
+        this.kind = kind;
+        this.messageId = messageId;
+        this.parentId = parentId;
+        this.username = username;
+        this.subject = subject;
+        this.priority = priority;
+        this.tagName = tagName;
+        this.body = body;
+        this.prefixLength = prefixLength;
+        this.suffixLength = suffixLength;
+        this.state = state;
+        this.rating = rating;
+        this.createdAt = createdAt;
+    }
+
+    public int getTreeId() {
+        return treeId;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    public Integer getParentId() {
+        return parentId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Integer getPrefixLength() {
+        return prefixLength;
+    }
+
+    public Integer getSuffixLength() {
+        return suffixLength;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExportRowView)) return false;
+        ExportRowView that = (ExportRowView) o;
+        return treeId == that.treeId &&
+                kind == that.kind &&
+                messageId == that.messageId &&
+                Objects.equals(parentId, that.parentId) &&
+                Objects.equals(username, that.username) &&
+                Objects.equals(subject, that.subject) &&
+                Objects.equals(priority, that.priority) &&
+                Objects.equals(tagName, that.tagName) &&
+                Objects.equals(body, that.body) &&
+                Objects.equals(prefixLength, that.prefixLength) &&
+                Objects.equals(suffixLength, that.suffixLength) &&
+                Objects.equals(state, that.state) &&
+                Objects.equals(rating, that.rating) &&
+                Objects.equals(createdAt, that.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(treeId, kind, messageId, parentId, username,
+                subject, priority, tagName, body, prefixLength, suffixLength, state, rating, createdAt
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "ExportRowView{" +
+                "treeId=" + treeId +
+                ", kind=" + kind +
+                ", messageId=" + messageId +
+                ", parentId=" + parentId +
+                ", username='" + username + '\'' +
+                ", subject='" + subject + '\'' +
+                ", priority='" + priority + '\'' +
+                ", tagName='" + tagName + '\'' +
+                ", body='" + body + '\'' +
+                ", prefixLength=" + prefixLength +
+                ", suffixLength=" + suffixLength +
+                ", state='" + state + '\'' +
+                ", rating=" + rating +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package net.thumbtack.forums.view;
+
+import java.util.Objects;
+
+public class ForumStatsView {
+    public static final ForumStatsView ZERO = new ForumStatsView(0, 0, 0);
+
+    private int publishedMessages;
+    private int publishedComments;
+    private int pendingMessages;
+
+    public ForumStatsView(int publishedMessages, int publishedComments, int pendingMessages) {
+        this.publishedMessages = publishedMessages;
+        this.publishedComments = publishedComments;
+        this.pendingMessages = pendingMessages;
+    }
+
+    public int getPublishedMessages() {
+        return publishedMessages;
+    }
+
+    public void setPublishedMessages(int publishedMessages) {
+        this.publishedMessages = publishedMessages;
+    }
+
+    public int getPublishedComments() {
+        return publishedComments;
+    }
+
+    public void setPublishedComments(int publishedComments) {
+        this.publishedComments = publishedComments;
+    }
+
+    public int getPendingMessages() {
+        return pendingMessages;
+    }
+
+    public void setPendingMessages(int pendingMessages) {
+        this.pendingMessages = pendingMessages;
+    }
+
+    public ForumStatsView minus(final ForumStatsView other) {
+        return new ForumStatsView(
+                publishedMessages - other.publishedMessages,
+                publishedComments - other.publishedComments,
+                pendingMessages - other.pendingMessages
+        );
+    }
+
+    public boolean isZero() {
+        return publishedMessages == 0 && publishedComments == 0 && pendingMessages == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ForumStatsView)) return false;
+        ForumStatsView that = (ForumStatsView) o;
+        return publishedMessages == that.publishedMessages &&
+                publishedComments == that.publishedComments &&
+                pendingMessages == that.pendingMessages;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(publishedMessages, publishedComments, pendingMessages);
+    }
+
+    @Override
+    public String toString() {
+        return "ForumStatsView{" +
+                "publishedMessages=" + publishedMessages +
+                ", publishedComments=" + publishedComments +
+                ", pendingMessages=" + pendingMessages +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package net.thumbtack.forums.view;
+
+import java.util.Objects;
+
+public class HistoryReencodeView {
+    private int lastMessageId;
+    private int messages;
+    private int rewrittenVersions;
+
+    public HistoryReencodeView(int lastMessageId, int messages, int rewrittenVersions) {
+        this.lastMessageId = lastMessageId;
+        this.messages = messages;
+        this.rewrittenVersions = rewrittenVersions;
+    }
+
+    public int getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public void setLastMessageId(int lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public int getMessages() {
+        return messages;
+    }
+
+    public void setMessages(int messages) {
+        this.messages = messages;
+    }
+
+    public int getRewrittenVersions() {
+        return rewrittenVersions;
+    }
+
+    public void setRewrittenVersions(int rewrittenVersions) {
+        this.rewrittenVersions = rewrittenVersions;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HistoryReencodeView)) return false;
+        HistoryReencodeView that = (HistoryReencodeView) o;
+        return lastMessageId == that.lastMessageId &&
+                messages == that.messages &&
+                rewrittenVersions == that.rewrittenVersions;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lastMessageId, messages, rewrittenVersions);
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryReencodeView{" +
+                "lastMessageId=" + lastMessageId +
+                ", messages=" + messages +
+                ", rewrittenVersions=" + rewrittenVersions +
+                '}';
+    }
+}
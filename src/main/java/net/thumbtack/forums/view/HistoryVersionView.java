@@ -0,0 +1,140 @@
+package net.thumbtack.forums.view;
+
+import net.thumbtack.forums.model.enums.MessageState;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A version of message history as it is stored: a full body if {@code prefixLength} is {@code null},
+ * otherwise a delta against the previous version of the message.
+ */
+public class HistoryVersionView {
+    private int id;
+    private int messageId;
+    private String body;
+    private Integer prefixLength;
+    private Integer suffixLength;
+    private MessageState state;
+    private LocalDateTime createdAt;
+    private boolean visible;
+
+    public HistoryVersionView(int id, int messageId, String body, Integer prefixLength, Integer suffixLength,
+                              MessageState state, LocalDateTime createdAt, boolean visible) {
+        this.id = id;
+        this.messageId = messageId;
+        this.body = body;
+        this.prefixLength = prefixLength;
+        this.suffixLength = suffixLength;
+        this.state = state;
+        this.createdAt = createdAt;
+        this.visible = visible;
+    }
+
+    public HistoryVersionView(int id, int messageId, String body, Integer prefixLength, Integer suffixLength,
+                              MessageState state, LocalDateTime createdAt) {
+        this(id, messageId, body, prefixLength, suffixLength, state, createdAt, true);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(int messageId) {
+        this.messageId = messageId;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public Integer getPrefixLength() {
+        return prefixLength;
+    }
+
+    public void setPrefixLength(Integer prefixLength) {
+        this.prefixLength = prefixLength;
+    }
+
+    public Integer getSuffixLength() {
+        return suffixLength;
+    }
+
+    public void setSuffixLength(Integer suffixLength) {
+        this.suffixLength = suffixLength;
+    }
+
+    public MessageState getState() {
+        return state;
+    }
+
+    public void setState(MessageState state) {
+        this.state = state;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+
+    public boolean isDelta() {
+        return prefixLength != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HistoryVersionView)) return false;
+        HistoryVersionView that = (HistoryVersionView) o;
+        return id == that.id &&
+                messageId == that.messageId &&
+                visible == that.visible &&
+                Objects.equals(body, that.body) &&
+                Objects.equals(prefixLength, that.prefixLength) &&
+                Objects.equals(suffixLength, that.suffixLength) &&
+                state == that.state &&
+                Objects.equals(createdAt, that.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, messageId, body, prefixLength, suffixLength, state, createdAt, visible);
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryVersionView{" +
+                "id=" + id +
+                ", messageId=" + messageId +
+                ", body='" + body + '\'' +
+                ", prefixLength=" + prefixLength +
+                ", suffixLength=" + suffixLength +
+                ", state=" + state +
+                ", createdAt=" + createdAt +
+                ", visible=" + visible +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package net.thumbtack.forums.view;
+
+import net.thumbtack.forums.model.enums.MessageState;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class MessageHistoryView {
+    private int messageId;
+    private String body;
+    private MessageState state;
+    private LocalDateTime createdAt;
+
+    public MessageHistoryView(int messageId, String body, MessageState state, LocalDateTime createdAt) {
+        this.messageId = messageId;
+        this.body = body;
+        this.state = state;
+        this.createdAt = createdAt;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(int messageId) {
+        this.messageId = messageId;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public MessageState getState() {
+        return state;
+    }
+
+    public void setState(MessageState state) {
+        this.state = state;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MessageHistoryView)) return false;
+        MessageHistoryView that = (MessageHistoryView) o;
+        return messageId == that.messageId &&
+                Objects.equals(body, that.body) &&
+                state == that.state &&
+                Objects.equals(createdAt, that.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, body, state, createdAt);
+    }
+
+    @Override
+    public String toString() {
+        return "MessageHistoryView{" +
+                "messageId=" + messageId +
+                ", body='" + body + '\'' +
+                ", state=" + state +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
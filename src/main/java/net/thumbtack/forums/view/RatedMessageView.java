@@ -0,0 +1,99 @@
+package net.thumbtack.forums.view;
+
+import java.util.Objects;
+
+public class RatedMessageView {
+    private int messageId;
+    private int forumId;
+    private int ownerId;
+    private boolean isMessage;
+    private int ratingSum;
+    private int ratingCount;
+
+    public RatedMessageView(int messageId, int forumId, int ownerId, boolean isMessage, int ratingSum, int ratingCount) {
+        this.messageId = messageId;
+        this.forumId = forumId;
+        this.ownerId = ownerId;
+        this.isMessage = isMessage;
+        this.ratingSum = ratingSum;
+        this.ratingCount = ratingCount;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(int messageId) {
+        this.messageId = messageId;
+    }
+
+    public int getForumId() {
+        return forumId;
+    }
+
+    public void setForumId(int forumId) {
+        this.forumId = forumId;
+    }
+
+    public int getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(int ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public boolean isMessage() {
+        return isMessage;
+    }
+
+    public void setMessage(boolean message) {
+        isMessage = message;
+    }
+
+    public int getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(int ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RatedMessageView)) return false;
+        RatedMessageView that = (RatedMessageView) o;
+        return messageId == that.messageId &&
+                forumId == that.forumId &&
+                ownerId == that.ownerId &&
+                isMessage == that.isMessage &&
+                ratingSum == that.ratingSum &&
+                ratingCount == that.ratingCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, forumId, ownerId, isMessage, ratingSum, ratingCount);
+    }
+
+    @Override
+    public String toString() {
+        return "RatedMessageView{" +
+                "messageId=" + messageId +
+                ", forumId=" + forumId +
+                ", ownerId=" + ownerId +
+                ", isMessage=" + isMessage +
+                ", ratingSum=" + ratingSum +
+                ", ratingCount=" + ratingCount +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package net.thumbtack.forums.view;
+
+import java.util.Objects;
+
+public class RatingVoteView {
+    private int messageId;
+    private int userId;
+    private Integer rating;
+    private int votes;
+
+    public RatingVoteView(int messageId, int userId, Integer rating) {
+        this(messageId, userId, rating, 0);
+    }
+
+    public RatingVoteView(int messageId, int userId, Integer rating, int votes) {
+        this.messageId = messageId;
+        this.userId = userId;
+        this.rating = rating;
+        this.votes = votes;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(int messageId) {
+        this.messageId = messageId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    public int getVotes() {
+        return votes;
+    }
+
+    public void setVotes(int votes) {
+        this.votes = votes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RatingVoteView)) return false;
+        RatingVoteView that = (RatingVoteView) o;
+        return messageId == that.messageId &&
+                userId == that.userId &&
+                votes == that.votes &&
+                Objects.equals(rating, that.rating);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, userId, rating, votes);
+    }
+
+    @Override
+    public String toString() {
+        return "RatingVoteView{" +
+                "messageId=" + messageId +
+                ", userId=" + userId +
+                ", rating=" + rating +
+                ", votes=" + votes +
+                '}';
+    }
+}
@@ -0,0 +1,87 @@
+package net.thumbtack.forums.view;
+
+import java.util.Objects;
+
+public class SearchHitView {
+    private int messageId;
+    private int rootMessageId;
+    private int forumId;
+    private String subject;
+    private double score;
+
+    public SearchHitView(int messageId, int rootMessageId, int forumId, String subject, double score) {
+        this.messageId = messageId;
+        this.rootMessageId = rootMessageId;
+        this.forumId = forumId;
+        this.subject = subject;
+        this.score = score;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(int messageId) {
+        this.messageId = messageId;
+    }
+
+    public int getRootMessageId() {
+        return rootMessageId;
+    }
+
+    public void setRootMessageId(int rootMessageId) {
+        this.rootMessageId = rootMessageId;
+    }
+
+    public int getForumId() {
+        return forumId;
+    }
+
+    public void setForumId(int forumId) {
+        this.forumId = forumId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchHitView)) return false;
+        SearchHitView that = (SearchHitView) o;
+        return messageId == that.messageId &&
+                rootMessageId == that.rootMessageId &&
+                forumId == that.forumId &&
+                Objects.equals(subject, that.subject) &&
+                Double.compare(that.score, score) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, rootMessageId, forumId, subject, score);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHitView{" +
+                "messageId=" + messageId +
+                ", rootMessageId=" + rootMessageId +
+                ", forumId=" + forumId +
+                ", subject='" + subject + '\'' +
+                ", score=" + score +
+                '}';
+    }
+}
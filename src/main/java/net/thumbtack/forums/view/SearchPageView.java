@@ -0,0 +1,52 @@
+package net.thumbtack.forums.view;
+
+import java.util.List;
+import java.util.Objects;
+
+public class SearchPageView {
+    private int total;
+    private List<SearchHitView> hits;
+
+    public SearchPageView(int total, List<SearchHitView> hits) {
+        this.total = total;
+        this.hits = hits;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public List<SearchHitView> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<SearchHitView> hits) {
+        this.hits = hits;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchPageView)) return false;
+        SearchPageView that = (SearchPageView) o;
+        return total == that.total &&
+                Objects.equals(hits, that.hits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(total, hits);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchPageView{" +
+                "total=" + total +
+                ", hits=" + hits +
+                '}';
+    }
+}
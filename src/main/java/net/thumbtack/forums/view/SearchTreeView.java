@@ -0,0 +1,75 @@
+package net.thumbtack.forums.view;
+
+import java.util.Objects;
+
+public class SearchTreeView {
+    private int treeId;
+    private int forumId;
+    private int rootMessageId;
+    private String subject;
+
+    public SearchTreeView(int treeId, int forumId, int rootMessageId, String subject) {
+        this.treeId = treeId;
+        this.forumId = forumId;
+        this.rootMessageId = rootMessageId;
+        this.subject = subject;
+    }
+
+    public int getTreeId() {
+        return treeId;
+    }
+
+    public void setTreeId(int treeId) {
+        this.treeId = treeId;
+    }
+
+    public int getForumId() {
+        return forumId;
+    }
+
+    public void setForumId(int forumId) {
+        this.forumId = forumId;
+    }
+
+    public int getRootMessageId() {
+        return rootMessageId;
+    }
+
+    public void setRootMessageId(int rootMessageId) {
+        this.rootMessageId = rootMessageId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchTreeView)) return false;
+        SearchTreeView that = (SearchTreeView) o;
+        return treeId == that.treeId &&
+                forumId == that.forumId &&
+                rootMessageId == that.rootMessageId &&
+                Objects.equals(subject, that.subject);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(treeId, forumId, rootMessageId, subject);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchTreeView{" +
+                "treeId=" + treeId +
+                ", forumId=" + forumId +
+                ", rootMessageId=" + rootMessageId +
+                ", subject='" + subject + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,102 @@
+package net.thumbtack.forums.view;
+
+import net.thumbtack.forums.model.enums.MessageState;
+
+import java.util.Objects;
+
+public class SearchVersionView {
+    private int messageId;
+    private int treeId;
+    private String body;
+    private Integer prefixLength;
+    private Integer suffixLength;
+    private MessageState state;
+
+    public SearchVersionView(int messageId, int treeId, String body, Integer prefixLength, Integer suffixLength,
+                             MessageState state) {
+        this.messageId = messageId;
+        this.treeId = treeId;
+        this.body = body;
+        this.prefixLength = prefixLength;
+        this.suffixLength = suffixLength;
+        this.state = state;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(int messageId) {
+        this.messageId = messageId;
+    }
+
+    public int getTreeId() {
+        return treeId;
+    }
+
+    public void setTreeId(int treeId) {
+        this.treeId = treeId;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public Integer getPrefixLength() {
+        return prefixLength;
+    }
+
+    public void setPrefixLength(Integer prefixLength) {
+        this.prefixLength = prefixLength;
+    }
+
+    public Integer getSuffixLength() {
+        return suffixLength;
+    }
+
+    public void setSuffixLength(Integer suffixLength) {
+        this.suffixLength = suffixLength;
+    }
+
+    public MessageState getState() {
+        return state;
+    }
+
+    public void setState(MessageState state) {
+        this.state = state;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchVersionView)) return false;
+        SearchVersionView that = (SearchVersionView) o;
+        return messageId == that.messageId &&
+                treeId == that.treeId &&
+                Objects.equals(body, that.body) &&
+                Objects.equals(prefixLength, that.prefixLength) &&
+                Objects.equals(suffixLength, that.suffixLength) &&
+                Objects.equals(state, that.state);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, treeId, body, prefixLength, suffixLength, state);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchVersionView{" +
+                "messageId=" + messageId +
+                ", treeId=" + treeId +
+                ", body='" + body + '\'' +
+                ", prefixLength=" + prefixLength +
+                ", suffixLength=" + suffixLength +
+                ", state=" + state +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package net.thumbtack.forums.view;
+
+import java.util.Objects;
+
+public class TreeTagView {
+    private int treeId;
+    private int tagId;
+    private String tagName;
+
+    public TreeTagView(int treeId, int tagId, String tagName) {
+        this.treeId = treeId;
+        this.tagId = tagId;
+        this.tagName = tagName;
+    }
+
+    public int getTreeId() {
+        return treeId;
+    }
+
+    public void setTreeId(int treeId) {
+        this.treeId = treeId;
+    }
+
+    public int getTagId() {
+        return tagId;
+    }
+
+    public void setTagId(int tagId) {
+        this.tagId = tagId;
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    public void setTagName(String tagName) {
+        this.tagName = tagName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TreeTagView)) return false;
+        TreeTagView that = (TreeTagView) o;
+        return treeId == that.treeId &&
+                tagId == that.tagId &&
+                Objects.equals(tagName, that.tagName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(treeId, tagId, tagName);
+    }
+
+    @Override
+    public String toString() {
+        return "TreeTagView{" +
+                "treeId=" + treeId +
+                ", tagId=" + tagId +
+                ", tagName='" + tagName + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package net.thumbtack.forums.view;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class UserBanView {
+    private int userId;
+    private LocalDateTime bannedUntil;
+
+    public UserBanView(int userId, LocalDateTime bannedUntil) {
+        this.userId = userId;
+        this.bannedUntil = bannedUntil;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getBannedUntil() {
+        return bannedUntil;
+    }
+
+    public void setBannedUntil(LocalDateTime bannedUntil) {
+        this.bannedUntil = bannedUntil;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserBanView)) return false;
+        UserBanView that = (UserBanView) o;
+        return userId == that.userId &&
+                Objects.equals(bannedUntil, that.bannedUntil);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, bannedUntil);
+    }
+
+    @Override
+    public String toString() {
+        return "UserBanView{" +
+                "userId=" + userId +
+                ", bannedUntil=" + bannedUntil +
+                '}';
+    }
+}
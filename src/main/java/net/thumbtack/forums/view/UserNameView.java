@@ -0,0 +1,51 @@
+package net.thumbtack.forums.view;
+
+import java.util.Objects;
+
+public class UserNameView {
+    private int userId;
+    private String username;
+
+    public UserNameView(int userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserNameView)) return false;
+        UserNameView that = (UserNameView) o;
+        return userId == that.userId &&
+                Objects.equals(username, that.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, username);
+    }
+
+    @Override
+    public String toString() {
+        return "UserNameView{" +
+                "userId=" + userId +
+                ", username='" + username + '\'' +
+                '}';
+    }
+}
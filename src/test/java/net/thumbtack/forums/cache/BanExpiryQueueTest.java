@@ -0,0 +1,104 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.view.UserBanView;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BanExpiryQueueTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private MutableClock clock;
+    private BanExpiryQueue queue;
+
+    private static class MutableClock extends Clock {
+        private Instant instant = NOW.toInstant(ZoneOffset.UTC);
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    @BeforeEach
+    void initQueue() {
+        clock = new MutableClock();
+        queue = new BanExpiryQueue(clock);
+    }
+
+    @Test
+    void testPollEnded_shouldReturnBansInOrderOfTheirEnd() {
+        queue.schedule(1, NOW.plusSeconds(30));
+        queue.scheduleAll(Arrays.asList(
+                new UserBanView(2, NOW.plusSeconds(10)),
+                new UserBanView(3, NOW.plusDays(1))
+        ));
+        assertTrue(queue.pollEnded(10).isEmpty());
+
+        clock.advance(Duration.ofSeconds(10));
+        assertEquals(
+                Collections.singletonList(new UserBanView(2, NOW.plusSeconds(10))),
+                queue.pollEnded(10)
+        );
+
+        clock.advance(Duration.ofMinutes(1));
+        assertEquals(
+                Collections.singletonList(new UserBanView(1, NOW.plusSeconds(30))),
+                queue.pollEnded(10)
+        );
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void testPollEnded_shouldReturnNoMoreThanMaxCount() {
+        for (int userId = 1; userId <= 5; userId++) {
+            queue.schedule(userId, NOW.minusSeconds(userId));
+        }
+
+        final List<UserBanView> firstBatch = queue.pollEnded(3);
+        assertEquals(3, firstBatch.size());
+        assertEquals(5, firstBatch.get(0).getUserId());
+        assertEquals(2, queue.pollEnded(3).size());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testTakeEnded_endedBan_shouldNotWait() throws InterruptedException {
+        queue.schedule(1, NOW.minusDays(1));
+
+        assertEquals(Collections.singletonList(new UserBanView(1, NOW.minusDays(1))), queue.takeEnded(10));
+    }
+
+    @Test
+    void testClear() {
+        queue.schedule(1, NOW.minusDays(1));
+        queue.clear();
+
+        assertTrue(queue.pollEnded(10).isEmpty());
+    }
+}
@@ -0,0 +1,123 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.model.User;
+import net.thumbtack.forums.model.enums.UserRole;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MapperCacheTest {
+    private static User createUser(int id) {
+        return new User(
+                id, UserRole.USER, "user" + id, "user" + id + "@email.com", "password",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), false, null, 0
+        );
+    }
+
+    private static MapperCache createCache(String id, Clock clock, long maxBytes) {
+        final MapperCache cache = new MapperCache(id, clock);
+        cache.setMaxBytes(maxBytes);
+        cache.setTtlSeconds(60);
+        return cache;
+    }
+
+    private static void load(MapperCache cache, Object key, Object value) {
+        assertNull(cache.getObject(key));
+        cache.putObject(key, value);
+    }
+
+    @Test
+    void testGetObject_shouldReturnCopy() {
+        final MapperCache cache = createCache("test.CopyMapper", Clock.systemDefaultZone(), 100_000);
+        final User user = createUser(1);
+        load(cache, "user1", Collections.singletonList(user));
+
+        @SuppressWarnings("unchecked") final List<User> cached = (List<User>) cache.getObject("user1");
+        assertEquals(Collections.singletonList(user), cached);
+        cached.get(0).setBannedUntil(LocalDateTime.now());
+
+        assertEquals(Collections.singletonList(user), cache.getObject("user1"));
+        assertEquals(1, MapperCache.getCounters("test.CopyMapper").getMisses());
+        assertEquals(2, MapperCache.getCounters("test.CopyMapper").getHits());
+    }
+
+    @Test
+    void testGetObject_expired_shouldMiss() {
+        final Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(1000L);
+        final MapperCache cache = createCache("test.TtlMapper", clock, 100_000);
+        load(cache, "user1", createUser(1));
+        assertNotNull(cache.getObject("user1"));
+
+        when(clock.millis()).thenReturn(61_000L);
+        assertNull(cache.getObject("user1"));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void testPutObject_overBudget_shouldEvictLeastRecentlyUsed() {
+        final MapperCache cache = createCache("test.BudgetMapper", Clock.systemDefaultZone(), 100_000);
+        load(cache, "user1", createUser(1));
+        final long entryBytes = cache.getTotalBytes();
+        cache.setMaxBytes(entryBytes * 2);
+
+        load(cache, "user2", createUser(2));
+        assertNotNull(cache.getObject("user1"));
+        load(cache, "user3", createUser(3));
+
+        assertEquals(2, cache.getSize());
+        assertNotNull(cache.getObject("user1"));
+        assertNull(cache.getObject("user2"));
+        assertEquals(1, MapperCache.getCounters("test.BudgetMapper").getEvictions());
+    }
+
+    @Test
+    void testPutObject_clearedAfterMiss_shouldNotStore() {
+        final MapperCache cache = createCache("test.RaceMapper", Clock.systemDefaultZone(), 100_000);
+        assertNull(cache.getObject("user1"));
+        cache.clear();
+        cache.putObject("user1", createUser(1));
+        assertEquals(0, cache.getSize());
+
+        load(cache, "user1", createUser(1));
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void testPutObject_disabled_shouldNotStore() {
+        final MapperCache cache = createCache("test.DisabledMapper", Clock.systemDefaultZone(), 0);
+        load(cache, "user1", createUser(1));
+        assertEquals(0, cache.getSize());
+        assertFalse(MapperCache.getNamespaces().contains("test.DisabledMapper"));
+    }
+
+    @Test
+    void testClear_shouldClearFlushedNamespaces() {
+        final MapperCache users = createCache("test.UserMapper", Clock.systemDefaultZone(), 100_000);
+        final MapperCache replicaUsers = createCache("test.UserMapper", Clock.systemDefaultZone(), 100_000);
+        final MapperCache forums = createCache("test.ForumMapper", Clock.systemDefaultZone(), 100_000);
+        forums.setFlushedBy("test.UserMapper");
+        final MapperCache tags = createCache("test.TagMapper", Clock.systemDefaultZone(), 100_000);
+        tags.setFlushedBy("test.TreeMapper, test.ForumMapper");
+        final MapperCache other = createCache("test.OtherMapper", Clock.systemDefaultZone(), 100_000);
+        for (MapperCache cache : new MapperCache[]{users, replicaUsers, forums, tags, other}) {
+            load(cache, "key", createUser(1));
+        }
+        assertEquals(2, MapperCache.size("test.UserMapper"));
+
+        users.clear();
+        assertEquals(0, MapperCache.size("test.UserMapper"));
+        assertEquals(0, forums.getSize());
+        assertEquals(0, tags.getSize());
+        assertEquals(1, other.getSize());
+        assertEquals(2, MapperCache.getCounters("test.UserMapper").getInvalidations());
+    }
+}
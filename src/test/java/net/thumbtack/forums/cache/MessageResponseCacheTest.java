@@ -0,0 +1,113 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.model.enums.MessageOrder;
+import net.thumbtack.forums.dto.responses.message.CommentInfoDtoResponse;
+import net.thumbtack.forums.dto.responses.message.MessageInfoDtoResponse;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageResponseCacheTest {
+    private static MessageInfoDtoResponse createResponse(final int rootId, final int commentId) {
+        final CommentInfoDtoResponse comment = new CommentInfoDtoResponse(
+                commentId, "Commenter", Collections.singletonList("Comment"),
+                LocalDateTime.now(), 0., 0, Collections.emptyList()
+        );
+        return new MessageInfoDtoResponse(
+                rootId, "Creator", "Subject", Collections.singletonList("Body"),
+                "NORMAL", Collections.emptyList(), LocalDateTime.now(), 0., 0,
+                Collections.singletonList(comment)
+        );
+    }
+
+    private static MessageResponseCache.Key createKey(final int rootId, final boolean unpublished) {
+        return new MessageResponseCache.Key(
+                rootId, false, false, MessageOrder.DESC, unpublished, Integer.MAX_VALUE, Integer.MAX_VALUE
+        );
+    }
+
+    @Test
+    void testGet_putResponse_shouldReturnItForEveryView() {
+        final MessageResponseCache cache = new MessageResponseCache(10);
+        final MessageInfoDtoResponse response = createResponse(1, 2);
+        cache.put(createKey(1, false), response, Collections.emptyList(), cache.currentEpoch());
+
+        assertSame(response, cache.get(createKey(1, false), 100));
+        assertNull(cache.get(createKey(1, true), 100));
+        assertNull(cache.get(new MessageResponseCache.Key(
+                1, false, false, MessageOrder.ASC, false, Integer.MAX_VALUE, Integer.MAX_VALUE
+        ), 100));
+        assertNull(cache.get(new MessageResponseCache.Key(
+                1, false, false, MessageOrder.DESC, false, 10, Integer.MAX_VALUE
+        ), 100));
+        assertEquals(1, cache.getCounters().getHits());
+        assertEquals(3, cache.getCounters().getMisses());
+    }
+
+    @Test
+    void testGet_requesterOwnsUnpublishedMessage_shouldBypassPublishedView() {
+        final MessageResponseCache cache = new MessageResponseCache(10);
+        final MessageInfoDtoResponse response = createResponse(1, 2);
+        cache.put(createKey(1, false), response, Collections.singletonList(7), cache.currentEpoch());
+        cache.put(createKey(1, true), response, Collections.emptyList(), cache.currentEpoch());
+
+        assertNull(cache.get(createKey(1, false), 7));
+        assertSame(response, cache.get(createKey(1, false), 8));
+        assertSame(response, cache.get(createKey(1, true), 7));
+    }
+
+    @Test
+    void testInvalidateMessages_commentTouched_shouldDropWholeTree() {
+        final MessageResponseCache cache = new MessageResponseCache(10);
+        cache.put(createKey(1, false), createResponse(1, 2), Collections.emptyList(), cache.currentEpoch());
+        cache.put(createKey(1, true), createResponse(1, 2), Collections.emptyList(), cache.currentEpoch());
+        cache.put(createKey(3, false), createResponse(3, 4), Collections.emptyList(), cache.currentEpoch());
+
+        cache.invalidateMessages(2);
+        assertNull(cache.get(createKey(1, false), 100));
+        assertNull(cache.get(createKey(1, true), 100));
+        assertNotNull(cache.get(createKey(3, false), 100));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getCounters().getInvalidations());
+
+        cache.invalidateMessages(3, null);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_invalidatedDuringLoad_shouldNotCacheResponse() {
+        final MessageResponseCache cache = new MessageResponseCache(10);
+        final long loadEpoch = cache.currentEpoch();
+        cache.invalidateMessages(2);
+
+        cache.put(createKey(1, false), createResponse(1, 2), Collections.emptyList(), loadEpoch);
+        assertNull(cache.get(createKey(1, false), 100));
+    }
+
+    @Test
+    void testPut_cacheIsFull_shouldEvictLeastRecentlyUsedTree() {
+        final MessageResponseCache cache = new MessageResponseCache(2);
+        cache.put(createKey(1, false), createResponse(1, 2), Collections.emptyList(), cache.currentEpoch());
+        cache.put(createKey(3, false), createResponse(3, 4), Collections.emptyList(), cache.currentEpoch());
+        assertNotNull(cache.get(createKey(1, false), 100));
+
+        cache.put(createKey(5, false), createResponse(5, 6), Collections.emptyList(), cache.currentEpoch());
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(createKey(1, false), 100));
+        assertNull(cache.get(createKey(3, false), 100));
+        assertEquals(1, cache.getCounters().getEvictions());
+    }
+
+    @Test
+    void testGet_cacheDisabled_shouldNotCache() {
+        final MessageResponseCache cache = new MessageResponseCache(0);
+        cache.put(createKey(1, false), createResponse(1, 2), Collections.emptyList(), cache.currentEpoch());
+        assertFalse(cache.isEnabled());
+        assertNull(cache.get(createKey(1, false), 100));
+        assertEquals(0, cache.size());
+    }
+}
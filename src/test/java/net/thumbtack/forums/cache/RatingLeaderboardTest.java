@@ -0,0 +1,167 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.view.MessageRatingView;
+import net.thumbtack.forums.view.RatedMessageView;
+import net.thumbtack.forums.view.UserNameView;
+import net.thumbtack.forums.view.UserRatingView;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingLeaderboardTest {
+    private static RatingLeaderboard createLoadedLeaderboard() {
+        final RatingLeaderboard leaderboard = new RatingLeaderboard();
+        leaderboard.load(
+                Arrays.asList(
+                        new RatedMessageView(1, 10, 100, true, 9, 2),
+                        new RatedMessageView(2, 10, 101, false, 5, 1),
+                        new RatedMessageView(3, 20, 101, true, 0, 0),
+                        new RatedMessageView(4, 20, 100, true, 9, 2)
+                ),
+                Arrays.asList(
+                        new UserNameView(100, "first"),
+                        new UserNameView(101, "second"),
+                        new UserNameView(102, "silent")
+                ),
+                leaderboard.currentEpoch()
+        );
+        return leaderboard;
+    }
+
+    @Test
+    void testGetMessagesRatings_shouldOrderByAverageThenId() {
+        final RatingLeaderboard leaderboard = createLoadedLeaderboard();
+        assertTrue(leaderboard.isLoaded());
+
+        assertEquals(
+                Arrays.asList(
+                        new MessageRatingView(2, false, 5, 1),
+                        new MessageRatingView(1, true, 4.5, 2),
+                        new MessageRatingView(4, true, 4.5, 2),
+                        new MessageRatingView(3, true, 0, 0)
+                ),
+                leaderboard.getMessagesRatings(null, 0, 10)
+        );
+        assertEquals(
+                Collections.singletonList(new MessageRatingView(4, true, 4.5, 2)),
+                leaderboard.getMessagesRatings(null, 2, 1)
+        );
+        assertEquals(
+                Arrays.asList(
+                        new MessageRatingView(4, true, 4.5, 2),
+                        new MessageRatingView(3, true, 0, 0)
+                ),
+                leaderboard.getMessagesRatings(20, 0, 10)
+        );
+        assertTrue(leaderboard.getMessagesRatings(30, 0, 10).isEmpty());
+    }
+
+    @Test
+    void testGetUsersRatings_shouldAggregateMessagesOfUser() {
+        final RatingLeaderboard leaderboard = createLoadedLeaderboard();
+
+        assertEquals(
+                Arrays.asList(
+                        new UserRatingView(101, "second", 5, 1),
+                        new UserRatingView(100, "first", 4.5, 4),
+                        new UserRatingView(102, "silent", 0, 0)
+                ),
+                leaderboard.getUsersRatings(null, 0, 10)
+        );
+        assertEquals(
+                Arrays.asList(
+                        new UserRatingView(100, "first", 4.5, 2),
+                        new UserRatingView(101, "second", 0, 0)
+                ),
+                leaderboard.getUsersRatings(20, 0, 10)
+        );
+    }
+
+    @Test
+    void testAddRating_shouldMoveMessageAndOwner() {
+        final RatingLeaderboard leaderboard = createLoadedLeaderboard();
+        leaderboard.addRating(3, 5, 1);
+        leaderboard.addRating(3, 4, 1);
+
+        final List<MessageRatingView> forumRatings = leaderboard.getMessagesRatings(20, 0, 10);
+        assertEquals(new MessageRatingView(3, true, 4.5, 2), forumRatings.get(0));
+        assertEquals(new MessageRatingView(4, true, 4.5, 2), forumRatings.get(1));
+        assertEquals(new UserRatingView(101, "second", 4.6667, 3), leaderboard.getUsersRatings(null, 0, 1).get(0));
+        assertEquals(
+                Arrays.asList(
+                        new UserRatingView(100, "first", 4.5, 2),
+                        new UserRatingView(101, "second", 4.5, 2)
+                ),
+                leaderboard.getUsersRatings(20, 0, 10)
+        );
+    }
+
+    @Test
+    void testRemoveMessages_lastMessageOfUserInForum_shouldRemoveUserFromForumRanking() {
+        final RatingLeaderboard leaderboard = createLoadedLeaderboard();
+        leaderboard.removeMessages(Arrays.asList(3, 100500));
+
+        assertEquals(3, leaderboard.size());
+        assertEquals(
+                Collections.singletonList(new UserRatingView(100, "first", 4.5, 2)),
+                leaderboard.getUsersRatings(20, 0, 10)
+        );
+        assertEquals(new UserRatingView(101, "second", 5, 1), leaderboard.getUsersRatings(null, 0, 1).get(0));
+
+        leaderboard.removeForum(10);
+        assertEquals(1, leaderboard.size());
+        assertEquals(
+                Arrays.asList(
+                        new UserRatingView(100, "first", 4.5, 2),
+                        new UserRatingView(101, "second", 0, 0),
+                        new UserRatingView(102, "silent", 0, 0)
+                ),
+                leaderboard.getUsersRatings(null, 0, 10)
+        );
+    }
+
+    @Test
+    void testAddMessage_shouldEnterRankingWithZeroRating() {
+        final RatingLeaderboard leaderboard = createLoadedLeaderboard();
+        leaderboard.addUser(103, "newcomer");
+        leaderboard.addMessage(5, 30, 103, true);
+        leaderboard.addMessage(6, 30, 103, false);
+        leaderboard.makeRoot(6);
+
+        assertEquals(
+                Arrays.asList(
+                        new MessageRatingView(5, true, 0, 0),
+                        new MessageRatingView(6, true, 0, 0)
+                ),
+                leaderboard.getMessagesRatings(30, 0, 10)
+        );
+        assertEquals(
+                Collections.singletonList(new UserRatingView(103, "newcomer", 0, 0)),
+                leaderboard.getUsersRatings(30, 0, 10)
+        );
+    }
+
+    @Test
+    void testLoad_changedDuringLoad_shouldNotPublish() {
+        final RatingLeaderboard leaderboard = new RatingLeaderboard();
+        final long loadEpoch = leaderboard.currentEpoch();
+        leaderboard.removeMessages(Collections.singletonList(1));
+        leaderboard.load(Collections.emptyList(), Collections.emptyList(), loadEpoch);
+        assertFalse(leaderboard.isLoaded());
+
+        leaderboard.beginRatingUpdate();
+        leaderboard.load(Collections.emptyList(), Collections.emptyList(), leaderboard.currentEpoch());
+        assertFalse(leaderboard.isLoaded());
+        leaderboard.endRatingUpdate();
+        leaderboard.load(Collections.emptyList(), Collections.emptyList(), leaderboard.currentEpoch());
+        assertTrue(leaderboard.isLoaded());
+
+        leaderboard.invalidate();
+        assertFalse(leaderboard.isLoaded());
+    }
+}
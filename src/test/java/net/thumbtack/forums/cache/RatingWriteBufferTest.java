@@ -0,0 +1,132 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.view.RatingVoteView;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingWriteBufferTest {
+    private static final long MAX_STALENESS_MILLIS = 1000;
+    private MutableClock clock;
+    private RatingWriteBuffer buffer;
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2020-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    @BeforeEach
+    void initBuffer() {
+        clock = new MutableClock();
+        buffer = new RatingWriteBuffer(true, 100, 3, MAX_STALENESS_MILLIS, clock);
+    }
+
+    @Test
+    void testOffer_shouldCoalesceVotesOfUserForMessage() throws InterruptedException {
+        assertTrue(buffer.offer(1, 10, 5));
+        assertTrue(buffer.offer(2, 10, 4));
+        assertTrue(buffer.offer(1, 10, 2));
+        assertTrue(buffer.offer(2, 10, null));
+        assertEquals(2, buffer.size());
+
+        clock.advance(Duration.ofMillis(MAX_STALENESS_MILLIS));
+        assertEquals(Arrays.asList(
+                new RatingVoteView(1, 10, 2, 2),
+                new RatingVoteView(2, 10, null, 1)
+        ), buffer.takeBatch());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testTakeBatch_fullBatch_shouldNotWaitForStaleness() throws InterruptedException {
+        for (int userId = 1; userId <= 4; userId++) {
+            buffer.offer(1, userId, userId);
+        }
+
+        assertEquals(Arrays.asList(
+                new RatingVoteView(1, 1, 1, 1),
+                new RatingVoteView(1, 2, 2, 1),
+                new RatingVoteView(1, 3, 3, 1)
+        ), buffer.takeBatch());
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    void testOffer_fullBuffer_shouldRefuseOnlyNewVotes() throws InterruptedException {
+        final RatingWriteBuffer smallBuffer = new RatingWriteBuffer(true, 2, 1, 0, clock);
+        assertTrue(smallBuffer.offer(1, 1, 5));
+        assertTrue(smallBuffer.offer(1, 2, 5));
+
+        assertFalse(smallBuffer.offer(1, 3, 5));
+        assertTrue(smallBuffer.offer(1, 2, 3));
+
+        final List<RatingVoteView> batch = smallBuffer.takeBatch();
+        assertEquals(Collections.singletonList(new RatingVoteView(1, 1, 5, 1)), batch);
+        // a vote in flight is not refused, as it is written after the taken one
+        assertTrue(smallBuffer.offer(1, 1, 4));
+        assertFalse(smallBuffer.offer(1, 3, 5));
+        smallBuffer.flushed(batch);
+        assertEquals(2, smallBuffer.size());
+    }
+
+    @Test
+    void testRestore_shouldKeepNewerVotes() throws InterruptedException {
+        buffer.offer(1, 1, 5);
+        buffer.offer(1, 2, 5);
+        clock.advance(Duration.ofMillis(MAX_STALENESS_MILLIS));
+        final List<RatingVoteView> batch = buffer.takeBatch();
+        buffer.offer(1, 2, 1);
+
+        buffer.restore(batch);
+
+        clock.advance(Duration.ofMillis(MAX_STALENESS_MILLIS));
+        assertEquals(Arrays.asList(
+                new RatingVoteView(1, 1, 5, 1),
+                new RatingVoteView(1, 2, 1, 2)
+        ), buffer.takeBatch());
+    }
+
+    @Test
+    void testClose_shouldDrainLeftVotesAndRefuseNewOnes() throws InterruptedException {
+        buffer.offer(1, 1, 5);
+        buffer.close();
+
+        assertTrue(buffer.isClosed());
+        assertFalse(buffer.offer(1, 2, 5));
+        final List<RatingVoteView> batch = buffer.takeBatch();
+        assertEquals(Collections.singletonList(new RatingVoteView(1, 1, 5, 1)), batch);
+        buffer.flushed(batch);
+
+        assertTrue(buffer.takeBatch().isEmpty());
+        assertFalse(buffer.offer(1, 1, 4));
+    }
+}
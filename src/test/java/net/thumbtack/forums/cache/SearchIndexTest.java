@@ -0,0 +1,197 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.model.enums.TagFilterMode;
+import net.thumbtack.forums.view.SearchHitView;
+import net.thumbtack.forums.view.SearchPageView;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+    private SearchIndex searchIndex;
+
+    @BeforeEach
+    void createIndex() {
+        searchIndex = new SearchIndex(3, 1.2, 0.75);
+        searchIndex.beginLoad();
+        searchIndex.loadTree(10, 1, 100, "Connection pool tuning", Arrays.asList("java", "sql"));
+        searchIndex.loadMessage(100, 10, "How big should the pool be?");
+        searchIndex.loadMessage(101, 10, "Measure the pool under load, then tune it");
+        searchIndex.loadMessage(102, 10, "Thanks!");
+        searchIndex.loadTree(20, 2, 200, "Garbage collector pauses", Collections.singletonList("Java"));
+        searchIndex.loadMessage(200, 20, "Long pauses after a heap resize");
+        searchIndex.finishLoad();
+    }
+
+    private static List<Integer> messageIds(final SearchPageView page) {
+        final List<Integer> ids = new ArrayList<>();
+        for (final SearchHitView hit : page.getHits()) {
+            ids.add(hit.getMessageId());
+        }
+        return ids;
+    }
+
+    private List<Integer> search(final String query) {
+        return messageIds(searchIndex.search(query, null, null, TagFilterMode.ANY, 0, 10));
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(Arrays.asList("don", "t", "panic", "42"), SearchIndex.tokenize("Don't PANIC, 42!"));
+        assertEquals(Collections.emptyList(), SearchIndex.tokenize(" ... "));
+        assertEquals(Collections.emptyList(), SearchIndex.tokenize(null));
+    }
+
+    @Test
+    void testSearch_subjectWeighted_shouldRankRootMessageFirst() {
+        final SearchPageView page = searchIndex.search("pool", null, null, TagFilterMode.ANY, 0, 10);
+        assertEquals(2, page.getTotal());
+        assertEquals(Arrays.asList(100, 101), messageIds(page));
+
+        final SearchHitView hit = page.getHits().get(1);
+        assertEquals(100, hit.getRootMessageId());
+        assertEquals(1, hit.getForumId());
+        assertEquals("Connection pool tuning", hit.getSubject());
+        assertTrue(page.getHits().get(0).getScore() > hit.getScore());
+    }
+
+    @Test
+    void testSearch_anyTerm_shouldMatch() {
+        assertEquals(Arrays.asList(100, 200, 101), search("heap pool"));
+        assertEquals(Collections.emptyList(), search("nothing matches"));
+    }
+
+    @Test
+    void testSearch_pagination() {
+        final SearchPageView page = searchIndex.search("pool", null, null, TagFilterMode.ANY, 1, 5);
+        assertEquals(2, page.getTotal());
+        assertEquals(Collections.singletonList(101), messageIds(page));
+        assertEquals(Collections.emptyList(), messageIds(
+                searchIndex.search("pool", null, null, TagFilterMode.ANY, 2, 5)
+        ));
+    }
+
+    @Test
+    void testSearch_forumAndTagFilters() {
+        assertEquals(Collections.singletonList(200), messageIds(
+                searchIndex.search("pool pauses", 2, null, TagFilterMode.ANY, 0, 10)
+        ));
+        assertEquals(Arrays.asList(200, 100, 101), messageIds(
+                searchIndex.search("pool pauses", null, Collections.singletonList("JAVA"), TagFilterMode.ALL, 0, 10)
+        ));
+        assertEquals(Arrays.asList(100, 101), messageIds(
+                searchIndex.search("pool pauses", null, Arrays.asList("java", "sql"), TagFilterMode.ALL, 0, 10)
+        ));
+        assertEquals(Arrays.asList(100, 101), messageIds(
+                searchIndex.search("pool pauses", null, Arrays.asList("sql", "go"), TagFilterMode.ANY, 0, 10)
+        ));
+    }
+
+    @Test
+    void testPutMessage_newVersion_shouldReplacePrevious() {
+        searchIndex.putMessage(102, 10, "Retry with a smaller pool");
+        assertEquals(Arrays.asList(100, 102, 101), search("pool"));
+        assertEquals(Collections.emptyList(), search("thanks"));
+
+        searchIndex.putMessage(300, 30, "pool of an unknown tree");
+        assertEquals(4, searchIndex.size());
+    }
+
+    @Test
+    void testPutTree_newSubject_shouldReplaceOldOne() {
+        searchIndex.putTree(10, 1, 100, "Sizing threads", Collections.emptyList());
+        assertEquals(Collections.singletonList(100), search("threads"));
+        assertEquals(Collections.emptyList(), search("tuning"));
+        assertEquals(Collections.emptyList(), messageIds(
+                searchIndex.search("measure", null, Collections.singletonList("sql"), TagFilterMode.ANY, 0, 10)
+        ));
+    }
+
+    @Test
+    void testMoveMessage_newBranch_shouldGetSubjectOfNewTree() {
+        searchIndex.putTree(11, 1, 101, "Load testing", Collections.emptyList());
+        searchIndex.moveMessage(101, 11);
+
+        final SearchPageView page = searchIndex.search("testing", null, null, TagFilterMode.ANY, 0, 10);
+        assertEquals(Collections.singletonList(101), messageIds(page));
+        assertEquals(101, page.getHits().get(0).getRootMessageId());
+        assertEquals(Collections.singletonList(100), search("connection"));
+    }
+
+    @Test
+    void testRemove() {
+        searchIndex.removeMessages(Collections.singletonList(101));
+        assertEquals(Collections.singletonList(100), search("pool"));
+
+        searchIndex.removeTree(10);
+        assertEquals(Collections.emptyList(), search("pool"));
+        assertEquals(1, searchIndex.size());
+
+        searchIndex.removeForum(2);
+        assertEquals(0, searchIndex.size());
+    }
+
+    @Test
+    void testLoad_changedDuringLoad_shouldReplayChanges() {
+        final SearchIndex loadingIndex = new SearchIndex(3, 1.2, 0.75);
+        assertFalse(loadingIndex.isLoaded());
+
+        loadingIndex.beginLoad();
+        loadingIndex.loadTree(10, 1, 100, "Subject", Collections.emptyList());
+        loadingIndex.loadMessage(100, 10, "first version");
+        loadingIndex.loadMessage(101, 10, "deleted comment");
+        loadingIndex.putTree(10, 1, 100, "Subject", Collections.emptyList());
+        loadingIndex.putMessage(100, 10, "second version");
+        loadingIndex.removeMessages(Collections.singletonList(101));
+        loadingIndex.finishLoad();
+
+        assertTrue(loadingIndex.isLoaded());
+        assertEquals(1, loadingIndex.size());
+        assertEquals(Collections.singletonList(100), messageIds(
+                loadingIndex.search("second", null, null, TagFilterMode.ANY, 0, 10)
+        ));
+        assertEquals(0, loadingIndex.search("first deleted", null, null, TagFilterMode.ANY, 0, 10).getTotal());
+    }
+
+    @Test
+    void testWriteAndRead_shouldKeepResults() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        searchIndex.writeTo(new DataOutputStream(bytes));
+
+        final SearchIndex readIndex = new SearchIndex(3, 1.2, 0.75);
+        readIndex.beginLoad();
+        readIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        readIndex.finishLoad();
+
+        assertTrue(readIndex.isLoaded());
+        assertEquals(searchIndex.size(), readIndex.size());
+        assertEquals(
+                searchIndex.search("pool pauses", null, null, TagFilterMode.ANY, 0, 10),
+                readIndex.search("pool pauses", null, null, TagFilterMode.ANY, 0, 10)
+        );
+    }
+
+    @Test
+    void testRead_brokenInput_shouldLeaveIndexAsItWas() {
+        final byte[] truncated = {0x46, 0x53, 0x49, 0x58, 0, 0, 0, 1, 0, 0, 0, 5};
+        searchIndex.beginLoad();
+        assertThrows(IOException.class, () -> searchIndex.readFrom(
+                new DataInputStream(new ByteArrayInputStream(truncated))
+        ));
+        searchIndex.abortLoad();
+        assertEquals(4, searchIndex.size());
+        assertEquals(Arrays.asList(100, 101), search("pool"));
+    }
+}
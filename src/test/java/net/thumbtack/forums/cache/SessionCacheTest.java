@@ -0,0 +1,175 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionCacheTest {
+    private MutableClock clock;
+    private SessionCache cache;
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2020-01-01T00:00:00Z");
+        private Runnable onNextRead;
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        void onNextRead(Runnable action) {
+            onNextRead = action;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            final Runnable action = onNextRead;
+            onNextRead = null;
+            if (action != null) {
+                action.run();
+            }
+            return instant;
+        }
+    }
+
+    private static User createUser(int id, String name) {
+        final User user = new User(name, name + "@example.com", "password" + name);
+        user.setId(id);
+        return user;
+    }
+
+    @BeforeEach
+    void initCache() {
+        clock = new MutableClock();
+        cache = new SessionCache(2, Duration.ofMinutes(1), clock);
+    }
+
+    @Test
+    void testPutAndGet() {
+        final User user = createUser(1, "user");
+        cache.put("token", user, cache.currentEpoch());
+
+        assertEquals(user, cache.get("token"));
+        assertNull(cache.get("other"));
+        assertEquals(1, cache.getCounters().getHits());
+        assertEquals(1, cache.getCounters().getMisses());
+    }
+
+    @Test
+    void testGet_returnedUserChanged_cachedUserNotChanged() {
+        final User user = createUser(1, "user");
+        cache.put("token", user, cache.currentEpoch());
+
+        cache.get("token").setPassword("changed");
+        assertEquals(user, cache.get("token"));
+    }
+
+    @Test
+    void testGet_entryExpired_shouldReturnNull() {
+        cache.put("token", createUser(1, "user"), cache.currentEpoch());
+        clock.advance(Duration.ofMinutes(2));
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getCounters().getEvictions());
+    }
+
+    @Test
+    void testPut_cacheIsFull_shouldEvictEldest() {
+        cache.put("token1", createUser(1, "first"), cache.currentEpoch());
+        cache.put("token2", createUser(2, "second"), cache.currentEpoch());
+        cache.put("token3", createUser(3, "third"), cache.currentEpoch());
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("token1"));
+        assertNotNull(cache.get("token2"));
+        assertNotNull(cache.get("token3"));
+        assertEquals(1, cache.getCounters().getEvictions());
+    }
+
+    @Test
+    void testPut_invalidatedWhileLoading_shouldNotCache() {
+        final long epoch = cache.currentEpoch();
+        cache.invalidateUser(1);
+        cache.put("token", createUser(1, "user"), epoch);
+
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    void testPut_invalidatedWhilePutting_shouldNotCache() {
+        // put reads the clock after its epoch check and before the entry is stored
+        clock.onNextRead(() -> cache.invalidateUser(1));
+        cache.put("token", createUser(1, "user"), cache.currentEpoch());
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_newTokenForUser_shouldDropOldToken() {
+        final User user = createUser(1, "user");
+        cache.put("old", user, cache.currentEpoch());
+        cache.put("new", user, cache.currentEpoch());
+
+        assertNull(cache.get("old"));
+        assertEquals(user, cache.get("new"));
+    }
+
+    @Test
+    void testInvalidateTokenAndUser() {
+        cache.put("token1", createUser(1, "first"), cache.currentEpoch());
+        cache.put("token2", createUser(2, "second"), cache.currentEpoch());
+
+        cache.invalidateToken("token1");
+        cache.invalidateUser(2);
+
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getCounters().getInvalidations());
+    }
+
+    @Test
+    void testInvalidateBannedBefore() {
+        final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final User banned = createUser(1, "banned");
+        banned.setBannedUntil(now.minusHours(1));
+        final User permanentlyBanned = createUser(2, "permanent");
+        permanentlyBanned.setBannedUntil(now.plusYears(100));
+
+        cache.put("token1", banned, cache.currentEpoch());
+        cache.put("token2", permanentlyBanned, cache.currentEpoch());
+        cache.invalidateBannedBefore(now);
+
+        assertNull(cache.get("token1"));
+        assertEquals(permanentlyBanned, cache.get("token2"));
+    }
+
+    @Test
+    void testDisabledCache_shouldNotStoreUsers() {
+        final SessionCache disabled = new SessionCache(0, Duration.ofMinutes(1), clock);
+        disabled.put("token", createUser(1, "user"), disabled.currentEpoch());
+
+        assertNull(disabled.get("token"));
+        assertEquals(0, disabled.size());
+    }
+}
@@ -0,0 +1,71 @@
+package net.thumbtack.forums.cache;
+
+import net.thumbtack.forums.model.enums.TagFilterMode;
+import net.thumbtack.forums.view.TreeTagView;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagIndexTest {
+    private TagIndex tagIndex;
+
+    @BeforeEach
+    void createIndex() {
+        tagIndex = new TagIndex();
+        tagIndex.load(1, Arrays.asList(
+                new TreeTagView(10, 1, null),
+                new TreeTagView(10, 2, null),
+                new TreeTagView(11, 2, null),
+                new TreeTagView(12, 3, null)
+        ), Collections.emptyList(), TagFilterMode.ANY, tagIndex.currentEpoch());
+    }
+
+    @Test
+    void testFind_notLoadedForum_shouldReturnNull() {
+        assertNull(tagIndex.find(2, Collections.singletonList(1), TagFilterMode.ANY));
+    }
+
+    @Test
+    void testFind_anyAndAllModes() {
+        assertArrayEquals(new int[]{10, 11, 12}, tagIndex.find(1, Arrays.asList(2, 3), TagFilterMode.ANY));
+        assertArrayEquals(new int[]{10}, tagIndex.find(1, Arrays.asList(1, 2), TagFilterMode.ALL));
+        assertArrayEquals(new int[0], tagIndex.find(1, Arrays.asList(1, 3), TagFilterMode.ALL));
+        assertArrayEquals(new int[0], tagIndex.find(1, Collections.singletonList(42), TagFilterMode.ANY));
+    }
+
+    @Test
+    void testAddAndRemoveTree() {
+        tagIndex.addTree(1, 5, Arrays.asList(3, 2));
+        assertArrayEquals(new int[]{5, 10, 11}, tagIndex.find(1, Collections.singletonList(2), TagFilterMode.ANY));
+        assertArrayEquals(new int[]{5}, tagIndex.find(1, Arrays.asList(2, 3), TagFilterMode.ALL));
+
+        tagIndex.removeTree(10);
+        assertArrayEquals(new int[]{5, 11}, tagIndex.find(1, Collections.singletonList(2), TagFilterMode.ANY));
+        assertArrayEquals(new int[0], tagIndex.find(1, Collections.singletonList(1), TagFilterMode.ANY));
+    }
+
+    @Test
+    void testLoad_changedDuringLoad_shouldNotPublishSnapshot() {
+        final long epoch = tagIndex.currentEpoch();
+        tagIndex.addTree(2, 20, Collections.singletonList(1));
+
+        final int[] found = tagIndex.load(
+                2, Collections.singletonList(new TreeTagView(21, 1, null)),
+                Collections.singletonList(1), TagFilterMode.ANY, epoch
+        );
+        assertArrayEquals(new int[]{21}, found);
+        assertNull(tagIndex.find(2, Collections.singletonList(1), TagFilterMode.ANY));
+    }
+
+    @Test
+    void testRemoveForum() {
+        tagIndex.removeForum(1);
+        assertNull(tagIndex.find(1, Collections.singletonList(1), TagFilterMode.ANY));
+        assertEquals(0, tagIndex.size());
+    }
+}
@@ -0,0 +1,258 @@
+package net.thumbtack.forums.configuration;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.transaction.SpringManagedTransaction;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the Hikari pool configured by {@link DatabaseConfig} from application.properties with
+ * the POOLED datasource of mybatis-config.xml it replaced, under request threads outnumbering connections.
+ * <p>
+ * Connections come from an in-process driver with fixed latencies of a local MySQL server, so the numbers
+ * show the cost of the pools themselves and are reproducible without a database.
+ * Every unit of work runs through the transaction a session used with the pool: {@code SpringManagedTransaction}
+ * of mybatis-spring for Hikari, {@code JdbcTransaction} of the JDBC transaction manager for POOLED.
+ * The class is not matched by the default test includes, run it with {@code mvn test -Dtest=PoolBenchmark}.
+ */
+class PoolBenchmark {
+    private static final String URL = "jdbc:benchmark:forums";
+    private static final long CONNECT_MICROS = 5000;
+    private static final long ROUND_TRIP_MICROS = 100;
+    private static final long STATEMENTS_MICROS = 600;
+    // as many request threads as pooled connections, then five times as many
+    private static final int[] THREADS = {10, 50};
+    private static final int UNITS = 20000;
+
+    private static final AtomicInteger connectsCount = new AtomicInteger();
+
+    public static class BenchmarkDriver implements Driver {
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            connectsCount.incrementAndGet();
+            work(CONNECT_MICROS);
+            return createConnection();
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith("jdbc:benchmark:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+
+    private static Connection createConnection() {
+        final boolean[] autoCommit = {true};
+        final boolean[] closed = {false};
+        return (Connection) Proxy.newProxyInstance(
+                PoolBenchmark.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setAutoCommit":
+                            // drivers send SET autocommit only when the value changes
+                            if (autoCommit[0] != (Boolean) args[0]) {
+                                work(ROUND_TRIP_MICROS);
+                                autoCommit[0] = (Boolean) args[0];
+                            }
+                            return null;
+                        case "getAutoCommit":
+                            return autoCommit[0];
+                        case "commit":
+                        case "rollback":
+                            work(ROUND_TRIP_MICROS);
+                            return null;
+                        case "close":
+                            closed[0] = true;
+                            return null;
+                        case "isClosed":
+                            return closed[0];
+                        case "isValid":
+                            return !closed[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "BenchmarkConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                }
+        );
+    }
+
+    private static Object defaultValue(final Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    private static void work(final long micros) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+
+    private static DatabaseProperties loadDatabaseProperties() throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream input = PoolBenchmark.class.getResourceAsStream("/application.properties")) {
+            properties.load(input);
+        }
+        final DatabaseProperties databaseProperties = new DatabaseProperties();
+        databaseProperties.setDriverClassName(BenchmarkDriver.class.getName());
+        databaseProperties.setMaximumPoolSize(intProperty(properties, "jdbc.maximumPoolSize"));
+        databaseProperties.setMinimumIdle(intProperty(properties, "jdbc.minimumIdle"));
+        databaseProperties.setConnectionTimeoutMs(intProperty(properties, "jdbc.connectionTimeoutMs"));
+        databaseProperties.setValidationTimeoutMs(intProperty(properties, "jdbc.validationTimeoutMs"));
+        databaseProperties.setIdleTimeoutMs(intProperty(properties, "jdbc.idleTimeoutMs"));
+        databaseProperties.setMaxLifetimeMs(intProperty(properties, "jdbc.maxLifetimeMs"));
+        databaseProperties.setLeakDetectionThresholdMs(intProperty(properties, "jdbc.leakDetectionThresholdMs"));
+        return databaseProperties;
+    }
+
+    private static int intProperty(final Properties properties, final String name) {
+        return Integer.parseInt(properties.getProperty(name).trim());
+    }
+
+    private static class Result {
+        private final double unitsPerSecond;
+        private final long[] waitNanos;
+        private final int connects;
+
+        Result(double unitsPerSecond, long[] waitNanos, int connects) {
+            this.unitsPerSecond = unitsPerSecond;
+            this.waitNanos = waitNanos;
+            this.connects = connects;
+        }
+
+        double waitMillis(final double percentile) {
+            final int index = (int) Math.ceil(percentile / 100 * waitNanos.length) - 1;
+            return waitNanos[Math.max(index, 0)] / 1e6;
+        }
+    }
+
+    private static Result run(final DataSource dataSource, final Function<DataSource, Transaction> transactions,
+                              final int threadsCount) throws InterruptedException {
+        connectsCount.set(0);
+        final long[][] waits = new long[threadsCount][UNITS / threadsCount];
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] threads = new Thread[threadsCount];
+        for (int i = 0; i < threadsCount; i++) {
+            final long[] threadWaits = waits[i];
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int unit = 0; unit < threadWaits.length; unit++) {
+                        final Transaction transaction = transactions.apply(dataSource);
+                        final long acquiring = System.nanoTime();
+                        transaction.getConnection();
+                        threadWaits[unit] = System.nanoTime() - acquiring;
+                        work(STATEMENTS_MICROS);
+                        transaction.commit();
+                        transaction.close();
+                    }
+                } catch (InterruptedException | SQLException ex) {
+                    failures.incrementAndGet();
+                }
+            });
+            threads[i].start();
+        }
+        final long started = System.nanoTime();
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        final long elapsed = System.nanoTime() - started;
+        assertEquals(0, failures.get());
+
+        final long[] allWaits = Arrays.stream(waits).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(allWaits.length / (elapsed / 1e9), allWaits, connectsCount.get());
+    }
+
+    private static void benchmark(final String name, final DataSource dataSource,
+                                  final Function<DataSource, Transaction> transactions) throws InterruptedException {
+        for (final int threadsCount : THREADS) {
+            // the first run warms up the JIT and fills the pool
+            run(dataSource, transactions, threadsCount);
+            final Result result = run(dataSource, transactions, threadsCount);
+            System.out.printf(
+                    "%-6s %2d threads: %6.0f units/s, wait p50 %6.2f ms, p99 %7.2f ms, max %8.2f ms, %4d connects%n",
+                    name, threadsCount, result.unitsPerSecond, result.waitMillis(50), result.waitMillis(99),
+                    result.waitMillis(100), result.connects
+            );
+        }
+    }
+
+    @Test
+    void benchmarkPools() throws Exception {
+        final HikariConfig config = DatabaseConfig.createPoolConfig(loadDatabaseProperties());
+        config.setPoolName("benchmark");
+        config.setJdbcUrl(URL);
+        try (HikariDataSource hikari = new HikariDataSource(config)) {
+            benchmark("Hikari", hikari, SpringManagedTransaction::new);
+        }
+
+        final PooledDataSource pooled = new PooledDataSource(BenchmarkDriver.class.getName(), URL, null, null);
+        try {
+            benchmark("POOLED", pooled, dataSource -> new JdbcTransaction(dataSource, null, false));
+        } finally {
+            pooled.forceCloseAll();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package net.thumbtack.forums.controller;
+
+import net.thumbtack.forums.service.ExportService;
+import net.thumbtack.forums.service.JsonStreamWriter;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.ServerConfigurationProperties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.servlet.http.Cookie;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = ExportController.class)
+@Import(ServerConfigurationProperties.class)
+class ExportControllerTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private ExportService mockExportService;
+
+    private final String COOKIE_NAME = "JAVASESSIONID";
+    private final String COOKIE_VALUE = UUID.randomUUID().toString();
+    private final JsonStreamWriter writer = generator -> {
+        generator.writeRaw("{\"type\":\"forum\",\"id\":\"7\"}\n");
+        generator.flush();
+    };
+
+    @Test
+    void testExportForum() throws Exception {
+        when(mockExportService.exportForum(anyString(), anyInt()))
+                .thenReturn(writer);
+
+        mvc.perform(
+                get("/api/export/7")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(
+                        HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"forum-7.ndjson\""
+                ))
+                .andExpect(content().string("{\"type\":\"forum\",\"id\":\"7\"}\n"));
+
+        verify(mockExportService).exportForum(anyString(), eq(7));
+    }
+
+    @Test
+    void testExportForum_gzip() throws Exception {
+        when(mockExportService.exportForum(anyString(), anyInt()))
+                .thenReturn(writer);
+
+        final MvcResult result = mvc.perform(
+                get("/api/export/7")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .param("gzip", "true")
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/gzip"))
+                .andExpect(header().string(
+                        HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"forum-7.ndjson.gz\""
+                ))
+                .andReturn();
+
+        try (Scanner scanner = new Scanner(
+                new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray())),
+                StandardCharsets.UTF_8.name()
+        )) {
+            assertEquals("{\"type\":\"forum\",\"id\":\"7\"}", scanner.nextLine());
+        }
+    }
+
+    @Test
+    void testExportForum_forumNotFound_shouldReturnExceptionDto() throws Exception {
+        final ErrorCode errorCode = ErrorCode.FORUM_NOT_FOUND;
+        when(mockExportService.exportForum(anyString(), anyInt()))
+                .thenThrow(new ServerException(errorCode));
+
+        mvc.perform(
+                get("/api/export/7")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+        )
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].errorCode").value(errorCode.name()));
+    }
+}
@@ -5,6 +5,7 @@ import net.thumbtack.forums.model.enums.MessagePriority;
 import net.thumbtack.forums.model.enums.MessageState;
 import net.thumbtack.forums.service.ForumService;
 import net.thumbtack.forums.service.MessageService;
+import net.thumbtack.forums.service.JsonStreamWriter;
 import net.thumbtack.forums.dto.requests.forum.CreateForumDtoRequest;
 import net.thumbtack.forums.dto.requests.message.CreateMessageDtoRequest;
 import net.thumbtack.forums.dto.responses.EmptyDtoResponse;
@@ -15,6 +16,8 @@ import net.thumbtack.forums.dto.responses.message.MessageDtoResponse;
 import net.thumbtack.forums.dto.responses.message.CommentInfoDtoResponse;
 import net.thumbtack.forums.dto.responses.message.MessageInfoDtoResponse;
 import net.thumbtack.forums.dto.responses.message.ListMessageInfoDtoResponse;
+import net.thumbtack.forums.dto.responses.message.ForumChangesDtoResponse;
+import net.thumbtack.forums.dto.responses.message.ForumEventDtoResponse;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ValidatedRequestFieldName;
 import net.thumbtack.forums.exception.ServerException;
@@ -32,9 +35,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 import javax.servlet.http.Cookie;
 
@@ -629,7 +634,7 @@ class ForumControllerTest {
                 .getForumMessageList(
                         anyString(), anyInt(),
                         eq(null), eq(null), eq(null),
-                        eq(null), eq(null), anyInt(), anyInt()
+                        eq(null), eq(null), anyInt(), anyInt(), eq(null), eq(null), eq(null), eq(null)
                 )
         )
                 .thenReturn(expectedResponse);
@@ -656,7 +661,47 @@ class ForumControllerTest {
                 .getForumMessageList(
                         anyString(), anyInt(),
                         eq(null), eq(null), eq(null),
-                        eq(null), eq(null), anyInt(), anyInt()
+                        eq(null), eq(null), anyInt(), anyInt(), eq(null), eq(null), eq(null), eq(null)
+                );
+    }
+
+    @Test
+    void testGetMessageList_cursorInParams() throws Exception {
+        final ListMessageInfoDtoResponse expectedResponse = new ListMessageInfoDtoResponse(
+                Collections.emptyList(), "next-cursor"
+        );
+        when(mockMessageService
+                .getForumMessageList(
+                        anyString(), anyInt(),
+                        eq(null), eq(null), eq(null),
+                        eq(null), eq(null), eq(null), anyInt(), eq("cursor"), eq(null), eq(null), eq(null)
+                )
+        )
+                .thenReturn(expectedResponse);
+
+        final MvcResult mvcResult = mvc.perform(
+                get("/api/forums/{forum_id}/messages", 123)
+                        .param("limit", "10")
+                        .param("cursor", "cursor")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(MediaType.APPLICATION_JSON)
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+                .andReturn();
+
+        final ListMessageInfoDtoResponse actualResponse = mapper.readValue(
+                mvcResult.getResponse().getContentAsString(),
+                ListMessageInfoDtoResponse.class
+        );
+        assertEquals(expectedResponse, actualResponse);
+
+        verify(mockMessageService)
+                .getForumMessageList(
+                        anyString(), anyInt(),
+                        eq(null), eq(null), eq(null),
+                        eq(null), eq(null), eq(null), anyInt(), eq("cursor"), eq(null), eq(null), eq(null)
                 );
     }
 
@@ -714,7 +759,7 @@ class ForumControllerTest {
                         anyString(), anyInt(),
                         eq(null), eq(null), eq(null),
                         eq(Arrays.asList(tag2, tag3)), eq(null),
-                        eq(null), eq(null)
+                        eq(null), eq(null), eq(null), eq(null), eq(null), eq(null)
                 )
         )
                 .thenReturn(expectedResponse);
@@ -742,7 +787,7 @@ class ForumControllerTest {
                         anyString(), anyInt(),
                         eq(null), eq(null), eq(null),
                         eq(Arrays.asList(tag2, tag3)), eq(null),
-                        eq(null), eq(null)
+                        eq(null), eq(null), eq(null), eq(null), eq(null), eq(null)
                 );
     }
 
@@ -797,7 +842,7 @@ class ForumControllerTest {
                 .getForumMessageList(
                         anyString(), anyInt(),
                         eq(null), eq(null), eq(null),
-                        eq(null), eq(null), eq(null), eq(null)
+                        eq(null), eq(null), eq(null), eq(null), eq(null), eq(null), eq(null), eq(null)
                 )
         )
                 .thenReturn(expectedResponse);
@@ -822,7 +867,7 @@ class ForumControllerTest {
                 .getForumMessageList(
                         anyString(), anyInt(),
                         eq(null), eq(null), eq(null),
-                        eq(null), eq(null), eq(null), eq(null)
+                        eq(null), eq(null), eq(null), eq(null), eq(null), eq(null), eq(null), eq(null)
                 );
     }
 
@@ -843,7 +888,7 @@ class ForumControllerTest {
                 .getForumMessageList(
                         anyString(), anyInt(),
                         eq(null), eq(null), eq(null),
-                        eq(null), eq(null), anyInt(), anyInt()
+                        eq(null), eq(null), anyInt(), anyInt(), eq(null), eq(null), eq(null), eq(null)
                 )
         )
                 .thenThrow(new ServerException(errorCode));
@@ -867,7 +912,211 @@ class ForumControllerTest {
                 .getForumMessageList(
                         anyString(), anyInt(),
                         eq(null), eq(null), eq(null),
-                        eq(null), eq(null), anyInt(), anyInt()
+                        eq(null), eq(null), anyInt(), anyInt(), eq(null), eq(null), eq(null), eq(null)
                 );
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStreamMessageList() throws Exception {
+        final MessageInfoDtoResponse message = new MessageInfoDtoResponse(
+                123, "Creator", "Subject", Collections.singletonList("Body"),
+                MessagePriority.NORMAL.name(), Collections.singletonList("Tag"),
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), 4.5, 2,
+                Collections.emptyList()
+        );
+        final JsonStreamWriter writer = generator -> {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("messages");
+            generator.writeObject(message);
+            generator.writeEndArray();
+            generator.writeEndObject();
+        };
+        when(mockMessageService
+                .getForumMessageListStream(
+                        anyString(), anyInt(),
+                        eq(null), eq(null), eq(null),
+                        eq(null), eq(null), eq(null), anyInt(), eq(null), eq(null), eq(null), eq(null)
+                )
+        )
+                .thenReturn(writer);
+
+        final MvcResult asyncResult = mvc.perform(
+                get("/api/forums/{forum_id}/messages", 123)
+                        .param("stream", "true")
+                        .param("limit", "10")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+        )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final MvcResult mvcResult = mvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        final ListMessageInfoDtoResponse actualResponse = mapper.readValue(
+                mvcResult.getResponse().getContentAsString(),
+                ListMessageInfoDtoResponse.class
+        );
+        assertEquals(new ListMessageInfoDtoResponse(Collections.singletonList(message)), actualResponse);
+        verify(mockMessageService, never())
+                .getForumMessageList(
+                        anyString(), anyInt(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                        eq(null), eq(null)
+                );
+    }
+
+    @Test
+    void testGetMessageList_invalidCommentsSliceParams_shouldReturnExceptionDto() throws Exception {
+        mvc.perform(
+                get("/api/forums/{forum_id}/messages", 123)
+                        .param("commentslimit", "0")
+                        .param("maxdepth", "-1")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(MediaType.APPLICATION_JSON)
+        )
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errors", hasSize(2)))
+                .andExpect(jsonPath("$.errors[0].errorCode").value(ErrorCode.INVALID_REQUEST_DATA.name()));
+
+        verifyZeroInteractions(mockMessageService);
+    }
+
+    @Test
+    void testStreamMessageList_invalidCommentsSliceParams_shouldReturnExceptionDto() throws Exception {
+        mvc.perform(
+                get("/api/forums/{forum_id}/messages", 123)
+                        .param("stream", "true")
+                        .param("commentslimit", "-2")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+        )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].errorCode").value(ErrorCode.INVALID_REQUEST_DATA.name()));
+
+        verifyZeroInteractions(mockMessageService);
+    }
+
+    @Test
+    void testStreamMessageList_serviceException_shouldReturnExceptionDto() throws Exception {
+        when(mockMessageService
+                .getForumMessageListStream(
+                        anyString(), anyInt(),
+                        any(), any(), any(), any(), any(), any(), any(), any(), any(), eq(null), eq(null)
+                )
+        )
+                .thenThrow(new ServerException(ErrorCode.FORUM_NOT_FOUND));
+
+        mvc.perform(
+                get("/api/forums/{forum_id}/messages", 123)
+                        .param("stream", "true")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+        )
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].errorCode").value(ErrorCode.FORUM_NOT_FOUND.name()));
+    }
+
+    @Test
+    void testGetForumChanges() throws Exception {
+        final ForumChangesDtoResponse expectedResponse = new ForumChangesDtoResponse(
+                7,
+                Collections.singletonList(
+                        new MessageInfoDtoResponse(
+                                123,
+                                "Creator#1",
+                                "Subject#1",
+                                Collections.singletonList("Body#1"),
+                                MessagePriority.NORMAL.name(),
+                                Collections.emptyList(),
+                                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+                                0, 0,
+                                Collections.emptyList()
+                        )
+                ),
+                Collections.singletonList(149)
+        );
+        when(mockMessageService
+                .getForumChanges(
+                        anyString(), eq(123), eq(5L), eq(null), eq(null), eq(null), eq(null), eq(null)
+                )
+        )
+                .thenReturn(expectedResponse);
+
+        final MvcResult mvcResult = mvc.perform(
+                get("/api/forums/{forum_id}/changes", 123)
+                        .param("since", "5")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(MediaType.APPLICATION_JSON)
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        final ForumChangesDtoResponse actualResponse = mapper.readValue(
+                mvcResult.getResponse().getContentAsString(),
+                ForumChangesDtoResponse.class
+        );
+        assertEquals(expectedResponse, actualResponse);
+    }
+
+    @Test
+    void testGetForumChanges_serviceException_shouldReturnExceptionDto() throws Exception {
+        when(mockMessageService
+                .getForumChanges(anyString(), anyInt(), anyLong(), any(), any(), any(), any(), any())
+        )
+                .thenThrow(new ServerException(ErrorCode.INVALID_REQUEST_DATA));
+
+        mvc.perform(
+                get("/api/forums/{forum_id}/changes", 123)
+                        .param("since", "-1")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(MediaType.APPLICATION_JSON)
+        )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].errorCode").value(ErrorCode.INVALID_REQUEST_DATA.name()));
+    }
+
+    @Test
+    void testGetEvents() throws Exception {
+        final ServerSentEvent<ForumEventDtoResponse> event = ServerSentEvent
+                .builder(new ForumEventDtoResponse(5, "CREATED", 149, 123))
+                .id("5")
+                .event("CREATED")
+                .build();
+        when(mockMessageService.subscribeForumEvents(anyString(), eq(123)))
+                .thenReturn(Flux.just(event));
+
+        final MvcResult asyncResult = mvc.perform(
+                get("/api/forums/{forum_id}/events", 123)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+        )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final MvcResult mvcResult = mvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        final String body = mvcResult.getResponse().getContentAsString();
+        assertEquals(
+                "id:5\nevent:CREATED\ndata:" + mapper.writeValueAsString(event.data()) + "\n\n",
+                body
+        );
+    }
+
+    @Test
+    void testGetEvents_serviceException_shouldReturnExceptionDto() throws Exception {
+        when(mockMessageService.subscribeForumEvents(anyString(), anyInt()))
+                .thenThrow(new ServerException(ErrorCode.FORUM_NOT_FOUND));
+
+        mvc.perform(
+                get("/api/forums/{forum_id}/events", 123)
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+        )
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].errorCode").value(ErrorCode.FORUM_NOT_FOUND.name()));
+    }
+}
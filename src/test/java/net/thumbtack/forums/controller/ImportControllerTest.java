@@ -0,0 +1,98 @@
+package net.thumbtack.forums.controller;
+
+import net.thumbtack.forums.service.ImportService;
+import net.thumbtack.forums.service.JsonStreamWriter;
+import net.thumbtack.forums.dto.requests.imports.ImportRecordDtoRequest;
+import net.thumbtack.forums.dto.responses.imports.ImportProgressDtoResponse;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.ServerConfigurationProperties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.servlet.http.Cookie;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = ImportController.class)
+@Import(ServerConfigurationProperties.class)
+class ImportControllerTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private ImportService mockImportService;
+
+    private final String NDJSON_VALUE = "application/x-ndjson";
+    private final String COOKIE_NAME = "JAVASESSIONID";
+    private final String COOKIE_VALUE = UUID.randomUUID().toString();
+
+    @Test
+    void testImportForums() throws Exception {
+        final List<String> types = new ArrayList<>();
+        final JsonStreamWriter writer = generator -> {
+            generator.writeObject(new ImportProgressDtoResponse(2, 1, 0, 0, 0, 0, 10, 100, true, null));
+            generator.writeRaw('\n');
+        };
+        when(mockImportService.importForums(anyString(), any()))
+                .thenAnswer(invocationOnMock -> {
+                    final Iterator<ImportRecordDtoRequest> records = invocationOnMock.getArgument(1);
+                    records.forEachRemaining(record -> types.add(record.getType()));
+                    return writer;
+                });
+
+        mvc.perform(
+                post("/api/import")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(NDJSON_VALUE)
+                        .content("{\"type\":\"forum\",\"id\":\"1\",\"user\":\"admin\",\"name\":\"Forum\"}\n"
+                                + "{\"type\":\"tree\",\"id\":\"7\",\"forum\":\"1\",\"subject\":\"Subject\"}\n")
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NDJSON_VALUE))
+                .andExpect(jsonPath("$.lines").value(2))
+                .andExpect(jsonPath("$.forums").value(1))
+                .andExpect(jsonPath("$.finished").value(true));
+
+        assertEquals(Arrays.asList("forum", "tree"), types);
+        verify(mockImportService).importForums(anyString(), any());
+    }
+
+    @Test
+    void testImportForums_exceptionInService_shouldReturnExceptionDto() throws Exception {
+        final ErrorCode errorCode = ErrorCode.FORBIDDEN_OPERATION;
+        when(mockImportService.importForums(anyString(), any()))
+                .thenThrow(new ServerException(errorCode));
+
+        mvc.perform(
+                post("/api/import")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(NDJSON_VALUE)
+                        .content("{\"type\":\"forum\"}\n")
+        )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].errorCode").value(errorCode.name()));
+
+        verify(mockImportService).importForums(anyString(), any());
+    }
+}
@@ -9,6 +9,7 @@ import net.thumbtack.forums.dto.responses.message.MadeBranchFromCommentDtoRespon
 import net.thumbtack.forums.dto.responses.EmptyDtoResponse;
 import net.thumbtack.forums.dto.responses.message.MessageDtoResponse;
 import net.thumbtack.forums.dto.responses.message.EditMessageOrCommentDtoResponse;
+import net.thumbtack.forums.dto.responses.message.CommentInfoDtoResponse;
 import net.thumbtack.forums.dto.responses.message.MessageInfoDtoResponse;
 import net.thumbtack.forums.configuration.ServerConfigurationProperties;
 import net.thumbtack.forums.exception.ErrorCode;
@@ -771,7 +772,8 @@ class MessageControllerTest {
         );
 
         when(mockMessageService
-                .getMessage(anyString(), anyInt(), anyBoolean(), anyBoolean(), anyBoolean(), anyString())
+                .getMessage(anyString(), anyInt(), anyBoolean(), anyBoolean(), anyBoolean(), anyString(), eq(null),
+                        eq(null), eq(null))
         )
                 .thenReturn(response);
 
@@ -796,7 +798,8 @@ class MessageControllerTest {
         assertEquals(response, actualResponse);
 
         verify(mockMessageService)
-                .getMessage(anyString(), anyInt(), anyBoolean(), anyBoolean(), anyBoolean(), anyString());
+                .getMessage(anyString(), anyInt(), anyBoolean(), anyBoolean(), anyBoolean(), anyString(), eq(null),
+                        eq(null), eq(null));
     }
 
     @Test
@@ -815,7 +818,8 @@ class MessageControllerTest {
         );
 
         when(mockMessageService
-                .getMessage(anyString(), anyInt(), anyBoolean(), eq(null), anyBoolean(), eq(null))
+                .getMessage(anyString(), anyInt(), anyBoolean(), eq(null), anyBoolean(), eq(null), eq(null),
+                        eq(null), eq(null))
         )
                 .thenReturn(response);
 
@@ -838,7 +842,8 @@ class MessageControllerTest {
         assertEquals(response, actualResponse);
 
         verify(mockMessageService)
-                .getMessage(anyString(), anyInt(), anyBoolean(), eq(null), anyBoolean(), eq(null));
+                .getMessage(anyString(), anyInt(), anyBoolean(), eq(null), anyBoolean(), eq(null), eq(null),
+                        eq(null), eq(null));
     }
 
     @Test
@@ -857,7 +862,7 @@ class MessageControllerTest {
         );
 
         when(mockMessageService
-                .getMessage(anyString(), anyInt(), eq(null), eq(null), eq(null), eq(null))
+                .getMessage(anyString(), anyInt(), eq(null), eq(null), eq(null), eq(null), eq(null), eq(null), eq(null))
         )
                 .thenReturn(response);
 
@@ -878,7 +883,8 @@ class MessageControllerTest {
         assertEquals(response, actualResponse);
 
         verify(mockMessageService)
-                .getMessage(anyString(), anyInt(), eq(null), eq(null), eq(null), eq(null));
+                .getMessage(anyString(), anyInt(), eq(null), eq(null), eq(null), eq(null), eq(null), eq(null),
+                        eq(null));
     }
 
     @Test
@@ -904,6 +910,63 @@ class MessageControllerTest {
         verifyZeroInteractions(mockMessageService);
     }
 
+    @Test
+    void testGetMessage_commentsSliceParams_shouldPassThemToServiceAndReturnMoreCursor() throws Exception {
+        final CommentInfoDtoResponse comment = new CommentInfoDtoResponse(
+                2, "Commenter", Collections.singletonList("Comment"),
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), 0, 0,
+                Collections.emptyList(), "Y29tbWVudA"
+        );
+        final MessageInfoDtoResponse response = new MessageInfoDtoResponse(
+                1, "Creator", "Subject", Collections.singletonList("Hello"),
+                MessagePriority.HIGH.name(), Collections.emptyList(),
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), 4, 2,
+                Collections.singletonList(comment), "bWVzc2FnZQ"
+        );
+
+        when(mockMessageService
+                .getMessage(anyString(), anyInt(), eq(null), eq(null), eq(null), eq(null),
+                        eq(1), eq(1), eq("cursor"))
+        )
+                .thenReturn(response);
+
+        mvc.perform(
+                get("/api/messages/{id}", 123)
+                        .param("commentslimit", "1")
+                        .param("maxdepth", "1")
+                        .param("commentscursor", "cursor")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.more").value("bWVzc2FnZQ"))
+                .andExpect(jsonPath("$.comments[0].more").value("Y29tbWVudA"))
+                .andExpect(jsonPath("$.comments[0].comments", hasSize(0)));
+
+        verify(mockMessageService)
+                .getMessage(anyString(), anyInt(), eq(null), eq(null), eq(null), eq(null),
+                        eq(1), eq(1), eq("cursor"));
+    }
+
+    @Test
+    void testGetMessage_invalidCommentsSliceParams_shouldReturnExceptionDto() throws Exception {
+        mvc.perform(
+                get("/api/messages/{id}", 123)
+                        .param("commentslimit", "0")
+                        .param("maxdepth", "-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+        )
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errors", hasSize(2)))
+                .andExpect(jsonPath("$.errors[0].errorCode")
+                        .value(ErrorCode.INVALID_REQUEST_DATA.name())
+                );
+
+        verifyZeroInteractions(mockMessageService);
+    }
+
     static Stream<Arguments> getMessageServiceExceptions() {
         return Stream.of(
                 Arguments.arguments(ErrorCode.DATABASE_ERROR, HttpStatus.BAD_REQUEST),
@@ -919,7 +982,8 @@ class MessageControllerTest {
             ErrorCode errorCode, HttpStatus httpStatus
     ) throws Exception {
         when(mockMessageService
-                .getMessage(anyString(), anyInt(), anyBoolean(), anyBoolean(), anyBoolean(), anyString())
+                .getMessage(anyString(), anyInt(), anyBoolean(), anyBoolean(), anyBoolean(), anyString(), eq(null),
+                        eq(null), eq(null))
         )
                 .thenThrow(new ServerException(errorCode));
 
@@ -941,6 +1005,7 @@ class MessageControllerTest {
                 .andExpect(jsonPath("$.errors[0].message").value(errorCode.getMessage()));
 
         verify(mockMessageService)
-                .getMessage(anyString(), anyInt(), anyBoolean(), anyBoolean(), anyBoolean(), anyString());
+                .getMessage(anyString(), anyInt(), anyBoolean(), anyBoolean(), anyBoolean(), anyString(), eq(null),
+                        eq(null), eq(null));
     }
 }
@@ -0,0 +1,157 @@
+package net.thumbtack.forums.controller;
+
+import net.thumbtack.forums.dto.responses.search.SearchResultDtoResponse;
+import net.thumbtack.forums.dto.responses.search.SearchResultListDtoResponse;
+import net.thumbtack.forums.service.SearchService;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.stream.Stream;
+import javax.servlet.http.Cookie;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = SearchController.class)
+class SearchControllerTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private SearchService mockSearchService;
+
+    private final String COOKIE_NAME = "JAVASESSIONID";
+    private final String COOKIE_VALUE = UUID.randomUUID().toString();
+
+    static Stream<Arguments> searchServiceExceptions() {
+        return Stream.of(
+                Arguments.arguments(ErrorCode.NO_USER_SESSION, HttpStatus.BAD_REQUEST),
+                Arguments.arguments(ErrorCode.INVALID_REQUEST_DATA, HttpStatus.BAD_REQUEST),
+                Arguments.arguments(ErrorCode.FORUM_NOT_FOUND, HttpStatus.NOT_FOUND),
+                Arguments.arguments(ErrorCode.SEARCH_NOT_READY, HttpStatus.SERVICE_UNAVAILABLE)
+        );
+    }
+
+    @Test
+    void testSearch() throws Exception {
+        final SearchResultListDtoResponse response = new SearchResultListDtoResponse(12, Arrays.asList(
+                new SearchResultDtoResponse(101, 100, 7, "Connection pool", 2.3457),
+                new SearchResultDtoResponse(100, 100, 7, "Connection pool", 1.5)
+        ));
+        when(mockSearchService.search(
+                anyString(), eq("pool size"), eq(7), eq(Arrays.asList("java", "sql")), eq("ALL"), eq(10), eq(2)
+        ))
+                .thenReturn(response);
+
+        mvc.perform(
+                get("/api/search")
+                        .param("query", "pool size")
+                        .param("forum-id", "7")
+                        .param("tags", "java", "sql")
+                        .param("tagmode", "ALL")
+                        .param("offset", "10")
+                        .param("limit", "2")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(MediaType.APPLICATION_JSON)
+        )
+                .andExpect(status().isOk())
+                .andExpect(cookie().doesNotExist(COOKIE_NAME))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.total").value(12))
+                .andExpect(jsonPath("$.results", hasSize(2)))
+                .andExpect(jsonPath("$.results[0].messageId").value(101))
+                .andExpect(jsonPath("$.results[0].rootMessageId").value(100))
+                .andExpect(jsonPath("$.results[0].forumId").value(7))
+                .andExpect(jsonPath("$.results[0].subject").value("Connection pool"))
+                .andExpect(jsonPath("$.results[0].score").value(2.3457))
+                .andExpect(jsonPath("$.results[1].messageId").value(100));
+
+        verify(mockSearchService).search(
+                anyString(), eq("pool size"), eq(7), eq(Arrays.asList("java", "sql")), eq("ALL"), eq(10), eq(2)
+        );
+    }
+
+    @Test
+    void testSearch_noOptionalParams() throws Exception {
+        when(mockSearchService.search(anyString(), eq("pool"), eq(null), eq(null), eq(null), eq(null), eq(null)))
+                .thenReturn(new SearchResultListDtoResponse(0, Collections.emptyList()));
+
+        mvc.perform(
+                get("/api/search")
+                        .param("query", "pool")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(MediaType.APPLICATION_JSON)
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0))
+                .andExpect(jsonPath("$.results", hasSize(0)));
+
+        verify(mockSearchService)
+                .search(anyString(), eq("pool"), eq(null), eq(null), eq(null), eq(null), eq(null));
+    }
+
+    @Test
+    void testSearch_invalidTagMode_shouldReturnBadRequest() throws Exception {
+        mvc.perform(
+                get("/api/search")
+                        .param("query", "pool")
+                        .param("tagmode", "SOME")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(MediaType.APPLICATION_JSON)
+        )
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errors", hasSize(1)));
+
+        verify(mockSearchService, never())
+                .search(anyString(), anyString(), any(), any(), any(), any(), any());
+    }
+
+    @ParameterizedTest
+    @MethodSource("searchServiceExceptions")
+    void testSearch_exceptionInService_shouldReturnExceptionDto(
+            ErrorCode errorCode, HttpStatus httpStatus
+    ) throws Exception {
+        when(mockSearchService.search(anyString(), anyString(), any(), any(), any(), any(), any()))
+                .thenThrow(new ServerException(errorCode));
+
+        mvc.perform(
+                get("/api/search")
+                        .param("query", "pool")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(MediaType.APPLICATION_JSON)
+        )
+                .andExpect(status().is(httpStatus.value()))
+                .andExpect(cookie().doesNotExist(COOKIE_NAME))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].errorCode").value(errorCode.name()))
+                .andExpect(jsonPath("$.errors[0].field").value(errorCode.getErrorCauseField()))
+                .andExpect(jsonPath("$.errors[0].message").value(errorCode.getMessage()));
+
+        verify(mockSearchService)
+                .search(anyString(), anyString(), any(), any(), any(), any(), any());
+    }
+}
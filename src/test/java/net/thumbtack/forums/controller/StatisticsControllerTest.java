@@ -428,4 +428,55 @@ class StatisticsControllerTest {
         verify(mockStatisticService)
                 .getUsersRatings(anyString(), eq(null), anyInt(), anyInt());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetActivity() throws Exception {
+        final int forumId = 123;
+        final List<ActivityDtoResponse> activity = new ArrayList<>();
+        activity.add(new ActivityDtoResponse("2020-03-01 10:00:00", 1, 2, 3, 0));
+        final ActivityListDtoResponse response = new ActivityListDtoResponse("HOUR", activity);
+        when(mockStatisticService.getActivity(
+                anyString(), eq(forumId), eq("2020-03-01 00:00:00"), eq("2020-03-02 00:00:00"), eq("hour")
+        ))
+                .thenReturn(response);
+
+        mvc.perform(
+                get("/api/statistics/activity")
+                        .param("forum-id", String.valueOf(forumId))
+                        .param("from", "2020-03-01 00:00:00")
+                        .param("to", "2020-03-02 00:00:00")
+                        .param("granularity", "hour")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(MediaType.APPLICATION_JSON)
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.granularity").value("HOUR"))
+                .andExpect(jsonPath("$.activity", hasSize(1)))
+                .andExpect(jsonPath("$.activity[0].periodStart").value("2020-03-01 10:00:00"))
+                .andExpect(jsonPath("$.activity[0].messages").value(1))
+                .andExpect(jsonPath("$.activity[0].comments").value(2))
+                .andExpect(jsonPath("$.activity[0].ratings").value(3))
+                .andExpect(jsonPath("$.activity[0].newUsers").value(0));
+    }
+
+    @ParameterizedTest
+    @MethodSource("statisticsServiceExceptions")
+    void testGetActivity_exceptionInService_shouldReturnExceptionDto(
+            ErrorCode errorCode, HttpStatus httpStatus
+    ) throws Exception {
+        when(mockStatisticService.getActivity(anyString(), eq(null), anyString(), anyString(), eq(null)))
+                .thenThrow(new ServerException(errorCode));
+
+        mvc.perform(
+                get("/api/statistics/activity")
+                        .param("from", "2020-03-01 00:00:00")
+                        .param("to", "2020-03-02 00:00:00")
+                        .cookie(new Cookie(COOKIE_NAME, COOKIE_VALUE))
+                        .contentType(MediaType.APPLICATION_JSON)
+        )
+                .andExpect(status().is(httpStatus.value()))
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].errorCode").value(errorCode.name()));
+    }
+}
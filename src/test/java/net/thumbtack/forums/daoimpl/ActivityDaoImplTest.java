@@ -0,0 +1,88 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.model.*;
+import net.thumbtack.forums.model.enums.ActivityGranularity;
+import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.model.enums.MessagePriority;
+import net.thumbtack.forums.view.ActivityBucketView;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityDaoImplTest extends DaoTestEnvironment {
+    @Test
+    void testActivity_shouldCountWritesAndSurviveRollup() throws ServerException {
+        final User owner = new User("Owner", "owner@mail.com", "ownerpass");
+        final User commenter = new User("Commenter", "commenter@mail.com", "commenterpass");
+        userDao.save(owner);
+        userDao.save(commenter);
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, owner, "FORUM",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        forumDao.save(forum);
+
+        final HistoryItem rootHistory = new HistoryItem(
+                "ROOT", MessageState.PUBLISHED,
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageTree tree = new MessageTree(
+                forum, "SUBJECT", null,
+                MessagePriority.NORMAL, rootHistory.getCreatedAt()
+        );
+        final MessageItem root = new MessageItem(
+                owner, tree, null,
+                Collections.singletonList(rootHistory), rootHistory.getCreatedAt()
+        );
+        tree.setRootMessage(root);
+        messageTreeDao.saveMessageTree(tree);
+
+        final HistoryItem commentHistory = new HistoryItem(
+                "COMMENT", MessageState.PUBLISHED,
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem comment = new MessageItem(
+                commenter, tree, root,
+                Collections.singletonList(commentHistory), commentHistory.getCreatedAt()
+        );
+        messageDao.saveMessageItem(comment);
+        ratingDao.rate(root, commenter, 5);
+        ratingDao.changeRating(root, commenter, 4);
+
+        final LocalDateTime today = LocalDate.now().atStartOfDay();
+        final LocalDateTime tomorrow = today.plusDays(1);
+        assertEquals(
+                Collections.singletonList(new ActivityBucketView(today, 1, 1, 2, 0)),
+                activityDao.getActivity(forum.getId(), ActivityGranularity.DAY, today, tomorrow)
+        );
+        assertEquals(
+                Collections.singletonList(new ActivityBucketView(today, 1, 1, 2, 2)),
+                activityDao.getActivity(null, ActivityGranularity.DAY, today, tomorrow)
+        );
+        final List<ActivityBucketView> hourly = activityDao.getActivity(
+                forum.getId(), ActivityGranularity.HOUR, today, tomorrow
+        );
+        assertFalse(hourly.isEmpty());
+        assertEquals(0, hourly.get(0).getPeriodStart().getMinute());
+
+        assertTrue(activityDao.rollup(ActivityGranularity.HOUR, ActivityGranularity.DAY, tomorrow) >= 2);
+        assertEquals(0, activityDao.rollup(ActivityGranularity.HOUR, ActivityGranularity.DAY, tomorrow));
+        assertEquals(
+                Collections.singletonList(new ActivityBucketView(today, 1, 1, 2, 2)),
+                activityDao.getActivity(null, ActivityGranularity.DAY, today, tomorrow)
+        );
+        assertEquals(
+                Collections.singletonList(new ActivityBucketView(today.withDayOfMonth(1), 1, 1, 2, 2)),
+                activityDao.getActivity(null, ActivityGranularity.MONTH, today.withDayOfMonth(1), tomorrow)
+        );
+    }
+}
@@ -1,6 +1,13 @@
 package net.thumbtack.forums.daoimpl;
 
 import net.thumbtack.forums.dao.*;
+import net.thumbtack.forums.cache.SessionCache;
+import net.thumbtack.forums.cache.TagDictionary;
+import net.thumbtack.forums.cache.TagIndex;
+import net.thumbtack.forums.cache.RatingLeaderboard;
+import net.thumbtack.forums.cache.BanExpiryQueue;
+import net.thumbtack.forums.cache.RatingWriteBuffer;
+import net.thumbtack.forums.cache.SearchIndex;
 import net.thumbtack.forums.exception.ServerException;
 import net.thumbtack.forums.utils.MyBatisConnectionUtils;
 
@@ -8,18 +15,51 @@ import org.apache.ibatis.session.SqlSessionFactory;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 
+import java.time.Clock;
+import java.time.Duration;
+
 public class DaoTestEnvironment {
     private static SqlSessionFactory sqlSessionFactory;
 
-    protected final UserDao userDao = new UserDaoImpl(sqlSessionFactory);
-    protected final SessionDao sessionDao = new SessionDaoImpl(sqlSessionFactory);
-    protected final ForumDao forumDao = new ForumDaoImpl(sqlSessionFactory);
-    protected final MessageTreeDao messageTreeDao = new MessageTreeDaoImpl(sqlSessionFactory);
-    protected final MessageDao messageDao = new MessageDaoImpl(sqlSessionFactory);
+    protected final SessionCache sessionCache = new SessionCache(
+            100, Duration.ofMinutes(5), Clock.systemDefaultZone()
+    );
+    protected final TagDictionary tagDictionary = new TagDictionary();
+    protected final TagIndex tagIndex = new TagIndex();
+    protected final RatingLeaderboard ratingLeaderboard = new RatingLeaderboard();
+    protected final BanExpiryQueue banExpiryQueue = new BanExpiryQueue();
+    protected final RatingWriteBuffer ratingWriteBuffer = new RatingWriteBuffer(
+            false, 100, 10, 1000, Clock.systemDefaultZone()
+    );
+
+    protected final UserDao userDao = new UserDaoImpl(
+            sqlSessionFactory, sessionCache, ratingLeaderboard, banExpiryQueue
+    );
+    protected final SessionDao sessionDao = new SessionDaoImpl(sqlSessionFactory, sessionCache);
+    protected final ForumDao forumDao = new ForumDaoImpl(sqlSessionFactory, tagIndex, ratingLeaderboard);
+    protected final MessageTreeDao messageTreeDao = new MessageTreeDaoImpl(
+            sqlSessionFactory, tagDictionary, tagIndex, ratingLeaderboard
+    );
+    protected final MessageDao messageDao = new MessageDaoImpl(sqlSessionFactory, ratingLeaderboard);
     protected final MessageHistoryDao messageHistoryDao = new MessageHistoryDaoImpl(sqlSessionFactory);
-    protected final RatingDao ratingDao = new RatingDaoImpl(sqlSessionFactory);
-    protected final DebugDao debugDao = new DebugDaoImpl(sqlSessionFactory);
-    protected final StatisticDao statisticDao = new StatisticDaoImpl(sqlSessionFactory);
+    protected final RatingDao ratingDao = new RatingDaoImpl(
+            sqlSessionFactory, ratingLeaderboard, ratingWriteBuffer
+    );
+    protected final DebugDao debugDao = new DebugDaoImpl(
+            sqlSessionFactory, sessionCache, tagDictionary, tagIndex, ratingLeaderboard, banExpiryQueue,
+            ratingWriteBuffer
+    );
+    protected final StatisticDao statisticDao = new StatisticDaoImpl(sqlSessionFactory, ratingLeaderboard);
+    protected final ForumChangeDao forumChangeDao = new ForumChangeDaoImpl(sqlSessionFactory);
+    protected final ForumStatsDao forumStatsDao = new ForumStatsDaoImpl(sqlSessionFactory);
+    protected final ActivityDao activityDao = new ActivityDaoImpl(sqlSessionFactory);
+    protected final ImportDao importDao = new ImportDaoImpl(
+            sqlSessionFactory, tagDictionary, tagIndex, ratingLeaderboard
+    );
+    protected final ExportDao exportDao = new ExportDaoImpl(sqlSessionFactory);
+    protected final PurgeDao purgeDao = new PurgeDaoImpl(sqlSessionFactory);
+    protected final SearchIndex searchIndex = new SearchIndex(3, 1.2, 0.75);
+    protected final SearchDao searchDao = new SearchDaoImpl(sqlSessionFactory, searchIndex);
 
     @BeforeAll
     static void setupDatabase() {
@@ -0,0 +1,84 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.model.*;
+import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.model.enums.MessagePriority;
+import net.thumbtack.forums.view.ExportRowView;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportDaoImplTest extends DaoTestEnvironment {
+    @Test
+    void testExportForum() throws ServerException {
+        final User owner = new User("Owner", "owner@mail.com", "ownerpass");
+        final User reader = new User("Reader", "reader@mail.com", "readerpass");
+        userDao.save(owner);
+        userDao.save(reader);
+        final LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final Forum forum = new Forum(ForumType.UNMODERATED, owner, "FORUM", createdAt);
+        final Forum otherForum = new Forum(ForumType.UNMODERATED, owner, "OTHER", createdAt);
+        forumDao.save(forum);
+        forumDao.save(otherForum);
+
+        final MessageTree tree = new MessageTree(
+                forum, "SUBJECT", null, MessagePriority.HIGH, createdAt,
+                Arrays.asList(new Tag("Tag1"), new Tag("Tag2"))
+        );
+        final MessageItem root = new MessageItem(
+                owner, tree, null,
+                Collections.singletonList(new HistoryItem("ROOT", MessageState.PUBLISHED, createdAt)), createdAt
+        );
+        tree.setRootMessage(root);
+        messageTreeDao.saveMessageTree(tree);
+        final MessageItem comment = new MessageItem(
+                reader, tree, root,
+                Collections.singletonList(new HistoryItem("COMMENT", MessageState.UNPUBLISHED, createdAt)),
+                createdAt
+        );
+        messageDao.saveMessageItem(comment);
+        ratingDao.upsertRating(root, reader, 4);
+
+        final MessageTree otherTree = new MessageTree(
+                otherForum, "OTHER", null, MessagePriority.LOW, createdAt
+        );
+        otherTree.setRootMessage(new MessageItem(
+                owner, otherTree, null,
+                Collections.singletonList(new HistoryItem("OTHER", MessageState.PUBLISHED, createdAt)), createdAt
+        ));
+        messageTreeDao.saveMessageTree(otherTree);
+
+        final List<ExportRowView> rows = new ArrayList<>();
+        exportDao.exportForum(forum.getId(), rows::add);
+
+        final int treeId = tree.getId();
+        assertEquals(Arrays.asList(
+                new ExportRowView(treeId, ExportRowView.TREE, 0, null, null,
+                        "SUBJECT", "HIGH", null, null, null, null, createdAt),
+                new ExportRowView(treeId, ExportRowView.TAG, 0, null, null,
+                        null, null, "tag1", null, null, null, null),
+                new ExportRowView(treeId, ExportRowView.TAG, 0, null, null,
+                        null, null, "tag2", null, null, null, null),
+                new ExportRowView(treeId, ExportRowView.MESSAGE, root.getId(), null, "Owner",
+                        null, null, null, null, null, null, createdAt),
+                new ExportRowView(treeId, ExportRowView.MESSAGE, comment.getId(), root.getId(), "Reader",
+                        null, null, null, null, null, null, createdAt),
+                new ExportRowView(treeId, ExportRowView.HISTORY, root.getId(), null, null,
+                        null, null, null, "ROOT", "PUBLISHED", null, createdAt),
+                new ExportRowView(treeId, ExportRowView.HISTORY, comment.getId(), null, null,
+                        null, null, null, "COMMENT", "UNPUBLISHED", null, createdAt),
+                new ExportRowView(treeId, ExportRowView.RATING, root.getId(), null, "Reader",
+                        null, null, null, null, null, 4, null)
+        ), rows);
+    }
+}
@@ -0,0 +1,108 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.model.User;
+import net.thumbtack.forums.model.Forum;
+import net.thumbtack.forums.model.ForumChange;
+import net.thumbtack.forums.model.HistoryItem;
+import net.thumbtack.forums.model.MessageItem;
+import net.thumbtack.forums.model.MessageTree;
+import net.thumbtack.forums.model.enums.MessagePriority;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.model.enums.UserRole;
+import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.ForumChangeType;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForumChangeDaoImplTest extends DaoTestEnvironment {
+    private Forum createForum(final String name) throws ServerException {
+        final User creator = new User(
+                UserRole.USER,
+                name + "Owner", name + "Owner@gmail.com", "passwd",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+                false
+        );
+        userDao.save(creator);
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, creator, name,
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        forumDao.save(forum);
+        return forum;
+    }
+
+    @Test
+    void testSaveChange_shouldNumberChangesPerForum() throws ServerException {
+        final Forum firstForum = createForum("FirstForum");
+        final Forum secondForum = createForum("SecondForum");
+        assertEquals(0, forumChangeDao.getLastSequence(firstForum.getId()));
+
+        forumChangeDao.saveChange(new ForumChange(firstForum.getId(), 11, null, ForumChangeType.CREATED));
+        forumChangeDao.saveChange(new ForumChange(secondForum.getId(), 21, null, ForumChangeType.CREATED));
+        final ForumChange comment = forumChangeDao.saveChange(
+                new ForumChange(firstForum.getId(), 12, 11, ForumChangeType.CREATED)
+        );
+        forumChangeDao.saveChange(new ForumChange(firstForum.getId(), 11, null, ForumChangeType.RATED));
+
+        assertEquals(2, comment.getSequence());
+        assertEquals(3, forumChangeDao.getLastSequence(firstForum.getId()));
+        assertEquals(1, forumChangeDao.getLastSequence(secondForum.getId()));
+
+        final List<ForumChange> changes = forumChangeDao.getChangesSince(firstForum.getId(), 1, 10);
+        assertEquals(2, changes.size());
+        assertEquals(2, changes.get(0).getSequence());
+        assertEquals(12, changes.get(0).getMessageId());
+        assertEquals(Integer.valueOf(11), changes.get(0).getParentMessageId());
+        assertEquals(ForumChangeType.CREATED, changes.get(0).getType());
+        assertEquals(3, changes.get(1).getSequence());
+        assertEquals(ForumChangeType.RATED, changes.get(1).getType());
+
+        assertEquals(1, forumChangeDao.getChangesSince(firstForum.getId(), 0, 1).size());
+        assertTrue(forumChangeDao.getChangesSince(firstForum.getId(), 3, 10).isEmpty());
+    }
+
+    @Test
+    void testSaveMessageChanges_shouldSaveOneChangePerMessage() throws ServerException {
+        final Forum forum = createForum("Forum");
+        final LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final MessageItem root = new MessageItem(
+                forum.getOwner(),
+                Collections.singletonList(new HistoryItem("Root", MessageState.PUBLISHED, createdAt)), createdAt
+        );
+        final MessageTree tree = new MessageTree(forum, "Subject", root, MessagePriority.NORMAL, createdAt);
+        root.setMessageTree(tree);
+        messageTreeDao.saveMessageTree(tree);
+        final MessageItem comment = new MessageItem(
+                forum.getOwner(), tree, root,
+                Collections.singletonList(new HistoryItem("Comment", MessageState.PUBLISHED, createdAt)), createdAt
+        );
+        messageDao.saveMessageItem(comment);
+
+        final List<ForumChange> saved = forumChangeDao.saveMessageChanges(
+                Arrays.asList(comment.getId(), root.getId(), comment.getId() + 1000), ForumChangeType.RATED
+        );
+        assertEquals(2, saved.size());
+        assertEquals(2, forumChangeDao.getLastSequence(forum.getId()));
+
+        final List<ForumChange> changes = forumChangeDao.getChangesSince(forum.getId(), 0, 10);
+        assertEquals(2, changes.size());
+        assertEquals(saved.get(0).getSequence(), changes.get(0).getSequence());
+        assertEquals(saved.get(1).getSequence(), changes.get(1).getSequence());
+        assertEquals(root.getId(), changes.get(0).getMessageId());
+        assertNull(changes.get(0).getParentMessageId());
+        assertEquals(comment.getId(), changes.get(1).getMessageId());
+        assertEquals(Integer.valueOf(root.getId()), changes.get(1).getParentMessageId());
+        assertEquals(ForumChangeType.RATED, changes.get(1).getType());
+
+        assertTrue(forumChangeDao.saveMessageChanges(Collections.emptyList(), ForumChangeType.RATED).isEmpty());
+    }
+}
@@ -0,0 +1,68 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.model.*;
+import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.model.enums.MessagePriority;
+import net.thumbtack.forums.view.ForumStatsView;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForumStatsDaoImplTest extends DaoTestEnvironment {
+    @Test
+    void testStats_shouldFollowMessageWrites() throws ServerException {
+        final User owner = new User("Owner", "owner@mail.com", "ownerpass");
+        final User commenter = new User("Commenter", "commenter@mail.com", "commenterpass");
+        userDao.save(owner);
+        userDao.save(commenter);
+        final Forum forum = new Forum(
+                ForumType.MODERATED, owner, "FORUM",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        forumDao.save(forum);
+        assertEquals(new ForumStatsView(0, 0, 0), forumStatsDao.getStats(forum.getId()));
+
+        final HistoryItem rootHistory = new HistoryItem(
+                "ROOT", MessageState.PUBLISHED,
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageTree tree = new MessageTree(
+                forum, "SUBJECT", null,
+                MessagePriority.NORMAL, rootHistory.getCreatedAt()
+        );
+        final MessageItem root = new MessageItem(
+                owner, tree, null,
+                Collections.singletonList(rootHistory), rootHistory.getCreatedAt()
+        );
+        tree.setRootMessage(root);
+        messageTreeDao.saveMessageTree(tree);
+
+        final HistoryItem commentHistory = new HistoryItem(
+                "COMMENT", MessageState.UNPUBLISHED,
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem comment = new MessageItem(
+                commenter, tree, root,
+                Collections.singletonList(commentHistory), commentHistory.getCreatedAt()
+        );
+        messageDao.saveMessageItem(comment);
+        assertEquals(new ForumStatsView(1, 0, 1), forumStatsDao.getStats(forum.getId()));
+        assertFalse(forumStatsDao.repairStats(forum.getId()));
+
+        commentHistory.setState(MessageState.PUBLISHED);
+        messageDao.publish(comment);
+        assertEquals(new ForumStatsView(1, 1, 0), forumStatsDao.getStats(forum.getId()));
+
+        messageTreeDao.deleteTreeByRootMessageId(root.getId());
+        assertEquals(new ForumStatsView(0, 0, 0), forumStatsDao.getStats(forum.getId()));
+        assertFalse(forumStatsDao.repairStats(forum.getId()));
+        assertTrue(forumStatsDao.getForumIds().contains(forum.getId()));
+    }
+}
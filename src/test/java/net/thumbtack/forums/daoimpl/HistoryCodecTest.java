@@ -0,0 +1,124 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.view.HistoryVersionView;
+import net.thumbtack.forums.view.MessageHistoryView;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryCodecTest {
+    private static final String TEXT = "A long message body which is edited a little in every version, ";
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2020, 1, 1, 10, 0);
+
+    private static HistoryVersionView version(int id, int messageId, String body, MessageState state) {
+        return new HistoryVersionView(id, messageId, body, null, null, state, CREATED_AT.plusMinutes(id));
+    }
+
+    @Test
+    void testEncode_smallEdit_shouldStoreOnlyChangedPart() {
+        final HistoryVersionView version = version(2, 1, TEXT + "new" + TEXT, MessageState.PUBLISHED);
+
+        HistoryCodec.encode(version, TEXT + "old" + TEXT, 1);
+
+        assertTrue(version.isDelta());
+        assertEquals("new", version.getBody());
+        assertEquals(TEXT.length(), (int) version.getPrefixLength());
+        assertEquals(TEXT.length(), (int) version.getSuffixLength());
+        assertEquals(TEXT + "new" + TEXT, HistoryCodec.apply(
+                TEXT + "old" + TEXT, version.getBody(), version.getPrefixLength(), version.getSuffixLength()
+        ));
+    }
+
+    @Test
+    void testEncode_shortOrUnrelatedBodies_shouldStoreInFull() {
+        final HistoryVersionView shortVersion = version(2, 1, "body 2", MessageState.PUBLISHED);
+        HistoryCodec.encode(shortVersion, "body 1", 1);
+        assertFalse(shortVersion.isDelta());
+        assertEquals("body 2", shortVersion.getBody());
+
+        final HistoryVersionView first = version(1, 1, TEXT, MessageState.PUBLISHED);
+        HistoryCodec.encode(first, null, 0);
+        assertFalse(first.isDelta());
+
+        final HistoryVersionView longChain = version(9, 1, TEXT + "new", MessageState.PUBLISHED);
+        HistoryCodec.encode(longChain, TEXT + "old", HistoryCodec.SNAPSHOT_INTERVAL);
+        assertFalse(longChain.isDelta());
+    }
+
+    @Test
+    void testEncode_shouldNotSplitSurrogatePairs() {
+        // both bodies share the high surrogate of a different emoji
+        final String previous = TEXT + "😀" + TEXT;
+        final HistoryVersionView version = version(2, 1, TEXT + "😁" + TEXT, MessageState.PUBLISHED);
+
+        HistoryCodec.encode(version, previous, 1);
+
+        assertEquals("😁", version.getBody());
+        assertEquals(TEXT + "😁" + TEXT, HistoryCodec.apply(
+                previous, version.getBody(), version.getPrefixLength(), version.getSuffixLength()
+        ));
+    }
+
+    @Test
+    void testEncodeAll_shouldStartChainsWithSnapshotsAndDecodeBack() {
+        final List<HistoryVersionView> versions = new ArrayList<>();
+        final List<String> bodies = new ArrayList<>();
+        int id = 1;
+        for (int messageId = 1; messageId <= 2; messageId++) {
+            for (int i = 0; i < HistoryCodec.SNAPSHOT_INTERVAL * 2 + 1; i++) {
+                final String body = TEXT + messageId + "." + i + TEXT;
+                bodies.add(body);
+                versions.add(version(id++, messageId, body, MessageState.PUBLISHED));
+            }
+        }
+
+        HistoryCodec.encodeAll(versions);
+
+        for (int i = 0; i < versions.size(); i++) {
+            final boolean snapshot = i % (HistoryCodec.SNAPSHOT_INTERVAL * 2 + 1) % HistoryCodec.SNAPSHOT_INTERVAL == 0;
+            assertEquals(!snapshot, versions.get(i).isDelta());
+        }
+        final List<HistoryVersionView> decoded = HistoryCodec.decode(versions);
+        for (int i = 0; i < decoded.size(); i++) {
+            assertEquals(bodies.get(i), decoded.get(i).getBody());
+            assertFalse(decoded.get(i).isDelta());
+        }
+    }
+
+    @Test
+    void testDecode_deltaWithoutSnapshot_shouldThrowException() {
+        final HistoryVersionView delta = new HistoryVersionView(
+                2, 1, "new", 16, 16, MessageState.PUBLISHED, CREATED_AT
+        );
+        assertThrows(IllegalStateException.class, () -> HistoryCodec.decode(Arrays.asList(delta)));
+    }
+
+    @Test
+    void testToVisibleHistory_shouldMarkUnpublishedAndKeepLatestFirst() {
+        final List<HistoryVersionView> versions = Arrays.asList(
+                version(1, 1, "body 1", MessageState.PUBLISHED),
+                version(2, 1, "body 2", MessageState.UNPUBLISHED),
+                new HistoryVersionView(3, 2, "hidden", null, null, MessageState.UNPUBLISHED,
+                        CREATED_AT, false
+                )
+        );
+
+        assertEquals(Arrays.asList(
+                new MessageHistoryView(1, "[UNPUBLISHED]body 2", MessageState.UNPUBLISHED, CREATED_AT.plusMinutes(2)),
+                new MessageHistoryView(1, "body 1", MessageState.PUBLISHED, CREATED_AT.plusMinutes(1))
+        ), HistoryCodec.toVisibleHistory(versions, true));
+        assertEquals(
+                Arrays.asList(new MessageHistoryView(
+                        1, "[UNPUBLISHED]body 2", MessageState.UNPUBLISHED, CREATED_AT.plusMinutes(2)
+                )),
+                HistoryCodec.toVisibleHistory(versions, false)
+        );
+    }
+}
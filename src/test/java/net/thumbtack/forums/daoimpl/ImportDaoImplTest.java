@@ -0,0 +1,108 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.model.*;
+import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.model.enums.MessagePriority;
+import net.thumbtack.forums.view.ForumStatsView;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportDaoImplTest extends DaoTestEnvironment {
+    @Test
+    void testSaveChunk() throws ServerException {
+        final User owner = new User("Owner", "owner@mail.com", "ownerpass");
+        final User commenter = new User("Commenter", "commenter@mail.com", "commenterpass");
+        userDao.save(owner);
+        userDao.save(commenter);
+
+        final LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final Forum forum = new Forum(ForumType.UNMODERATED, new User("OWNER", null, null), "FORUM", createdAt);
+        final MessageTree tree = new MessageTree(
+                forum, "SUBJECT", null, MessagePriority.HIGH, createdAt,
+                Arrays.asList(new Tag("Java"), new Tag("java"), new Tag("Imports"))
+        );
+        final MessageItem root = new MessageItem(
+                new User("owner", null, null), tree, null,
+                Collections.singletonList(new HistoryItem("ROOT", MessageState.PUBLISHED, createdAt)),
+                createdAt
+        );
+        final MessageItem comment = new MessageItem(
+                new User("commenter", null, null), tree, root,
+                Arrays.asList(
+                        new HistoryItem("EDITED", MessageState.PUBLISHED, createdAt.plusMinutes(1)),
+                        new HistoryItem("COMMENT", MessageState.PUBLISHED, createdAt)
+                ),
+                createdAt
+        );
+        root.getChildrenComments().add(comment);
+        tree.setRootMessage(root);
+
+        importDao.saveChunk(
+                Collections.singletonList(forum),
+                Collections.singletonList(tree),
+                Collections.singletonList(new Rating(root, new User("Commenter", null, null), 4))
+        );
+
+        assertNotEquals(0, forum.getId());
+        assertNotEquals(0, tree.getId());
+        assertNotEquals(0, root.getId());
+        assertNotEquals(0, comment.getId());
+        assertEquals(owner.getId(), forum.getOwner().getId());
+        assertEquals(commenter.getId(), comment.getOwner().getId());
+        assertEquals(new ForumStatsView(1, 1, 0), forumStatsDao.getStats(forum.getId()));
+
+        final MessageItem savedComment = messageDao.getMessageById(comment.getId());
+        assertEquals(root.getId(), savedComment.getParentMessage().getId());
+        assertEquals("EDITED", savedComment.getHistory().get(0).getBody());
+        assertEquals(2, savedComment.getHistory().size());
+
+        final MessageItem savedRoot = messageDao.getMessageById(root.getId());
+        assertEquals(2, savedRoot.getMessageTree().getTags().size());
+        assertEquals(4., ratingDao.getMessageRating(savedRoot));
+    }
+
+    @Test
+    void testSaveChunk_unknownUser_shouldThrowExceptionAndSaveNothing() {
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, new User("Nobody", null, null), "FORUM",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        try {
+            importDao.saveChunk(
+                    Collections.singletonList(forum), Collections.emptyList(), Collections.emptyList()
+            );
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.USER_NOT_FOUND, ex.getErrorCode());
+        }
+    }
+
+    @Test
+    void testSaveChunk_forumNameUsed_shouldThrowException() throws ServerException {
+        final User owner = new User("Owner", "owner@mail.com", "ownerpass");
+        userDao.save(owner);
+        final LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        forumDao.save(new Forum(ForumType.MODERATED, owner, "FORUM", createdAt));
+
+        try {
+            importDao.saveChunk(
+                    Collections.singletonList(new Forum(ForumType.UNMODERATED, owner, "FORUM", createdAt)),
+                    Collections.emptyList(), Collections.emptyList()
+            );
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.FORUM_NAME_ALREADY_USED, ex.getErrorCode());
+        }
+        assertEquals(1, forumDao.getAll().size());
+    }
+}
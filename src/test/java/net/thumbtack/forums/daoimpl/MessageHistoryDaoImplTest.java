@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -141,4 +142,28 @@ class MessageHistoryDaoImplTest extends DaoTestEnvironment {
         assertEquals(1, selectedMessage.getHistory().size());
         assertEquals(messageItem.getHistory().get(1), selectedMessage.getHistory().get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSaveManyLongVersions_shouldRebuildEveryVersion() throws ServerException {
+        userDao.save(creator);
+        forumDao.save(forum);
+
+        final String text = "A long message body which is edited a little in every version, ";
+        final LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final List<HistoryItem> history = new ArrayList<>();
+        history.add(new HistoryItem(text + 0 + text, MessageState.PUBLISHED, createdAt));
+        messageItem = new MessageItem(creator, messageTree, null, new ArrayList<>(history), createdAt);
+        messageTree.setRootMessage(messageItem);
+        messageTreeDao.saveMessageTree(messageTree);
+
+        for (int i = 1; i <= HistoryCodec.SNAPSHOT_INTERVAL * 2; i++) {
+            history.add(0, new HistoryItem(text + i + text, MessageState.PUBLISHED, createdAt.plusMinutes(i)));
+            messageItem.setHistory(new ArrayList<>(history));
+            messageHistoryDao.saveNewVersion(messageItem);
+        }
+
+        assertEquals(history, messageDao.getMessageById(messageItem.getId()).getHistory());
+        assertEquals(0, messageHistoryDao.reencodeHistory(0, 10).getRewrittenVersions());
+        assertEquals(0, messageHistoryDao.reencodeHistory(messageItem.getId(), 10).getMessages());
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -211,6 +212,28 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         assertNull(selectedRootAfterDeletion);
     }
 
+    @Test
+    void testGetTreeRootMessage_treeDeleted_shouldReturnNull() throws ServerException {
+        userDao.save(creator);
+        forumDao.save(forum);
+        messageTreeDao.saveMessageTree(messageTree);
+        // rows of the tree stay until purge, as for a tree deleted after the service checked the message
+        messageTreeDao.deleteTreeById(messageTree.getId());
+
+        assertNull(messageTreeDao.getTreeRootMessage(
+                messageItem.getId(), MessageOrder.ASC,
+                false, false, false, creator.getId(), CommentsSlice.UNLIMITED
+        ));
+        assertNull(messageTreeDao.getTreeRootMessage(
+                messageItem.getId(), MessageOrder.ASC,
+                false, false, false, creator.getId(), new CommentsSlice(2, 1, null)
+        ));
+        assertTrue(messageTreeDao.getTreeRootMessagesOf(
+                Collections.singletonList(messageItem.getId()), MessageOrder.ASC,
+                false, false, false, creator.getId()
+        ).isEmpty());
+    }
+
     @Test
     void testDeleteMessageTreeByRootMessageId() throws ServerException {
         userDao.save(creator);
@@ -272,7 +295,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem selectedRootDesc = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.DESC,
-                false, true, true, commentMaker.getId()
+                false, true, true, commentMaker.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, selectedRootDesc);
         final List<MessageItem> selectedCommentsDesc = selectedRootDesc.getChildrenComments();
@@ -291,7 +314,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem selectedRootAsc = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.ASC,
-                false, true, true, commentMaker.getId()
+                false, true, true, commentMaker.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, selectedRootAsc);
         final List<MessageItem> selectedCommentsAsc = selectedRootAsc.getChildrenComments();
@@ -308,6 +331,74 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         assertEquals(commentItem2.getCreatedAt(), selectedCommentsAsc.get(1).getCreatedAt());
     }
 
+    @Test
+    void testGetRootMessage_commentsSlice_shouldCutCommentsAndReturnCursors() throws ServerException {
+        userDao.save(creator);
+        forumDao.save(forum);
+        messageTreeDao.saveMessageTree(messageTree);
+
+        final List<MessageItem> comments = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            final HistoryItem commentHistory = new HistoryItem(
+                    "comment body " + i, MessageState.PUBLISHED,
+                    LocalDateTime.now()
+                            .truncatedTo(ChronoUnit.SECONDS)
+                            .plus(i, ChronoUnit.HOURS)
+            );
+            final MessageItem comment = new MessageItem(
+                    creator, messageTree, messageItem,
+                    Collections.singletonList(commentHistory),
+                    commentHistory.getCreatedAt()
+            );
+            messageDao.saveMessageItem(comment);
+            comments.add(comment);
+        }
+        final HistoryItem subCommentHistory = new HistoryItem(
+                "sub comment body", MessageState.PUBLISHED,
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plus(5, ChronoUnit.HOURS)
+        );
+        final MessageItem subComment = new MessageItem(
+                creator, messageTree, comments.get(0),
+                Collections.singletonList(subCommentHistory),
+                subCommentHistory.getCreatedAt()
+        );
+        messageDao.saveMessageItem(subComment);
+
+        final MessageItem firstPage = messageTreeDao.getTreeRootMessage(
+                messageItem.getId(), MessageOrder.ASC,
+                false, false, false, creator.getId(), new CommentsSlice(2, 1, null)
+        );
+        assertEquals(2, firstPage.getChildrenComments().size());
+        assertEquals(comments.get(0).getId(), firstPage.getChildrenComments().get(0).getId());
+        assertEquals(comments.get(1).getId(), firstPage.getChildrenComments().get(1).getId());
+        assertEquals(
+                new CommentsCursor(messageItem.getId(), comments.get(1).getCreatedAt(), comments.get(1).getId()),
+                firstPage.getMoreComments()
+        );
+        assertTrue(firstPage.getChildrenComments().get(0).getChildrenComments().isEmpty());
+        assertEquals(
+                new CommentsCursor(comments.get(0).getId()),
+                firstPage.getChildrenComments().get(0).getMoreComments()
+        );
+        assertNull(firstPage.getChildrenComments().get(1).getMoreComments());
+
+        final MessageItem secondPage = messageTreeDao.getTreeRootMessage(
+                messageItem.getId(), MessageOrder.ASC,
+                false, false, false, creator.getId(), new CommentsSlice(2, 1, firstPage.getMoreComments())
+        );
+        assertEquals(messageItem.getId(), secondPage.getId());
+        assertEquals(1, secondPage.getChildrenComments().size());
+        assertEquals(comments.get(2).getId(), secondPage.getChildrenComments().get(0).getId());
+        assertNull(secondPage.getMoreComments());
+
+        final MessageItem subComments = messageTreeDao.getTreeRootMessage(
+                messageItem.getId(), MessageOrder.ASC, false, false, false, creator.getId(),
+                new CommentsSlice(2, 1, firstPage.getChildrenComments().get(0).getMoreComments())
+        );
+        assertEquals(1, subComments.getChildrenComments().size());
+        assertEquals(subComment.getId(), subComments.getChildrenComments().get(0).getId());
+    }
+
     @Test
     void testGetRootMessage_noComments() throws ServerException {
         final User commentMaker = new User(
@@ -355,7 +446,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem selectedRoot = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.DESC,
-                true, true, true, commentMaker.getId()
+                true, true, true, commentMaker.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, selectedRoot);
         final List<MessageItem> selectedComments = selectedRoot.getChildrenComments();
@@ -409,7 +500,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem selectedRootDesc = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.DESC,
-                false, false, true, commentMaker.getId()
+                false, false, true, commentMaker.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, selectedRootDesc);
         final List<MessageItem> selectedCommentsDesc = selectedRootDesc.getChildrenComments();
@@ -435,7 +526,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem rootDescFromForumOwner = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.DESC,
-                false, false, true, creator.getId()
+                false, false, true, creator.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, rootDescFromForumOwner);
         final List<MessageItem> commentsDescFromForumOwner = rootDescFromForumOwner.getChildrenComments();
@@ -457,7 +548,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem rootDescFromOtherUser = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.DESC,
-                false, false, true, otherUser.getId()
+                false, false, true, otherUser.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, rootDescFromOtherUser);
         final List<MessageItem> commentsDescFromOtherUser = rootDescFromOtherUser.getChildrenComments();
@@ -528,7 +619,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem rootDescFromCreator = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.DESC,
-                false, true, false, commentMaker.getId()
+                false, true, false, commentMaker.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, rootDescFromCreator);
         final List<MessageItem> commentsDescFromCreator = rootDescFromCreator.getChildrenComments();
@@ -555,7 +646,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem rootDescFromForumOwner = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.DESC,
-                false, true, false, creator.getId()
+                false, true, false, creator.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, rootDescFromForumOwner);
         final List<MessageItem> commentsDescFromForumOwner = rootDescFromForumOwner.getChildrenComments();
@@ -573,7 +664,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem rootDescFromForumOwner2 = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.DESC,
-                false, true, true, creator.getId()
+                false, true, true, creator.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, rootDescFromForumOwner2);
         final List<MessageItem> commentsDescFromForumOwner2 = rootDescFromForumOwner2.getChildrenComments();
@@ -597,7 +688,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem rootDescFromOtherUser = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.DESC,
-                false, true, false, otherUser.getId()
+                false, true, false, otherUser.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, rootDescFromOtherUser);
         final List<MessageItem> commentsDescFromOtherUser = rootDescFromOtherUser.getChildrenComments();
@@ -660,7 +751,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem selectedRootDesc = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.DESC,
-                false, false, false, commentMaker.getId()
+                false, false, false, commentMaker.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, selectedRootDesc);
         final List<MessageItem> selectedCommentsDesc = selectedRootDesc.getChildrenComments();
@@ -685,7 +776,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final MessageItem rootDescFromForumOwner = messageTreeDao.getTreeRootMessage(
                 messageItem.getId(),
                 MessageOrder.DESC,
-                false, false, false, creator.getId()
+                false, false, false, creator.getId(), CommentsSlice.UNLIMITED
         );
         assertMessageEquals(messageItem, rootDescFromForumOwner);
         final List<MessageItem> commentsDescFromForumOwner = rootDescFromForumOwner.getChildrenComments();
@@ -772,7 +863,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final List<MessageTree> trees = messageTreeDao.getForumTrees(
                 forum.getId(),
                 true, false, true,
-                null, MessageOrder.DESC, 0, 10, commentMaker.getId()
+                null, TagFilterMode.ANY, MessageOrder.DESC, 0, 10, commentMaker.getId(), CommentsSlice.UNLIMITED
         );
         assertEquals(2, trees.size());
 
@@ -802,7 +893,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final List<MessageTree> trees = messageTreeDao.getForumTrees(
                 forum.getId(),
                 true, false, true,
-                null, MessageOrder.DESC, 0, 10, creator.getId()
+                null, TagFilterMode.ANY, MessageOrder.DESC, 0, 10, creator.getId(), CommentsSlice.UNLIMITED
         );
         assertTrue(trees.isEmpty());
     }
@@ -879,7 +970,7 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final List<MessageTree> trees = messageTreeDao.getForumTrees(
                 forum.getId(),
                 true, true, true,
-                null, MessageOrder.DESC, 0, 10, commentMaker.getId()
+                null, TagFilterMode.ANY, MessageOrder.DESC, 0, 10, commentMaker.getId(), CommentsSlice.UNLIMITED
         );
         assertEquals(2, trees.size());
 
@@ -986,7 +1077,8 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final List<MessageTree> trees = messageTreeDao.getForumTrees(
                 forum.getId(),
                 true, true, true,
-                Arrays.asList("Tag4", "Tag_X"), MessageOrder.DESC, 0, 10, commentMaker.getId()
+                Arrays.asList("Tag4", "Tag_X"), TagFilterMode.ANY, MessageOrder.DESC, 0, 10, commentMaker.getId(),
+                CommentsSlice.UNLIMITED
         );
         assertEquals(2, trees.size());
 
@@ -1059,8 +1151,207 @@ class MessageTreeDaoImplTest extends DaoTestEnvironment {
         final List<MessageTree> trees = messageTreeDao.getForumTrees(
                 forum.getId(),
                 true, true, true,
-                Arrays.asList("BAD_TAG", "OTHER_BAD_TAG"), MessageOrder.DESC, 0, 10, commentMaker.getId()
+                Arrays.asList("BAD_TAG", "OTHER_BAD_TAG"), TagFilterMode.ANY, MessageOrder.DESC, 0, 10,
+                commentMaker.getId(), CommentsSlice.UNLIMITED
         );
         assertTrue(trees.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetMessages_getByAllTags_shouldReturnTreesWithEveryTag() throws ServerException {
+        userDao.save(creator);
+        forumDao.save(forum);
+        messageTreeDao.saveMessageTree(messageTree);
+
+        final HistoryItem secondHistoryItem = new HistoryItem(
+                "ROOT MESSAGE", MessageState.PUBLISHED,
+                LocalDateTime.now()
+                        .plus(1, ChronoUnit.DAYS)
+                        .truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageTree secondMessageTree = new MessageTree(
+                forum, "SECOND SUBJECT", null,
+                MessagePriority.LOW,
+                secondHistoryItem.getCreatedAt(),
+                Arrays.asList(new Tag("Tag2"), new Tag("Tag5"))
+        );
+        final MessageItem secondMessageItem = new MessageItem(
+                creator, secondMessageTree, null,
+                Collections.singletonList(secondHistoryItem),
+                secondHistoryItem.getCreatedAt()
+        );
+        secondMessageTree.setRootMessage(secondMessageItem);
+        messageTreeDao.saveMessageTree(secondMessageTree);
+
+        final List<MessageTree> anyTrees = messageTreeDao.getForumTrees(
+                forum.getId(),
+                true, true, true,
+                Arrays.asList("Tag1", "Tag5"), TagFilterMode.ANY, MessageOrder.DESC, 0, 10, creator.getId(),
+                CommentsSlice.UNLIMITED
+        );
+        assertEquals(2, anyTrees.size());
+
+        final List<MessageTree> allTrees = messageTreeDao.getForumTrees(
+                forum.getId(),
+                true, true, true,
+                Arrays.asList("Tag2", "Tag5"), TagFilterMode.ALL, MessageOrder.DESC, 0, 10, creator.getId(),
+                CommentsSlice.UNLIMITED
+        );
+        assertEquals(1, allTrees.size());
+        assertTreeEquals(secondMessageTree, allTrees.get(0));
+
+        messageTreeDao.deleteTreeById(secondMessageTree.getId());
+        final List<MessageTree> afterDelete = messageTreeDao.getForumTrees(
+                forum.getId(),
+                true, true, true,
+                Arrays.asList("Tag2", "Tag5"), TagFilterMode.ALL, MessageOrder.DESC, 0, 10, creator.getId(),
+                CommentsSlice.UNLIMITED
+        );
+        assertTrue(afterDelete.isEmpty());
+    }
+
+    @Test
+    void testStreamMessages_shouldPassTreesInPageOrder() throws ServerException {
+        userDao.save(creator);
+        forumDao.save(forum);
+        messageTreeDao.saveMessageTree(messageTree);
+
+        final HistoryItem commentHistory = new HistoryItem(
+                "comment body", MessageState.PUBLISHED,
+                LocalDateTime.now()
+                        .truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem commentItem = new MessageItem(
+                creator, messageTree, messageItem,
+                Collections.singletonList(commentHistory),
+                commentHistory.getCreatedAt()
+        );
+        messageDao.saveMessageItem(commentItem);
+
+        final HistoryItem secondHistoryItem = new HistoryItem(
+                "ROOT MESSAGE", MessageState.PUBLISHED,
+                LocalDateTime.now()
+                        .plus(1, ChronoUnit.DAYS)
+                        .truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageTree secondMessageTree = new MessageTree(
+                forum, "SECOND SUBJECT", null,
+                MessagePriority.LOW,
+                secondHistoryItem.getCreatedAt(),
+                Collections.singletonList(new Tag("Tag4"))
+        );
+        final MessageItem secondMessageItem = new MessageItem(
+                creator, secondMessageTree, null,
+                Collections.singletonList(secondHistoryItem),
+                secondHistoryItem.getCreatedAt()
+        );
+        secondMessageTree.setRootMessage(secondMessageItem);
+        messageTreeDao.saveMessageTree(secondMessageTree);
+
+        final List<MessageTree> streamedTrees = new ArrayList<>();
+        messageTreeDao.streamForumTrees(
+                forum.getId(),
+                true, false, true,
+                null, TagFilterMode.ANY, MessageOrder.DESC, 0, 10, creator.getId(), CommentsSlice.UNLIMITED,
+                streamedTrees::add
+        );
+        assertEquals(2, streamedTrees.size());
+        assertTreeEquals(messageTree, streamedTrees.get(0));
+        assertMessageEquals(messageItem, streamedTrees.get(0).getRootMessage());
+        assertEquals(1, streamedTrees.get(0).getRootMessage().getChildrenComments().size());
+        assertCommentEquals(commentItem, streamedTrees.get(0).getRootMessage().getChildrenComments().get(0));
+        assertTreeEquals(secondMessageTree, streamedTrees.get(1));
+        assertMessageEquals(secondMessageItem, streamedTrees.get(1).getRootMessage());
+
+        final List<MessageTree> nextTrees = new ArrayList<>();
+        messageTreeDao.streamForumTreesAfter(
+                forum.getId(),
+                true, false, true,
+                null, TagFilterMode.ANY, MessageOrder.DESC,
+                new MessageTreeCursor(streamedTrees.get(0)), 10, creator.getId(), CommentsSlice.UNLIMITED,
+                nextTrees::add
+        );
+        assertEquals(1, nextTrees.size());
+        assertTreeEquals(secondMessageTree, nextTrees.get(0));
+    }
+
+    @Test
+    void testGetTreeRootMessage_sliceWithParentsOfSeveralChunks_shouldLoadAllChildren() throws ServerException {
+        userDao.save(creator);
+        forumDao.save(forum);
+        messageTreeDao.saveMessageTree(messageTree);
+
+        final int count = MessageTreeDaoImpl.SLICE_PARENTS_CHUNK_SIZE + 1;
+        final LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final List<Integer> subCommentIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final MessageItem comment = new MessageItem(
+                    creator, messageTree, messageItem,
+                    Collections.singletonList(new HistoryItem("comment " + i, MessageState.PUBLISHED, createdAt)),
+                    createdAt
+            );
+            messageDao.saveMessageItem(comment);
+            final MessageItem subComment = new MessageItem(
+                    creator, messageTree, comment,
+                    Collections.singletonList(new HistoryItem("sub comment " + i, MessageState.PUBLISHED, createdAt)),
+                    createdAt
+            );
+            messageDao.saveMessageItem(subComment);
+            subCommentIds.add(subComment.getId());
+        }
+
+        final MessageItem selectedRoot = messageTreeDao.getTreeRootMessage(
+                messageItem.getId(), MessageOrder.ASC,
+                false, false, false, creator.getId(), new CommentsSlice(count, 2, null)
+        );
+        assertEquals(count, selectedRoot.getChildrenComments().size());
+        final List<Integer> selectedSubCommentIds = new ArrayList<>();
+        for (final MessageItem comment : selectedRoot.getChildrenComments()) {
+            assertEquals(1, comment.getChildrenComments().size());
+            selectedSubCommentIds.add(comment.getChildrenComments().get(0).getId());
+        }
+        assertEquals(subCommentIds, selectedSubCommentIds);
+    }
+
+    @Test
+    void testStreamMessages_pageOfSeveralBatches_shouldPassAllTrees() throws ServerException {
+        userDao.save(creator);
+        forumDao.save(forum);
+
+        final int count = MessageTreeDaoImpl.STREAM_BATCH_SIZE + 2;
+        final List<Integer> savedIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final HistoryItem historyItem = new HistoryItem(
+                    "BODY " + i, MessageState.PUBLISHED,
+                    LocalDateTime.now()
+                            .plus(i, ChronoUnit.MINUTES)
+                            .truncatedTo(ChronoUnit.SECONDS)
+            );
+            final MessageTree tree = new MessageTree(
+                    forum, "SUBJECT " + i, null,
+                    MessagePriority.NORMAL,
+                    historyItem.getCreatedAt(),
+                    Collections.emptyList()
+            );
+            tree.setRootMessage(new MessageItem(
+                    creator, tree, null,
+                    Collections.singletonList(historyItem),
+                    historyItem.getCreatedAt()
+            ));
+            messageTreeDao.saveMessageTree(tree);
+            savedIds.add(0, tree.getId());
+        }
+
+        final List<Integer> streamedIds = new ArrayList<>();
+        messageTreeDao.streamForumTrees(
+                forum.getId(),
+                true, false, true,
+                null, TagFilterMode.ANY, MessageOrder.DESC, 0, count, creator.getId(), CommentsSlice.UNLIMITED,
+                tree -> {
+                    assertNotNull(tree.getRootMessage());
+                    streamedIds.add(tree.getId());
+                }
+        );
+        assertEquals(savedIds, streamedIds);
+    }
+}
@@ -0,0 +1,111 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.model.*;
+import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.model.enums.MessagePriority;
+import net.thumbtack.forums.model.enums.PurgeTarget;
+import net.thumbtack.forums.view.ForumStatsView;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PurgeDaoImplTest extends DaoTestEnvironment {
+    private final LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Test
+    void testDeleteTree_shouldHideTreeAndPurgeItInBatches() throws ServerException {
+        final User owner = new User("Owner", "owner@mail.com", "ownerpass");
+        final User reader = new User("Reader", "reader@mail.com", "readerpass");
+        userDao.save(owner);
+        userDao.save(reader);
+        final Forum forum = new Forum(ForumType.UNMODERATED, owner, "FORUM", createdAt);
+        forumDao.save(forum);
+        final MessageTree tree = saveTree(forum, owner);
+        final MessageItem comment = new MessageItem(
+                reader, tree, tree.getRootMessage(),
+                Collections.singletonList(new HistoryItem("COMMENT", MessageState.PUBLISHED, createdAt)),
+                createdAt
+        );
+        messageDao.saveMessageItem(comment);
+        ratingDao.upsertRating(tree.getRootMessage(), reader, 5);
+
+        messageTreeDao.deleteTreeById(tree.getId());
+        assertNull(messageDao.getMessageById(tree.getRootMessage().getId()));
+        assertNull(messageDao.getMessageById(comment.getId()));
+        assertEquals(ForumStatsView.ZERO, forumStatsDao.getStats(forum.getId()));
+
+        final List<Purge> purges = purgeDao.getUnfinished();
+        assertEquals(1, purges.size());
+        final Purge purge = purges.get(0);
+        assertEquals(PurgeTarget.TREE, purge.getTargetType());
+        assertEquals(tree.getId(), purge.getTargetId());
+
+        // rating, two versions, two messages, one tag and the tree
+        final int batchSize = 1;
+        int batches = 0;
+        while (purgeDao.purgeBatch(purge, batchSize) > 0) {
+            batches++;
+        }
+        assertEquals(7, batches);
+        assertTrue(purgeDao.getUnfinished().isEmpty());
+
+        final Purge finished = purgeDao.getLatest(1).get(0);
+        assertEquals(7, finished.getRowsPurged());
+        assertNotNull(finished.getFinishedAt());
+        assertNotNull(forumDao.getById(forum.getId()));
+    }
+
+    @Test
+    void testDeleteForum_shouldHideForumAndPurgeAllItsRows() throws ServerException {
+        final User owner = new User("Owner", "owner@mail.com", "ownerpass");
+        userDao.save(owner);
+        final Forum forum = new Forum(ForumType.UNMODERATED, owner, "FORUM", createdAt);
+        final Forum otherForum = new Forum(ForumType.UNMODERATED, owner, "OTHER", createdAt);
+        forumDao.save(forum);
+        forumDao.save(otherForum);
+        final MessageTree tree = saveTree(forum, owner);
+        final MessageTree otherTree = saveTree(otherForum, owner);
+
+        forumDao.deleteById(forum.getId());
+        assertNull(forumDao.getById(forum.getId()));
+        assertNull(messageDao.getMessageById(tree.getRootMessage().getId()));
+        assertEquals(Collections.singletonList(otherForum.getId()), forumStatsDao.getForumIds());
+
+        // deleting it again requests no second purge
+        forumDao.deleteById(forum.getId());
+        final List<Purge> purges = purgeDao.getUnfinished();
+        assertEquals(1, purges.size());
+
+        while (purgeDao.purgeBatch(purges.get(0), 1000) > 0) {
+            // purging till nothing is left
+        }
+        assertTrue(purgeDao.getUnfinished().isEmpty());
+        assertEquals(Arrays.asList(otherForum.getId()), forumStatsDao.getForumIds());
+        assertNotNull(messageDao.getMessageById(otherTree.getRootMessage().getId()));
+
+        // the name is free again when the forum is purged
+        forumDao.save(new Forum(ForumType.MODERATED, owner, "FORUM", createdAt));
+    }
+
+    private MessageTree saveTree(final Forum forum, final User owner) throws ServerException {
+        final MessageTree tree = new MessageTree(
+                forum, "SUBJECT", null, MessagePriority.NORMAL, createdAt,
+                Collections.singletonList(new Tag("Tag"))
+        );
+        tree.setRootMessage(new MessageItem(
+                owner, tree, null,
+                Collections.singletonList(new HistoryItem("ROOT", MessageState.PUBLISHED, createdAt)), createdAt
+        ));
+        messageTreeDao.saveMessageTree(tree);
+        return tree;
+    }
+}
@@ -6,13 +6,16 @@ import net.thumbtack.forums.model.enums.UserRole;
 import net.thumbtack.forums.model.enums.ForumType;
 import net.thumbtack.forums.model.enums.MessageState;
 import net.thumbtack.forums.model.enums.MessagePriority;
+import net.thumbtack.forums.view.RatingVoteView;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -182,4 +185,39 @@ class RatingDaoImplTest extends DaoTestEnvironment {
         assertEquals(14.0 / 3, message.getAverageRating(), 1e-4);
         assertEquals(3, message.getRated());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFlushRatings_shouldUpsertAndDeleteRatingsAndUpdateAggregates() throws ServerException {
+        userDao.save(creator);
+        forumDao.save(forum);
+        messageTreeDao.saveMessageTree(messageTree);
+
+        final User otherUser = new User(
+                "otherUser", "other@email.com", "passwd"
+        );
+        final User anotherUser = new User(
+                "anotherUser", "another@stanford.edu", "stanford"
+        );
+        final User thirdUser = new User(
+                "thirdUser", "third@email.com", "passwd"
+        );
+        userDao.save(otherUser);
+        userDao.save(anotherUser);
+        userDao.save(thirdUser);
+        ratingDao.upsertRating(messageItem, otherUser, 5);
+        ratingDao.upsertRating(messageItem, anotherUser, 1);
+
+        final int messageId = messageItem.getId();
+        final List<Integer> flushed = ratingDao.flushRatings(Arrays.asList(
+                new RatingVoteView(messageId, otherUser.getId(), 3, 2),
+                new RatingVoteView(messageId, anotherUser.getId(), null, 0),
+                new RatingVoteView(messageId, thirdUser.getId(), 4, 1),
+                new RatingVoteView(messageId + 1000, thirdUser.getId(), 4, 1)
+        ));
+
+        assertEquals(Collections.singletonList(messageId), flushed);
+        final MessageItem message = messageDao.getMessageById(messageId);
+        assertEquals(3.5, message.getAverageRating(), 1e-4);
+        assertEquals(2, message.getRated());
+    }
+}
@@ -0,0 +1,117 @@
+package net.thumbtack.forums.daoimpl;
+
+import net.thumbtack.forums.model.*;
+import net.thumbtack.forums.model.enums.ForumChangeType;
+import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.MessagePriority;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.model.enums.TagFilterMode;
+import net.thumbtack.forums.view.SearchHitView;
+import net.thumbtack.forums.view.SearchPageView;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchDaoImplTest extends DaoTestEnvironment {
+    private final LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Test
+    void testLoadSearchIndex_shouldIndexLatestPublishedVersions() throws ServerException {
+        final User owner = new User("Owner", "owner@mail.com", "ownerpass");
+        userDao.save(owner);
+        final Forum forum = new Forum(ForumType.UNMODERATED, owner, "FORUM", createdAt);
+        forumDao.save(forum);
+        final MessageTree tree = saveTree(forum, owner, "Connection pool", "How big should the pool be?");
+        final MessageTree deletedTree = saveTree(forum, owner, "Deleted pool", "Nobody finds this pool");
+        messageTreeDao.deleteTreeById(deletedTree.getId());
+
+        final MessageItem comment = new MessageItem(
+                owner, tree, tree.getRootMessage(),
+                Collections.singletonList(new HistoryItem(
+                        "A long enough comment body about measuring latency", MessageState.PUBLISHED, createdAt
+                )),
+                createdAt
+        );
+        messageDao.saveMessageItem(comment);
+        // stored as a delta of the published version, not yet visible to search
+        final List<HistoryItem> history = new ArrayList<>(comment.getHistory());
+        history.add(0, new HistoryItem(
+                "A long enough comment body about measuring throughput", MessageState.UNPUBLISHED, createdAt
+        ));
+        comment.setHistory(history);
+        messageHistoryDao.saveNewVersion(comment);
+
+        final MessageItem unpublished = new MessageItem(
+                owner, tree, tree.getRootMessage(),
+                Collections.singletonList(new HistoryItem("Unpublished pool", MessageState.UNPUBLISHED, createdAt)),
+                createdAt
+        );
+        messageDao.saveMessageItem(unpublished);
+
+        assertFalse(searchIndex.isLoaded());
+        searchDao.loadSearchIndex();
+        assertTrue(searchIndex.isLoaded());
+        assertEquals(2, searchIndex.size());
+
+        final SearchPageView page = searchIndex.search(
+                "pool latency throughput", forum.getId(), Collections.singletonList("tag"), TagFilterMode.ALL, 0, 10
+        );
+        assertEquals(2, page.getTotal());
+        final List<Integer> messageIds = new ArrayList<>();
+        for (final SearchHitView hit : page.getHits()) {
+            messageIds.add(hit.getMessageId());
+            assertEquals(tree.getRootMessage().getId(), hit.getRootMessageId());
+            assertEquals("Connection pool", hit.getSubject());
+        }
+        assertEquals(Arrays.asList(tree.getRootMessage().getId(), comment.getId()), messageIds);
+        assertEquals(0, searchIndex.search("throughput", null, null, TagFilterMode.ANY, 0, 10).getTotal());
+    }
+
+    @Test
+    void testGetContentVersion_shouldChangeWithForumContent() throws ServerException {
+        final User owner = new User("Owner", "owner@mail.com", "ownerpass");
+        userDao.save(owner);
+        final Forum forum = new Forum(ForumType.UNMODERATED, owner, "FORUM", createdAt);
+        forumDao.save(forum);
+
+        final String emptyForum = searchDao.getContentVersion();
+        final MessageTree tree = saveTree(forum, owner, "Subject", "Body");
+        // services record a change of the forum with every change of its messages
+        forumChangeDao.saveChange(new ForumChange(
+                forum.getId(), tree.getRootMessage().getId(), null, ForumChangeType.CREATED
+        ));
+        final String withTree = searchDao.getContentVersion();
+        assertNotEquals(emptyForum, withTree);
+        assertEquals(withTree, searchDao.getContentVersion());
+
+        forumDao.save(new Forum(ForumType.UNMODERATED, owner, "OTHER", createdAt));
+        final String withOtherForum = searchDao.getContentVersion();
+        assertNotEquals(withTree, withOtherForum);
+
+        forumDao.deleteById(forum.getId());
+        assertNotEquals(withOtherForum, searchDao.getContentVersion());
+    }
+
+    private MessageTree saveTree(final Forum forum, final User owner, final String subject, final String body)
+            throws ServerException {
+        final MessageTree tree = new MessageTree(
+                forum, subject, null, MessagePriority.NORMAL, createdAt,
+                Collections.singletonList(new Tag("Tag"))
+        );
+        tree.setRootMessage(new MessageItem(
+                owner, tree, null,
+                Collections.singletonList(new HistoryItem(body, MessageState.PUBLISHED, createdAt)), createdAt
+        ));
+        messageTreeDao.saveMessageTree(tree);
+        return tree;
+    }
+}
@@ -4,6 +4,10 @@ import net.thumbtack.forums.exception.ServerException;
 import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.UserSession;
 import net.thumbtack.forums.model.enums.UserRole;
+import net.thumbtack.forums.dao.SessionDao;
+import net.thumbtack.forums.utils.MyBatisConnectionUtils;
+import net.thumbtack.forums.utils.UnitOfWork;
+import net.thumbtack.forums.utils.UnitOfWorkSqlSessionFactory;
 
 import org.junit.jupiter.api.Test;
 
@@ -59,6 +63,33 @@ class SessionDaoImplTest extends DaoTestEnvironment {
         assertEquals(secondSession, foundSession);
     }
 
+    @Test
+    void testUpsertSession_inUnitOfWork_shouldInvalidateReplacedTokenAfterCommit() throws ServerException {
+        final User user = new User(
+                UserRole.USER,
+                "shermental", "shermental@gmail.com", "passwd",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+                false
+        );
+        userDao.save(user);
+        final String firstToken = UUID.randomUUID().toString();
+        sessionDao.upsertSession(new UserSession(user, firstToken));
+        assertEquals(user, sessionDao.getUserByToken(firstToken));
+
+        final SessionDao unitOfWorkSessionDao = new SessionDaoImpl(
+                new UnitOfWorkSqlSessionFactory(MyBatisConnectionUtils.getSqlSessionFactory()), sessionCache
+        );
+        final UnitOfWork unitOfWork = UnitOfWork.begin();
+        try {
+            unitOfWorkSessionDao.upsertSession(new UserSession(user, UUID.randomUUID().toString()));
+            assertNotNull(sessionCache.get(firstToken));
+        } finally {
+            unitOfWork.end(true);
+        }
+        assertNull(sessionCache.get(firstToken));
+        assertNull(sessionDao.getUserByToken(firstToken));
+    }
+
     @Test
     void testGetUserBySessionToken() throws ServerException {
         final User user = new User(
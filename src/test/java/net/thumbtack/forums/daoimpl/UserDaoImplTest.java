@@ -7,6 +7,11 @@ import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.UserSession;
 import net.thumbtack.forums.model.enums.ForumType;
 import net.thumbtack.forums.model.enums.UserRole;
+import net.thumbtack.forums.view.UserBanView;
+import net.thumbtack.forums.dao.UserDao;
+import net.thumbtack.forums.utils.MyBatisConnectionUtils;
+import net.thumbtack.forums.utils.UnitOfWork;
+import net.thumbtack.forums.utils.UnitOfWorkSqlSessionFactory;
 
 import org.junit.jupiter.api.Test;
 
@@ -619,6 +624,37 @@ class UserDaoImplTest extends DaoTestEnvironment {
         );
     }
 
+    @Test
+    void testBanUser_inUnitOfWork_shouldInvalidateCachedUserAfterCommit() throws ServerException {
+        final User user = new User(
+                UserRole.USER,
+                "shermental", "shermental@gmail.com", "passwd",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+                false
+        );
+        userDao.save(user);
+        final String token = UUID.randomUUID().toString();
+        sessionDao.upsertSession(new UserSession(user, token));
+        assertEquals(user, sessionDao.getUserByToken(token));
+
+        final UserDao unitOfWorkUserDao = new UserDaoImpl(
+                new UnitOfWorkSqlSessionFactory(MyBatisConnectionUtils.getSqlSessionFactory()),
+                sessionCache, ratingLeaderboard, banExpiryQueue
+        );
+        final UnitOfWork unitOfWork = UnitOfWork.begin();
+        try {
+            user.setBanCount(1);
+            user.setBannedUntil(LocalDateTime.now().plus(10, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS));
+            unitOfWorkUserDao.banUser(user, false);
+            // a read before the commit of the unit must not be followed by invalidation
+            assertNotNull(sessionCache.get(token));
+        } finally {
+            unitOfWork.end(true);
+        }
+        assertNull(sessionCache.get(token));
+        assertEquals(user.getBannedUntil(), sessionDao.getUserByToken(token).getBannedUntil());
+    }
+
     @Test
     void testBanUserPermanent() throws ServerException {
         final User bannedUser = new User(456, UserRole.USER,
@@ -713,6 +749,44 @@ class UserDaoImplTest extends DaoTestEnvironment {
         assertNotNull(users.get(4).getBannedUntil());
     }
 
+    @Test
+    void testUnbanEnded_shouldUnbanOnlyUsersWithEndedBans() throws ServerException {
+        final User endedBanUser = new User("user1", "user@mail.ca", "userpass123");
+        final User activeBanUser = new User("user2", "user@fastmail.com", "userpass456");
+        final User permanentBanUser = new User("user3", "user@safemail.online", "userpass789");
+        userDao.save(endedBanUser);
+        userDao.save(activeBanUser);
+        userDao.save(permanentBanUser);
+
+        final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        endedBanUser.setBanCount(1);
+        endedBanUser.setBannedUntil(now.minusMinutes(1));
+        userDao.banUser(endedBanUser, false);
+        activeBanUser.setBanCount(1);
+        activeBanUser.setBannedUntil(now.plusDays(1));
+        userDao.banUser(activeBanUser, false);
+        permanentBanUser.setBanCount(5);
+        permanentBanUser.setBannedUntil(LocalDateTime.of(9999, 1, 1, 0, 0));
+        userDao.banUser(permanentBanUser, true);
+
+        assertEquals(
+                Collections.singletonList(new UserBanView(endedBanUser.getId(), endedBanUser.getBannedUntil())),
+                banExpiryQueue.pollEnded(10)
+        );
+        assertEquals(1, banExpiryQueue.size());
+
+        assertEquals(1, userDao.unbanEnded(
+                Arrays.asList(endedBanUser.getId(), activeBanUser.getId(), permanentBanUser.getId()), now
+        ));
+        assertNull(userDao.getById(endedBanUser.getId()).getBannedUntil());
+        assertNotNull(userDao.getById(activeBanUser.getId()).getBannedUntil());
+        assertNotNull(userDao.getById(permanentBanUser.getId()).getBannedUntil());
+
+        banExpiryQueue.clear();
+        userDao.loadBanExpiries(LocalDateTime.of(9999, 1, 1, 0, 0));
+        assertEquals(1, banExpiryQueue.size());
+    }
+
     @Test
     void testDeleteUserById() throws ServerException {
         User user = new User(
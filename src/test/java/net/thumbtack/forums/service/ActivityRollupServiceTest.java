@@ -0,0 +1,48 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.ActivityDao;
+import net.thumbtack.forums.model.enums.ActivityGranularity;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.JobsProperties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.mockito.Mockito.*;
+
+class ActivityRollupServiceTest {
+    private ActivityDao mockActivityDao;
+    private JobsProperties mockJobsProperties;
+    private ActivityRollupService activityRollupService;
+
+    @BeforeEach
+    void initMocks() {
+        mockActivityDao = mock(ActivityDao.class);
+        mockJobsProperties = mock(JobsProperties.class);
+        final ZoneId zone = ZoneId.systemDefault();
+        final Clock clock = Clock.fixed(LocalDateTime.of(2020, 5, 20, 1, 15).atZone(zone).toInstant(), zone);
+        activityRollupService = new ActivityRollupService(mockActivityDao, mockJobsProperties, clock);
+    }
+
+    @Test
+    void testRollupActivity_shouldCompactAtDayAndMonthBoundaries() throws ServerException {
+        when(mockJobsProperties.getActivityHourlyRetentionDays())
+                .thenReturn(7);
+        when(mockJobsProperties.getActivityDailyRetentionDays())
+                .thenReturn(90);
+
+        activityRollupService.rollupActivity();
+
+        verify(mockActivityDao).rollup(
+                ActivityGranularity.HOUR, ActivityGranularity.DAY, LocalDateTime.of(2020, 5, 13, 0, 0)
+        );
+        verify(mockActivityDao).rollup(
+                ActivityGranularity.DAY, ActivityGranularity.MONTH, LocalDateTime.of(2020, 2, 1, 0, 0)
+        );
+        verifyNoMoreInteractions(mockActivityDao);
+    }
+}
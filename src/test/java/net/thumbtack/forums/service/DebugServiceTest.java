@@ -1,23 +1,68 @@
 package net.thumbtack.forums.service;
 
 import net.thumbtack.forums.dao.DebugDao;
+import net.thumbtack.forums.dao.PurgeDao;
+import net.thumbtack.forums.dao.MessageHistoryDao;
+import net.thumbtack.forums.model.Purge;
+import net.thumbtack.forums.model.enums.PurgeTarget;
+import net.thumbtack.forums.cache.SessionCache;
+import net.thumbtack.forums.cache.TagDictionary;
+import net.thumbtack.forums.cache.TagIndex;
+import net.thumbtack.forums.cache.MessageResponseCache;
+import net.thumbtack.forums.cache.SearchIndex;
+import net.thumbtack.forums.utils.PoolMetrics;
+import net.thumbtack.forums.view.HistoryReencodeView;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.dto.responses.debug.PoolStatisticsDtoResponse;
+import net.thumbtack.forums.dto.responses.debug.PurgeDtoResponse;
+import net.thumbtack.forums.dto.responses.debug.PurgeListDtoResponse;
+import net.thumbtack.forums.dto.responses.debug.HistoryReencodeDtoResponse;
+import net.thumbtack.forums.configuration.ConstantsProperties;
+import net.thumbtack.forums.configuration.JobsProperties;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class DebugServiceTest {
     private DebugDao mockDebugDao;
+    private PurgeDao mockPurgeDao;
+    private MessageHistoryDao mockMessageHistoryDao;
+    private SessionCache mockSessionCache;
+    private TagDictionary mockTagDictionary;
+    private TagIndex mockTagIndex;
+    private MessageResponseCache mockMessageResponseCache;
+    private SearchIndex mockSearchIndex;
+    private PoolMetrics mockPoolMetrics;
+    private JobsProperties mockJobsProperties;
     private DebugService debugService;
 
     @BeforeEach
     void initMocks() {
         mockDebugDao = mock(DebugDao.class);
-        debugService = new DebugService(mockDebugDao);
+        mockPurgeDao = mock(PurgeDao.class);
+        mockMessageHistoryDao = mock(MessageHistoryDao.class);
+        mockSessionCache = mock(SessionCache.class);
+        mockTagDictionary = mock(TagDictionary.class);
+        mockTagIndex = mock(TagIndex.class);
+        mockMessageResponseCache = mock(MessageResponseCache.class);
+        mockSearchIndex = mock(SearchIndex.class);
+        mockPoolMetrics = mock(PoolMetrics.class);
+        final ConstantsProperties mockConstantsProperties = mock(ConstantsProperties.class);
+        mockJobsProperties = mock(JobsProperties.class);
+        debugService = new DebugService(
+                mockDebugDao, mockPurgeDao, mockMessageHistoryDao, mockSessionCache, mockTagDictionary, mockTagIndex,
+                mockMessageResponseCache, mockSearchIndex, mockPoolMetrics, mockConstantsProperties, mockJobsProperties
+        );
+
+        when(mockConstantsProperties.getDatetimePattern())
+                .thenReturn("yyyy-MM-dd HH:mm:ss");
     }
 
     @Test
@@ -29,6 +74,10 @@ class DebugServiceTest {
         debugService.clearDatabase();
         verify(mockDebugDao)
                 .clear();
+        verify(mockMessageResponseCache)
+                .clear();
+        verify(mockSearchIndex)
+                .clear();
     }
 
     @Test
@@ -44,4 +93,56 @@ class DebugServiceTest {
         verify(mockDebugDao)
                 .clear();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetPoolStatistics() {
+        when(mockPoolMetrics.getActiveConnections()).thenReturn(3);
+        when(mockPoolMetrics.getIdleConnections()).thenReturn(7);
+        when(mockPoolMetrics.getTotalConnections()).thenReturn(10);
+        when(mockPoolMetrics.getPendingThreads()).thenReturn(1);
+        when(mockPoolMetrics.getAcquisitions()).thenReturn(100L);
+        when(mockPoolMetrics.getTimeouts()).thenReturn(2L);
+        when(mockPoolMetrics.getAverageWaitMillis()).thenReturn(0.5);
+        when(mockPoolMetrics.getMaxWaitMillis()).thenReturn(12.);
+        when(mockPoolMetrics.getAverageUsageMillis()).thenReturn(4.);
+        when(mockPoolMetrics.getMaxUsageMillis()).thenReturn(40L);
+
+        assertEquals(
+                new PoolStatisticsDtoResponse(3, 7, 10, 1, 100, 2, 0.5, 12., 4., 40),
+                debugService.getPoolStatistics()
+        );
+    }
+
+    @Test
+    void testGetPurges() throws ServerException {
+        final LocalDateTime requestedAt = LocalDateTime.of(2020, 1, 1, 10, 0);
+        when(mockPurgeDao.getLatest(anyInt()))
+                .thenReturn(Arrays.asList(
+                        new Purge(2, PurgeTarget.TREE, 30, requestedAt, 1500, null),
+                        new Purge(1, PurgeTarget.FORUM, 7, requestedAt, 42, requestedAt.plusMinutes(1))
+                ));
+
+        assertEquals(
+                new PurgeListDtoResponse(Arrays.asList(
+                        new PurgeDtoResponse(2, "TREE", 30, "2020-01-01 10:00:00", 1500, null),
+                        new PurgeDtoResponse(1, "FORUM", 7, "2020-01-01 10:00:00", 42, "2020-01-01 10:01:00")
+                )),
+                debugService.getPurges()
+        );
+    }
+
+    @Test
+    void testReencodeHistory_shouldContinueFromLastMessageOfBatch() throws ServerException {
+        when(mockJobsProperties.getHistoryReencodeBatchSize())
+                .thenReturn(2);
+        when(mockMessageHistoryDao.reencodeHistory(anyInt(), anyInt()))
+                .thenReturn(new HistoryReencodeView(5, 2, 9))
+                .thenReturn(new HistoryReencodeView(8, 1, 3))
+                .thenReturn(new HistoryReencodeView(8, 0, 0));
+
+        assertEquals(new HistoryReencodeDtoResponse(3, 12), debugService.reencodeHistory());
+        verify(mockMessageHistoryDao).reencodeHistory(0, 2);
+        verify(mockMessageHistoryDao).reencodeHistory(5, 2);
+        verify(mockMessageHistoryDao).reencodeHistory(8, 2);
+    }
+}
@@ -0,0 +1,171 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.model.Forum;
+import net.thumbtack.forums.model.User;
+import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.UserRole;
+import net.thumbtack.forums.dao.ExportDao;
+import net.thumbtack.forums.dao.ForumDao;
+import net.thumbtack.forums.dao.SessionDao;
+import net.thumbtack.forums.view.ExportRowView;
+import net.thumbtack.forums.dto.requests.imports.ImportRecordDtoRequest;
+import net.thumbtack.forums.dto.responses.exports.ExportRecordDtoResponse;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.ConstantsProperties;
+import net.thumbtack.forums.configuration.ServerConfigurationProperties;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class ExportServiceTest {
+    private ExportDao mockExportDao;
+    private SessionDao mockSessionDao;
+    private ForumDao mockForumDao;
+    private ExportService exportService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final User superuser = new User(1, UserRole.SUPERUSER, "admin", "admin@email.com", "password",
+            LocalDateTime.now(), false, null, 0
+    );
+    private final LocalDateTime createdAt = LocalDateTime.of(2020, 1, 1, 10, 0);
+
+    @BeforeEach
+    void initMocks() {
+        mockExportDao = mock(ExportDao.class);
+        mockSessionDao = mock(SessionDao.class);
+        mockForumDao = mock(ForumDao.class);
+        final ConstantsProperties mockConstantsProperties = mock(ConstantsProperties.class);
+        exportService = new ExportService(
+                mockExportDao, mockSessionDao, mockForumDao,
+                mock(ServerConfigurationProperties.class), mockConstantsProperties
+        );
+
+        when(mockConstantsProperties.getDatetimePattern())
+                .thenReturn("yyyy-MM-dd HH:mm:ss");
+    }
+
+    @Test
+    void testExportForum() throws ServerException, IOException {
+        final User owner = new User("owner", "owner@email.com", "password");
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(superuser);
+        when(mockForumDao.getById(anyInt()))
+                .thenReturn(new Forum(7, ForumType.MODERATED, owner, "Forum", createdAt, true));
+        exportRows(
+                new ExportRowView(10, ExportRowView.TREE, 0, null, null,
+                        "Subject", "HIGH", null, null, null, null, createdAt),
+                new ExportRowView(10, ExportRowView.TAG, 0, null, null,
+                        null, null, "java", null, null, null, null),
+                new ExportRowView(10, ExportRowView.TAG, 0, null, null,
+                        null, null, "sql", null, null, null, null),
+                new ExportRowView(10, ExportRowView.MESSAGE, 100, null, "owner",
+                        null, null, null, null, null, null, createdAt),
+                new ExportRowView(10, ExportRowView.MESSAGE, 101, 100, "reader",
+                        null, null, null, null, null, null, createdAt.plusHours(1)),
+                new ExportRowView(10, ExportRowView.HISTORY, 100, null, null,
+                        null, null, null, "root", "PUBLISHED", null, createdAt),
+                new ExportRowView(10, ExportRowView.HISTORY, 101, null, null,
+                        null, null, null, "comment", "UNPUBLISHED", null, createdAt.plusHours(1)),
+                new ExportRowView(10, ExportRowView.RATING, 100, null, "reader",
+                        null, null, null, null, null, 5, null),
+                new ExportRowView(11, ExportRowView.TREE, 0, null, null,
+                        "Untagged", "NORMAL", null, null, null, null, createdAt)
+        );
+
+        final List<String> lines = runExport(7);
+
+        final List<ExportRecordDtoResponse> records = new ArrayList<>();
+        for (final String line : lines) {
+            records.add(objectMapper.readValue(line, ExportRecordDtoResponse.class));
+        }
+        assertEquals(Arrays.asList(
+                new ExportRecordDtoResponse("forum", "7", null, null, null, null, "owner", "Forum", "MODERATED",
+                        true, null, null, null, null, null, null, "2020-01-01 10:00:00"),
+                new ExportRecordDtoResponse("tree", "10", "7", null, null, null, null, null, null, null,
+                        "Subject", "HIGH", Arrays.asList("java", "sql"), null, null, null, "2020-01-01 10:00:00"),
+                new ExportRecordDtoResponse("message", "100", null, "10", null, null, "owner", null, null, null,
+                        null, null, null, null, null, null, "2020-01-01 10:00:00"),
+                new ExportRecordDtoResponse("message", "101", null, "10", null, "100", "reader", null, null, null,
+                        null, null, null, null, null, null, "2020-01-01 11:00:00"),
+                new ExportRecordDtoResponse("history", null, null, null, "100", null, null, null, null, null,
+                        null, null, null, "root", "PUBLISHED", null, "2020-01-01 10:00:00"),
+                new ExportRecordDtoResponse("history", null, null, null, "101", null, null, null, null, null,
+                        null, null, null, "comment", "UNPUBLISHED", null, "2020-01-01 11:00:00"),
+                new ExportRecordDtoResponse("rating", null, null, null, "100", null, "reader", null, null, null,
+                        null, null, null, null, null, 5, null),
+                new ExportRecordDtoResponse("tree", "11", "7", null, null, null, null, null, null, null,
+                        "Untagged", "NORMAL", null, null, null, null, "2020-01-01 10:00:00")
+        ), records);
+
+        // the output is read back by the import
+        final ImportRecordDtoRequest tree = objectMapper.readValue(lines.get(1), ImportRecordDtoRequest.class);
+        assertEquals("7", tree.getForum());
+        assertEquals(Arrays.asList("java", "sql"), tree.getTags());
+        assertFalse(lines.get(7).contains("tags"));
+    }
+
+    @Test
+    void testExportForum_notSuperuser_shouldThrowException() throws ServerException {
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(new User("user", "user@email.com", "password"));
+
+        try {
+            exportService.exportForum("token", 7);
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.FORBIDDEN_OPERATION, ex.getErrorCode());
+        }
+        verifyZeroInteractions(mockExportDao);
+    }
+
+    @Test
+    void testExportForum_forumNotFound_shouldThrowException() throws ServerException {
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(superuser);
+        when(mockForumDao.getById(anyInt()))
+                .thenReturn(null);
+
+        try {
+            exportService.exportForum("token", 7);
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.FORUM_NOT_FOUND, ex.getErrorCode());
+        }
+        verifyZeroInteractions(mockExportDao);
+    }
+
+    private void exportRows(final ExportRowView... rows) throws ServerException {
+        doAnswer(invocationOnMock -> {
+            final Consumer<ExportRowView> consumer = invocationOnMock.getArgument(1);
+            Arrays.asList(rows).forEach(consumer);
+            return null;
+        })
+                .when(mockExportDao)
+                .exportForum(anyInt(), any());
+    }
+
+    private List<String> runExport(final int forumId) throws ServerException, IOException {
+        final JsonStreamWriter writer = exportService.exportForum("token", forumId);
+        final StringWriter output = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            writer.writeTo(generator);
+        }
+        return Arrays.asList(output.toString().split("\n"));
+    }
+}
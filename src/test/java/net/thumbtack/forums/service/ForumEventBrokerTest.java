@@ -0,0 +1,140 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.model.ForumChange;
+import net.thumbtack.forums.model.enums.ForumChangeType;
+import net.thumbtack.forums.dto.responses.message.ForumEventDtoResponse;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForumEventBrokerTest {
+    private static class RecordingSubscriber extends BaseSubscriber<ServerSentEvent<ForumEventDtoResponse>> {
+        private final List<ServerSentEvent<ForumEventDtoResponse>> events = new CopyOnWriteArrayList<>();
+        private final long initialRequest;
+        private volatile boolean completed;
+
+        RecordingSubscriber(final long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            if (initialRequest > 0) {
+                request(initialRequest);
+            }
+        }
+
+        @Override
+        protected void hookOnNext(ServerSentEvent<ForumEventDtoResponse> event) {
+            events.add(event);
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            completed = true;
+        }
+
+        List<ForumEventDtoResponse> getData() {
+            final List<ForumEventDtoResponse> data = new ArrayList<>();
+            for (final ServerSentEvent<ForumEventDtoResponse> event : events) {
+                if (event.data() != null) {
+                    data.add(event.data());
+                }
+            }
+            return data;
+        }
+    }
+
+    private static ForumChange createChange(final int forumId, final long sequence, final int messageId) {
+        return new ForumChange(forumId, sequence, messageId, null, ForumChangeType.CREATED, LocalDateTime.now());
+    }
+
+    @Test
+    void testPublish_shouldSendEventsOnlyToSubscribersOfForum() {
+        final ForumEventBroker broker = new ForumEventBroker(10, Duration.ofHours(1), false);
+        final RecordingSubscriber firstForumSubscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        final RecordingSubscriber secondForumSubscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        broker.subscribe(1).subscribe(firstForumSubscriber);
+        broker.subscribe(2).subscribe(secondForumSubscriber);
+        assertEquals(2, broker.getSubscribersCount());
+
+        broker.publish(createChange(1, 5, 100));
+        broker.publish(createChange(3, 1, 300));
+
+        assertEquals(1, firstForumSubscriber.getData().size());
+        final ServerSentEvent<ForumEventDtoResponse> event = firstForumSubscriber.events.stream()
+                .filter(e -> e.data() != null)
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        assertEquals("5", event.id());
+        assertEquals(ForumChangeType.CREATED.name(), event.event());
+        assertEquals(new ForumEventDtoResponse(5, "CREATED", 100, null), event.data());
+        assertTrue(secondForumSubscriber.getData().isEmpty());
+
+        firstForumSubscriber.dispose();
+        secondForumSubscriber.dispose();
+        assertEquals(0, broker.getSubscribersCount());
+    }
+
+    @Test
+    void testPublish_slowSubscriber_shouldDropOldestEvents() {
+        final ForumEventBroker broker = new ForumEventBroker(2, Duration.ofHours(1), false);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        broker.subscribe(1).subscribe(subscriber);
+
+        for (int i = 1; i <= 5; i++) {
+            broker.publish(createChange(1, i, 100 + i));
+        }
+        subscriber.request(10);
+
+        // the first event is already taken from the buffer by the merge with heartbeats
+        final List<ForumEventDtoResponse> data = subscriber.getData();
+        assertEquals(3, data.size());
+        assertEquals(1, data.get(0).getSequence());
+        assertEquals(4, data.get(1).getSequence());
+        assertEquals(5, data.get(2).getSequence());
+        assertEquals(2, broker.getDroppedEvents());
+        assertFalse(subscriber.completed);
+        subscriber.dispose();
+    }
+
+    @Test
+    void testPublish_slowSubscriber_shouldBeDisconnected() {
+        final ForumEventBroker broker = new ForumEventBroker(2, Duration.ofHours(1), true);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        broker.subscribe(1).subscribe(subscriber);
+
+        for (int i = 1; i <= 5; i++) {
+            broker.publish(createChange(1, i, 100 + i));
+        }
+        subscriber.request(10);
+
+        assertTrue(subscriber.completed);
+        assertEquals(1, broker.getDisconnectedSubscribers());
+        assertEquals(0, broker.getSubscribersCount());
+    }
+
+    @Test
+    void testSubscribe_shouldSendHeartbeatAtOnce() throws InterruptedException {
+        final ForumEventBroker broker = new ForumEventBroker(2, Duration.ofHours(1), false);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        broker.subscribe(1).subscribe(subscriber);
+
+        for (int i = 0; i < 50 && subscriber.events.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, subscriber.events.size());
+        assertEquals("heartbeat", subscriber.events.get(0).comment());
+        subscriber.dispose();
+    }
+}
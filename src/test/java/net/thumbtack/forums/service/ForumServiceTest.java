@@ -6,6 +6,7 @@ import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.enums.UserRole;
 import net.thumbtack.forums.dao.ForumDao;
 import net.thumbtack.forums.dao.SessionDao;
+import net.thumbtack.forums.cache.SearchIndex;
 import net.thumbtack.forums.dto.requests.forum.CreateForumDtoRequest;
 import net.thumbtack.forums.dto.responses.forum.ForumDtoResponse;
 import net.thumbtack.forums.dto.responses.forum.ForumInfoDtoResponse;
@@ -31,6 +32,7 @@ import static org.mockito.Mockito.*;
 class ForumServiceTest {
     private ForumDao mockForumDao;
     private SessionDao mockSessionDao;
+    private SearchIndex mockSearchIndex;
     private ServerConfigurationProperties mockServerProperties;
     private ConstantsProperties mockConstantsProperties;
     private ForumService forumService;
@@ -39,11 +41,12 @@ class ForumServiceTest {
     void initMocks() {
         mockForumDao = mock(ForumDao.class);
         mockSessionDao = mock(SessionDao.class);
+        mockSearchIndex = mock(SearchIndex.class);
         mockServerProperties = mock(ServerConfigurationProperties.class);
         mockConstantsProperties = mock(ConstantsProperties.class);
 
         forumService = new ForumService(
-                mockForumDao, mockSessionDao, mockConstantsProperties, mockServerProperties
+                mockForumDao, mockSessionDao, mockSearchIndex, mockConstantsProperties, mockServerProperties
         );
     }
 
@@ -174,6 +177,7 @@ class ForumServiceTest {
         verify(mockServerProperties).getMaxBanCount();
         verify(mockForumDao).getById(anyInt());
         verify(mockForumDao).deleteById(anyInt());
+        verify(mockSearchIndex).removeForum(forum.getId());
     }
 
     @Test
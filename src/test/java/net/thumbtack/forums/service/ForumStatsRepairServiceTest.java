@@ -0,0 +1,51 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.ForumStatsDao;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+class ForumStatsRepairServiceTest {
+    private ForumStatsDao mockForumStatsDao;
+    private ForumStatsRepairService forumStatsRepairService;
+
+    @BeforeEach
+    void initMocks() {
+        mockForumStatsDao = mock(ForumStatsDao.class);
+        forumStatsRepairService = new ForumStatsRepairService(mockForumStatsDao);
+    }
+
+    @Test
+    void testRepairForumStats_shouldVerifyEveryForum() throws ServerException {
+        when(mockForumStatsDao.getForumIds())
+                .thenReturn(Arrays.asList(3, 7, 9));
+        when(mockForumStatsDao.repairStats(anyInt()))
+                .thenReturn(false);
+        when(mockForumStatsDao.repairStats(7))
+                .thenReturn(true);
+
+        forumStatsRepairService.repairForumStats();
+
+        verify(mockForumStatsDao).repairStats(3);
+        verify(mockForumStatsDao).repairStats(7);
+        verify(mockForumStatsDao).repairStats(9);
+        verify(mockForumStatsDao, times(3)).repairStats(anyInt());
+    }
+
+    @Test
+    void testRepairForumStats_noForums_shouldDoNothing() throws ServerException {
+        when(mockForumStatsDao.getForumIds())
+                .thenReturn(Collections.emptyList());
+
+        forumStatsRepairService.repairForumStats();
+
+        verify(mockForumStatsDao, never()).repairStats(anyInt());
+    }
+}
@@ -0,0 +1,298 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.model.Forum;
+import net.thumbtack.forums.model.HistoryItem;
+import net.thumbtack.forums.model.MessageItem;
+import net.thumbtack.forums.model.MessageTree;
+import net.thumbtack.forums.model.Rating;
+import net.thumbtack.forums.model.Tag;
+import net.thumbtack.forums.model.User;
+import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.MessagePriority;
+import net.thumbtack.forums.model.enums.MessageState;
+import net.thumbtack.forums.model.enums.UserRole;
+import net.thumbtack.forums.dao.ForumDao;
+import net.thumbtack.forums.dao.ImportDao;
+import net.thumbtack.forums.dao.SessionDao;
+import net.thumbtack.forums.cache.SearchIndex;
+import net.thumbtack.forums.dto.requests.imports.ImportRecordDtoRequest;
+import net.thumbtack.forums.dto.responses.imports.ImportProgressDtoResponse;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.ConstantsProperties;
+import net.thumbtack.forums.configuration.JobsProperties;
+import net.thumbtack.forums.configuration.ServerConfigurationProperties;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ImportServiceTest {
+    private ImportDao mockImportDao;
+    private SessionDao mockSessionDao;
+    private SearchIndex mockSearchIndex;
+    private JobsProperties mockJobsProperties;
+    private ImportService importService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<List<Forum>> savedForums = new ArrayList<>();
+    private final List<List<MessageTree>> savedTrees = new ArrayList<>();
+    private final List<List<Rating>> savedRatings = new ArrayList<>();
+
+    @BeforeEach
+    void initMocks() throws ServerException {
+        mockImportDao = mock(ImportDao.class);
+        mockSessionDao = mock(SessionDao.class);
+        mockJobsProperties = mock(JobsProperties.class);
+        mockSearchIndex = mock(SearchIndex.class);
+        final ConstantsProperties mockConstantsProperties = mock(ConstantsProperties.class);
+        importService = new ImportService(
+                mockImportDao, mockSessionDao, mock(ForumDao.class), mockSearchIndex,
+                mock(ServerConfigurationProperties.class), mockConstantsProperties, mockJobsProperties
+        );
+
+        when(mockConstantsProperties.getDatetimePattern())
+                .thenReturn("yyyy-MM-dd HH:mm:ss");
+        when(mockJobsProperties.getImportChunkSize())
+                .thenReturn(1000);
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(new User(1, UserRole.SUPERUSER, "admin", "admin@email.com", "password",
+                        LocalDateTime.now(), false, null, 0
+                ));
+        // lists are reused by the service for the next chunk, so they are copied
+        doAnswer(invocationOnMock -> {
+            savedForums.add(new ArrayList<>(invocationOnMock.<List<Forum>>getArgument(0)));
+            savedTrees.add(new ArrayList<>(invocationOnMock.<List<MessageTree>>getArgument(1)));
+            savedRatings.add(new ArrayList<>(invocationOnMock.<List<Rating>>getArgument(2)));
+            return null;
+        })
+                .when(mockImportDao)
+                .saveChunk(anyList(), anyList(), anyList());
+    }
+
+    @Test
+    void testImportForums() throws ServerException, IOException {
+        final List<ImportProgressDtoResponse> progress = runImport(
+                forum("f1", "owner", "Legacy forum"),
+                tree("t1", "f1", "Subject", Arrays.asList("Java", "java", "SQL")),
+                message("m1", "t1", null, "owner", "2020-01-01 10:00:00"),
+                history("m1", "first", "2020-01-01 10:00:00"),
+                history("m1", "second", "2020-01-02 10:00:00"),
+                message("m2", "t1", "m1", "reader", "2020-01-03 10:00:00"),
+                history("m2", "comment", "2020-01-03 10:00:00"),
+                rating("m1", "reader", 4),
+                rating("m1", "READER", 5)
+        );
+
+        assertEquals(2, progress.size());
+        assertEquals(new ImportProgressDtoResponse(
+                9, 1, 1, 2, 3, 1, progress.get(0).getElapsedMillis(), progress.get(0).getRowsPerSecond(), false, null
+        ), progress.get(0));
+        assertTrue(progress.get(1).isFinished());
+        assertNull(progress.get(1).getError());
+
+        verify(mockImportDao).saveChunk(anyList(), anyList(), anyList());
+        final Forum forum = savedForums.get(0).get(0);
+        assertEquals("Legacy forum", forum.getName());
+        assertEquals(ForumType.UNMODERATED, forum.getType());
+        assertEquals("owner", forum.getOwner().getUsername());
+
+        final MessageTree tree = savedTrees.get(0).get(0);
+        assertSame(forum, tree.getForum());
+        assertEquals(MessagePriority.NORMAL, tree.getPriority());
+        assertEquals(Arrays.asList(new Tag("Java"), new Tag("java"), new Tag("SQL")), tree.getTags());
+
+        final MessageItem root = tree.getRootMessage();
+        assertNull(root.getParentMessage());
+        assertEquals(Arrays.asList(
+                new HistoryItem("second", MessageState.PUBLISHED, LocalDateTime.of(2020, 1, 2, 10, 0)),
+                new HistoryItem("first", MessageState.PUBLISHED, LocalDateTime.of(2020, 1, 1, 10, 0))
+        ), root.getHistory());
+        assertEquals(LocalDateTime.of(2020, 1, 2, 10, 0), root.getUpdatedAt());
+        assertEquals(1, root.getChildrenComments().size());
+        assertSame(root, root.getChildrenComments().get(0).getParentMessage());
+
+        assertEquals(1, savedRatings.get(0).size());
+        assertSame(root, savedRatings.get(0).get(0).getMessage());
+        assertEquals(5, savedRatings.get(0).get(0).getValue());
+
+        verify(mockSearchIndex).putTree(
+                eq(tree.getId()), eq(forum.getId()), eq(root.getId()), eq(tree.getSubject()), anyList()
+        );
+        verify(mockSearchIndex).putMessage(root.getId(), tree.getId(), "second");
+        verify(mockSearchIndex, times(2)).putMessage(anyInt(), anyInt(), anyString());
+    }
+
+    @Test
+    void testImportForums_commitsWholeTreesInChunks() throws ServerException, IOException {
+        when(mockJobsProperties.getImportChunkSize())
+                .thenReturn(3);
+
+        final List<ImportProgressDtoResponse> progress = runImport(
+                forum("f1", "owner", "Legacy forum"),
+                tree("t1", "f1", "First", null),
+                message("m1", "t1", null, "owner", null),
+                history("m1", "first", null),
+                tree("t2", "f1", "Second", null),
+                message("m2", "t2", null, "owner", null),
+                history("m2", "second", null)
+        );
+
+        verify(mockImportDao, times(2)).saveChunk(anyList(), anyList(), anyList());
+        assertEquals(1, savedForums.get(0).size());
+        assertEquals(1, savedTrees.get(0).size());
+        assertEquals(0, savedForums.get(1).size());
+        assertEquals(1, savedTrees.get(1).size());
+        assertSame(savedForums.get(0).get(0), savedTrees.get(1).get(0).getForum());
+
+        assertEquals(3, progress.size());
+        assertEquals(1, progress.get(0).getTrees());
+        assertEquals(2, progress.get(1).getTrees());
+        assertTrue(progress.get(2).isFinished());
+    }
+
+    @Test
+    void testImportForums_unknownParent_shouldReportErrorLine() throws ServerException, IOException {
+        final List<ImportProgressDtoResponse> progress = runImport(
+                forum("f1", "owner", "Legacy forum"),
+                tree("t1", "f1", "Subject", null),
+                message("m1", "t1", null, "owner", null),
+                message("m2", "t1", "m7", "owner", null)
+        );
+
+        verify(mockImportDao, never()).saveChunk(anyList(), anyList(), anyList());
+        assertEquals(1, progress.size());
+        assertEquals(4, progress.get(0).getLines());
+        assertEquals(0, progress.get(0).getTrees());
+        assertTrue(progress.get(0).isFinished());
+        assertEquals(ErrorCode.MESSAGE_NOT_FOUND.name(), progress.get(0).getError().getErrorCode());
+    }
+
+    @Test
+    void testImportForums_messageWithoutHistory_shouldReportError() throws ServerException, IOException {
+        final List<ImportProgressDtoResponse> progress = runImport(
+                forum("f1", "owner", "Legacy forum"),
+                tree("t1", "f1", "Subject", null),
+                message("m1", "t1", null, "owner", null)
+        );
+
+        verify(mockImportDao, never()).saveChunk(anyList(), anyList(), anyList());
+        assertEquals(ErrorCode.INVALID_REQUEST_DATA.name(), progress.get(0).getError().getErrorCode());
+    }
+
+    @Test
+    void testImportForums_authorRatesOwnMessage_shouldReportError() throws ServerException, IOException {
+        final List<ImportProgressDtoResponse> progress = runImport(
+                forum("f1", "owner", "Legacy forum"),
+                tree("t1", "f1", "Subject", null),
+                message("m1", "t1", null, "owner", null),
+                rating("m1", "Owner", 5)
+        );
+
+        assertEquals(
+                ErrorCode.MESSAGE_CREATOR_RATES_HIS_MESSAGE.name(),
+                progress.get(0).getError().getErrorCode()
+        );
+    }
+
+    @Test
+    void testImportForums_chunkFailed_shouldKeepCommittedCounts() throws ServerException, IOException {
+        when(mockJobsProperties.getImportChunkSize())
+                .thenReturn(1);
+        doNothing()
+                .doThrow(new ServerException(ErrorCode.DATABASE_ERROR))
+                .when(mockImportDao)
+                .saveChunk(anyList(), anyList(), anyList());
+
+        final List<ImportProgressDtoResponse> progress = runImport(
+                forum("f1", "owner", "Legacy forum"),
+                tree("t1", "f1", "First", null),
+                message("m1", "t1", null, "owner", null),
+                history("m1", "first", null),
+                tree("t2", "f1", "Second", null),
+                message("m2", "t2", null, "owner", null),
+                history("m2", "second", null)
+        );
+
+        assertEquals(2, progress.size());
+        assertEquals(1, progress.get(0).getTrees());
+        assertEquals(7, progress.get(1).getLines());
+        assertEquals(1, progress.get(1).getForums());
+        assertEquals(1, progress.get(1).getTrees());
+        assertEquals(ErrorCode.DATABASE_ERROR.name(), progress.get(1).getError().getErrorCode());
+    }
+
+    @Test
+    void testImportForums_notSuperuser_shouldThrowException() throws ServerException {
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(new User("user", "user@email.com", "password"));
+
+        try {
+            importService.importForums("token", Collections.emptyIterator());
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.FORBIDDEN_OPERATION, ex.getErrorCode());
+        }
+        verifyZeroInteractions(mockImportDao);
+    }
+
+    private List<ImportProgressDtoResponse> runImport(final ImportRecordDtoRequest... records)
+            throws ServerException, IOException {
+        final JsonStreamWriter writer = importService.importForums("token", Arrays.asList(records).iterator());
+        final StringWriter output = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            writer.writeTo(generator);
+        }
+
+        final List<ImportProgressDtoResponse> progress = new ArrayList<>();
+        for (final String line : output.toString().split("\n")) {
+            progress.add(objectMapper.readValue(line, ImportProgressDtoResponse.class));
+        }
+        return progress;
+    }
+
+    private static ImportRecordDtoRequest forum(final String id, final String user, final String name) {
+        return new ImportRecordDtoRequest("forum", id, null, null, null, null, user, name,
+                null, null, null, null, null, null, null, null, null
+        );
+    }
+
+    private static ImportRecordDtoRequest tree(final String id, final String forum,
+                                               final String subject, final List<String> tags) {
+        return new ImportRecordDtoRequest("tree", id, forum, null, null, null, null, null,
+                null, null, subject, null, tags, null, null, null, null
+        );
+    }
+
+    private static ImportRecordDtoRequest message(final String id, final String tree, final String parent,
+                                                  final String user, final String createdAt) {
+        return new ImportRecordDtoRequest("message", id, null, tree, null, parent, user, null,
+                null, null, null, null, null, null, null, null, createdAt
+        );
+    }
+
+    private static ImportRecordDtoRequest history(final String message, final String body, final String createdAt) {
+        return new ImportRecordDtoRequest("history", null, null, null, message, null, null, null,
+                null, null, null, null, null, body, null, null, createdAt
+        );
+    }
+
+    private static ImportRecordDtoRequest rating(final String message, final String user, final int rating) {
+        return new ImportRecordDtoRequest("rating", null, null, null, message, null, user, null,
+                null, null, null, null, null, null, null, rating, null
+        );
+    }
+}
@@ -3,6 +3,10 @@ package net.thumbtack.forums.service;
 import net.thumbtack.forums.model.*;
 import net.thumbtack.forums.model.enums.*;
 import net.thumbtack.forums.dao.*;
+import net.thumbtack.forums.cache.MessageResponseCache;
+import net.thumbtack.forums.cache.SearchIndex;
+import net.thumbtack.forums.converter.CursorConverter;
+import net.thumbtack.forums.converter.MessageConverter;
 import net.thumbtack.forums.dto.requests.message.*;
 import net.thumbtack.forums.dto.responses.message.*;
 import net.thumbtack.forums.exception.ErrorCode;
@@ -17,11 +21,15 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.time.LocalDateTime;
@@ -38,6 +46,9 @@ class MessageServiceTest {
     private MessageDao mockMessageDao;
     private MessageHistoryDao mockMessageHistoryDao;
     private RatingDao mockRatingDao;
+    private ForumChangeDao mockForumChangeDao;
+    private ForumEventBroker mockForumEventBroker;
+    private SearchIndex mockSearchIndex;
     private ServerConfigurationProperties mockServerProperties;
     private ConstantsProperties mockConstantsProperties;
     private MessageService messageService;
@@ -50,13 +61,17 @@ class MessageServiceTest {
         mockMessageDao = mock(MessageDao.class);
         mockMessageHistoryDao = mock(MessageHistoryDao.class);
         mockRatingDao = mock(RatingDao.class);
+        mockForumChangeDao = mock(ForumChangeDao.class);
+        mockForumEventBroker = mock(ForumEventBroker.class);
+        mockSearchIndex = mock(SearchIndex.class);
         mockServerProperties = mock(ServerConfigurationProperties.class);
         mockConstantsProperties = mock(ConstantsProperties.class);
 
         messageService = new MessageService(
                 mockSessionDao, mockForumDao,
                 mockMessageTreeDao, mockMessageDao, mockMessageHistoryDao,
-                mockRatingDao, mockServerProperties, mockConstantsProperties
+                mockRatingDao, mockForumChangeDao, mockForumEventBroker, new MessageResponseCache(0),
+                mockSearchIndex, mockServerProperties, mockConstantsProperties
         );
     }
 
@@ -118,6 +133,10 @@ class MessageServiceTest {
                 .getById(anyInt());
         verify(mockMessageTreeDao)
                 .saveMessageTree(any(MessageTree.class));
+        verify(mockSearchIndex)
+                .putTree(anyInt(), anyInt(), eq(messageId), eq(request.getSubject()), anyList());
+        verify(mockSearchIndex, times(messageState == MessageState.PUBLISHED ? 1 : 0))
+                .putMessage(eq(messageId), anyInt(), eq(request.getBody()));
     }
 
     @Test
@@ -301,12 +320,26 @@ class MessageServiceTest {
                 .when(mockMessageDao)
                 .saveMessageItem(any(MessageItem.class));
 
+        when(mockForumChangeDao.saveChange(any(ForumChange.class)))
+                .thenAnswer(invocationOnMock -> {
+                    final ForumChange change = invocationOnMock.getArgument(0);
+                    change.setSequence(3);
+                    return change;
+                });
+
         final MessageDtoResponse actualResponse = messageService.addComment(token, parentMessageId, request);
         assertEquals(expectedResponse, actualResponse);
 
         verify(mockSessionDao).getUserByToken(anyString());
         verify(mockMessageDao).getMessageById(anyInt());
         verify(mockMessageDao).saveMessageItem(any(MessageItem.class));
+
+        final ArgumentCaptor<ForumChange> changeCaptor = ArgumentCaptor.forClass(ForumChange.class);
+        verify(mockForumChangeDao).saveChange(changeCaptor.capture());
+        assertEquals(childMessageId, changeCaptor.getValue().getMessageId());
+        assertEquals(Integer.valueOf(parentMessageId), changeCaptor.getValue().getParentMessageId());
+        assertEquals(ForumChangeType.CREATED, changeCaptor.getValue().getType());
+        verify(mockForumEventBroker).publish(changeCaptor.getValue());
     }
 
     @Test
@@ -514,6 +547,8 @@ class MessageServiceTest {
                 .deleteTreeById(anyInt());
         verify(mockMessageDao, never())
                 .deleteMessageById(anyInt());
+        verify(mockSearchIndex)
+                .removeTree(tree.getId());
     }
 
     @Test
@@ -573,6 +608,7 @@ class MessageServiceTest {
         verify(mockMessageDao).getMessageById(anyInt());
         verify(mockMessageDao).deleteMessageById(anyInt());
         verify(mockMessageTreeDao, never()).deleteTreeById(anyInt());
+        verify(mockSearchIndex).removeMessages(Collections.singletonList(comment1.getId()));
     }
 
     @Test
@@ -2283,9 +2319,8 @@ class MessageServiceTest {
         when(mockSessionDao.getUserByToken(anyString())).thenReturn(forumOwner);
         when(mockServerProperties.getMaxBanCount()).thenReturn(maxBanCount);
         when(mockMessageDao.getMessageById(anyInt())).thenReturn(parentMessage);
-        doNothing()
-                .when(mockRatingDao)
-                .upsertRating(any(MessageItem.class), any(User.class), anyInt());
+        when(mockRatingDao.upsertRating(any(MessageItem.class), any(User.class), anyInt()))
+                .thenReturn(false);
 
         messageService.rate(token, messageId, request);
 
@@ -2297,6 +2332,46 @@ class MessageServiceTest {
                 .deleteRate(any(MessageItem.class), any(User.class));
     }
 
+    @Test
+    void testRateMessage_voteQueued_shouldNotRecordChange() throws ServerException {
+        final User forumOwner = new User(
+                "ForumOwner", "ForumOwner@email.com", "f0rUmS|r0nGPa55"
+        );
+        final User messageOwner = new User(
+                "MessageOwner", "MessageOwner@email.com", "v3ryStr0ngPa55"
+        );
+        final Forum forum = new Forum(
+                ForumType.MODERATED, forumOwner,
+                "ForumName", LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final HistoryItem parentHistory = new HistoryItem(
+                "Root Message Body", MessageState.PUBLISHED,
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem parentMessage = new MessageItem(
+                messageOwner, Collections.singletonList(parentHistory), parentHistory.getCreatedAt()
+        );
+        final MessageTree tree = new MessageTree(
+                forum, "TreeSubject", parentMessage,
+                MessagePriority.NORMAL, parentHistory.getCreatedAt()
+        );
+        parentMessage.setMessageTree(tree);
+
+        when(mockSessionDao.getUserByToken(anyString())).thenReturn(forumOwner);
+        when(mockServerProperties.getMaxBanCount()).thenReturn(5);
+        when(mockMessageDao.getMessageById(anyInt())).thenReturn(parentMessage);
+        when(mockRatingDao.upsertRating(any(MessageItem.class), any(User.class), anyInt()))
+                .thenReturn(true);
+
+        messageService.rate("token", 123, new RateMessageDtoRequest(5));
+
+        verify(mockRatingDao)
+                .upsertRating(any(MessageItem.class), any(User.class), anyInt());
+        // the change of a queued vote is recorded when the vote is flushed
+        verify(mockForumChangeDao, never()).saveChange(any(ForumChange.class));
+        verify(mockForumEventBroker, never()).publish(any(ForumChange.class));
+    }
+
     @Test
     void testRemoveRating() throws ServerException {
         final int maxBanCount = 5;
@@ -2335,7 +2410,7 @@ class MessageServiceTest {
         doAnswer(invocationOnMock -> {
             MessageItem aMessage = invocationOnMock.getArgument(0);
             aMessage.setAverageRating(0);
-            return invocationOnMock;
+            return false;
         })
                 .when(mockRatingDao)
                 .deleteRate(any(MessageItem.class), any(User.class));
@@ -2562,7 +2637,7 @@ class MessageServiceTest {
         when(mockMessageDao.getMessageById(anyInt())).thenReturn(parentMessage);
         when(mockMessageTreeDao
                 .getTreeRootMessage(anyInt(), any(MessageOrder.class),
-                        anyBoolean(), anyBoolean(), eq(actualUnpublished), anyInt()
+                        anyBoolean(), anyBoolean(), eq(actualUnpublished), anyInt(), eq(CommentsSlice.UNLIMITED)
                 )
         )
                 .thenReturn(parentMessage);
@@ -2570,7 +2645,7 @@ class MessageServiceTest {
         final String token = "token";
         final MessageInfoDtoResponse response = messageService.getMessage(
                 token, 123, true,
-                true, receivedUnpublished, MessageOrder.ASC.name()
+                true, receivedUnpublished, MessageOrder.ASC.name(), null, null, null
         );
         assertEquals(parentMessage.getId(), response.getId());
         assertEquals(messageOwner.getUsername(), response.getCreator());
@@ -2588,7 +2663,7 @@ class MessageServiceTest {
         verify(mockMessageDao).getMessageById(anyInt());
         verify(mockMessageTreeDao)
                 .getTreeRootMessage(anyInt(), any(MessageOrder.class),
-                        anyBoolean(), anyBoolean(), eq(actualUnpublished), anyInt()
+                        anyBoolean(), anyBoolean(), eq(actualUnpublished), anyInt(), eq(CommentsSlice.UNLIMITED)
                 );
     }
 
@@ -2629,14 +2704,14 @@ class MessageServiceTest {
         when(mockMessageTreeDao
                 .getTreeRootMessage(
                         anyInt(), eq(MessageOrder.DESC),
-                        eq(false), eq(false), eq(false), anyInt()
+                        eq(false), eq(false), eq(false), anyInt(), eq(CommentsSlice.UNLIMITED)
                 )
         )
                 .thenReturn(parentMessage);
 
         final String token = "token";
         final MessageInfoDtoResponse response = messageService.getMessage(
-                token, 123, false, null, null, null
+                token, 123, false, null, null, null, null, null, null
         );
         assertEquals(parentMessage.getId(), response.getId());
         assertEquals(messageOwner.getUsername(), response.getCreator());
@@ -2659,10 +2734,278 @@ class MessageServiceTest {
         verify(mockMessageTreeDao)
                 .getTreeRootMessage(
                         anyInt(), eq(MessageOrder.DESC),
-                        eq(false), eq(false), eq(false), anyInt()
+                        eq(false), eq(false), eq(false), anyInt(), eq(CommentsSlice.UNLIMITED)
+                );
+    }
+
+    @Test
+    void testGetMessage_responseCached_shouldLoadTreeOnceUntilMessageRated() throws ServerException {
+        final MessageService cachingMessageService = new MessageService(
+                mockSessionDao, mockForumDao,
+                mockMessageTreeDao, mockMessageDao, mockMessageHistoryDao,
+                mockRatingDao, mockForumChangeDao, mockForumEventBroker, new MessageResponseCache(10),
+                mockSearchIndex, mockServerProperties, mockConstantsProperties
+        );
+        final User forumOwner = new User(
+                "ForumOwner", "ForumOwner@email.com", "f0rUmS|r0nGPa55"
+        );
+        forumOwner.setId(1);
+        final User messageOwner = new User(
+                "MessageOwner", "MessageOwner@email.com", "v3ryStr0ngPa55"
+        );
+        messageOwner.setId(2);
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, forumOwner, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final HistoryItem parentHistory = new HistoryItem(
+                "Root Message Body", MessageState.PUBLISHED, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem parentMessage = new MessageItem(
+                messageOwner, Collections.singletonList(parentHistory), parentHistory.getCreatedAt()
+        );
+        parentMessage.setId(123);
+        final MessageTree tree = new MessageTree(
+                forum, "TreeSubject", parentMessage, MessagePriority.NORMAL, parentMessage.getCreatedAt(),
+                Collections.emptyList()
+        );
+        parentMessage.setMessageTree(tree);
+
+        when(mockSessionDao.getUserByToken(anyString())).thenReturn(forumOwner);
+        when(mockMessageDao.getMessageById(anyInt())).thenReturn(parentMessage);
+        when(mockMessageTreeDao.getUnpublishedOwnerIds(anyInt(), anyBoolean()))
+                .thenReturn(Collections.emptyList());
+        when(mockMessageTreeDao
+                .getTreeRootMessage(
+                        anyInt(), any(MessageOrder.class),
+                        anyBoolean(), anyBoolean(), anyBoolean(), anyInt(), eq(CommentsSlice.UNLIMITED)
+                )
+        )
+                .thenReturn(parentMessage);
+
+        final MessageInfoDtoResponse firstResponse = cachingMessageService.getMessage(
+                "token", 123, null, null, null, null, null, null, null
+        );
+        final MessageInfoDtoResponse secondResponse = cachingMessageService.getMessage(
+                "token", 123, null, null, null, null, null, null, null
+        );
+        assertEquals(firstResponse, secondResponse);
+        verify(mockMessageTreeDao, times(1))
+                .getTreeRootMessage(
+                        anyInt(), any(MessageOrder.class),
+                        anyBoolean(), anyBoolean(), anyBoolean(), anyInt(), eq(CommentsSlice.UNLIMITED)
+                );
+
+        cachingMessageService.getMessage("token", 123, null, null, null, MessageOrder.ASC.name(), null, null, null);
+        verify(mockMessageTreeDao, times(2))
+                .getTreeRootMessage(
+                        anyInt(), any(MessageOrder.class),
+                        anyBoolean(), anyBoolean(), anyBoolean(), anyInt(), eq(CommentsSlice.UNLIMITED)
+                );
+
+        when(mockServerProperties.getMaxBanCount()).thenReturn(5);
+        cachingMessageService.rate("token", 123, new RateMessageDtoRequest(5));
+        cachingMessageService.getMessage("token", 123, null, null, null, null, null, null, null);
+        verify(mockMessageTreeDao, times(3))
+                .getTreeRootMessage(
+                        anyInt(), any(MessageOrder.class),
+                        anyBoolean(), anyBoolean(), anyBoolean(), anyInt(), eq(CommentsSlice.UNLIMITED)
                 );
     }
 
+    @Test
+    void testGetMessage_requesterOwnsUnpublishedMessage_shouldNotCacheResponse() throws ServerException {
+        final MessageService cachingMessageService = new MessageService(
+                mockSessionDao, mockForumDao,
+                mockMessageTreeDao, mockMessageDao, mockMessageHistoryDao,
+                mockRatingDao, mockForumChangeDao, mockForumEventBroker, new MessageResponseCache(10),
+                mockSearchIndex, mockServerProperties, mockConstantsProperties
+        );
+        final User forumOwner = new User(
+                "ForumOwner", "ForumOwner@email.com", "f0rUmS|r0nGPa55"
+        );
+        forumOwner.setId(1);
+        final User requesterUser = new User(
+                "RequesterUser", "RequesterUser@email.com", "v3ryStr0ngPa55"
+        );
+        requesterUser.setId(2);
+        final Forum forum = new Forum(
+                ForumType.MODERATED, forumOwner, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final HistoryItem parentHistory = new HistoryItem(
+                "Root Message Body", MessageState.PUBLISHED, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem parentMessage = new MessageItem(
+                forumOwner, Collections.singletonList(parentHistory), parentHistory.getCreatedAt()
+        );
+        final MessageTree tree = new MessageTree(
+                forum, "TreeSubject", parentMessage, MessagePriority.NORMAL, parentMessage.getCreatedAt(),
+                Collections.emptyList()
+        );
+        parentMessage.setMessageTree(tree);
+
+        when(mockSessionDao.getUserByToken(anyString())).thenReturn(requesterUser);
+        when(mockMessageDao.getMessageById(anyInt())).thenReturn(parentMessage);
+        when(mockMessageTreeDao.getUnpublishedOwnerIds(anyInt(), anyBoolean()))
+                .thenReturn(Collections.singletonList(requesterUser.getId()));
+        when(mockMessageTreeDao
+                .getTreeRootMessage(
+                        anyInt(), any(MessageOrder.class),
+                        anyBoolean(), anyBoolean(), eq(false), eq(requesterUser.getId()), eq(CommentsSlice.UNLIMITED)
+                )
+        )
+                .thenReturn(parentMessage);
+
+        cachingMessageService.getMessage("token", 123, null, null, null, null, null, null, null);
+        cachingMessageService.getMessage("token", 123, null, null, null, null, null, null, null);
+        verify(mockMessageTreeDao, times(2))
+                .getTreeRootMessage(
+                        anyInt(), any(MessageOrder.class),
+                        anyBoolean(), anyBoolean(), eq(false), eq(requesterUser.getId()), eq(CommentsSlice.UNLIMITED)
+                );
+    }
+
+    @Test
+    void testGetMessage_commentsSliceReceived_shouldPassSliceAndReturnMoreCursor() throws ServerException {
+        final User forumOwner = new User(
+                "ForumOwner", "ForumOwner@email.com", "f0rUmS|r0nGPa55"
+        );
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, forumOwner, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final HistoryItem parentHistory = new HistoryItem(
+                "Root Message Body", MessageState.PUBLISHED, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem parentMessage = new MessageItem(
+                forumOwner, Collections.singletonList(parentHistory), parentHistory.getCreatedAt()
+        );
+        parentMessage.setId(123);
+        parentMessage.setMoreComments(new CommentsCursor(123));
+        final MessageTree tree = new MessageTree(
+                forum, "TreeSubject", parentMessage, MessagePriority.NORMAL, parentMessage.getCreatedAt(),
+                Collections.emptyList()
+        );
+        parentMessage.setMessageTree(tree);
+
+        when(mockSessionDao.getUserByToken(anyString())).thenReturn(forumOwner);
+        when(mockMessageDao.getMessageById(anyInt())).thenReturn(parentMessage);
+        when(mockMessageTreeDao
+                .getTreeRootMessage(
+                        anyInt(), any(MessageOrder.class),
+                        anyBoolean(), anyBoolean(), anyBoolean(), anyInt(), eq(new CommentsSlice(5, 0, null))
+                )
+        )
+                .thenReturn(parentMessage);
+
+        final MessageInfoDtoResponse response = messageService.getMessage(
+                "token", 123, null, null, null, null, 5, 0, null
+        );
+        assertEquals(CursorConverter.commentsCursorToString(new CommentsCursor(123)), response.getMore());
+        verify(mockMessageTreeDao)
+                .getTreeRootMessage(
+                        anyInt(), any(MessageOrder.class),
+                        anyBoolean(), anyBoolean(), anyBoolean(), anyInt(), eq(new CommentsSlice(5, 0, null))
+                );
+    }
+
+    @Test
+    void testGetMessage_commentsCursorReceived_shouldNotUseCache() throws ServerException {
+        final MessageService cachingMessageService = new MessageService(
+                mockSessionDao, mockForumDao,
+                mockMessageTreeDao, mockMessageDao, mockMessageHistoryDao,
+                mockRatingDao, mockForumChangeDao, mockForumEventBroker, new MessageResponseCache(10),
+                mockSearchIndex, mockServerProperties, mockConstantsProperties
+        );
+        final User forumOwner = new User(
+                "ForumOwner", "ForumOwner@email.com", "f0rUmS|r0nGPa55"
+        );
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, forumOwner, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final HistoryItem parentHistory = new HistoryItem(
+                "Root Message Body", MessageState.PUBLISHED, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem parentMessage = new MessageItem(
+                forumOwner, Collections.singletonList(parentHistory), parentHistory.getCreatedAt()
+        );
+        parentMessage.setId(123);
+        final MessageTree tree = new MessageTree(
+                forum, "TreeSubject", parentMessage, MessagePriority.NORMAL, parentMessage.getCreatedAt(),
+                Collections.emptyList()
+        );
+        parentMessage.setMessageTree(tree);
+
+        final CommentsCursor cursor = new CommentsCursor(124, parentHistory.getCreatedAt(), 130);
+        final CommentsSlice expectedSlice = new CommentsSlice(10, Integer.MAX_VALUE, cursor);
+        when(mockSessionDao.getUserByToken(anyString())).thenReturn(forumOwner);
+        when(mockMessageDao.getMessageById(anyInt())).thenReturn(parentMessage);
+        when(mockMessageTreeDao
+                .getTreeRootMessage(
+                        anyInt(), any(MessageOrder.class),
+                        anyBoolean(), anyBoolean(), anyBoolean(), anyInt(), eq(expectedSlice)
+                )
+        )
+                .thenReturn(parentMessage);
+
+        final String commentsCursor = CursorConverter.commentsCursorToString(cursor);
+        cachingMessageService.getMessage("token", 123, null, null, null, null, 10, null, commentsCursor);
+        cachingMessageService.getMessage("token", 123, null, null, null, null, 10, null, commentsCursor);
+        verify(mockMessageTreeDao, times(2))
+                .getTreeRootMessage(
+                        anyInt(), any(MessageOrder.class),
+                        anyBoolean(), anyBoolean(), anyBoolean(), anyInt(), eq(expectedSlice)
+                );
+        verify(mockMessageTreeDao, never()).getUnpublishedOwnerIds(anyInt(), anyBoolean());
+    }
+
+    @Test
+    void testGetMessage_invalidCommentsSlice_shouldThrowException() throws ServerException {
+        final User forumOwner = new User(
+                "ForumOwner", "ForumOwner@email.com", "f0rUmS|r0nGPa55"
+        );
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, forumOwner, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final HistoryItem parentHistory = new HistoryItem(
+                "Root Message Body", MessageState.PUBLISHED, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem parentMessage = new MessageItem(
+                forumOwner, Collections.singletonList(parentHistory), parentHistory.getCreatedAt()
+        );
+        final MessageTree tree = new MessageTree(
+                forum, "TreeSubject", parentMessage, MessagePriority.NORMAL, parentMessage.getCreatedAt(),
+                Collections.emptyList()
+        );
+        parentMessage.setMessageTree(tree);
+
+        when(mockSessionDao.getUserByToken(anyString())).thenReturn(forumOwner);
+        when(mockMessageDao.getMessageById(anyInt())).thenReturn(parentMessage);
+
+        try {
+            messageService.getMessage("token", 123, null, null, null, null, 0, null, null);
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.INVALID_REQUEST_DATA, ex.getErrorCode());
+        }
+        try {
+            messageService.getMessage("token", 123, null, null, null, null, null, -1, null);
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.INVALID_REQUEST_DATA, ex.getErrorCode());
+        }
+        try {
+            messageService.getMessage("token", 123, null, null, null, null, null, null, "not a cursor");
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.INVALID_COMMENTS_CURSOR, ex.getErrorCode());
+        }
+        verifyZeroInteractions(mockMessageTreeDao);
+    }
+
     @Test
     void testGetMessage_noUserSession_shouldThrowException() throws ServerException {
         when(mockSessionDao.getUserByToken(anyString())).thenThrow(new ServerException(ErrorCode.NO_USER_SESSION));
@@ -2671,7 +3014,7 @@ class MessageServiceTest {
         try {
             messageService.getMessage(
                     token, 123,
-                    true, true, false, MessageOrder.ASC.name()
+                    true, true, false, MessageOrder.ASC.name(), null, null, null
             );
         } catch (ServerException se) {
             assertEquals(ErrorCode.NO_USER_SESSION, se.getErrorCode());
@@ -2692,7 +3035,7 @@ class MessageServiceTest {
         try {
             messageService.getMessage(
                     token, 123,
-                    true, true, false, MessageOrder.ASC.name()
+                    true, true, false, MessageOrder.ASC.name(), null, null, null
             );
         } catch (ServerException se) {
             assertEquals(ErrorCode.MESSAGE_NOT_FOUND, se.getErrorCode());
@@ -2747,7 +3090,7 @@ class MessageServiceTest {
         final String token = "token";
         try {
             messageService.getMessage(token, 123,
-                    true, true, false, MessageOrder.ASC.name()
+                    true, true, false, MessageOrder.ASC.name(), null, null, null
             );
         } catch (ServerException se) {
             assertEquals(ErrorCode.UNABLE_OPERATION_FOR_COMMENT, se.getErrorCode());
@@ -2821,7 +3164,8 @@ class MessageServiceTest {
         when(mockMessageTreeDao
                 .getForumTrees(
                         anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
-                        eq(null), any(MessageOrder.class), anyInt(), anyInt(), anyInt()
+                        eq(null), any(TagFilterMode.class), any(MessageOrder.class), anyInt(), anyInt(), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
                 )
         )
                 .thenReturn(Arrays.asList(tree2, tree1));
@@ -2874,7 +3218,7 @@ class MessageServiceTest {
         final ListMessageInfoDtoResponse expectedResponse = new ListMessageInfoDtoResponse(responses);
         final ListMessageInfoDtoResponse actualResponse = messageService.getForumMessageList(
                 token, forum.getId(), true, false, true,
-                null, MessageOrder.DESC.name(), 0, 10
+                null, MessageOrder.DESC.name(), 0, 10, null, null, null, null
         );
         assertEquals(2, actualResponse.getMessages().size());
         assertEquals(expectedResponse, actualResponse);
@@ -2886,7 +3230,8 @@ class MessageServiceTest {
         verify(mockMessageTreeDao)
                 .getForumTrees(
                         anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
-                        eq(null), any(MessageOrder.class), anyInt(), anyInt(), anyInt()
+                        eq(null), any(TagFilterMode.class), any(MessageOrder.class), anyInt(), anyInt(), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
                 );
     }
 
@@ -2934,7 +3279,8 @@ class MessageServiceTest {
         when(mockMessageTreeDao
                 .getForumTrees(
                         anyInt(), anyBoolean(), anyBoolean(), eq(actualUnpublished),
-                        anyList(), any(MessageOrder.class), anyInt(), anyInt(), anyInt()
+                        anyList(), any(TagFilterMode.class), any(MessageOrder.class), anyInt(), anyInt(), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
                 )
         )
                 .thenReturn(Arrays.asList(tree2, tree1));
@@ -2942,7 +3288,7 @@ class MessageServiceTest {
         final String token = "token";
         messageService.getForumMessageList(
                 token, 123, true, true, receivedUnpublished,
-                Arrays.asList("Tag2"), MessageOrder.DESC.name(), 0, 10
+                Arrays.asList("Tag2"), MessageOrder.DESC.name(), 0, 10, null, null, null, null
         );
 
         verify(mockSessionDao)
@@ -2952,7 +3298,8 @@ class MessageServiceTest {
         verify(mockMessageTreeDao)
                 .getForumTrees(
                         anyInt(), anyBoolean(), anyBoolean(), eq(actualUnpublished),
-                        anyList(), any(MessageOrder.class), anyInt(), anyInt(), anyInt()
+                        anyList(), any(TagFilterMode.class), any(MessageOrder.class), anyInt(), anyInt(), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
                 );
     }
 
@@ -3008,7 +3355,8 @@ class MessageServiceTest {
         when(mockMessageTreeDao
                 .getForumTrees(
                         anyInt(), eq(false), eq(false), eq(false),
-                        eq(null), eq(MessageOrder.DESC), anyInt(), anyInt(), anyInt()
+                        eq(null), eq(TagFilterMode.ANY), eq(MessageOrder.DESC), anyInt(), anyInt(), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
                 )
         )
                 .thenReturn(Arrays.asList(tree2, tree1));
@@ -3051,7 +3399,7 @@ class MessageServiceTest {
         final ListMessageInfoDtoResponse expectedResponse = new ListMessageInfoDtoResponse(responses);
         final ListMessageInfoDtoResponse actualResponse = messageService.getForumMessageList(
                 token, forum.getId(), null, null, null,
-                Collections.emptyList(), null, 0, 10
+                Collections.emptyList(), null, 0, 10, null, null, null, null
         );
         assertEquals(2, actualResponse.getMessages().size());
         assertEquals(expectedResponse, actualResponse);
@@ -3062,7 +3410,8 @@ class MessageServiceTest {
         verify(mockMessageTreeDao)
                 .getForumTrees(
                         anyInt(), eq(false), eq(false), eq(false),
-                        eq(null), eq(MessageOrder.DESC), anyInt(), anyInt(), anyInt()
+                        eq(null), eq(TagFilterMode.ANY), eq(MessageOrder.DESC), anyInt(), anyInt(), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
                 );
     }
 
@@ -3124,7 +3473,8 @@ class MessageServiceTest {
         when(mockMessageTreeDao
                 .getForumTrees(
                         anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
-                        anyList(), any(MessageOrder.class), eq(defaultOffset), eq(defaultLimit), anyInt()
+                        anyList(), any(TagFilterMode.class), any(MessageOrder.class), eq(defaultOffset),
+                        eq(defaultLimit), anyInt(), eq(CommentsSlice.UNLIMITED)
                 )
         )
                 .thenReturn(Arrays.asList(tree2, tree1));
@@ -3167,7 +3517,7 @@ class MessageServiceTest {
         final ListMessageInfoDtoResponse expectedResponse = new ListMessageInfoDtoResponse(responses);
         final ListMessageInfoDtoResponse actualResponse = messageService.getForumMessageList(
                 token, forum.getId(), true, false, true,
-                Arrays.asList("Tag2"), MessageOrder.DESC.name(), null, null
+                Arrays.asList("Tag2"), MessageOrder.DESC.name(), null, null, null, null, null, null
         );
         assertEquals(2, actualResponse.getMessages().size());
         assertEquals(expectedResponse, actualResponse);
@@ -3183,7 +3533,8 @@ class MessageServiceTest {
         verify(mockMessageTreeDao)
                 .getForumTrees(
                         anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
-                        anyList(), any(MessageOrder.class), eq(defaultOffset), eq(defaultLimit), anyInt()
+                        anyList(), any(TagFilterMode.class), any(MessageOrder.class), eq(defaultOffset),
+                        eq(defaultLimit), anyInt(), eq(CommentsSlice.UNLIMITED)
                 );
     }
 
@@ -3209,14 +3560,15 @@ class MessageServiceTest {
         when(mockMessageTreeDao
                 .getForumTrees(
                         anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
-                        anyList(), any(MessageOrder.class), anyInt(), anyInt(), anyInt()
+                        anyList(), any(TagFilterMode.class), any(MessageOrder.class), anyInt(), anyInt(), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
                 )
         )
                 .thenReturn(Collections.emptyList());
 
         final ListMessageInfoDtoResponse response = messageService.getForumMessageList(
                 token, forum.getId(), true, false, true,
-                Collections.emptyList(), MessageOrder.DESC.name(), 0, 10
+                Collections.emptyList(), MessageOrder.DESC.name(), 0, 10, null, null, null, null
         );
         assertTrue(response.getMessages().isEmpty());
     }
@@ -3229,7 +3581,7 @@ class MessageServiceTest {
         try {
             messageService.getForumMessageList(
                     token, 4567, true, false, true,
-                    Collections.emptyList(), MessageOrder.DESC.name(), 0, 10
+                    Collections.emptyList(), MessageOrder.DESC.name(), 0, 10, null, null, null, null
             );
         } catch (ServerException se) {
             assertEquals(ErrorCode.NO_USER_SESSION, se.getErrorCode());
@@ -3253,7 +3605,7 @@ class MessageServiceTest {
         try {
             messageService.getForumMessageList(
                     token, 4567, true, false, true,
-                    Collections.emptyList(), MessageOrder.DESC.name(), 0, 10
+                    Collections.emptyList(), MessageOrder.DESC.name(), 0, 10, null, null, null, null
             );
         } catch (ServerException se) {
             assertEquals(ErrorCode.FORUM_NOT_FOUND, se.getErrorCode());
@@ -3265,4 +3617,328 @@ class MessageServiceTest {
         verifyZeroInteractions(mockMessageTreeDao);
         verifyZeroInteractions(mockMessageDao);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetMessageList_emptyCursor_shouldReturnFirstPageAndNextCursor() throws ServerException {
+        final User requesterUser = new User(
+                "RequesterUser", "RequesterUser@email.com", "v3ryStr0ngPa55"
+        );
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, requesterUser, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+
+        final HistoryItem rootHistory = new HistoryItem(
+                "Root Body", MessageState.PUBLISHED,
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem rootMessage = new MessageItem(
+                requesterUser, Collections.singletonList(rootHistory), rootHistory.getCreatedAt()
+        );
+        final MessageTree tree = new MessageTree(
+                forum, "TreeSubject", rootMessage,
+                MessagePriority.HIGH, rootMessage.getCreatedAt(),
+                Collections.emptyList()
+        );
+        tree.setId(17);
+        rootMessage.setMessageTree(tree);
+
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(requesterUser);
+        when(mockForumDao.getById(anyInt()))
+                .thenReturn(forum);
+        when(mockMessageTreeDao
+                .getForumTreesAfter(
+                        anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
+                        eq(null), any(TagFilterMode.class), any(MessageOrder.class), eq(null), eq(1), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
+                )
+        )
+                .thenReturn(Collections.singletonList(tree));
+
+        final ListMessageInfoDtoResponse response = messageService.getForumMessageList(
+                "token", forum.getId(), null, null, null,
+                null, null, null, 1, "", null, null, null
+        );
+        assertEquals(1, response.getMessages().size());
+        assertNotNull(response.getNextCursor());
+
+        messageService.getForumMessageList(
+                "token", forum.getId(), null, null, null,
+                null, null, null, 1, response.getNextCursor(), null, null, null
+        );
+        verify(mockMessageTreeDao)
+                .getForumTreesAfter(
+                        anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
+                        eq(null), any(TagFilterMode.class), any(MessageOrder.class),
+                        eq(new MessageTreeCursor(MessagePriority.HIGH, tree.getCreatedAt(), 17)),
+                        eq(1), anyInt(), eq(CommentsSlice.UNLIMITED)
+                );
+        verify(mockMessageTreeDao, never())
+                .getForumTrees(
+                        anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
+                        any(), any(TagFilterMode.class), any(MessageOrder.class), anyInt(), anyInt(), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
+                );
+    }
+
+    @Test
+    void testGetMessageList_lastPage_shouldNotReturnNextCursor() throws ServerException {
+        final User requesterUser = new User(
+                "RequesterUser", "RequesterUser@email.com", "v3ryStr0ngPa55"
+        );
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, requesterUser, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(requesterUser);
+        when(mockForumDao.getById(anyInt()))
+                .thenReturn(forum);
+        when(mockMessageTreeDao
+                .getForumTreesAfter(
+                        anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
+                        eq(null), any(TagFilterMode.class), any(MessageOrder.class), eq(null), anyInt(), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
+                )
+        )
+                .thenReturn(Collections.emptyList());
+
+        final ListMessageInfoDtoResponse response = messageService.getForumMessageList(
+                "token", forum.getId(), null, null, null,
+                null, null, null, 10, "", null, null, null
+        );
+        assertTrue(response.getMessages().isEmpty());
+        assertNull(response.getNextCursor());
+    }
+
+    @Test
+    void testGetMessageList_invalidCursor_shouldThrowException() throws ServerException {
+        final User requesterUser = new User(
+                "RequesterUser", "RequesterUser@email.com", "v3ryStr0ngPa55"
+        );
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, requesterUser, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(requesterUser);
+        when(mockForumDao.getById(anyInt()))
+                .thenReturn(forum);
+
+        try {
+            messageService.getForumMessageList(
+                    "token", forum.getId(), null, null, null,
+                    null, null, null, 10, "not a cursor", null, null, null
+            );
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.INVALID_CURSOR, ex.getErrorCode());
+        }
+        verifyZeroInteractions(mockMessageTreeDao);
+    }
+
+    @Test
+    void testGetMessageList_tagModeReceived_shouldPassModeToDao() throws ServerException {
+        final User requesterUser = new User(
+                "RequesterUser", "RequesterUser@email.com", "v3ryStr0ngPa55"
+        );
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, requesterUser, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(requesterUser);
+        when(mockForumDao.getById(anyInt()))
+                .thenReturn(forum);
+        when(mockMessageTreeDao
+                .getForumTrees(
+                        anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
+                        anyList(), any(TagFilterMode.class), any(MessageOrder.class), anyInt(), anyInt(), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
+                )
+        )
+                .thenReturn(Collections.emptyList());
+
+        messageService.getForumMessageList(
+                "token", forum.getId(), null, null, null,
+                Arrays.asList("Tag1", "Tag2"), null, 0, 10, null, "all", null, null
+        );
+        messageService.getForumMessageList(
+                "token", forum.getId(), null, null, null,
+                Arrays.asList("Tag1", "Tag2"), null, 0, 10, null, null, null, null
+        );
+        verify(mockMessageTreeDao)
+                .getForumTrees(
+                        anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
+                        eq(Arrays.asList("Tag1", "Tag2")), eq(TagFilterMode.ALL),
+                        any(MessageOrder.class), anyInt(), anyInt(), anyInt(), eq(CommentsSlice.UNLIMITED)
+                );
+        verify(mockMessageTreeDao)
+                .getForumTrees(
+                        anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
+                        eq(Arrays.asList("Tag1", "Tag2")), eq(TagFilterMode.ANY),
+                        any(MessageOrder.class), anyInt(), anyInt(), anyInt(), eq(CommentsSlice.UNLIMITED)
+                );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetMessageListStream_shouldWriteTreesWithNextCursor() throws Exception {
+        final User requesterUser = new User(
+                "RequesterUser", "RequesterUser@email.com", "v3ryStr0ngPa55"
+        );
+        final Forum forum = new Forum(
+                ForumType.UNMODERATED, requesterUser, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final HistoryItem history = new HistoryItem(
+                "Root Body", MessageState.PUBLISHED, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem rootMessage = new MessageItem(
+                requesterUser, Collections.singletonList(history), history.getCreatedAt()
+        );
+        rootMessage.setId(5);
+        final MessageTree tree = new MessageTree(
+                17, forum, "Subject", rootMessage, MessagePriority.HIGH, rootMessage.getCreatedAt(),
+                Collections.singletonList(new Tag("Tag1"))
+        );
+        rootMessage.setMessageTree(tree);
+
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(requesterUser);
+        when(mockForumDao.getById(anyInt()))
+                .thenReturn(forum);
+        doAnswer(invocation -> {
+            final Consumer<MessageTree> consumer = invocation.getArgument(11);
+            consumer.accept(tree);
+            return null;
+        })
+                .when(mockMessageTreeDao)
+                .streamForumTreesAfter(
+                        anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
+                        eq(null), any(TagFilterMode.class), any(MessageOrder.class), eq(null), eq(1), anyInt(),
+                        eq(CommentsSlice.UNLIMITED),
+                        any(Consumer.class)
+                );
+
+        final JsonStreamWriter writer = messageService.getForumMessageListStream(
+                "token", forum.getId(), null, null, null,
+                null, null, null, 1, "", null, null, null
+        );
+        verifyZeroInteractions(mockMessageTreeDao);
+
+        final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        final StringWriter output = new StringWriter();
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+            writer.writeTo(generator);
+        }
+        final ListMessageInfoDtoResponse response = mapper.readValue(
+                output.toString(), ListMessageInfoDtoResponse.class
+        );
+        assertEquals(
+                new ListMessageInfoDtoResponse(
+                        Collections.singletonList(MessageConverter.treeToResponse(tree)),
+                        CursorConverter.cursorToString(new MessageTreeCursor(tree))
+                ),
+                response
+        );
+        verify(mockMessageTreeDao, never())
+                .getForumTreesAfter(
+                        anyInt(), anyBoolean(), anyBoolean(), anyBoolean(),
+                        any(), any(TagFilterMode.class), any(MessageOrder.class), any(), anyInt(), anyInt(),
+                        eq(CommentsSlice.UNLIMITED)
+                );
+    }
+
+    @Test
+    void testGetForumChanges_shouldReturnTouchedTreesAndDeletedMessages() throws ServerException {
+        final User forumOwner = new User(
+                "ForumOwner", "ForumOwner@email.com", "f0rUmS|r0nGPa55"
+        );
+        final Forum forum = new Forum(
+                12, ForumType.UNMODERATED, forumOwner, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), false
+        );
+        final HistoryItem rootHistory = new HistoryItem(
+                "Root Message Body", MessageState.PUBLISHED, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+        );
+        final MessageItem rootMessage = new MessageItem(
+                forumOwner, Collections.singletonList(rootHistory), rootHistory.getCreatedAt()
+        );
+        rootMessage.setId(100);
+        final MessageTree tree = new MessageTree(
+                forum, "TreeSubject", rootMessage, MessagePriority.NORMAL, rootMessage.getCreatedAt(),
+                Collections.emptyList()
+        );
+        rootMessage.setMessageTree(tree);
+
+        final List<ForumChange> changes = Arrays.asList(
+                new ForumChange(12, 6, 101, 100, ForumChangeType.CREATED, LocalDateTime.now()),
+                new ForumChange(12, 7, 100, null, ForumChangeType.RATED, LocalDateTime.now()),
+                new ForumChange(12, 8, 102, 100, ForumChangeType.DELETED, LocalDateTime.now()),
+                new ForumChange(12, 9, 200, null, ForumChangeType.DELETED, LocalDateTime.now())
+        );
+        when(mockSessionDao.getUserByToken(anyString())).thenReturn(forumOwner);
+        when(mockForumDao.getById(anyInt())).thenReturn(forum);
+        when(mockForumChangeDao.getChangesSince(eq(12), eq(5L), eq(10))).thenReturn(changes);
+        when(mockMessageTreeDao.getTreeRootMessagesOf(
+                eq(Arrays.asList(101, 100)), eq(MessageOrder.DESC),
+                eq(false), eq(false), eq(false), anyInt()
+        ))
+                .thenReturn(Collections.singletonList(rootMessage));
+
+        final ForumChangesDtoResponse response = messageService.getForumChanges(
+                "token", 12, 5, 10, null, null, null, null
+        );
+        assertEquals(9, response.getSequence());
+        assertEquals(Collections.singletonList(MessageConverter.messageToResponse(rootMessage)), response.getMessages());
+        assertEquals(Arrays.asList(102, 200), response.getDeleted());
+    }
+
+    @Test
+    void testGetForumChanges_noChanges_shouldReturnReceivedSequence() throws ServerException {
+        final User forumOwner = new User(
+                "ForumOwner", "ForumOwner@email.com", "f0rUmS|r0nGPa55"
+        );
+        final Forum forum = new Forum(
+                12, ForumType.UNMODERATED, forumOwner, "ForumName",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), false
+        );
+        when(mockSessionDao.getUserByToken(anyString())).thenReturn(forumOwner);
+        when(mockForumDao.getById(anyInt())).thenReturn(forum);
+        when(mockConstantsProperties.getDefaultLimit()).thenReturn(10);
+        when(mockForumChangeDao.getChangesSince(anyInt(), anyLong(), anyInt())).thenReturn(new ArrayList<>());
+
+        final ForumChangesDtoResponse response = messageService.getForumChanges(
+                "token", 12, 42, null, null, null, null, null
+        );
+        assertEquals(new ForumChangesDtoResponse(42, new ArrayList<>(), new ArrayList<>()), response);
+        verifyZeroInteractions(mockMessageTreeDao);
+
+        try {
+            messageService.getForumChanges("token", 12, -1, null, null, null, null, null);
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.INVALID_REQUEST_DATA, ex.getErrorCode());
+        }
+    }
+
+    @Test
+    void testSubscribeForumEvents_forumNotFound_shouldThrowException() throws ServerException {
+        final User user = new User("User", "User@email.com", "us3rPa55w0rd");
+        when(mockSessionDao.getUserByToken(anyString())).thenReturn(user);
+        when(mockForumDao.getById(anyInt())).thenReturn(null);
+
+        try {
+            messageService.subscribeForumEvents("token", 12);
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.FORUM_NOT_FOUND, ex.getErrorCode());
+        }
+        verifyZeroInteractions(mockForumEventBroker);
+    }
+}
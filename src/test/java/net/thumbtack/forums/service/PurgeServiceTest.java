@@ -0,0 +1,81 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.PurgeDao;
+import net.thumbtack.forums.model.Purge;
+import net.thumbtack.forums.model.enums.PurgeTarget;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.JobsProperties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+class PurgeServiceTest {
+    private PurgeDao mockPurgeDao;
+    private JobsProperties mockJobsProperties;
+    private PurgeService purgeService;
+
+    @BeforeEach
+    void initMocks() {
+        mockPurgeDao = mock(PurgeDao.class);
+        mockJobsProperties = mock(JobsProperties.class);
+        purgeService = new PurgeService(mockPurgeDao, mockJobsProperties);
+
+        when(mockJobsProperties.getPurgeBatchSize())
+                .thenReturn(1000);
+    }
+
+    @Test
+    void testPurgeDeleted_shouldRemoveBatchesUntilNothingLeft() throws ServerException {
+        final Purge forumPurge = new Purge(1, PurgeTarget.FORUM, 7, LocalDateTime.now(), 0, null);
+        final Purge treePurge = new Purge(2, PurgeTarget.TREE, 30, LocalDateTime.now(), 500, null);
+        when(mockPurgeDao.getUnfinished())
+                .thenReturn(Arrays.asList(forumPurge, treePurge));
+        when(mockPurgeDao.purgeBatch(forumPurge, 1000))
+                .thenReturn(1000, 1000, 42, 0);
+        when(mockPurgeDao.purgeBatch(treePurge, 1000))
+                .thenReturn(0);
+
+        purgeService.purgeDeleted();
+
+        verify(mockPurgeDao, times(4)).purgeBatch(forumPurge, 1000);
+        verify(mockPurgeDao, times(1)).purgeBatch(treePurge, 1000);
+    }
+
+    @Test
+    void testPurgeDeleted_nothingToPurge_shouldDoNothing() throws ServerException {
+        when(mockPurgeDao.getUnfinished())
+                .thenReturn(Collections.emptyList());
+
+        purgeService.purgeDeleted();
+
+        verify(mockPurgeDao, never()).purgeBatch(any(), anyInt());
+    }
+
+    @Test
+    void testPurgeDeleted_errorInDatabase_shouldStopPurge() throws ServerException {
+        final Purge purge = new Purge(1, PurgeTarget.TREE, 30, LocalDateTime.now(), 0, null);
+        when(mockPurgeDao.getUnfinished())
+                .thenReturn(Collections.singletonList(purge));
+        when(mockPurgeDao.purgeBatch(purge, 1000))
+                .thenReturn(1000)
+                .thenThrow(new ServerException(ErrorCode.DATABASE_ERROR));
+
+        try {
+            purgeService.purgeDeleted();
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.DATABASE_ERROR, ex.getErrorCode());
+        }
+        verify(mockPurgeDao, times(2)).purgeBatch(purge, 1000);
+    }
+}
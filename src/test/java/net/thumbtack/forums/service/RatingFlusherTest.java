@@ -0,0 +1,92 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.RatingDao;
+import net.thumbtack.forums.dao.ForumChangeDao;
+import net.thumbtack.forums.model.ForumChange;
+import net.thumbtack.forums.model.enums.ForumChangeType;
+import net.thumbtack.forums.cache.RatingWriteBuffer;
+import net.thumbtack.forums.cache.MessageResponseCache;
+import net.thumbtack.forums.view.RatingVoteView;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RatingFlusherTest {
+    private RatingDao mockRatingDao;
+    private ForumChangeDao mockForumChangeDao;
+    private ForumEventBroker mockForumEventBroker;
+    private MessageResponseCache mockMessageResponseCache;
+    private RatingWriteBuffer ratingWriteBuffer;
+    private RatingFlusher ratingFlusher;
+
+    @BeforeEach
+    void initMocks() {
+        mockRatingDao = mock(RatingDao.class);
+        mockForumChangeDao = mock(ForumChangeDao.class);
+        mockForumEventBroker = mock(ForumEventBroker.class);
+        mockMessageResponseCache = mock(MessageResponseCache.class);
+        ratingWriteBuffer = new RatingWriteBuffer(true, 100, 10, 0, Clock.systemDefaultZone());
+        ratingFlusher = new RatingFlusher(
+                mockRatingDao, mockForumChangeDao, mockForumEventBroker, ratingWriteBuffer, mockMessageResponseCache
+        );
+    }
+
+    @Test
+    void testFlush_shouldWriteVotesAndInvalidateCachedMessages() throws Exception {
+        ratingWriteBuffer.offer(7, 1, 5);
+        ratingWriteBuffer.offer(7, 2, 4);
+        final List<RatingVoteView> batch = ratingWriteBuffer.takeBatch();
+        final ForumChange change = new ForumChange(3, 7, null, ForumChangeType.RATED);
+        when(mockRatingDao.flushRatings(anyList()))
+                .thenReturn(Collections.singletonList(7));
+        when(mockForumChangeDao.saveMessageChanges(anyList(), any(ForumChangeType.class)))
+                .thenReturn(Collections.singletonList(change));
+
+        ratingFlusher.flush(batch);
+
+        verify(mockRatingDao).flushRatings(batch);
+        // one change for all votes of the message
+        verify(mockForumChangeDao).saveMessageChanges(Collections.singletonList(7), ForumChangeType.RATED);
+        verify(mockForumEventBroker).publish(change);
+        verify(mockMessageResponseCache).invalidateMessages(7);
+        assertEquals(0, ratingWriteBuffer.size());
+    }
+
+    @Test
+    void testFlush_databaseError_shouldQueueVotesAgain() throws Exception {
+        ratingWriteBuffer.offer(7, 1, 5);
+        final List<RatingVoteView> batch = ratingWriteBuffer.takeBatch();
+        when(mockRatingDao.flushRatings(anyList()))
+                .thenThrow(new ServerException(ErrorCode.DATABASE_ERROR));
+
+        ratingFlusher.flush(batch);
+
+        verifyZeroInteractions(mockForumChangeDao, mockForumEventBroker, mockMessageResponseCache);
+        assertEquals(batch, ratingWriteBuffer.takeBatch());
+    }
+
+    @Test
+    void testStop_shouldFlushLeftVotes() throws Exception {
+        when(mockRatingDao.flushRatings(anyList()))
+                .thenReturn(Collections.singletonList(7));
+        ratingFlusher.start();
+        ratingWriteBuffer.offer(7, 1, 5);
+
+        ratingFlusher.stop();
+
+        verify(mockRatingDao).flushRatings(Collections.singletonList(new RatingVoteView(7, 1, 5, 1)));
+        assertEquals(0, ratingWriteBuffer.size());
+        assertFalse(ratingWriteBuffer.offer(7, 2, 5));
+    }
+}
@@ -0,0 +1,71 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.RatingDao;
+import net.thumbtack.forums.cache.MessageResponseCache;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.JobsProperties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+class RatingRepairServiceTest {
+    private RatingDao mockRatingDao;
+    private MessageResponseCache mockMessageResponseCache;
+    private JobsProperties mockJobsProperties;
+    private RatingRepairService ratingRepairService;
+
+    @BeforeEach
+    void initMocks() {
+        mockRatingDao = mock(RatingDao.class);
+        mockMessageResponseCache = mock(MessageResponseCache.class);
+        mockJobsProperties = mock(JobsProperties.class);
+        ratingRepairService = new RatingRepairService(mockRatingDao, mockMessageResponseCache, mockJobsProperties);
+    }
+
+    @Test
+    void testRepairRatings_splitsMessagesIntoChunks() throws ServerException {
+        when(mockJobsProperties.getRatingRepairChunkSize())
+                .thenReturn(100);
+        when(mockRatingDao.getMaxMessageId())
+                .thenReturn(250);
+        when(mockRatingDao.recomputeAggregates(anyInt(), anyInt()))
+                .thenReturn(0);
+
+        ratingRepairService.repairRatings();
+
+        verify(mockRatingDao).recomputeAggregates(1, 100);
+        verify(mockRatingDao).recomputeAggregates(101, 200);
+        verify(mockRatingDao).recomputeAggregates(201, 250);
+        verify(mockRatingDao, times(3)).recomputeAggregates(anyInt(), anyInt());
+        verify(mockMessageResponseCache, never()).clear();
+    }
+
+    @Test
+    void testRepairRatings_aggregatesChanged_shouldClearResponseCache() throws ServerException {
+        when(mockJobsProperties.getRatingRepairChunkSize())
+                .thenReturn(100);
+        when(mockRatingDao.getMaxMessageId())
+                .thenReturn(50);
+        when(mockRatingDao.recomputeAggregates(anyInt(), anyInt()))
+                .thenReturn(2);
+
+        ratingRepairService.repairRatings();
+
+        verify(mockMessageResponseCache).clear();
+    }
+
+    @Test
+    void testRepairRatings_noMessages_shouldDoNothing() throws ServerException {
+        when(mockJobsProperties.getRatingRepairChunkSize())
+                .thenReturn(100);
+        when(mockRatingDao.getMaxMessageId())
+                .thenReturn(0);
+
+        ratingRepairService.repairRatings();
+
+        verify(mockRatingDao, never()).recomputeAggregates(anyInt(), anyInt());
+    }
+}
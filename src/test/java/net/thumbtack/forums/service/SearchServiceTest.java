@@ -0,0 +1,245 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.model.Forum;
+import net.thumbtack.forums.model.User;
+import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.TagFilterMode;
+import net.thumbtack.forums.dao.ForumDao;
+import net.thumbtack.forums.dao.SearchDao;
+import net.thumbtack.forums.dao.SessionDao;
+import net.thumbtack.forums.cache.SearchIndex;
+import net.thumbtack.forums.view.SearchHitView;
+import net.thumbtack.forums.view.SearchPageView;
+import net.thumbtack.forums.dto.responses.search.SearchResultDtoResponse;
+import net.thumbtack.forums.dto.responses.search.SearchResultListDtoResponse;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.ConstantsProperties;
+import net.thumbtack.forums.configuration.SearchProperties;
+import net.thumbtack.forums.configuration.ServerConfigurationProperties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SearchServiceTest {
+    private SearchDao mockSearchDao;
+    private SearchIndex mockSearchIndex;
+    private SessionDao mockSessionDao;
+    private ForumDao mockForumDao;
+    private SearchProperties searchProperties;
+    private ServerConfigurationProperties mockServerProperties;
+    private ConstantsProperties mockConstantsProperties;
+    private SearchService searchService;
+
+    private final String token = "token";
+    private final User user = new User("user", "user@email.com", "password=pass");
+
+    @BeforeEach
+    void initMocks() throws ServerException {
+        mockSearchDao = mock(SearchDao.class);
+        mockSearchIndex = mock(SearchIndex.class);
+        mockSessionDao = mock(SessionDao.class);
+        mockForumDao = mock(ForumDao.class);
+        searchProperties = new SearchProperties();
+        mockServerProperties = mock(ServerConfigurationProperties.class);
+        mockConstantsProperties = mock(ConstantsProperties.class);
+        searchService = createService(mockSearchIndex);
+
+        when(mockSessionDao.getUserByToken(token))
+                .thenReturn(user);
+        when(mockConstantsProperties.getDefaultOffset())
+                .thenReturn(0);
+        when(mockConstantsProperties.getDefaultLimit())
+                .thenReturn(10);
+        when(mockSearchIndex.isLoaded())
+                .thenReturn(true);
+    }
+
+    private SearchService createService(final SearchIndex searchIndex) {
+        return new SearchService(
+                mockSearchDao, searchIndex, mockSessionDao, mockForumDao,
+                searchProperties, mockServerProperties, mockConstantsProperties
+        );
+    }
+
+    @Test
+    void testSearch() throws ServerException {
+        final Forum forum = new Forum(
+                7, ForumType.UNMODERATED, user, "forum",
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), false
+        );
+        when(mockForumDao.getById(7))
+                .thenReturn(forum);
+        when(mockSearchIndex.search("pool size", 7, Arrays.asList("java", "sql"), TagFilterMode.ALL, 0, 10))
+                .thenReturn(new SearchPageView(3, Arrays.asList(
+                        new SearchHitView(101, 100, 7, "Connection pool", 2.345678),
+                        new SearchHitView(100, 100, 7, "Connection pool", 1.5)
+                )));
+
+        final SearchResultListDtoResponse response = searchService.search(
+                token, "pool size", 7, Arrays.asList("java", "sql"), "all", null, null
+        );
+        assertEquals(new SearchResultListDtoResponse(3, Arrays.asList(
+                new SearchResultDtoResponse(101, 100, 7, "Connection pool", 2.3457),
+                new SearchResultDtoResponse(100, 100, 7, "Connection pool", 1.5)
+        )), response);
+
+        verify(mockForumDao).getById(7);
+        verify(mockSearchIndex)
+                .search("pool size", 7, Arrays.asList("java", "sql"), TagFilterMode.ALL, 0, 10);
+    }
+
+    @Test
+    void testSearch_noParams_shouldSearchWholeServer() throws ServerException {
+        when(mockSearchIndex.search("pool", null, null, TagFilterMode.ANY, 5, 2))
+                .thenReturn(new SearchPageView(0, Collections.emptyList()));
+
+        final SearchResultListDtoResponse response = searchService.search(
+                token, "pool", null, null, null, 5, 2
+        );
+        assertEquals(new SearchResultListDtoResponse(0, Collections.emptyList()), response);
+
+        verify(mockForumDao, never()).getById(anyInt());
+    }
+
+    @Test
+    void testSearch_noUserSession_shouldThrowException() throws ServerException {
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenThrow(new ServerException(ErrorCode.NO_USER_SESSION));
+
+        try {
+            searchService.search(token, "pool", null, null, null, null, null);
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.NO_USER_SESSION, ex.getErrorCode());
+        }
+        verify(mockSearchIndex, never()).search(any(), any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearch_forumNotFound_shouldThrowException() throws ServerException {
+        when(mockForumDao.getById(anyInt()))
+                .thenReturn(null);
+
+        try {
+            searchService.search(token, "pool", 7, null, null, null, null);
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.FORUM_NOT_FOUND, ex.getErrorCode());
+        }
+        verify(mockSearchIndex, never()).search(any(), any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearch_blankQuery_shouldThrowException() {
+        try {
+            searchService.search(token, " ", null, null, null, null, null);
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.INVALID_REQUEST_DATA, ex.getErrorCode());
+        }
+        try {
+            searchService.search(token, "pool", null, null, null, null, 0);
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.INVALID_REQUEST_DATA, ex.getErrorCode());
+        }
+        verify(mockSearchIndex, never()).search(any(), any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearch_indexNotLoaded_shouldThrowException() {
+        when(mockSearchIndex.isLoaded())
+                .thenReturn(false);
+
+        try {
+            searchService.search(token, "pool", null, null, null, null, null);
+            fail();
+        } catch (ServerException ex) {
+            assertEquals(ErrorCode.SEARCH_NOT_READY, ex.getErrorCode());
+        }
+        verify(mockSearchIndex, never()).search(any(), any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testLoadIndex_noFile_shouldBuildFromDatabase() throws ServerException {
+        searchService.loadIndex();
+
+        verify(mockSearchDao).loadSearchIndex();
+    }
+
+    @Test
+    void testSaveAndLoadIndex() throws Exception {
+        final Path file = Files.createTempFile("search-index", ".bin");
+        file.toFile().deleteOnExit();
+        Files.delete(file);
+        searchProperties.setIndexFile(file.toString());
+        when(mockSearchDao.getContentVersion())
+                .thenReturn("2:15");
+
+        final SearchIndex savedIndex = new SearchIndex(3, 1.2, 0.75);
+        savedIndex.beginLoad();
+        savedIndex.loadTree(10, 1, 100, "Connection pool", Collections.emptyList());
+        savedIndex.loadMessage(100, 10, "How big should the pool be?");
+        savedIndex.finishLoad();
+        createService(savedIndex).stop();
+        assertTrue(Files.exists(file));
+
+        final SearchIndex readIndex = new SearchIndex(3, 1.2, 0.75);
+        createService(readIndex).loadIndex();
+        assertTrue(readIndex.isLoaded());
+        assertEquals(
+                savedIndex.search("pool", null, null, TagFilterMode.ANY, 0, 10),
+                readIndex.search("pool", null, null, TagFilterMode.ANY, 0, 10)
+        );
+        verify(mockSearchDao, never()).loadSearchIndex();
+
+        when(mockSearchDao.getContentVersion())
+                .thenReturn("2:16");
+        final SearchIndex outdatedIndex = new SearchIndex(3, 1.2, 0.75);
+        createService(outdatedIndex).loadIndex();
+        assertFalse(outdatedIndex.isLoaded());
+        verify(mockSearchDao).loadSearchIndex();
+    }
+
+    @Test
+    void testLoadIndex_changedAfterVersionCheck_shouldKeepChange() throws Exception {
+        final Path file = Files.createTempFile("search-index", ".bin");
+        file.toFile().deleteOnExit();
+        Files.delete(file);
+        searchProperties.setIndexFile(file.toString());
+        when(mockSearchDao.getContentVersion())
+                .thenReturn("2:15");
+
+        final SearchIndex savedIndex = new SearchIndex(3, 1.2, 0.75);
+        savedIndex.beginLoad();
+        savedIndex.loadTree(10, 1, 100, "Connection pool", Collections.emptyList());
+        savedIndex.loadMessage(100, 10, "How big should the pool be?");
+        savedIndex.finishLoad();
+        createService(savedIndex).stop();
+
+        final SearchIndex readIndex = new SearchIndex(3, 1.2, 0.75);
+        // a comment committed right after the version of the file is checked
+        when(mockSearchDao.getContentVersion())
+                .thenAnswer(invocation -> {
+                    readIndex.putMessage(101, 10, "Ten connections are enough");
+                    return "2:15";
+                });
+        createService(readIndex).loadIndex();
+
+        assertTrue(readIndex.isLoaded());
+        assertEquals(2, readIndex.size());
+        assertEquals(1, readIndex.search("connections", null, null, TagFilterMode.ANY, 0, 10).getTotal());
+        verify(mockSearchDao, never()).loadSearchIndex();
+    }
+}
@@ -4,11 +4,14 @@ import net.thumbtack.forums.dto.responses.statistic.*;
 import net.thumbtack.forums.model.User;
 import net.thumbtack.forums.model.Forum;
 import net.thumbtack.forums.model.enums.ForumType;
+import net.thumbtack.forums.model.enums.ActivityGranularity;
+import net.thumbtack.forums.view.ActivityBucketView;
 import net.thumbtack.forums.view.MessageRatingView;
 import net.thumbtack.forums.view.UserRatingView;
 import net.thumbtack.forums.dao.ForumDao;
 import net.thumbtack.forums.dao.SessionDao;
 import net.thumbtack.forums.dao.StatisticDao;
+import net.thumbtack.forums.dao.ActivityDao;
 import net.thumbtack.forums.exception.ErrorCode;
 import net.thumbtack.forums.exception.ServerException;
 import net.thumbtack.forums.configuration.ConstantsProperties;
@@ -29,6 +32,7 @@ import static org.mockito.Mockito.*;
 
 class StatisticServiceTest {
     private StatisticDao mockStatisticDao;
+    private ActivityDao mockActivityDao;
     private SessionDao mockSessionDao;
     private ForumDao mockForumDao;
     private ServerConfigurationProperties mockServerConfigurationProperties;
@@ -38,13 +42,14 @@ class StatisticServiceTest {
     @BeforeEach
     void initMocks() {
         mockStatisticDao = mock(StatisticDao.class);
+        mockActivityDao = mock(ActivityDao.class);
         mockSessionDao = mock(SessionDao.class);
         mockForumDao = mock(ForumDao.class);
         mockServerConfigurationProperties = mock(ServerConfigurationProperties.class);
         mockConstantsProperties = mock(ConstantsProperties.class);
 
         statisticService = new StatisticService(
-                mockStatisticDao, mockSessionDao, mockForumDao,
+                mockStatisticDao, mockActivityDao, mockSessionDao, mockForumDao,
                 mockServerConfigurationProperties, mockConstantsProperties
         );
     }
@@ -653,4 +658,94 @@ class StatisticServiceTest {
                 .getById(anyInt());
         verifyZeroInteractions(mockStatisticDao);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetActivity_shouldReturnBucketsOfRequestedGranularity() throws ServerException {
+        final User requesterUser = new User("Test", "test@email.com", "testpass");
+        final LocalDateTime from = LocalDateTime.of(2020, 3, 1, 0, 0);
+        final LocalDateTime to = LocalDateTime.of(2020, 3, 3, 0, 0);
+        final List<ActivityBucketView> buckets = new ArrayList<>();
+        buckets.add(new ActivityBucketView(from, 10, 20, 30, 4));
+        buckets.add(new ActivityBucketView(from.plusDays(1), 1, 2, 3, 0));
+
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(requesterUser);
+        when(mockConstantsProperties.getDatetimePattern())
+                .thenReturn("yyyy-MM-dd HH:mm:ss");
+        when(mockActivityDao.getActivity(null, ActivityGranularity.DAY, from, to))
+                .thenReturn(buckets);
+
+        final ActivityListDtoResponse response = statisticService.getActivity(
+                "token", null, "2020-03-01 00:00:00", "2020-03-03 00:00:00", "day"
+        );
+        assertEquals("DAY", response.getGranularity());
+        assertEquals(2, response.getActivity().size());
+        assertEquals(
+                new ActivityDtoResponse("2020-03-01 00:00:00", 10, 20, 30, 4),
+                response.getActivity().get(0)
+        );
+        assertEquals(
+                new ActivityDtoResponse("2020-03-02 00:00:00", 1, 2, 3, 0),
+                response.getActivity().get(1)
+        );
+        verifyZeroInteractions(mockForumDao);
+    }
+
+    @Test
+    void testGetActivity_invalidParams_shouldThrowException() throws ServerException {
+        final User requesterUser = new User("Test", "test@email.com", "testpass");
+
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(requesterUser);
+        when(mockConstantsProperties.getDatetimePattern())
+                .thenReturn("yyyy-MM-dd HH:mm:ss");
+
+        try {
+            statisticService.getActivity(
+                    "token", null, "2020-03-03 00:00:00", "2020-03-01 00:00:00", null
+            );
+            fail();
+        } catch (ServerException se) {
+            assertEquals(ErrorCode.INVALID_REQUEST_DATA, se.getErrorCode());
+        }
+        try {
+            statisticService.getActivity(
+                    "token", null, "yesterday", "2020-03-01 00:00:00", null
+            );
+            fail();
+        } catch (ServerException se) {
+            assertEquals(ErrorCode.INVALID_REQUEST_DATA, se.getErrorCode());
+        }
+        try {
+            statisticService.getActivity(
+                    "token", null, "2020-03-01 00:00:00", "2020-03-03 00:00:00", "WEEK"
+            );
+            fail();
+        } catch (ServerException se) {
+            assertEquals(ErrorCode.INVALID_REQUEST_DATA, se.getErrorCode());
+        }
+        verifyZeroInteractions(mockActivityDao);
+    }
+
+    @Test
+    void testGetActivity_forumNotFound_shouldThrowException() throws ServerException {
+        final User requesterUser = new User("Test", "test@email.com", "testpass");
+
+        when(mockSessionDao.getUserByToken(anyString()))
+                .thenReturn(requesterUser);
+        when(mockConstantsProperties.getDatetimePattern())
+                .thenReturn("yyyy-MM-dd HH:mm:ss");
+        when(mockForumDao.getById(anyInt()))
+                .thenReturn(null);
+
+        try {
+            statisticService.getActivity(
+                    "token", 951, "2020-03-01 00:00:00", "2020-03-03 00:00:00", null
+            );
+            fail();
+        } catch (ServerException se) {
+            assertEquals(ErrorCode.FORUM_NOT_FOUND, se.getErrorCode());
+        }
+        verifyZeroInteractions(mockActivityDao);
+    }
+}
@@ -0,0 +1,83 @@
+package net.thumbtack.forums.service;
+
+import net.thumbtack.forums.dao.UserDao;
+import net.thumbtack.forums.cache.BanExpiryQueue;
+import net.thumbtack.forums.view.UserBanView;
+import net.thumbtack.forums.exception.ErrorCode;
+import net.thumbtack.forums.exception.ServerException;
+import net.thumbtack.forums.configuration.ConstantsProperties;
+import net.thumbtack.forums.configuration.JobsProperties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class UnbanSchedulerTest {
+    private UserDao mockUserDao;
+    private BanExpiryQueue mockBanExpiryQueue;
+    private ConstantsProperties mockConstantsProperties;
+    private UnbanScheduler unbanScheduler;
+
+    @BeforeEach
+    void initMocks() {
+        mockUserDao = mock(UserDao.class);
+        mockBanExpiryQueue = mock(BanExpiryQueue.class);
+        mockConstantsProperties = mock(ConstantsProperties.class);
+        unbanScheduler = new UnbanScheduler(
+                mockUserDao, mockBanExpiryQueue, mock(JobsProperties.class), mockConstantsProperties
+        );
+    }
+
+    @AfterEach
+    void stopScheduler() {
+        unbanScheduler.stop();
+    }
+
+    @Test
+    void testStart_shouldLoadBansEndingBeforePermanentBan() throws ServerException, InterruptedException {
+        when(mockConstantsProperties.getPermanentBanDatetime())
+                .thenReturn("9999-01-01 00:00:00");
+        when(mockConstantsProperties.getDatetimePattern())
+                .thenReturn("yyyy-MM-dd HH:mm:ss");
+        when(mockBanExpiryQueue.takeEnded(anyInt()))
+                .thenThrow(new InterruptedException());
+
+        unbanScheduler.start();
+
+        verify(mockUserDao).loadBanExpiries(LocalDateTime.of(9999, 1, 1, 0, 0));
+    }
+
+    @Test
+    void testLiftBans_shouldUnbanEveryUserOnce() throws ServerException {
+        final LocalDateTime bannedUntil = LocalDateTime.now();
+        when(mockUserDao.unbanEnded(anyList(), any(LocalDateTime.class)))
+                .thenReturn(2);
+
+        unbanScheduler.liftBans(Arrays.asList(
+                new UserBanView(1, bannedUntil),
+                new UserBanView(2, bannedUntil),
+                new UserBanView(1, bannedUntil.minusDays(1))
+        ));
+
+        verify(mockUserDao).unbanEnded(eq(Arrays.asList(1, 2)), any(LocalDateTime.class));
+        verifyZeroInteractions(mockBanExpiryQueue);
+    }
+
+    @Test
+    void testLiftBans_errorInDatabase_shouldRetryLater() throws ServerException {
+        when(mockUserDao.unbanEnded(anyList(), any(LocalDateTime.class)))
+                .thenThrow(new ServerException(ErrorCode.DATABASE_ERROR));
+
+        unbanScheduler.liftBans(Collections.singletonList(new UserBanView(1, LocalDateTime.now())));
+
+        verify(mockBanExpiryQueue).schedule(eq(1), any(LocalDateTime.class));
+    }
+}
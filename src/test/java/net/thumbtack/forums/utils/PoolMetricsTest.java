@@ -0,0 +1,44 @@
+package net.thumbtack.forums.utils;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolMetricsTest {
+    @Test
+    void testPoolMetrics_shouldAccumulateWaitAndUsage() {
+        final PoolMetrics poolMetrics = new PoolMetrics();
+        assertEquals(0, poolMetrics.getActiveConnections());
+        assertEquals(0., poolMetrics.getAverageWaitMillis());
+
+        final IMetricsTracker tracker = poolMetrics.create("forums", new PoolStats(0) {
+            @Override
+            protected void update() {
+                totalConnections = 10;
+                idleConnections = 6;
+                activeConnections = 4;
+                pendingThreads = 2;
+            }
+        });
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(3));
+        tracker.recordConnectionUsageMillis(10);
+        tracker.recordConnectionUsageMillis(30);
+        tracker.recordConnectionTimeout();
+
+        assertEquals(4, poolMetrics.getActiveConnections());
+        assertEquals(6, poolMetrics.getIdleConnections());
+        assertEquals(10, poolMetrics.getTotalConnections());
+        assertEquals(2, poolMetrics.getPendingThreads());
+        assertEquals(2, poolMetrics.getAcquisitions());
+        assertEquals(1, poolMetrics.getTimeouts());
+        assertEquals(2., poolMetrics.getAverageWaitMillis());
+        assertEquals(3., poolMetrics.getMaxWaitMillis());
+        assertEquals(20., poolMetrics.getAverageUsageMillis());
+        assertEquals(30, poolMetrics.getMaxUsageMillis());
+    }
+}
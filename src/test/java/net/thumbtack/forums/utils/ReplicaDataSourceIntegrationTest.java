@@ -0,0 +1,164 @@
+package net.thumbtack.forums.utils;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the primary of dbconfig.properties and a replica of it, started by docker-compose.yml.
+ * Skipped unless the replica URL is given with {@code -DreplicaUrl=...}.
+ */
+@EnabledIfSystemProperty(named = "replicaUrl", matches = ".+")
+class ReplicaDataSourceIntegrationTest {
+    private static final long REPLICATION_WAIT_MILLIS = 10000;
+
+    private Properties dbconfig;
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+
+    @BeforeEach
+    void createPools() throws IOException {
+        dbconfig = new Properties();
+        try (InputStream input = getClass().getResourceAsStream("/dbconfig.properties")) {
+            dbconfig.load(input);
+        }
+        primary = createPool(
+                dbconfig.getProperty("jdbc.url"),
+                dbconfig.getProperty("jdbc.username"), dbconfig.getProperty("jdbc.password")
+        );
+        replica = createPool(
+                System.getProperty("replicaUrl"),
+                dbconfig.getProperty("jdbc.replicaUsername"), dbconfig.getProperty("jdbc.replicaPassword")
+        );
+    }
+
+    @AfterEach
+    void closePools() {
+        replica.close();
+        primary.close();
+    }
+
+    private HikariDataSource createPool(final String url, final String username, final String password) {
+        final HikariConfig config = new HikariConfig();
+        config.setDriverClassName(dbconfig.getProperty("jdbc.driverClassName"));
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(2);
+        config.setConnectionTimeout(1000);
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
+    private static long getServerId(final Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT @@server_id")) {
+            assertTrue(resultSet.next());
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static long getServerId(final DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return getServerId(connection);
+        }
+    }
+
+    @Test
+    void testGetConnection_shouldReadFromReplica() throws SQLException {
+        final ReplicaDataSource dataSource = new ReplicaDataSource(
+                replica, primary, 1000, Clock.systemDefaultZone()
+        );
+
+        final long replicaServerId = getServerId(replica);
+        assertNotEquals(getServerId(primary), replicaServerId);
+        assertEquals(replicaServerId, getServerId(dataSource));
+        assertEquals(0, dataSource.getFallbacks());
+    }
+
+    @Test
+    void testGetConnection_writeOnPrimary_shouldBeReplicated() throws Exception {
+        final ReplicaDataSource dataSource = new ReplicaDataSource(
+                replica, primary, 1000, Clock.systemDefaultZone()
+        );
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(true);
+            statement.execute("DROP TABLE IF EXISTS replication_check");
+            statement.execute("CREATE TABLE replication_check (id INT PRIMARY KEY)");
+            statement.execute("INSERT INTO replication_check VALUES (42)");
+        }
+
+        try {
+            final long deadline = System.currentTimeMillis() + REPLICATION_WAIT_MILLIS;
+            boolean replicated = false;
+            while (!replicated && System.currentTimeMillis() < deadline) {
+                try (Connection connection = dataSource.getConnection();
+                     Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery("SELECT id FROM replication_check")) {
+                    replicated = resultSet.next() && resultSet.getInt(1) == 42;
+                } catch (SQLException ex) {
+                    // the table is not replicated yet
+                }
+                if (!replicated) {
+                    Thread.sleep(100);
+                }
+            }
+            assertTrue(replicated);
+        } finally {
+            try (Connection connection = primary.getConnection();
+                 Statement statement = connection.createStatement()) {
+                connection.setAutoCommit(true);
+                statement.execute("DROP TABLE IF EXISTS replication_check");
+            }
+        }
+    }
+
+    @Test
+    void testGetConnection_replicaDown_shouldFallBackToPrimary() throws SQLException {
+        try (HikariDataSource downReplica = createPool(
+                "jdbc:mysql://localhost:1/forums?useSSL=false",
+                dbconfig.getProperty("jdbc.replicaUsername"), dbconfig.getProperty("jdbc.replicaPassword")
+        )) {
+            final ReplicaDataSource dataSource = new ReplicaDataSource(
+                    downReplica, primary, 60000, Clock.systemDefaultZone()
+            );
+
+            assertEquals(getServerId(primary), getServerId(dataSource));
+            assertEquals(1, dataSource.getFallbacks());
+        }
+    }
+
+    @Test
+    void testGetConnectionWithCredentials_shouldReadFromReplica() throws SQLException {
+        // Hikari takes credentials from its configuration only, a plain driver data source accepts them
+        final DriverManagerDataSource plainReplica = new DriverManagerDataSource(System.getProperty("replicaUrl"));
+        final DriverManagerDataSource plainPrimary = new DriverManagerDataSource(dbconfig.getProperty("jdbc.url"));
+        final ReplicaDataSource dataSource = new ReplicaDataSource(
+                plainReplica, plainPrimary, 1000, Clock.systemDefaultZone()
+        );
+
+        try (Connection connection = dataSource.getConnection(
+                dbconfig.getProperty("jdbc.replicaUsername"), dbconfig.getProperty("jdbc.replicaPassword")
+        )) {
+            assertEquals(getServerId(replica), getServerId(connection));
+        }
+        assertEquals(0, dataSource.getFallbacks());
+    }
+}
@@ -0,0 +1,89 @@
+package net.thumbtack.forums.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Clock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaDataSourceTest {
+    @Test
+    void testGetConnection_replicaNotConfigured_shouldUsePrimary() throws SQLException {
+        final DataSource primary = mock(DataSource.class);
+        final Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        final ReplicaDataSource dataSource = new ReplicaDataSource(null, primary, 0, Clock.systemDefaultZone());
+        assertFalse(dataSource.isReplicaConfigured());
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(0, dataSource.getFallbacks());
+    }
+
+    @Test
+    void testGetConnection_replicaDown_shouldFallBackAndRetryLater() throws SQLException {
+        final DataSource primary = mock(DataSource.class);
+        final DataSource replica = mock(DataSource.class);
+        final Connection primaryConnection = mock(Connection.class);
+        final Connection replicaConnection = mock(Connection.class);
+        final Clock clock = mock(Clock.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection())
+                .thenThrow(new SQLException("Connection refused"))
+                .thenReturn(replicaConnection);
+        when(clock.millis()).thenReturn(1000L);
+
+        final ReplicaDataSource dataSource = new ReplicaDataSource(replica, primary, 500, clock);
+        assertSame(primaryConnection, dataSource.getConnection());
+        // replica is skipped until the retry interval passes
+        assertSame(primaryConnection, dataSource.getConnection());
+        verify(replica, times(1)).getConnection();
+        assertEquals(2, dataSource.getFallbacks());
+
+        when(clock.millis()).thenReturn(1500L);
+        assertSame(replicaConnection, dataSource.getConnection());
+        verify(replica, times(2)).getConnection();
+        assertEquals(2, dataSource.getFallbacks());
+    }
+
+    @Test
+    void testGetConnectionWithCredentials_replicaDown_shouldFallBackToPrimary() throws SQLException {
+        final DataSource primary = mock(DataSource.class);
+        final DataSource replica = mock(DataSource.class);
+        final Connection primaryConnection = mock(Connection.class);
+        final Connection replicaConnection = mock(Connection.class);
+        final Clock clock = mock(Clock.class);
+        when(primary.getConnection("reader", "secret")).thenReturn(primaryConnection);
+        when(replica.getConnection("reader", "secret"))
+                .thenReturn(replicaConnection)
+                .thenThrow(new SQLException("Connection refused"));
+        when(clock.millis()).thenReturn(1000L);
+
+        final ReplicaDataSource dataSource = new ReplicaDataSource(replica, primary, 500, clock);
+        assertSame(replicaConnection, dataSource.getConnection("reader", "secret"));
+        assertSame(primaryConnection, dataSource.getConnection("reader", "secret"));
+        assertEquals(1, dataSource.getFallbacks());
+        verify(primary, never()).getConnection();
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void testGetConnectionWithCredentials_notSupportedByPool_shouldNotSkipReplica() throws SQLException {
+        final DataSource primary = mock(DataSource.class);
+        final DataSource replica = mock(DataSource.class);
+        final Connection replicaConnection = mock(Connection.class);
+        when(replica.getConnection(anyString(), anyString()))
+                .thenThrow(new SQLFeatureNotSupportedException());
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        final ReplicaDataSource dataSource = new ReplicaDataSource(replica, primary, 500, Clock.systemDefaultZone());
+        assertThrows(SQLFeatureNotSupportedException.class, () -> dataSource.getConnection("reader", "secret"));
+        assertSame(replicaConnection, dataSource.getConnection());
+        assertEquals(0, dataSource.getFallbacks());
+        verifyZeroInteractions(primary);
+    }
+}
@@ -0,0 +1,95 @@
+package net.thumbtack.forums.utils;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RoutingSqlSessionFactoryTest {
+    private final SqlSessionFactory primaryFactory = mock(SqlSessionFactory.class);
+    private final SqlSessionFactory replicaFactory = mock(SqlSessionFactory.class);
+    private final SqlSession primarySession = mock(SqlSession.class);
+    private final SqlSession replicaSession = mock(SqlSession.class);
+
+    RoutingSqlSessionFactoryTest() {
+        when(primaryFactory.openSession()).thenReturn(primarySession);
+        when(replicaFactory.openSession()).thenReturn(replicaSession);
+    }
+
+    @AfterEach
+    void clearUnitOfWork() {
+        if (UnitOfWork.current() != null) {
+            UnitOfWork.current().end(false);
+        }
+    }
+
+    @Test
+    void testOpenReadSession_shouldUseReplica() {
+        final RoutingSqlSessionFactory factory = new RoutingSqlSessionFactory(primaryFactory, replicaFactory);
+        assertSame(replicaSession, factory.openReadSession());
+        assertSame(primarySession, factory.openSession());
+    }
+
+    @Test
+    void testOpenReadSession_noReplica_shouldUsePrimary() {
+        final RoutingSqlSessionFactory factory = new RoutingSqlSessionFactory(primaryFactory, null);
+        assertSame(primarySession, factory.openReadSession());
+        verifyZeroInteractions(replicaFactory);
+    }
+
+    @Test
+    void testOpenReadSession_primaryOnlyScope_shouldUsePrimary() {
+        final RoutingSqlSessionFactory factory = new RoutingSqlSessionFactory(primaryFactory, replicaFactory);
+        try (ReadRouting.Scope ignored = ReadRouting.primaryOnly()) {
+            try (ReadRouting.Scope nested = ReadRouting.primaryOnly()) {
+                assertSame(primarySession, factory.openReadSession());
+            }
+            assertSame(primarySession, factory.openReadSession());
+        }
+        assertSame(replicaSession, factory.openReadSession());
+    }
+
+    @Test
+    void testOpenReadSession_afterWriteInUnitOfWork_shouldUsePrimary() {
+        final RoutingSqlSessionFactory factory = new RoutingSqlSessionFactory(
+                new UnitOfWorkSqlSessionFactory(primaryFactory), replicaFactory
+        );
+        final UnitOfWork unitOfWork = UnitOfWork.begin();
+        final boolean[] listenerCalled = {false};
+        unitOfWork.setWriteListener(() -> listenerCalled[0] = true);
+
+        try (SqlSession readSession = factory.openReadSession()) {
+            assertSame(replicaSession, readSession);
+        }
+        try (SqlSession writeSession = factory.openSession()) {
+            writeSession.update("updateMessage", 1);
+        }
+        assertTrue(unitOfWork.hasWrites());
+        assertTrue(listenerCalled[0]);
+        try (SqlSession readSession = factory.openReadSession()) {
+            readSession.selectOne("getMessage", 1);
+        }
+        verify(primarySession).selectOne("getMessage", 1);
+        verify(replicaSession, never()).selectOne(anyString(), any());
+    }
+
+    @Test
+    void testReadYourWritesTracker_shouldForgetAfterWindow() {
+        final Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(1000L);
+        final ReadYourWritesTracker tracker = new ReadYourWritesTracker(100, clock);
+
+        assertFalse(tracker.wroteRecently("token"));
+        tracker.recordWrite("token");
+        when(clock.millis()).thenReturn(1099L);
+        assertTrue(tracker.wroteRecently("token"));
+        when(clock.millis()).thenReturn(1100L);
+        assertFalse(tracker.wroteRecently("token"));
+        assertEquals(0, tracker.size());
+    }
+}
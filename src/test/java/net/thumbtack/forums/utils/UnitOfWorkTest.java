@@ -0,0 +1,170 @@
+package net.thumbtack.forums.utils;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnitOfWorkTest {
+    private SqlSessionFactory mockSqlSessionFactory;
+    private SqlSession mockSqlSession;
+    private UnitOfWorkSqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void initMocks() {
+        mockSqlSessionFactory = mock(SqlSessionFactory.class);
+        mockSqlSession = mock(SqlSession.class);
+        when(mockSqlSessionFactory.openSession())
+                .thenReturn(mockSqlSession);
+        sqlSessionFactory = new UnitOfWorkSqlSessionFactory(mockSqlSessionFactory);
+    }
+
+    @AfterEach
+    void unbindUnitOfWork() {
+        final UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.end(false);
+        }
+    }
+
+    @Test
+    void testOpenSession_noUnitOfWork_shouldOpenNewSessionAndRunActionsAtOnce() {
+        assertSame(mockSqlSession, sqlSessionFactory.openSession());
+
+        final List<String> actions = new ArrayList<>();
+        UnitOfWork.afterCommit(() -> actions.add("commit"));
+        UnitOfWork.afterCompletion(() -> actions.add("completion"));
+        assertEquals(Arrays.asList("commit", "completion"), actions);
+    }
+
+    @Test
+    void testComplete_shouldShareSessionAndCommitOnce() {
+        final UnitOfWork unitOfWork = UnitOfWork.begin();
+        final List<String> actions = new ArrayList<>();
+
+        try (SqlSession first = sqlSessionFactory.openSession()) {
+            first.update("first");
+            first.commit();
+        }
+        UnitOfWork.afterCommit(() -> actions.add("commit"));
+        UnitOfWork.afterCompletion(() -> actions.add("completion"));
+        try (SqlSession second = sqlSessionFactory.openSession()) {
+            second.update("second");
+            second.commit();
+        }
+        assertTrue(unitOfWork.isActive());
+        assertTrue(actions.isEmpty());
+        verify(mockSqlSessionFactory, times(1)).openSession();
+        verify(mockSqlSession).update("first");
+        verify(mockSqlSession).update("second");
+        verify(mockSqlSession, never()).commit();
+        verify(mockSqlSession, never()).close();
+        verify(mockSqlSession, times(2)).clearCache();
+
+        unitOfWork.end(true);
+
+        assertNull(UnitOfWork.current());
+        verify(mockSqlSession).commit();
+        verify(mockSqlSession).close();
+        assertEquals(Arrays.asList("commit", "completion"), actions);
+    }
+
+    @Test
+    void testComplete_daoRolledBack_shouldRollbackWholeUnit() {
+        final UnitOfWork unitOfWork = UnitOfWork.begin();
+        final List<String> actions = new ArrayList<>();
+
+        try (SqlSession first = sqlSessionFactory.openSession()) {
+            first.update("first");
+            first.commit();
+        }
+        UnitOfWork.afterCommit(() -> actions.add("commit"));
+        try (SqlSession second = sqlSessionFactory.openSession()) {
+            second.rollback();
+        }
+        UnitOfWork.afterCompletion(() -> actions.add("completion"));
+
+        unitOfWork.complete(true);
+
+        verify(mockSqlSession, never()).commit();
+        verify(mockSqlSession, times(2)).rollback();
+        verify(mockSqlSession).close();
+        assertEquals(Collections.singletonList("completion"), actions);
+        assertFalse(unitOfWork.isActive());
+
+        // the unit stays bound and starts a new transaction on the next DAO call
+        assertNotSame(mockSqlSession, sqlSessionFactory.openSession());
+        assertTrue(unitOfWork.isActive());
+        verify(mockSqlSessionFactory, times(2)).openSession();
+    }
+
+    @Test
+    void testJoin_noUnitOfWork_shouldCommitScopeAsOneUnit() {
+        final List<String> actions = new ArrayList<>();
+
+        try (UnitOfWork.Scope scope = UnitOfWork.join()) {
+            try (SqlSession first = sqlSessionFactory.openSession()) {
+                first.update("first");
+                first.commit();
+            }
+            UnitOfWork.afterCommit(() -> actions.add("commit"));
+            try (SqlSession second = sqlSessionFactory.openSession()) {
+                second.update("second");
+                second.commit();
+            }
+            verify(mockSqlSession, never()).commit();
+            assertTrue(actions.isEmpty());
+            scope.success();
+        }
+
+        assertNull(UnitOfWork.current());
+        verify(mockSqlSessionFactory, times(1)).openSession();
+        verify(mockSqlSession).commit();
+        verify(mockSqlSession).close();
+        assertEquals(Collections.singletonList("commit"), actions);
+    }
+
+    @Test
+    void testJoin_noSuccess_shouldRollbackScope() {
+        try (UnitOfWork.Scope ignored = UnitOfWork.join()) {
+            try (SqlSession first = sqlSessionFactory.openSession()) {
+                first.update("first");
+                first.commit();
+            }
+        }
+
+        assertNull(UnitOfWork.current());
+        verify(mockSqlSession, never()).commit();
+        verify(mockSqlSession).rollback();
+        verify(mockSqlSession).close();
+    }
+
+    @Test
+    void testJoin_boundUnitOfWork_shouldLeaveCompletionToUnit() {
+        final UnitOfWork unitOfWork = UnitOfWork.begin();
+
+        try (UnitOfWork.Scope scope = UnitOfWork.join()) {
+            try (SqlSession first = sqlSessionFactory.openSession()) {
+                first.update("first");
+                first.commit();
+            }
+            scope.success();
+        }
+
+        assertSame(unitOfWork, UnitOfWork.current());
+        assertTrue(unitOfWork.isActive());
+        verify(mockSqlSession, never()).commit();
+
+        unitOfWork.end(true);
+        verify(mockSqlSession).commit();
+    }
+}